@@ -0,0 +1,73 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.exceptions.AudioFilterException;
+import ru.joysi.audio.processing.filters.Biquad;
+import ru.joysi.audio.processing.filters.BiquadType;
+import ru.joysi.audio.processing.filters.MultiChannelBiquad;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Биквады: каналы по очереди ({@link Biquad} на канал) против раскладки "структура массивов"
+ * ({@link MultiChannelBiquad}) и стоимость пересчета коэффициентов на каждый блок
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BiquadBenchmark {
+    @Param({"2", "8"})
+    public int channels;
+
+    @Param({"512"})
+    public int blockSize;
+
+    private double[][] audio;
+    private Biquad[] perChannel;
+    private MultiChannelBiquad multi;
+    private double cutoff;
+
+    @Setup
+    public void setup() throws AudioFilterException {
+        AudioContext context = new AudioContext(48000);
+        audio = new double[channels][blockSize];
+        perChannel = new Biquad[channels];
+        for (int c = 0; c < channels; c++) {
+            for (int i = 0; i < blockSize; i++)
+                audio[c][i] = Math.sin(0.03 * (c + 1) * i);
+            perChannel[c] = new Biquad(context, BiquadType.LOW_PASS, 2000, 0.7071, 0);
+        }
+        multi = new MultiChannelBiquad(context, channels, BiquadType.LOW_PASS, 2000, 0.7071, 0);
+    }
+
+    @Benchmark
+    public double[][] perChannel(SampleCounter counter) {
+        for (int c = 0; c < channels; c++)
+            perChannel[c].process(audio[c], audio[c], blockSize);
+        counter.samples += (long) channels * blockSize;
+        return audio;
+    }
+
+    @Benchmark
+    public double[][] structureOfArrays(SampleCounter counter) {
+        multi.process(audio, 0, blockSize);
+        counter.samples += (long) channels * blockSize;
+        return audio;
+    }
+
+    @Benchmark
+    public double[][] modulatedPerBlock(SampleCounter counter) {
+        // Срез "плавает" каждый блок по 64 отсчета - коэффициенты пересчитываются 8 раз на блок
+        for (int offset = 0; offset < blockSize; offset += 64) {
+            cutoff = cutoff > 8000 ? 500 : cutoff + 37;
+            multi.setParameters(BiquadType.LOW_PASS, cutoff, 0.7071, 0);
+            multi.process(audio, offset, Math.min(64, blockSize - offset));
+        }
+        counter.samples += (long) channels * blockSize;
+        return audio;
+    }
+}
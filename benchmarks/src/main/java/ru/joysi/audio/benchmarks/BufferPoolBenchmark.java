@@ -0,0 +1,68 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.buffer.BufferPool;
+import ru.joysi.audio.processing.combines.Combines;
+import ru.joysi.audio.processing.filters.Filters;
+import ru.joysi.audio.processing.generators.Generators;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Аккорд из трех нот с огибающей: функции с новыми массивами на каждый вызов против
+ * перегрузок ...Into с буферами из {@link BufferPool}. Выделение памяти - метрика gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BufferPoolBenchmark {
+    private static final double[] CHORD = {261.63, 329.63, 392.0};
+
+    private AudioContext context;
+    private int length;
+    private double[] result;
+
+    @Setup
+    public void setup() {
+        context = new AudioContext(22050);
+        length = Generators.getSampleCount(context, 1000);
+        result = new double[length];
+    }
+
+    @Benchmark
+    public double[] allocating(SampleCounter counter) {
+        double[] mix = Combines.combineWithNormalize(
+                Generators.sineGenerator(context, CHORD[0], 1000, 0.5),
+                Generators.sineGenerator(context, CHORD[1], 1000, 0.5),
+                Generators.sineGenerator(context, CHORD[2], 1000, 0.5));
+        double[] envelope = Filters.getASDRarray(context, 150, 1000, 0.1);
+        for (int i = 0; i < mix.length; i++)
+            mix[i] *= envelope[i];
+        counter.samples += mix.length;
+        return mix;
+    }
+
+    @Benchmark
+    public double[] pooled(SampleCounter counter) {
+        double[] a = BufferPool.acquireDoubles(length);
+        double[] b = BufferPool.acquireDoubles(length);
+        double[] c = BufferPool.acquireDoubles(length);
+        Generators.sineGeneratorInto(context, CHORD[0], 0.5, a, 0, length);
+        Generators.sineGeneratorInto(context, CHORD[1], 0.5, b, 0, length);
+        Generators.sineGeneratorInto(context, CHORD[2], 0.5, c, 0, length);
+        // Буферы пула длиннее нужного (класс размера) - складываются только первые length отсчетов
+        Combines.combineWithNormalizeInto(result, 0, length, a, b, c);
+        Filters.getASDRarrayInto(context, 150, 1000, 0.1, a, 0);
+        for (int i = 0; i < length; i++)
+            result[i] *= a[i];
+        BufferPool.release(a);
+        BufferPool.release(b);
+        BufferPool.release(c);
+        counter.samples += length;
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.processing.combines.Combines;
+import ru.joysi.audio.processing.generators.Generators;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сумматоры {@link Combines}; отсчеты считаются по выходу (длина x количество входов)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombinesBenchmark {
+    @Param({"2", "8", "64", "128"})
+    public int inputs;
+
+    private double[][] audio;
+
+    @Setup
+    public void setup() {
+        audio = new double[inputs][];
+        for (int i = 0; i < inputs; i++)
+            audio[i] = Generators.sineGenerator(Generators.musNotesFrequency[24 + i % 48], 1000, 1.0 / inputs);
+    }
+
+    @Benchmark
+    public double[] combineWithNormalize(SampleCounter counter) {
+        counter.samples += (long) inputs * audio[0].length;
+        return Combines.combineWithNormalize(audio);
+    }
+
+    @Benchmark
+    public double[] combineWithNormalizeParallel(SampleCounter counter) {
+        counter.samples += (long) inputs * audio[0].length;
+        return Combines.combineWithNormalizeParallel(audio);
+    }
+
+    @Benchmark
+    public double[] combineWithLinearDynaRangeCompression(SampleCounter counter) {
+        counter.samples += (long) inputs * audio[0].length;
+        return Combines.combineWithLinearDynaRangeCompression(0.8, audio);
+    }
+
+    @Benchmark
+    public double[] combineWithLnDynaRangeCompression(SampleCounter counter) {
+        counter.samples += (long) inputs * audio[0].length;
+        return Combines.combineWithLnDynaRangeCompression(0.8, audio);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.processing.fft.ConvolutionKernel;
+import ru.joysi.audio.processing.fft.Fft;
+import ru.joysi.audio.processing.fft.PartitionedConvolver;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Свертка с импульсной характеристикой 2 с при 48 кГц (96000 отсчетов) разбиением на блоки.
+ * Запас реального времени - отношение samples/s к 48000.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConvolutionBenchmark {
+    @Param({"256", "1024"})
+    public int blockSize;
+
+    private PartitionedConvolver convolver;
+    private Fft fft;
+    private double[] block;
+    private double[] spectrum;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        double[] ir = new double[96000];
+        for (int i = 0; i < ir.length; i++)
+            ir[i] = (random.nextDouble() * 2 - 1) * Math.exp(-3.0 * i / ir.length);
+        convolver = new PartitionedConvolver(new ConvolutionKernel(ir, blockSize));
+        fft = Fft.forSize(2 * blockSize);
+        block = new double[blockSize];
+        spectrum = new double[2 * blockSize];
+        for (int i = 0; i < blockSize; i++)
+            block[i] = random.nextDouble() * 2 - 1;
+    }
+
+    @Benchmark
+    public double[] partitioned(SampleCounter counter) {
+        convolver.process(block, block, blockSize);
+        counter.samples += blockSize;
+        return block;
+    }
+
+    @Benchmark
+    public double[] realForward(SampleCounter counter) {
+        System.arraycopy(block, 0, spectrum, 0, blockSize);
+        fft.realForward(spectrum);
+        counter.samples += spectrum.length;
+        return spectrum;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.GlobalHelper;
+import ru.joysi.audio.exceptions.AudioFilterException;
+import ru.joysi.audio.processing.filters.AdsrEnvelope;
+import ru.joysi.audio.processing.filters.Filters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Огибающие: построение массива {@link Filters#getASDRarray} против применения {@link AdsrEnvelope} на месте
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FiltersBenchmark {
+    private AdsrEnvelope envelope;
+    private double[] block;
+
+    @Setup
+    public void setup() throws AudioFilterException {
+        envelope = new AdsrEnvelope(150, 850, 0.1, 200);
+        block = new double[GlobalHelper.samplePerSec];
+    }
+
+    @Benchmark
+    public double[] getASDRarray(SampleCounter counter) {
+        double[] res = Filters.getASDRarray(150, 1000, 0.1);
+        counter.samples += res.length;
+        return res;
+    }
+
+    @Benchmark
+    public double[] adsrEnvelope(SampleCounter counter) {
+        envelope.reset();
+        envelope.noteOn();
+        envelope.process(block, block, block.length);
+        counter.samples += block.length;
+        return block;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.GlobalHelper;
+import ru.joysi.audio.processing.generators.Generators;
+import ru.joysi.audio.processing.generators.Oscillator;
+import ru.joysi.audio.processing.generators.Waveform;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генераторы: функции {@link Generators} против осцилляторов с аккумулятором фазы
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneratorsBenchmark {
+    @Param({"SINE", "SAW", "TRIANGLE", "RECTANGLE", "NOISE"})
+    public Waveform waveform;
+
+    @Param({"1000"})
+    public int timeMs;
+
+    private Oscillator oscillator;
+    private double[] buffer;
+
+    @Setup
+    public void setup() {
+        oscillator = Oscillator.create(waveform, 440, 1);
+        buffer = new double[GlobalHelper.samplePerSec * timeMs / 1000];
+    }
+
+    @Benchmark
+    public double[] generator(SampleCounter counter) {
+        double[] data;
+        switch (waveform) {
+            case SINE:      data = Generators.sineGenerator(440, timeMs, 1); break;
+            case SAW:       data = Generators.sawGenerator(440, timeMs, 1); break;
+            case TRIANGLE:  data = Generators.triangleGenerator(440, timeMs, 1); break;
+            case RECTANGLE: data = Generators.rectangleGenerator(440, timeMs, 1); break;
+            default:        data = Generators.randomGenerator(timeMs, 1);
+        }
+        counter.samples += data.length;
+        return data;
+    }
+
+    @Benchmark
+    public double[] oscillator(SampleCounter counter) {
+        oscillator.render(buffer, 0, buffer.length);
+        counter.samples += buffer.length;
+        return buffer;
+    }
+}
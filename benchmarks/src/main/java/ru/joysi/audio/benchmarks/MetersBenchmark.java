@@ -0,0 +1,64 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.meters.LoudnessMeter;
+import ru.joysi.audio.processing.meters.RmsMeter;
+import ru.joysi.audio.processing.meters.TruePeakMeter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость измерителей-отводов на блок 512 отсчетов (обработка на месте, без копирования)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetersBenchmark {
+    private static final int BLOCK = 512;
+
+    private double[] block;
+    private double[][] stereo;
+    private RmsMeter rms;
+    private TruePeakMeter truePeak;
+    private LoudnessMeter loudness;
+
+    @Setup
+    public void setup() {
+        AudioContext context = new AudioContext(48000);
+        block = new double[BLOCK];
+        stereo = new double[2][BLOCK];
+        for (int i = 0; i < BLOCK; i++) {
+            block[i] = 0.5 * Math.sin(0.05 * i);
+            stereo[0][i] = block[i];
+            stereo[1][i] = 0.5 * Math.cos(0.07 * i);
+        }
+        rms = new RmsMeter(context);
+        truePeak = new TruePeakMeter();
+        loudness = new LoudnessMeter(context, 2);
+    }
+
+    @Benchmark
+    public double[] rms(SampleCounter counter) {
+        rms.process(block, block, BLOCK);
+        counter.samples += BLOCK;
+        return block;
+    }
+
+    @Benchmark
+    public double[] truePeak(SampleCounter counter) {
+        truePeak.process(block, block, BLOCK);
+        counter.samples += BLOCK;
+        return block;
+    }
+
+    @Benchmark
+    public double[][] loudnessStereo(SampleCounter counter) {
+        loudness.analyze(stereo, 0, BLOCK);
+        counter.samples += 2 * BLOCK;
+        return stereo;
+    }
+}
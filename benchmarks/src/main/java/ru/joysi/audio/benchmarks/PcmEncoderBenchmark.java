@@ -0,0 +1,64 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.file.PcmEncoder;
+import ru.joysi.audio.file.SampleFormat;
+import ru.joysi.audio.processing.generators.Generators;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование блока отсчетов в буфер: {@link PcmEncoder} для каждого формата против
+ * прежней схемы с поотсчетным putShort(Short.reverseBytes(...))
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PcmEncoderBenchmark {
+    private static final int BLOCK = 4096;
+
+    @Param({"PCM_8", "PCM_16", "PCM_24", "PCM_32", "FLOAT_32"})
+    public SampleFormat format;
+
+    @Param({"false", "true"})
+    public boolean dither;
+
+    private double[] audio;
+    private PcmEncoder encoder;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        audio = Generators.sineGenerator(440, 1000, 0.9);
+        encoder = new PcmEncoder(format, BLOCK, dither);
+        buffer = ByteBuffer.allocateDirect(BLOCK * 4).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Benchmark
+    public ByteBuffer encode(SampleCounter counter) {
+        for (int off = 0; off + BLOCK <= audio.length; off += BLOCK) {
+            buffer.clear();
+            encoder.quantize(audio, off, BLOCK, 0, 1);
+            encoder.pack(BLOCK, buffer);
+        }
+        counter.samples += audio.length - audio.length % BLOCK;
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer reverseBytes16(SampleCounter counter) {
+        ByteBuffer bigEndian = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        for (int off = 0; off + BLOCK <= audio.length; off += BLOCK) {
+            bigEndian.clear();
+            for (int i = off; i < off + BLOCK; i++)
+                bigEndian.putShort(Short.reverseBytes((short) (audio[i] * Short.MAX_VALUE)));
+        }
+        counter.samples += audio.length - audio.length % BLOCK;
+        return bigEndian;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.generators.Generators;
+import ru.joysi.audio.processing.generators.Waveform;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Длинный тон 440 Гц (10 с при 44100 Гц): расчет каждого отсчета против расчета 22 периодов
+ * (2205 отсчетов) и размножения через System.arraycopy.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PeriodicGeneratorBenchmark {
+    @Param({"SINE", "TRIANGLE"})
+    public Waveform waveform;
+
+    private AudioContext context;
+    private double[] out;
+
+    @Setup
+    public void setup() {
+        context = new AudioContext(44100);
+        out = new double[44100 * 10];
+    }
+
+    @Benchmark
+    public double[] direct(SampleCounter counter) {
+        if (waveform == Waveform.SINE)
+            Generators.sineGeneratorInto(context, 440, 0.5, 0, out, 0, out.length);
+        else
+            Generators.triangleGeneratorInto(context, 440, 0.5, 0, out, 0, out.length);
+        counter.samples += out.length;
+        return out;
+    }
+
+    @Benchmark
+    public double[] periodic(SampleCounter counter) {
+        Generators.periodicGeneratorInto(context, waveform, 440, 0.5, 0, out, 0, out.length);
+        counter.samples += out.length;
+        return out;
+    }
+}
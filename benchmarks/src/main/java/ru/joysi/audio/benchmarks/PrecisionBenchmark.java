@@ -0,0 +1,60 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.processing.combines.Combines;
+import ru.joysi.audio.processing.generators.Generators;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение сумматоров двойной и одинарной точности на больших миксах (10 сек на вход):
+ * рабочий набор не помещается в кэш, поэтому скорость ограничена пропускной способностью памяти
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrecisionBenchmark {
+    @Param({"16", "64", "128"})
+    public int inputs;
+
+    private double[][] audio;
+    private float[][] audioFloat;
+
+    @Setup
+    public void setup() {
+        audio = new double[inputs][];
+        audioFloat = new float[inputs][];
+        for (int i = 0; i < inputs; i++) {
+            double freq = Generators.musNotesFrequency[24 + i % 48];
+            audio[i] = Generators.sineGenerator(freq, 10000, 1.0 / inputs);
+            audioFloat[i] = Generators.sineGeneratorFloat(freq, 10000, 1.0 / inputs);
+        }
+    }
+
+    @Benchmark
+    public double[] mixDouble(SampleCounter counter) {
+        counter.samples += (long) inputs * audio[0].length;
+        return Combines.combineWithNormalize(audio);
+    }
+
+    @Benchmark
+    public float[] mixFloat(SampleCounter counter) {
+        counter.samples += (long) inputs * audioFloat[0].length;
+        return Combines.combineWithNormalize(audioFloat);
+    }
+
+    @Benchmark
+    public double[] mixDoubleParallel(SampleCounter counter) {
+        counter.samples += (long) inputs * audio[0].length;
+        return Combines.combineWithNormalizeParallel(audio);
+    }
+
+    @Benchmark
+    public float[] mixFloatParallel(SampleCounter counter) {
+        counter.samples += (long) inputs * audioFloat[0].length;
+        return Combines.combineWithNormalizeParallel(audioFloat);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.filters.Filters;
+import ru.joysi.audio.processing.generators.Generators;
+import ru.joysi.audio.processing.generators.RenderCache;
+import ru.joysi.audio.processing.generators.Waveform;
+
+import java.nio.DoubleBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нота с огибающей: расчет тона и огибающей на каждый вызов против чтения из {@link RenderCache}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderCacheBenchmark {
+    private static final double FREQ = 261.63;
+
+    private AudioContext context;
+    private RenderCache cache;
+    private double[] tone;
+    private double[] envelope;
+    private double[] result;
+
+    @Setup
+    public void setup() {
+        context = new AudioContext(22050);
+        cache = new RenderCache(64L << 20);
+        int length = Generators.getSampleCount(context, 1000);
+        tone = new double[length];
+        envelope = new double[Filters.getASDRlength(context, 1000)];
+        result = new double[length];
+    }
+
+    @Benchmark
+    public double[] render(SampleCounter counter) {
+        Generators.sineGeneratorInto(context, FREQ, 0.2, 0.25, tone, 0, tone.length);
+        Filters.getASDRarrayInto(context, 150, 1000, 0.1, envelope, 0);
+        return apply(tone, envelope, counter);
+    }
+
+    @Benchmark
+    public double[] cached(SampleCounter counter) {
+        DoubleBuffer t = cache.tone(context, Waveform.SINE, FREQ, 1000, 0.2, 0.25);
+        DoubleBuffer e = cache.envelope(context, 150, 1000, 0.1);
+        t.get(tone);
+        e.get(envelope);
+        return apply(tone, envelope, counter);
+    }
+
+    private double[] apply(double[] t, double[] e, SampleCounter counter) {
+        int n = Math.min(t.length, e.length);
+        for (int i = 0; i < n; i++)
+            result[i] = t[i] * e[i];
+        counter.samples += n;
+        return result;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.processing.resample.ResampleQuality;
+import ru.joysi.audio.processing.resample.Resampler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Потоковая передискретизация блоками: стоимость пресетов качества для типовых отношений частот
+ * (счетчик - входные отсчеты)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResamplerBenchmark {
+    @Param({"22050:44100", "44100:48000", "48000:44100"})
+    public String rates;
+
+    @Param({"LOW", "MEDIUM", "HIGH"})
+    public ResampleQuality quality;
+
+    @Param({"4096"})
+    public int blockSize;
+
+    private Resampler resampler;
+    private double[] in;
+    private double[] out;
+
+    @Setup
+    public void setup() {
+        String[] r = rates.split(":");
+        resampler = new Resampler(Integer.parseInt(r[0]), Integer.parseInt(r[1]), quality);
+        in = new double[blockSize];
+        for (int i = 0; i < blockSize; i++)
+            in[i] = Math.sin(0.05 * i);
+        out = new double[resampler.getMaxOutput(blockSize)];
+    }
+
+    @Benchmark
+    public double[] process(SampleCounter counter) {
+        resampler.process(in, 0, in.length, out, 0);
+        counter.samples += in.length;
+        return out;
+    }
+}
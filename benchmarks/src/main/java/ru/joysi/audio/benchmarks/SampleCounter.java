@@ -0,0 +1,21 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Счетчик обработанных отсчетов: JMH выводит его как пропускную способность в отсчетах/сек
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class SampleCounter {
+    public long samples;
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        samples = 0;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.buffer.SampleStore;
+import ru.joysi.audio.processing.combines.Combines;
+import ru.joysi.audio.processing.generators.Generators;
+import ru.joysi.audio.processing.generators.Waveform;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сведение четырех дорожек по 60 с при 48 кГц: массивы в куче (новый результат на каждый вызов)
+ * против хранилищ {@link SampleStore} вне кучи. Выделение памяти - метрика gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SampleStoreBenchmark {
+    private static final double[] FREQS = {110, 220, 330, 440};
+
+    private double[][] tracks;
+    private SampleStore[] stores;
+    private SampleStore mix;
+
+    @Setup
+    public void setup() {
+        AudioContext context = new AudioContext(48000);
+        int length = 48000 * 60;
+        tracks = new double[FREQS.length][length];
+        stores = new SampleStore[FREQS.length];
+        for (int t = 0; t < FREQS.length; t++) {
+            Generators.periodicGeneratorInto(context, Waveform.SINE, FREQS[t], 0.5, 0, tracks[t], 0, length);
+            stores[t] = SampleStore.allocate(length);
+            stores[t].write(0, tracks[t], 0, length);
+        }
+        mix = SampleStore.allocate(length);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (SampleStore store : stores)
+            store.close();
+        mix.close();
+    }
+
+    @Benchmark
+    public double[] heap(SampleCounter counter) {
+        double[] result = Combines.combineWithNormalize(tracks);
+        counter.samples += result.length;
+        return result;
+    }
+
+    @Benchmark
+    public SampleStore offHeap(SampleCounter counter) {
+        Combines.combineWithNormalize(mix, stores);
+        counter.samples += mix.length();
+        return mix;
+    }
+}
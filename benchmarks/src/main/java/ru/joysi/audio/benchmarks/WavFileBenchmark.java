@@ -0,0 +1,63 @@
+package ru.joysi.audio.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.joysi.audio.file.SampleFormat;
+import ru.joysi.audio.file.WavFile;
+import ru.joysi.audio.processing.generators.Generators;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование и запись Wav-файлов (моно/стерео/5.1) во временный файл
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WavFileBenchmark {
+    @Param({"1000", "10000"})
+    public int timeMs;
+
+    private double[] right;
+    private double[] left;
+    private double[][] surround;
+    private Path path;
+
+    @Setup
+    public void setup() throws IOException {
+        right = Generators.sineGenerator(440, timeMs, 0.5);
+        left = Generators.sineGenerator(660, timeMs, 0.5);
+        surround = new double[6][];
+        for (int c = 0; c < surround.length; c++)
+            surround[c] = Generators.sineGenerator(220 * (c + 1), timeMs, 0.5);
+        path = Files.createTempFile("bench", ".wav");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public boolean saveMonoToFile(SampleCounter counter) {
+        counter.samples += right.length;
+        return WavFile.saveMonoToFile(path, right);
+    }
+
+    @Benchmark
+    public boolean saveStereoToFile(SampleCounter counter) {
+        counter.samples += 2L * right.length;
+        return WavFile.saveStereoToFile(path, right, left);
+    }
+
+    @Benchmark
+    public boolean saveSurroundToFile(SampleCounter counter) {
+        counter.samples += (long) surround.length * surround[0].length;
+        return WavFile.saveToFile(path, SampleFormat.PCM_24, surround);
+    }
+}
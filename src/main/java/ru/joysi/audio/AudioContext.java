@@ -0,0 +1,155 @@
+package ru.joysi.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Неизменяемые параметры рендера: частота дискретизации, разрядность, размер блока,
+ * длительность семпла по умолчанию и пул потоков для параллельных операций.
+ * Контекст передается генераторам, фильтрам, сумматорам и {@link ru.joysi.audio.file.WavFile},
+ * поэтому задания с разной частотой (например 22050 и 48000) выполняются в одном процессе одновременно.
+ * Контекст по умолчанию читается лениво при первом обращении из ресурса classpath
+ * {@value #CONFIG_RESOURCE}; при отсутствии ресурса или ошибке разбора берутся значения по умолчанию.
+ */
+public final class AudioContext {
+    public static final String CONFIG_RESOURCE = "/config.properties";
+
+    // Значения по умолчанию (если параметр не задан в конфигурации)
+    public static final int DEFAULT_SAMPLE_RATE = 22050;
+    public static final int DEFAULT_BITS_PER_SAMPLE = 16;
+    public static final int DEFAULT_BLOCK_SIZE = 512;
+    public static final int DEFAULT_SAMPLE_MS_TIME = 1000;
+
+    private final int sampleRate;
+    private final int bitsPerSample;
+    private final int blockSize;
+    private final int sampleMsTime;
+    private final ForkJoinPool pool;
+
+    /**
+     * Контекст с заданной частотой, остальные параметры - по умолчанию (пул - общий ForkJoinPool)
+     * @param sampleRate частота дискретизации
+     */
+    public AudioContext(int sampleRate) {
+        this(sampleRate, DEFAULT_BITS_PER_SAMPLE, DEFAULT_BLOCK_SIZE, DEFAULT_SAMPLE_MS_TIME, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param sampleRate частота дискретизации
+     * @param bitsPerSample разрядность данных в битах
+     * @param blockSize размер блока обработки в отсчетах
+     * @param sampleMsTime длительность семпла по умолчанию в мсек
+     * @param pool пул потоков для параллельных операций
+     */
+    public AudioContext(int sampleRate, int bitsPerSample, int blockSize, int sampleMsTime, ForkJoinPool pool) {
+        if (sampleRate <= 0 || bitsPerSample <= 0 || blockSize <= 0 || sampleMsTime < 0 || pool == null)
+            throw new IllegalArgumentException("Incorrect audio context parameters");
+        this.sampleRate = sampleRate;
+        this.bitsPerSample = bitsPerSample;
+        this.blockSize = blockSize;
+        this.sampleMsTime = sampleMsTime;
+        this.pool = pool;
+    }
+
+    /**
+     * @return контекст по умолчанию (из ресурса {@value #CONFIG_RESOURCE})
+     */
+    public static AudioContext getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    /**
+     * @return свойства из ресурса {@value #CONFIG_RESOURCE} (сообщения об ошибках и т.п.)
+     */
+    public static Properties getProperties() {
+        return Holder.PROPERTIES;
+    }
+
+    /**
+     * Контекст по свойствам audio.samplePerSec, audio.bitsPerSample, audio.blockSize, audio.sampleMsTime
+     * @param properties свойства
+     * @return контекст (отсутствующие, нечисловые и вне допустимого диапазона значения заменяются
+     * значениями по умолчанию)
+     */
+    public static AudioContext fromProperties(Properties properties) {
+        return new AudioContext(
+                intProperty(properties, "audio.samplePerSec", 1, DEFAULT_SAMPLE_RATE),
+                intProperty(properties, "audio.bitsPerSample", 1, DEFAULT_BITS_PER_SAMPLE),
+                intProperty(properties, "audio.blockSize", 1, DEFAULT_BLOCK_SIZE),
+                intProperty(properties, "audio.sampleMsTime", 0, DEFAULT_SAMPLE_MS_TIME),
+                ForkJoinPool.commonPool());
+    }
+
+    public AudioContext withSampleRate(int sampleRate) {
+        return new AudioContext(sampleRate, bitsPerSample, blockSize, sampleMsTime, pool);
+    }
+
+    public AudioContext withBlockSize(int blockSize) {
+        return new AudioContext(sampleRate, bitsPerSample, blockSize, sampleMsTime, pool);
+    }
+
+    public AudioContext withPool(ForkJoinPool pool) {
+        return new AudioContext(sampleRate, bitsPerSample, blockSize, sampleMsTime, pool);
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getSampleMsTime() {
+        return sampleMsTime;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    @Override
+    public String toString() {
+        return "AudioContext{" + sampleRate + "Hz, " + bitsPerSample + "bit, block=" + blockSize + "}";
+    }
+
+    // Значение меньше min отклоняется, как и нечисловое: исключение из конструктора в инициализаторе
+    // Holder сделало бы класс контекста непригодным (NoClassDefFoundError)
+    private static int intProperty(Properties properties, String key, int min, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null)
+            return defaultValue;
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed >= min)
+                return parsed;
+            ExceptionHandler.log(new IllegalArgumentException(key + " < " + min), key + "=" + value);
+        } catch (NumberFormatException e) {
+            ExceptionHandler.log(e, key + "=" + value);
+        }
+        return defaultValue;
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream in = AudioContext.class.getResourceAsStream(CONFIG_RESOURCE)) {
+            if (in != null)
+                properties.load(in);
+        } catch (IOException e) {
+            ExceptionHandler.log(e, CONFIG_RESOURCE);
+        }
+        return properties;
+    }
+
+    // Ленивая инициализация при первом обращении (идиома holder)
+    private static final class Holder {
+        static final Properties PROPERTIES = load();
+        static final AudioContext DEFAULT = fromProperties(PROPERTIES);
+    }
+}
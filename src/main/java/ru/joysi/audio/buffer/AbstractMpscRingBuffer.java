@@ -0,0 +1,88 @@
+package ru.joysi.audio.buffer;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Общая логика позиций кольцевого буфера для нескольких писателей и одного читателя (lock-free).
+ * Писатель захватывает непрерывный диапазон позиций CAS-операцией над позицией записи,
+ * копирует блок и публикует каждую ячейку номером круга; читатель забирает только
+ * опубликованный непрерывный префикс. Блок записывается только целиком, поэтому данные
+ * одного писателя никогда не перемежаются чужими.
+ */
+abstract class AbstractMpscRingBuffer {
+    protected final int capacity;
+    protected final int mask;
+    private final int shift;
+    private final Sequence head = new Sequence(); // позиция чтения
+    private final Sequence tail = new Sequence(); // позиция захвата записи
+    private final AtomicIntegerArray published;   // номер круга, опубликованного в ячейке
+
+    AbstractMpscRingBuffer(int capacity) {
+        this.capacity = AbstractSpscRingBuffer.ceilPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+        this.shift = Integer.numberOfTrailingZeros(this.capacity);
+        this.published = new AtomicIntegerArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++)
+            published.set(i, -1);
+    }
+
+    /**
+     * @return количество захваченных писателями отсчетов, еще не прочитанных (включая неопубликованные)
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * @return свободное место в отсчетах
+     */
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Захват диапазона записи целиком (любой писатель)
+     * @param length количество отсчетов
+     * @return начальная позиция диапазона или -1, если места недостаточно
+     */
+    final long claimWrite(int length) {
+        while (true) {
+            long t = tail.get();
+            if (capacity - (t - head.get()) < length)
+                return -1;
+            if (tail.compareAndSet(t, t + length))
+                return t;
+        }
+    }
+
+    final int index(long sequence) {
+        return (int) sequence & mask;
+    }
+
+    // Публикация с конца блока: первая ячейка видна последней, и читатель забирает блок целиком
+    final void publish(long start, int count) {
+        for (long seq = start + count - 1; seq >= start; seq--)
+            published.lazySet((int) seq & mask, (int) (seq >>> shift));
+    }
+
+    // Длина опубликованного непрерывного префикса, не длиннее length (только читатель)
+    final int claimRead(int length) {
+        long h = head.get();
+        int n = 0;
+        while (n < length && published.get((int) (h + n) & mask) == (int) ((h + n) >>> shift))
+            n++;
+        return n;
+    }
+
+    final int readIndex() {
+        return (int) head.get() & mask;
+    }
+
+    final void commitRead(int count) {
+        head.lazySet(head.get() + count);
+    }
+}
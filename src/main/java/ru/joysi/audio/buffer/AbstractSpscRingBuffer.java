@@ -0,0 +1,77 @@
+package ru.joysi.audio.buffer;
+
+/**
+ * Общая логика позиций кольцевого буфера для одного писателя и одного читателя (wait-free).
+ * Каждая сторона кэширует последнюю увиденную позицию другой стороны и перечитывает
+ * volatile-счетчик только когда кэшированного значения не хватает.
+ */
+abstract class AbstractSpscRingBuffer {
+    protected final int capacity;
+    protected final int mask;
+    private final Sequence head = new Sequence(); // позиция чтения
+    private final Sequence tail = new Sequence(); // позиция записи
+    private long cachedHead; // видимая писателю позиция чтения
+    private long cachedTail; // видимая читателю позиция записи
+
+    AbstractSpscRingBuffer(int capacity) {
+        this.capacity = ceilPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+    }
+
+    /**
+     * @return количество отсчетов, доступных для чтения
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * @return свободное место в отсчетах
+     */
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Сколько из length отсчетов можно записать начиная с позиции tail (только писатель)
+    final int claimWrite(int length) {
+        long t = tail.get();
+        if (capacity - (t - cachedHead) < length)
+            cachedHead = head.get();
+        return (int) Math.min(length, capacity - (t - cachedHead));
+    }
+
+    final int writeIndex() {
+        return (int) tail.get() & mask;
+    }
+
+    final void commitWrite(int count) {
+        tail.lazySet(tail.get() + count);
+    }
+
+    // Сколько из length отсчетов можно прочитать начиная с позиции head (только читатель)
+    final int claimRead(int length) {
+        long h = head.get();
+        if (cachedTail - h < length)
+            cachedTail = tail.get();
+        return (int) Math.min(length, cachedTail - h);
+    }
+
+    final int readIndex() {
+        return (int) head.get() & mask;
+    }
+
+    final void commitRead(int count) {
+        head.lazySet(head.get() + count);
+    }
+
+    static int ceilPowerOfTwo(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30)
+            throw new IllegalArgumentException("capacity=" + capacity);
+        int size = Integer.highestOneBit(capacity);
+        return size < capacity ? size << 1 : size;
+    }
+}
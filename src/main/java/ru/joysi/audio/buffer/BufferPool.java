@@ -0,0 +1,152 @@
+package ru.joysi.audio.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Пул рабочих буферов потока по классам размеров (степени двойки от 64 до 2^24 элементов).
+ * Каждый поток держит свои стеки буферов, поэтому выдача и возврат не синхронизируются.
+ * Выданный буфер может быть длиннее запрошенного, содержимое не очищается.
+ * Буфер возвращается в пул того же потока; буферы нестандартной длины и сверх глубины стека
+ * просто отбрасываются сборщику мусора.
+ */
+public final class BufferPool {
+    private static final int MIN_SHIFT = 6;
+    private static final int MAX_SHIFT = 24;
+    private static final int CLASSES = MAX_SHIFT - MIN_SHIFT + 1;
+    // Буферов одного класса на поток
+    private static final int DEPTH = 4;
+
+    private static final ThreadLocal<Pools> pools = ThreadLocal.withInitial(Pools::new);
+
+    private BufferPool() {
+    }
+
+    /**
+     * @param minLength минимальная длина
+     * @return буфер длины не меньше minLength (содержимое не определено)
+     */
+    public static double[] acquireDoubles(int minLength) {
+        int index = sizeClass(minLength);
+        if (index < 0)
+            return new double[minLength];
+        Pools p = pools.get();
+        int count = p.doubleCounts[index];
+        if (count == 0)
+            return new double[1 << (index + MIN_SHIFT)];
+        double[] res = p.doubles[index][--count];
+        p.doubles[index][count] = null;
+        p.doubleCounts[index] = count;
+        return res;
+    }
+
+    /**
+     * Возврат буфера в пул текущего потока
+     * @param buffer буфер (далее не используется вызывающим)
+     */
+    public static void release(double[] buffer) {
+        int index = exactClass(buffer.length);
+        if (index < 0)
+            return;
+        Pools p = pools.get();
+        int count = p.doubleCounts[index];
+        if (count < DEPTH) {
+            p.doubles[index][count] = buffer;
+            p.doubleCounts[index] = count + 1;
+        }
+    }
+
+    /**
+     * @param minLength минимальная длина
+     * @return буфер длины не меньше minLength (содержимое не определено)
+     */
+    public static float[] acquireFloats(int minLength) {
+        int index = sizeClass(minLength);
+        if (index < 0)
+            return new float[minLength];
+        Pools p = pools.get();
+        int count = p.floatCounts[index];
+        if (count == 0)
+            return new float[1 << (index + MIN_SHIFT)];
+        float[] res = p.floats[index][--count];
+        p.floats[index][count] = null;
+        p.floatCounts[index] = count;
+        return res;
+    }
+
+    /**
+     * Возврат буфера в пул текущего потока
+     * @param buffer буфер (далее не используется вызывающим)
+     */
+    public static void release(float[] buffer) {
+        int index = exactClass(buffer.length);
+        if (index < 0)
+            return;
+        Pools p = pools.get();
+        int count = p.floatCounts[index];
+        if (count < DEPTH) {
+            p.floats[index][count] = buffer;
+            p.floatCounts[index] = count + 1;
+        }
+    }
+
+    /**
+     * Direct-буфер (выделение и освобождение direct-памяти особенно дороги)
+     * @param minCapacity минимальная емкость в байтах
+     * @return очищенный (clear) буфер емкостью не меньше minCapacity, порядок байт не определен
+     */
+    public static ByteBuffer acquireDirect(int minCapacity) {
+        int index = sizeClass(minCapacity);
+        if (index < 0)
+            return ByteBuffer.allocateDirect(minCapacity);
+        Pools p = pools.get();
+        int count = p.directCounts[index];
+        if (count == 0)
+            return ByteBuffer.allocateDirect(1 << (index + MIN_SHIFT));
+        ByteBuffer res = p.directs[index][--count];
+        p.directs[index][count] = null;
+        p.directCounts[index] = count;
+        res.clear();
+        return res;
+    }
+
+    /**
+     * Возврат direct-буфера в пул текущего потока
+     * @param buffer буфер, полученный из {@link #acquireDirect(int)}
+     */
+    public static void release(ByteBuffer buffer) {
+        int index = buffer.isDirect() ? exactClass(buffer.capacity()) : -1;
+        if (index < 0)
+            return;
+        Pools p = pools.get();
+        int count = p.directCounts[index];
+        if (count < DEPTH) {
+            p.directs[index][count] = buffer;
+            p.directCounts[index] = count + 1;
+        }
+    }
+
+    // Класс размера для запроса (-1 - больше наибольшего класса)
+    static int sizeClass(int length) {
+        if (length <= 1 << MIN_SHIFT)
+            return 0;
+        int shift = 32 - Integer.numberOfLeadingZeros(length - 1);
+        return shift > MAX_SHIFT ? -1 : shift - MIN_SHIFT;
+    }
+
+    // Класс буфера ровно такой длины (-1 - длина не из пула)
+    private static int exactClass(int length) {
+        if (Integer.bitCount(length) != 1)
+            return -1;
+        int shift = Integer.numberOfTrailingZeros(length);
+        return shift < MIN_SHIFT || shift > MAX_SHIFT ? -1 : shift - MIN_SHIFT;
+    }
+
+    private static final class Pools {
+        final double[][][] doubles = new double[CLASSES][DEPTH][];
+        final int[] doubleCounts = new int[CLASSES];
+        final float[][][] floats = new float[CLASSES][DEPTH][];
+        final int[] floatCounts = new int[CLASSES];
+        final ByteBuffer[][] directs = new ByteBuffer[CLASSES][DEPTH];
+        final int[] directCounts = new int[CLASSES];
+    }
+}
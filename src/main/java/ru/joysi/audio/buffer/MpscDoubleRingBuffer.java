@@ -0,0 +1,51 @@
+package ru.joysi.audio.buffer;
+
+/**
+ * Кольцевой буфер отсчетов double для нескольких писателей и одного читателя (MPSC) без блокировок.
+ * Писатели добавляют блоки целиком (offer), читатель забирает их в порядке захвата позиций.
+ */
+public class MpscDoubleRingBuffer extends AbstractMpscRingBuffer {
+    private final double[] buffer;
+
+    /**
+     * @param capacity минимальная емкость в отсчетах (округляется вверх до степени двойки)
+     */
+    public MpscDoubleRingBuffer(int capacity) {
+        super(capacity);
+        buffer = new double[this.capacity];
+    }
+
+    /**
+     * Добавление блока целиком (любой поток-писатель)
+     * @return false - если места недостаточно (ничего не записано)
+     */
+    public boolean offer(double[] src, int offset, int length) {
+        if (length > capacity)
+            throw new IllegalArgumentException("Block is larger than buffer: " + length);
+        long start = claimWrite(length);
+        if (start < 0)
+            return false;
+        int idx = index(start);
+        int first = Math.min(length, capacity - idx);
+        System.arraycopy(src, offset, buffer, idx, first);
+        System.arraycopy(src, offset + first, buffer, 0, length - first);
+        publish(start, length);
+        return true;
+    }
+
+    /**
+     * Чтение блока (только поток-читатель)
+     * @return количество прочитанных отсчетов (меньше length, если опубликованных данных недостаточно)
+     */
+    public int read(double[] dst, int offset, int length) {
+        int n = claimRead(length);
+        if (n <= 0)
+            return 0;
+        int idx = readIndex();
+        int first = Math.min(n, capacity - idx);
+        System.arraycopy(buffer, idx, dst, offset, first);
+        System.arraycopy(buffer, 0, dst, offset + first, n - first);
+        commitRead(n);
+        return n;
+    }
+}
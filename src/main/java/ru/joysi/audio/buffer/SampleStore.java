@@ -0,0 +1,229 @@
+package ru.joysi.audio.buffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Хранилище отсчетов (double) вне кучи с индексацией long - дорожка многочасовой сессии.
+ * Данные лежат сегментами по 2^20 отсчетов (8Мб) в direct-буферах или в отображенных в память
+ * частях рабочего файла; сегмент создается при первом обращении (заполнен нулями).
+ * Размер ограничен памятью процесса или диском, а не кучей и пределом длины массива, сборщик мусора
+ * данные не копирует и не просматривает. Обмен с кодом на массивах - блочное чтение, запись и
+ * сложение участков ({@link #read}, {@link #write}, {@link #add}).
+ * Хранилище не потокобезопасно: одна дорожка - один поток.
+ */
+public final class SampleStore implements Closeable {
+    private static final int SEGMENT_SHIFT = 20;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final long length;
+    private final FileChannel file;     // null - direct-буферы
+    private DoubleBuffer[] segments;
+
+    private SampleStore(long length, FileChannel file) {
+        if (length < 0)
+            throw new IllegalArgumentException("length=" + length);
+        this.length = length;
+        this.file = file;
+        this.segments = new DoubleBuffer[(int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * Хранилище в direct-памяти
+     * @param length количество отсчетов
+     * @return хранилище, заполненное нулями
+     */
+    public static SampleStore allocate(long length) {
+        return new SampleStore(length, null);
+    }
+
+    /**
+     * Хранилище в рабочем файле, отображаемом в память по сегментам
+     * (файл удаляется при закрытии, размер сессии ограничен диском)
+     * @param scratchFile путь к рабочему файлу (перезаписывается)
+     * @param length количество отсчетов
+     * @return хранилище, заполненное нулями
+     * @throws IOException
+     */
+    public static SampleStore map(Path scratchFile, long length) throws IOException {
+        FileChannel channel = FileChannel.open(scratchFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+        try {
+            return new SampleStore(length, channel);
+        } catch (RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return количество отсчетов
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * @return true - хранилище в отображенном файле
+     */
+    public boolean isMapped() {
+        return file != null;
+    }
+
+    public double get(long index) {
+        checkRange(index, 1);
+        return segment((int) (index >>> SEGMENT_SHIFT)).get((int) (index & SEGMENT_MASK));
+    }
+
+    public void set(long index, double value) {
+        checkRange(index, 1);
+        segment((int) (index >>> SEGMENT_SHIFT)).put((int) (index & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Чтение участка в массив
+     * @param position номер первого отсчета
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param count количество отсчетов
+     */
+    public void read(long position, double[] dst, int offset, int count) {
+        checkRange(position, count);
+        for (int done = 0; done < count; ) {
+            long p = position + done;
+            DoubleBuffer seg = segment((int) (p >>> SEGMENT_SHIFT));
+            int at = (int) (p & SEGMENT_MASK);
+            int n = Math.min(count - done, SEGMENT_SIZE - at);
+            seg.position(at);
+            seg.get(dst, offset + done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * Запись участка из массива
+     * @param position номер первого отсчета
+     * @param src исходный массив
+     * @param offset смещение в массиве
+     * @param count количество отсчетов
+     */
+    public void write(long position, double[] src, int offset, int count) {
+        checkRange(position, count);
+        for (int done = 0; done < count; ) {
+            long p = position + done;
+            DoubleBuffer seg = segment((int) (p >>> SEGMENT_SHIFT));
+            int at = (int) (p & SEGMENT_MASK);
+            int n = Math.min(count - done, SEGMENT_SIZE - at);
+            seg.position(at);
+            seg.put(src, offset + done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * Сложение участка с массивом (микширование на месте)
+     * @param position номер первого отсчета
+     * @param src прибавляемый массив
+     * @param offset смещение в массиве
+     * @param count количество отсчетов
+     */
+    public void add(long position, double[] src, int offset, int count) {
+        checkRange(position, count);
+        for (int done = 0; done < count; ) {
+            long p = position + done;
+            DoubleBuffer seg = segment((int) (p >>> SEGMENT_SHIFT));
+            int at = (int) (p & SEGMENT_MASK);
+            int n = Math.min(count - done, SEGMENT_SIZE - at);
+            for (int i = 0, j = offset + done; i < n; i++, j++)
+                seg.put(at + i, seg.get(at + i) + src[j]);
+            done += n;
+        }
+    }
+
+    /**
+     * Масштабирование участка
+     * @param position номер первого отсчета
+     * @param count количество отсчетов
+     * @param coeff множитель
+     */
+    public void scale(long position, long count, double coeff) {
+        checkRange(position, count);
+        for (long done = 0; done < count; ) {
+            long p = position + done;
+            DoubleBuffer seg = segment((int) (p >>> SEGMENT_SHIFT));
+            int at = (int) (p & SEGMENT_MASK);
+            int n = (int) Math.min(count - done, SEGMENT_SIZE - at);
+            for (int i = at; i < at + n; i++)
+                seg.put(i, seg.get(i) * coeff);
+            done += n;
+        }
+    }
+
+    /**
+     * @param position номер первого отсчета
+     * @param count количество отсчетов
+     * @return пиковое значение модуля на участке
+     */
+    public double peak(long position, long count) {
+        checkRange(position, count);
+        double peak = 0;
+        for (long done = 0; done < count; ) {
+            long p = position + done;
+            DoubleBuffer seg = segment((int) (p >>> SEGMENT_SHIFT));
+            int at = (int) (p & SEGMENT_MASK);
+            int n = (int) Math.min(count - done, SEGMENT_SIZE - at);
+            for (int i = at; i < at + n; i++)
+                peak = Math.max(peak, Math.abs(seg.get(i)));
+            done += n;
+        }
+        return peak;
+    }
+
+    /**
+     * Освобождение сегментов (память direct-буферов и отображений возвращается после сборки мусора)
+     * и удаление рабочего файла
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        segments = null;
+        if (file != null)
+            file.close();
+    }
+
+    private void checkRange(long position, long count) {
+        if (segments == null)
+            throw new IllegalStateException("SampleStore is closed");
+        if (position < 0 || count < 0 || position > length - count)
+            throw new IndexOutOfBoundsException("position=" + position + ", count=" + count + ", length=" + length);
+    }
+
+    private DoubleBuffer segment(int index) {
+        DoubleBuffer seg = segments[index];
+        if (seg == null) {
+            long base = (long) index << SEGMENT_SHIFT;
+            int size = (int) Math.min(SEGMENT_SIZE, length - base);
+            ByteBuffer bytes;
+            if (file == null) {
+                bytes = ByteBuffer.allocateDirect(size * Double.BYTES);
+            } else {
+                try {
+                    bytes = file.map(FileChannel.MapMode.READ_WRITE, base * Double.BYTES, (long) size * Double.BYTES);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            seg = bytes.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            segments[index] = seg;
+        }
+        return seg;
+    }
+}
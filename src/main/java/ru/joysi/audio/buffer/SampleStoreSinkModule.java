@@ -0,0 +1,56 @@
+package ru.joysi.audio.buffer;
+
+import ru.joysi.audio.processing.AudioModule;
+
+/**
+ * Модуль-приемник блочного графа: дописывает каждый блок в {@link SampleStore} с текущей позиции
+ * и пропускает сигнал дальше без изменений. Так цепочка модулей или секвенсор
+ * ({@link ru.joysi.audio.processing.synth.PolySynth}) рендерит многочасовую дорожку вне кучи.
+ * Закрытие хранилища остается за вызывающим.
+ */
+public class SampleStoreSinkModule extends AudioModule {
+    private final SampleStore store;
+    private final long start;
+    private long position;
+
+    /**
+     * @param store хранилище дорожки
+     * @param start позиция записи первого блока
+     */
+    public SampleStoreSinkModule(SampleStore store, long start) {
+        super("SampleStoreSink", 0);
+        this.store = store;
+        this.start = start;
+        this.position = start;
+    }
+
+    /**
+     * @param store хранилище дорожки (запись с начала)
+     */
+    public SampleStoreSinkModule(SampleStore store) {
+        this(store, 0);
+    }
+
+    /**
+     * @return позиция записи следующего блока
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        store.write(position, in, 0, frames);
+        position += frames;
+        if (out != in)
+            System.arraycopy(in, 0, out, 0, frames);
+    }
+
+    /**
+     * Возврат позиции записи к началу
+     */
+    @Override
+    public void reset() {
+        position = start;
+    }
+}
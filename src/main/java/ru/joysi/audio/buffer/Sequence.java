@@ -0,0 +1,37 @@
+package ru.joysi.audio.buffer;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Счетчик позиции кольцевого буфера, выровненный заполнителями по обе стороны,
+ * чтобы позиции писателя и читателя не попадали в одну строку кэша (false sharing)
+ */
+final class Sequence extends SequenceRhsPadding {
+    private static final AtomicLongFieldUpdater<SequenceValue> UPDATER =
+            AtomicLongFieldUpdater.newUpdater(SequenceValue.class, "value");
+
+    long get() {
+        return value;
+    }
+
+    // Публикация без полного барьера (store-store), достаточно для одного писателя
+    void lazySet(long newValue) {
+        UPDATER.lazySet(this, newValue);
+    }
+
+    boolean compareAndSet(long expected, long newValue) {
+        return UPDATER.compareAndSet(this, expected, newValue);
+    }
+}
+
+class SequenceLhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+class SequenceValue extends SequenceLhsPadding {
+    protected volatile long value;
+}
+
+class SequenceRhsPadding extends SequenceValue {
+    protected long p9, p10, p11, p12, p13, p14, p15;
+}
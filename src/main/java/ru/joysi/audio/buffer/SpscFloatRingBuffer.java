@@ -0,0 +1,49 @@
+package ru.joysi.audio.buffer;
+
+/**
+ * Кольцевой буфер отсчетов float для одного писателя и одного читателя (SPSC) без блокировок.
+ * Блоки копируются System.arraycopy (не более двух копирований на операцию).
+ */
+public class SpscFloatRingBuffer extends AbstractSpscRingBuffer {
+    private final float[] buffer;
+
+    /**
+     * @param capacity минимальная емкость в отсчетах (округляется вверх до степени двойки)
+     */
+    public SpscFloatRingBuffer(int capacity) {
+        super(capacity);
+        buffer = new float[this.capacity];
+    }
+
+    /**
+     * Запись блока (только поток-писатель)
+     * @return количество записанных отсчетов (меньше length, если буфер заполнен)
+     */
+    public int write(float[] src, int offset, int length) {
+        int n = claimWrite(length);
+        if (n <= 0)
+            return 0;
+        int idx = writeIndex();
+        int first = Math.min(n, capacity - idx);
+        System.arraycopy(src, offset, buffer, idx, first);
+        System.arraycopy(src, offset + first, buffer, 0, n - first);
+        commitWrite(n);
+        return n;
+    }
+
+    /**
+     * Чтение блока (только поток-читатель)
+     * @return количество прочитанных отсчетов (меньше length, если данных недостаточно)
+     */
+    public int read(float[] dst, int offset, int length) {
+        int n = claimRead(length);
+        if (n <= 0)
+            return 0;
+        int idx = readIndex();
+        int first = Math.min(n, capacity - idx);
+        System.arraycopy(buffer, idx, dst, offset, first);
+        System.arraycopy(buffer, 0, dst, offset + first, n - first);
+        commitRead(n);
+        return n;
+    }
+}
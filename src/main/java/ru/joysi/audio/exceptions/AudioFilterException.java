@@ -1,12 +1,12 @@
 package ru.joysi.audio.exceptions;
 
-import ru.joysi.audio.GlobalHelper;
+import ru.joysi.audio.AudioContext;
 
 /**
  * Created by 886 on 27.05.2016.
  */
 public class AudioFilterException extends Exception {
     public AudioFilterException() {
-        super(GlobalHelper.props.getProperty("error.filter.incorrectParameters"));
+        super(AudioContext.getProperties().getProperty("error.filter.incorrectParameters"));
     }
 }
@@ -0,0 +1,149 @@
+package ru.joysi.audio.file;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Декодирование чередующихся (interleaved) отсчетов Wav в значения [-1;1].
+ * Деинтерливинг в планарные массивы выполняется за один проход по источнику: кадр читается
+ * целиком и раскладывается по каналам, без промежуточных массивов на канал.
+ * Шкала та же, что у {@link PcmEncoder}.
+ */
+public final class PcmDecoder {
+    private final SampleFormat format;
+    private final int numChannels;
+    private final int bytesPerSample;
+    private final int blockAlign;
+    private final double inverse;
+
+    /**
+     * @param format формат отсчетов
+     * @param numChannels количество каналов в кадре
+     */
+    public PcmDecoder(SampleFormat format, int numChannels) {
+        if (numChannels < 1)
+            throw new IllegalArgumentException("numChannels=" + numChannels);
+        this.format = format;
+        this.numChannels = numChannels;
+        this.bytesPerSample = format.getBytesPerSample();
+        this.blockAlign = numChannels * bytesPerSample;
+        this.inverse = 1.0 / format.getScale();
+    }
+
+    public SampleFormat getFormat() {
+        return format;
+    }
+
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    /**
+     * @return размер кадра в байтах
+     */
+    public int getBlockAlign() {
+        return blockAlign;
+    }
+
+    /**
+     * Декодирование одного отсчета
+     * @param src буфер (порядок байт LITTLE_ENDIAN)
+     * @param index позиция отсчета в буфере (в байтах)
+     * @return значение отсчета
+     */
+    public double decode(ByteBuffer src, int index) {
+        switch (format) {
+            case PCM_8:
+                return ((src.get(index) & 0xFF) - 128) * inverse;
+            case PCM_16:
+                return src.getShort(index) * inverse;
+            case PCM_24:
+                return ((src.get(index) & 0xFF) | (src.get(index + 1) & 0xFF) << 8 | src.get(index + 2) << 16)
+                        * inverse;
+            case PCM_32:
+                return src.getInt(index) * inverse;
+            default:
+                return src.getFloat(index);
+        }
+    }
+
+    /**
+     * Декодирование одного канала из кадров (с шагом в размер кадра)
+     * @param src буфер (порядок байт LITTLE_ENDIAN)
+     * @param index позиция первого кадра в буфере (в байтах)
+     * @param channel номер канала
+     * @param dst массив-приемник
+     * @param offset смещение в массиве-приемнике
+     * @param frames количество кадров
+     */
+    public void decode(ByteBuffer src, int index, int channel, double[] dst, int offset, int frames) {
+        checkOrder(src);
+        int pos = index + channel * bytesPerSample;
+        for (int i = 0; i < frames; i++, pos += blockAlign)
+            dst[offset + i] = decode(src, pos);
+    }
+
+    /**
+     * Декодирование одного канала из кадров в массив одинарной точности
+     * @param src буфер (порядок байт LITTLE_ENDIAN)
+     * @param index позиция первого кадра в буфере (в байтах)
+     * @param channel номер канала
+     * @param dst массив-приемник
+     * @param offset смещение в массиве-приемнике
+     * @param frames количество кадров
+     */
+    public void decode(ByteBuffer src, int index, int channel, float[] dst, int offset, int frames) {
+        checkOrder(src);
+        int pos = index + channel * bytesPerSample;
+        for (int i = 0; i < frames; i++, pos += blockAlign)
+            dst[offset + i] = (float) decode(src, pos);
+    }
+
+    /**
+     * Деинтерливинг кадров во все каналы за один проход
+     * @param src буфер (порядок байт LITTLE_ENDIAN)
+     * @param index позиция первого кадра в буфере (в байтах)
+     * @param dst массивы каналов (не меньше количества каналов)
+     * @param offset смещение в массивах каналов
+     * @param frames количество кадров
+     */
+    public void deinterleave(ByteBuffer src, int index, double[][] dst, int offset, int frames) {
+        checkOrder(src);
+        if (dst.length < numChannels)
+            throw new IllegalArgumentException("Expected " + numChannels + " channel(s)");
+        final int n = numChannels;
+        final double inv = inverse;
+        int pos = index;
+        switch (format) {
+            case PCM_8:
+                for (int i = offset, end = offset + frames; i < end; i++)
+                    for (int c = 0; c < n; c++, pos++)
+                        dst[c][i] = ((src.get(pos) & 0xFF) - 128) * inv;
+                break;
+            case PCM_16:
+                for (int i = offset, end = offset + frames; i < end; i++)
+                    for (int c = 0; c < n; c++, pos += 2)
+                        dst[c][i] = src.getShort(pos) * inv;
+                break;
+            case PCM_32:
+                for (int i = offset, end = offset + frames; i < end; i++)
+                    for (int c = 0; c < n; c++, pos += 4)
+                        dst[c][i] = src.getInt(pos) * inv;
+                break;
+            case FLOAT_32:
+                for (int i = offset, end = offset + frames; i < end; i++)
+                    for (int c = 0; c < n; c++, pos += 4)
+                        dst[c][i] = src.getFloat(pos);
+                break;
+            default:
+                for (int i = offset, end = offset + frames; i < end; i++)
+                    for (int c = 0; c < n; c++, pos += 3)
+                        dst[c][i] = decode(src, pos);
+        }
+    }
+
+    private static void checkOrder(ByteBuffer src) {
+        if (src.order() != ByteOrder.LITTLE_ENDIAN)
+            throw new IllegalArgumentException("Buffer must be LITTLE_ENDIAN");
+    }
+}
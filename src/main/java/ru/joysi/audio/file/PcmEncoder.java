@@ -0,0 +1,222 @@
+package ru.joysi.audio.file;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Блочное кодирование отсчетов в формат Wav ({@link SampleFormat}).
+ * Кодирование идет в два шага: квантование во внутренний массив формата (byte[]/short[]/int[]/float[])
+ * простым циклом без вызовов и ветвлений (насыщение - условными пересылками, округление -
+ * прибавлением константы) и перенос блока в буфер LITTLE_ENDIAN пакетной операцией через
+ * представление буфера (put(short[]) / put(int[]) / put(float[])) без поотсчетной перестановки байт.
+ * Квантование округляет к ближайшему, значения вне [-1;1] насыщаются до предела формата
+ * (IEEE float пишется без ограничения). Для целых форматов до 24 бит доступен треугольный
+ * (TPDF) дизеринг амплитудой +-1 младший разряд. Объект не потокобезопасен.
+ */
+public final class PcmEncoder {
+    private static final double INT_TO_UNIT = 1.0 / (1L << 32);
+    // 1.5 * 2^52: прибавление округляет к ближайшему (четному) целому в младших битах мантиссы
+    private static final double ROUND = 6755399441055744.0;
+
+    private final SampleFormat format;
+    private final int capacity;
+    private final double scale;
+    private final double min;
+    private final double max;
+
+    // Квантованный блок (используется массив своего формата) и упаковка 24 бит
+    private final byte[] bytes;
+    private final short[] shorts;
+    private final int[] ints;
+    private final float[] floats;
+    private final byte[] packed;
+
+    // Шум дизеринга в младших разрядах
+    private final double[] noise;
+    private final boolean dither;
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    /**
+     * @param format формат отсчетов
+     * @param capacity размер блока в отсчетах
+     * @param dither true - добавлять TPDF дизеринг (для PCM 8/16/24 бит)
+     */
+    public PcmEncoder(SampleFormat format, int capacity, boolean dither) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity=" + capacity);
+        this.format = format;
+        this.capacity = capacity;
+        this.dither = dither && format.getFormatTag() == 1 && format.getBitsPerSample() <= 24;
+        this.scale = format.getScale();
+        this.min = -scale - 1;
+        this.max = scale;
+        this.bytes = format == SampleFormat.PCM_8 ? new byte[capacity] : null;
+        this.shorts = format == SampleFormat.PCM_16 ? new short[capacity] : null;
+        this.ints = format == SampleFormat.PCM_24 || format == SampleFormat.PCM_32 ? new int[capacity] : null;
+        this.floats = format == SampleFormat.FLOAT_32 ? new float[capacity] : null;
+        this.packed = format == SampleFormat.PCM_24 ? new byte[capacity * 3] : null;
+        this.noise = this.dither ? new double[capacity] : null;
+    }
+
+    public SampleFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return размер блока в отсчетах
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Квантование отсчетов в блок с шагом stride (шаг больше 1 - чередование каналов в кадре)
+     * @param src исходные отсчеты
+     * @param offset смещение в исходном массиве
+     * @param length количество отсчетов
+     * @param position позиция первого отсчета в блоке
+     * @param stride шаг позиций в блоке
+     */
+    public void quantize(double[] src, int offset, int length, int position, int stride) {
+        checkRange(length, position, stride);
+        final boolean dither = this.dither;
+        if (dither)
+            fillNoise(length);
+        switch (format) {
+            case PCM_8:
+                for (int i = 0, j = position; i < length; i++, j += stride)
+                    bytes[j] = (byte) (quantize(src[offset + i] * scale + (dither ? noise[i] : 0)) + 128);
+                break;
+            case PCM_16:
+                for (int i = 0, j = position; i < length; i++, j += stride)
+                    shorts[j] = (short) quantize(src[offset + i] * scale + (dither ? noise[i] : 0));
+                break;
+            case FLOAT_32:
+                for (int i = 0, j = position; i < length; i++, j += stride)
+                    floats[j] = (float) src[offset + i];
+                break;
+            default:
+                for (int i = 0, j = position; i < length; i++, j += stride)
+                    ints[j] = quantize(src[offset + i] * scale + (dither ? noise[i] : 0));
+        }
+    }
+
+    /**
+     * Квантование отсчетов одинарной точности в блок с шагом stride
+     * @param src исходные отсчеты
+     * @param offset смещение в исходном массиве
+     * @param length количество отсчетов
+     * @param position позиция первого отсчета в блоке
+     * @param stride шаг позиций в блоке
+     */
+    public void quantize(float[] src, int offset, int length, int position, int stride) {
+        checkRange(length, position, stride);
+        final boolean dither = this.dither;
+        if (dither)
+            fillNoise(length);
+        switch (format) {
+            case PCM_8:
+                for (int i = 0, j = position; i < length; i++, j += stride)
+                    bytes[j] = (byte) (quantize(src[offset + i] * scale + (dither ? noise[i] : 0)) + 128);
+                break;
+            case PCM_16:
+                for (int i = 0, j = position; i < length; i++, j += stride)
+                    shorts[j] = (short) quantize(src[offset + i] * scale + (dither ? noise[i] : 0));
+                break;
+            case FLOAT_32:
+                for (int i = 0, j = position; i < length; i++, j += stride)
+                    floats[j] = src[offset + i];
+                break;
+            default:
+                for (int i = 0, j = position; i < length; i++, j += stride)
+                    ints[j] = quantize(src[offset + i] * scale + (dither ? noise[i] : 0));
+        }
+    }
+
+    /**
+     * Интерливинг: квантование кадров из планарных массивов каналов в блок
+     * (канал c занимает позиции c, c+n, c+2n... - каждый канал проходится один раз,
+     * запись с шагом остается в пределах блока в кэше, промежуточных массивов нет)
+     * @param channels массивы каналов
+     * @param offset смещение в массивах каналов
+     * @param frames количество кадров (frames * channels.length не больше размера блока)
+     */
+    public void quantize(double[][] channels, int offset, int frames) {
+        for (int c = 0; c < channels.length; c++)
+            quantize(channels[c], offset, frames, c, channels.length);
+    }
+
+    /**
+     * Интерливинг кадров одинарной точности из планарных массивов каналов в блок
+     * @param channels массивы каналов
+     * @param offset смещение в массивах каналов
+     * @param frames количество кадров (frames * channels.length не больше размера блока)
+     */
+    public void quantize(float[][] channels, int offset, int frames) {
+        for (int c = 0; c < channels.length; c++)
+            quantize(channels[c], offset, frames, c, channels.length);
+    }
+
+    /**
+     * Перенос первых count отсчетов блока в буфер с текущей позиции
+     * @param count количество отсчетов
+     * @param dst буфер-приемник (порядок байт LITTLE_ENDIAN)
+     */
+    public void pack(int count, ByteBuffer dst) {
+        if (dst.order() != ByteOrder.LITTLE_ENDIAN)
+            throw new IllegalArgumentException("Buffer must be LITTLE_ENDIAN");
+        if (count < 0 || count > capacity)
+            throw new IndexOutOfBoundsException("count=" + count);
+        int start = dst.position();
+        switch (format) {
+            case PCM_8:
+                dst.put(bytes, 0, count);
+                break;
+            case PCM_16:
+                dst.asShortBuffer().put(shorts, 0, count);
+                dst.position(start + count * 2);
+                break;
+            case PCM_24:
+                for (int i = 0, j = 0; i < count; i++, j += 3) {
+                    int v = ints[i];
+                    packed[j] = (byte) v;
+                    packed[j + 1] = (byte) (v >> 8);
+                    packed[j + 2] = (byte) (v >> 16);
+                }
+                dst.put(packed, 0, count * 3);
+                break;
+            case PCM_32:
+                dst.asIntBuffer().put(ints, 0, count);
+                dst.position(start + count * 4);
+                break;
+            default:
+                dst.asFloatBuffer().put(floats, 0, count);
+                dst.position(start + count * 4);
+        }
+    }
+
+    // Насыщение и округление к ближайшему: после прибавления 1.5*2^52 младшие 32 бита
+    // мантиссы содержат целое в дополнительном коде (без cvt/rint, дешевле в цикле)
+    private int quantize(double v) {
+        v = v < min ? min : v > max ? max : v;
+        return (int) Double.doubleToRawLongBits(v + ROUND);
+    }
+
+    // Треугольный шум как разность двух равномерных величин [0;1) из половин одного шага xorshift64
+    private void fillNoise(int length) {
+        long s = seed;
+        for (int i = 0; i < length; i++) {
+            s ^= s << 13;
+            s ^= s >>> 7;
+            s ^= s << 17;
+            noise[i] = ((s >>> 32) - (s & 0xFFFFFFFFL)) * INT_TO_UNIT;
+        }
+        seed = s;
+    }
+
+    private void checkRange(int length, int position, int stride) {
+        if (length < 0 || position < 0 || stride <= 0
+                || (length > 0 && position + (long) (length - 1) * stride >= capacity))
+            throw new IndexOutOfBoundsException("length=" + length + ", position=" + position + ", stride=" + stride);
+    }
+}
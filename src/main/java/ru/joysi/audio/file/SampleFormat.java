@@ -0,0 +1,85 @@
+package ru.joysi.audio.file;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Форматы отсчетов Wav-файла: целочисленный PCM 8/16/24/32 бит и IEEE float 32 бит
+ */
+public enum SampleFormat {
+    PCM_8(1, 8),
+    PCM_16(1, 16),
+    PCM_24(1, 24),
+    PCM_32(1, 32),
+    FLOAT_32(3, 32);
+
+    // Поле AudioFormat заголовка WAVE_FORMAT_EXTENSIBLE (формат задается GUID SubFormat)
+    static final int EXTENSIBLE_TAG = 0xFFFE;
+    // GUID SubFormat {0000000X-0000-0010-8000-00AA00389B71} без поля формата X (байты 4..15, LITTLE_ENDIAN)
+    private static final int GUID_DATA23 = 0x00100000;
+    private static final long GUID_DATA4 = 0x719B3800AA000080L;
+
+    private final int formatTag;     // поле AudioFormat заголовка (1 - PCM, 3 - IEEE float)
+    private final int bitsPerSample;
+
+    SampleFormat(int formatTag, int bitsPerSample) {
+        this.formatTag = formatTag;
+        this.bitsPerSample = bitsPerSample;
+    }
+
+    /**
+     * Формат по полям заголовка
+     * @param formatTag поле AudioFormat
+     * @param bitsPerSample разрядность отсчета
+     * @return формат или null, если не поддерживается
+     */
+    public static SampleFormat of(int formatTag, int bitsPerSample) {
+        for (SampleFormat format : values())
+            if (format.formatTag == formatTag && format.bitsPerSample == bitsPerSample)
+                return format;
+        return null;
+    }
+
+    /**
+     * Формат по GUID SubFormat заголовка WAVE_FORMAT_EXTENSIBLE (порядок байт буфера - LITTLE_ENDIAN)
+     * @param input буфер с GUID
+     * @param offset смещение GUID в буфере
+     * @param bitsPerSample разрядность отсчета
+     * @return формат или null, если не поддерживается
+     */
+    static SampleFormat ofSubFormat(ByteBuffer input, int offset, int bitsPerSample) {
+        if (input.getInt(offset + 4) != GUID_DATA23 || input.getLong(offset + 8) != GUID_DATA4)
+            return null;
+        return of(input.getInt(offset), bitsPerSample);
+    }
+
+    /**
+     * Запись GUID SubFormat формата (порядок байт буфера - LITTLE_ENDIAN)
+     */
+    void putSubFormat(ByteBuffer output) {
+        output.putInt(formatTag);
+        output.putInt(GUID_DATA23);
+        output.putLong(GUID_DATA4);
+    }
+
+    public int getFormatTag() {
+        return formatTag;
+    }
+
+    public int getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    /**
+     * @return размер отсчета в байтах
+     */
+    public int getBytesPerSample() {
+        return bitsPerSample / 8;
+    }
+
+    /**
+     * @return множитель перевода из [-1;1] в целый отсчет (1 для IEEE float)
+     */
+    double getScale() {
+        return formatTag == 3 ? 1.0 : (1L << (bitsPerSample - 1)) - 1;
+    }
+}
@@ -0,0 +1,63 @@
+package ru.joysi.audio.file;
+
+/**
+ * Представление одного канала Wav-файла без копирования данных.
+ * Отсчеты декодируются из отображенного в память файла при каждом обращении,
+ * поддерживается произвольный доступ (позиционирование) по номеру кадра.
+ */
+public class WavChannelView {
+    private final WavReader reader;
+    private final int channel;
+
+    WavChannelView(WavReader reader, int channel) {
+        this.reader = reader;
+        this.channel = channel;
+    }
+
+    /**
+     * @return количество отсчетов канала
+     */
+    public long length() {
+        return reader.getFrameCount();
+    }
+
+    /**
+     * @return номер канала
+     */
+    public int getChannel() {
+        return channel;
+    }
+
+    /**
+     * Значение отсчета
+     * @param frame номер кадра
+     * @return значение в [-1;1]
+     */
+    public double get(long frame) {
+        return reader.getSample(frame, channel);
+    }
+
+    /**
+     * Чтение блока отсчетов начиная с заданного кадра
+     * @param frame номер начального кадра
+     * @param dst массив-приемник
+     * @param offset смещение в массиве-приемнике
+     * @param length максимальное количество отсчетов
+     * @return количество прочитанных отсчетов (0 - конец канала)
+     */
+    public int read(long frame, double[] dst, int offset, int length) {
+        return reader.read(frame, channel, dst, offset, length);
+    }
+
+    /**
+     * Чтение блока отсчетов одинарной точности начиная с заданного кадра
+     * @param frame номер начального кадра
+     * @param dst массив-приемник
+     * @param offset смещение в массиве-приемнике
+     * @param length максимальное количество отсчетов
+     * @return количество прочитанных отсчетов (0 - конец канала)
+     */
+    public int read(long frame, float[] dst, int offset, int length) {
+        return reader.read(frame, channel, dst, offset, length);
+    }
+}
@@ -1,15 +1,18 @@
 package ru.joysi.audio.file;
 
 import org.apache.commons.io.FilenameUtils;
+import ru.joysi.audio.AudioContext;
 import ru.joysi.audio.ExceptionHandler;
-import ru.joysi.audio.GlobalHelper;
+import ru.joysi.audio.buffer.BufferPool;
+import ru.joysi.audio.buffer.SampleStore;
+import ru.joysi.audio.playback.PlaybackEngine;
 import ru.joysi.audio.processing.combines.Combines;
 import ru.joysi.audio.processing.filters.Filters;
 import ru.joysi.audio.processing.generators.Generators;
 
-import javax.sound.sampled.*;
-import java.io.*;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -21,6 +24,13 @@ import java.util.InputMismatchException;
  *  @author MaratSR
  */
 public class WavFile {
+    // Размер заголовка Wav-файла PCM (до 2 каналов, до 16 бит) в байтах
+    public static final int HEADER_SIZE = 44;
+
+    // Кодировщики текущего потока по форматам (блок по умолчанию на количество каналов)
+    private static final ThreadLocal<PcmEncoder[]> encoders =
+            ThreadLocal.withInitial(() -> new PcmEncoder[SampleFormat.values().length]);
+
     /**
      * Записать аудиомассив (16бит, моно) в Wav-файл
      * @param path Путь к файлу
@@ -28,21 +38,18 @@ public class WavFile {
      * @return true - если запись произведена, false - иначе
      */
     public static boolean saveMonoToFile(Path path, double[] audio) {
-        if (checkAndDeleteWavFile(path)) return false;
-        try(DataOutputStream wavFile = new DataOutputStream(new FileOutputStream(path.toString()))) {
-
-            short audioData[] = new short[audio.length];
-            for (int i = 0; i < audio.length; i++)
-                audioData[i] = (short) (audio[i] *Short.MAX_VALUE);
+        return saveMonoToFile(path, audio, SampleFormat.PCM_16);
+    }
 
-            saveWavFileHeader(wavFile, 1, audioData.length);
-            // offset 44: Data - собственно массив аудио (приведенный из short к byte)
-            wavFile.write(convertShortToByteArray(audioData));
-        } catch (IOException e) {
-            ExceptionHandler.log(e, GlobalHelper.props.getProperty("error.wav.FileSave"));
-            return false;
-        }
-        return true;
+    /**
+     * Записать аудиомассив (моно) в Wav-файл в заданном формате
+     * @param path Путь к файлу
+     * @param audio Массив аудиоданных
+     * @param format формат отсчетов
+     * @return true - если запись произведена, false - иначе
+     */
+    public static boolean saveMonoToFile(Path path, double[] audio, SampleFormat format) {
+        return save(AudioContext.getDefault(), path, format, 1, wavFile -> wavFile.write(audio));
     }
 
     /**
@@ -54,117 +61,169 @@ public class WavFile {
      */
     public static boolean saveStereoToFile(Path path, double[] audioRightChannel,double[] audioLeftChannel ) {
         if (audioLeftChannel.length != audioRightChannel.length) {
-            ExceptionHandler.log(new InputMismatchException(),GlobalHelper.props.getProperty("error.wav.stereoSave"));
+            ExceptionHandler.log(new InputMismatchException(),AudioContext.getProperties().getProperty("error.wav.stereoSave"));
             return false;
         }
+        return saveToFile(path, SampleFormat.PCM_16, audioLeftChannel, audioRightChannel);
+    }
 
-        if (checkAndDeleteWavFile(path)) return false;
-
-        try(DataOutputStream wavFile = new DataOutputStream(new FileOutputStream(path.toString()))) {
+    /**
+     * Записать многоканальные аудиоданные (5.1, 7.1, стемы) в Wav-файл
+     * @param path Путь к файлу
+     * @param format формат отсчетов
+     * @param channels Массивы аудиоданных по каналам (порядок каналов Wav: L, R, C, LFE, ...)
+     * @return true - если запись произведена, false - иначе
+     */
+    public static boolean saveToFile(Path path, SampleFormat format, double[]... channels) {
+        return saveToFile(AudioContext.getDefault(), path, format, channels);
+    }
 
-            short audioDataRight[] = new short[audioRightChannel.length];
-            short audioDataLeft[] = new short[audioLeftChannel.length];
-            for (int i = 0; i < audioDataLeft.length; i++) {
-                audioDataRight[i] = (short) (audioRightChannel[i] * Short.MAX_VALUE);
-                audioDataLeft[i]  = (short) (audioLeftChannel[i]  * Short.MAX_VALUE);
+    /**
+     * Записать многоканальные аудиоданные в Wav-файл с частотой дискретизации контекста
+     * @param context контекст (частота дискретизации)
+     * @param path Путь к файлу
+     * @param format формат отсчетов
+     * @param channels Массивы аудиоданных по каналам (порядок каналов Wav: L, R, C, LFE, ...)
+     * @return true - если запись произведена, false - иначе
+     */
+    public static boolean saveToFile(AudioContext context, Path path, SampleFormat format, double[]... channels) {
+        if (channels.length == 0) return false;
+        for (double[] audio : channels)
+            if (audio.length != channels[0].length) {
+                ExceptionHandler.log(new InputMismatchException(),AudioContext.getProperties().getProperty("error.wav.channelsSave"));
+                return false;
             }
 
-            saveWavFileHeader(wavFile, 2, audioLeftChannel.length);
-            // offset 44: Data - собственно массив аудио (приведенный из short к byte) 2-х канальный
-            ByteBuffer byteBuf = ByteBuffer.allocate(4*audioRightChannel.length);
-            for (int i = 0; i < audioRightChannel.length; i++) {
-                byteBuf.putShort(Short.reverseBytes(audioDataLeft[i]));
-                byteBuf.putShort(Short.reverseBytes(audioDataRight[i]));
+        return save(context, path, format, channels.length, wavFile -> wavFile.write(channels));
+    }
+
+    /**
+     * Записать многоканальные дорожки из хранилищ вне кучи в Wav-файл с частотой дискретизации контекста
+     * @param context контекст (частота дискретизации)
+     * @param path Путь к файлу
+     * @param format формат отсчетов
+     * @param channels Хранилища аудиоданных по каналам (порядок каналов Wav: L, R, C, LFE, ...)
+     * @return true - если запись произведена, false - иначе (в том числе если данные больше 4 Гб)
+     */
+    public static boolean saveToFile(AudioContext context, Path path, SampleFormat format, SampleStore... channels) {
+        if (channels.length == 0) return false;
+        for (SampleStore audio : channels)
+            if (audio.length() != channels[0].length()) {
+                ExceptionHandler.log(new InputMismatchException(),AudioContext.getProperties().getProperty("error.wav.channelsSave"));
+                return false;
             }
-            wavFile.write(byteBuf.array());
-        } catch (IOException e) {
-            ExceptionHandler.log(e, GlobalHelper.props.getProperty("error.wav.FileSave"));
+
+        return save(context, path, format, channels.length, wavFile -> wavFile.write(channels));
+    }
+
+    /**
+     * Записать аудиомассив одинарной точности (16бит, моно) в Wav-файл
+     * @param path Путь к файлу
+     * @param audio Массив аудиоданных
+     * @return true - если запись произведена, false - иначе
+     */
+    public static boolean saveMonoToFile(Path path, float[] audio) {
+        return save(AudioContext.getDefault(), path, SampleFormat.PCM_16, 1, wavFile -> wavFile.write(audio));
+    }
+
+    /**
+     * Записать аудиомассивы одинарной точности (16бит, стерео) в Wav-файл
+     * @param path Путь к файлу
+     * @param audioRightChannel Массив аудиоданных (правый канал)
+     * @param audioLeftChannel Массив аудиоданных (левый канал)
+     * @return true - если запись произведена, false - иначе
+     */
+    public static boolean saveStereoToFile(Path path, float[] audioRightChannel, float[] audioLeftChannel) {
+        if (audioLeftChannel.length != audioRightChannel.length) {
+            ExceptionHandler.log(new InputMismatchException(),AudioContext.getProperties().getProperty("error.wav.stereoSave"));
             return false;
         }
-        return true;
+        return save(AudioContext.getDefault(), path, SampleFormat.PCM_16, 2,
+                wavFile -> wavFile.write(audioRightChannel, audioLeftChannel));
+    }
+
+    /**
+     * Открыть Wav-файл (PCM 8/16/24/32бит, float) для чтения без загрузки данных в память
+     * @param path Путь к файлу
+     * @return объект чтения с ленивыми представлениями каналов (закрывается вызывающим)
+     * @throws IOException если файл не читается или формат не поддерживается
+     */
+    public static WavReader openFile(Path path) throws IOException {
+        return new WavReader(path);
     }
 
     /**
-     * Запуск монофонического проигрывания аудиомассива
+     * Запуск монофонического проигрывания аудиомассива (через общий движок воспроизведения)
      * @param audio аудиомассив
      */
     public static void playMonoAudio(double[] audio) {
-        Runnable playAudioTask = () -> {
-            try {
-                short[] audioMono = new short[audio.length];
-                for (int i = 0; i < audio.length; i++)
-                    audioMono[i] = (short) (audio[i] *Short.MAX_VALUE);
-
-                byte audioData[] = convertShortToByteArray(audioMono);
-                byte tempBuffer[] = new byte[Short.MAX_VALUE+1];
-
-                InputStream byteArrayInputStream = new ByteArrayInputStream(audioData);
-                AudioFormat audioFormat = new AudioFormat(GlobalHelper.samplePerSec, GlobalHelper.bitsPerSample, 1, true, false);
-                AudioInputStream audioInputStream = new AudioInputStream(
-                        byteArrayInputStream, audioFormat, audioData.length / audioFormat.getFrameSize());
-                DataLine.Info dataLineInfo = new DataLine.Info(SourceDataLine.class, audioFormat);
-
-                SourceDataLine sourceDataLine = (SourceDataLine) AudioSystem.getLine(dataLineInfo);
-                sourceDataLine.open(audioFormat);
-                sourceDataLine.start();
-
-                int cnt;
-                while ((cnt = audioInputStream.read(tempBuffer, 0, tempBuffer.length)) != -1)
-                    if (cnt > 0)
-                        sourceDataLine.write(tempBuffer, 0, cnt);
-                sourceDataLine.drain();
-                sourceDataLine.close();
-            } catch(Exception e) {
-                ExceptionHandler.log(e, GlobalHelper.props.getProperty("error.wav.playAudio"));
-            }
-        };
-        new Thread(playAudioTask).start();
+        try {
+            PlaybackEngine.forFormat(AudioContext.getDefault().getSampleRate(), 1).play(audio);
+        } catch(Exception e) {
+            ExceptionHandler.log(e, AudioContext.getProperties().getProperty("error.wav.playAudio"));
+        }
     }
 
     /**
-     * Запуск стереофонического проигрывания аудиомассива
+     * Запуск стереофонического проигрывания аудиомассива (через общий движок воспроизведения)
      * @param audioDataRightChannel аудиомассив для правого канала
      * @param audioDataLeftChannel аудиомассив для левого канала
      */
     public static void playStereoAudio(double[] audioDataRightChannel,double[] audioDataLeftChannel) {
-        Runnable playAudioTask = () -> {
-            try {
-                short audioDataRight[] = new short[audioDataRightChannel.length];
-                short audioDataLeft[] = new short[audioDataLeftChannel.length];
-                for (int i = 0; i < audioDataLeftChannel.length; i++) {
-                    audioDataRight[i] = (short) (audioDataRightChannel[i] * Short.MAX_VALUE);
-                    audioDataLeft[i]  = (short) (audioDataLeftChannel[i]  * Short.MAX_VALUE);
-                }
-
-                ByteBuffer byteBuf = ByteBuffer.allocate(4*audioDataRightChannel.length);
-                for (int i = 0; i < audioDataRightChannel.length; i++) {
-                    byteBuf.putShort(Short.reverseBytes(audioDataLeft[i]));
-                    byteBuf.putShort(Short.reverseBytes(audioDataRight[i]));
-                }
-                byte audioData[] = byteBuf.array();
-                byte tempBuffer[] = new byte[Short.MAX_VALUE+1];
-
-                InputStream byteArrayInputStream = new ByteArrayInputStream(audioData);
-                AudioFormat audioFormat = new AudioFormat(GlobalHelper.samplePerSec, GlobalHelper.bitsPerSample, 1, true, false);
-                AudioInputStream audioInputStream = new AudioInputStream(
-                        byteArrayInputStream, audioFormat, audioData.length / audioFormat.getFrameSize());
-                DataLine.Info dataLineInfo = new DataLine.Info(SourceDataLine.class, audioFormat);
-
-                SourceDataLine sourceDataLine = (SourceDataLine) AudioSystem.getLine(dataLineInfo);
-                sourceDataLine.open(audioFormat);
-                sourceDataLine.start();
-
-                int cnt;
-                while ((cnt = audioInputStream.read(tempBuffer, 0, tempBuffer.length)) != -1)
-                    if (cnt > 0)
-                        sourceDataLine.write(tempBuffer, 0, cnt);
-                sourceDataLine.drain();
-                sourceDataLine.close();
-            } catch(Exception e) {
-                ExceptionHandler.log(e, GlobalHelper.props.getProperty("error.wav.playAudio"));
-            }
-        };
-        new Thread(playAudioTask).start();
+        playAudio(audioDataLeftChannel, audioDataRightChannel);
+    }
+
+    /**
+     * Запуск многоканального проигрывания (через общий движок воспроизведения)
+     * @param channels аудиомассивы по каналам (порядок каналов Wav: L, R, C, LFE, ...)
+     */
+    public static void playAudio(double[]... channels) {
+        playAudio(AudioContext.getDefault(), channels);
+    }
+
+    /**
+     * Запуск многоканального проигрывания с частотой дискретизации контекста
+     * @param context контекст (частота дискретизации)
+     * @param channels аудиомассивы по каналам (порядок каналов Wav: L, R, C, LFE, ...)
+     */
+    public static void playAudio(AudioContext context, double[]... channels) {
+        try {
+            PlaybackEngine.forFormat(context.getSampleRate(), channels.length).play(channels);
+        } catch(Exception e) {
+            ExceptionHandler.log(e, AudioContext.getProperties().getProperty("error.wav.playAudio"));
+        }
+    }
+
+    /**
+     * Запись через кодировщик текущего потока и direct-буфер из {@link BufferPool}:
+     * повторные сохранения не выделяют буферов преобразования
+     * @return true - если запись произведена, false - иначе
+     */
+    private static boolean save(AudioContext context, Path path, SampleFormat format, int numChannels,
+                                WriteAction action) {
+        if (checkAndDeleteWavFile(path)) return false;
+
+        PcmEncoder[] cache = encoders.get();
+        int capacity = WavWriter.DEFAULT_BLOCK_SIZE * numChannels;
+        PcmEncoder encoder = cache[format.ordinal()];
+        if (encoder == null || encoder.getCapacity() != capacity)
+            cache[format.ordinal()] = encoder = new PcmEncoder(format, capacity, false);
+        ByteBuffer buffer = BufferPool.acquireDirect(Math.max(capacity * format.getBytesPerSample(),
+                headerSize(format, numChannels)));
+        try(WavWriter wavFile = new WavWriter(context, path, numChannels, encoder, buffer)) {
+            action.write(wavFile);
+        } catch (IOException e) {
+            ExceptionHandler.log(e, AudioContext.getProperties().getProperty("error.wav.FileSave"));
+            return false;
+        } finally {
+            BufferPool.release(buffer);
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface WriteAction {
+        void write(WavWriter wavFile) throws IOException;
     }
 
     /**
@@ -180,47 +239,82 @@ public class WavFile {
                 return true;
             Files.deleteIfExists(path);
         } catch (IOException e) {
-            ExceptionHandler.log(e, GlobalHelper.props.getProperty("error.wav.fileSave"));
+            ExceptionHandler.log(e, AudioContext.getProperties().getProperty("error.wav.fileSave"));
             return true;
         }
         return false;
     }
 
     /**
-     * Запись заголовка Wav-файла
-     * @param output поток для вывода файла
-     * @param numChannels количество каналов (1-моно, 2 - стерео)
-     * @param audioLength длина массива аудиоданных
-     * @throws IOException
+     * Размер заголовка Wav-файла (минимальная емкость буфера записи WavWriter)
+     * @param format формат отсчетов
+     * @param numChannels количество каналов
+     * @return размер заголовка в байтах (до начала аудиоданных)
+     */
+    public static int headerSize(SampleFormat format, int numChannels) {
+        return HEADER_SIZE - 16 + fmtSize(format, numChannels) + (hasFactChunk(format) ? 12 : 0);
+    }
+
+    // Больше 2 каналов или PCM больше 16 бит - заголовок WAVE_FORMAT_EXTENSIBLE (раскладка каналов и точная разрядность)
+    private static boolean isExtensible(SampleFormat format, int numChannels) {
+        return numChannels > 2 || isPcm(format) && format.getBitsPerSample() > 16;
+    }
+
+    // Размер блока fmt: 16 - PCM, 18 - с cbSize (не PCM), 40 - WAVE_FORMAT_EXTENSIBLE
+    private static int fmtSize(SampleFormat format, int numChannels) {
+        return isExtensible(format, numChannels) ? 40 : isPcm(format) ? 16 : 18;
+    }
+
+    // Не PCM (IEEE float) - блок fmt с cbSize и блок fact с количеством кадров
+    private static boolean isPcm(SampleFormat format) {
+        return format.getFormatTag() == 1;
+    }
+
+    /**
+     * @return true - если в заголовке есть блок fact (перед блоком data, количество кадров - в его последнем поле)
      */
-    private static void saveWavFileHeader(DataOutputStream output, int numChannels, int audioLength) throws IOException {
-        int shift = 4 - numChannels;
-        output.writeInt(Integer.reverseBytes(0x46464952));                      // offset 00: ChinkId ="RIFF"
-        output.writeInt(Integer.reverseBytes(36+audioLength*numChannels*2));    // offset 04: ChunkSize длину файла (с учетом заголовка)
-        output.writeInt(Integer.reverseBytes(0x45564157));                      // offset 08: Format = "WAVE"
-        output.writeInt(Integer.reverseBytes(0x20746D66));                      // offset 12: Subchunk1Id = "frm"
-        output.writeInt(Integer.reverseBytes(16));                              // offset 16: Subchunk1Size = 16
-        output.writeShort(Short.reverseBytes((short) 1));                       // offset 20: AudioFormat = 1 (PCM)
-        output.writeShort(Short.reverseBytes((short) numChannels));             // offset 22: NumChannels = 2 (Stereo) - кол-во дорожек
-        output.writeInt(Integer.reverseBytes(GlobalHelper.samplePerSec));       // offset 24: SampleRate (частота дискретизации)
-        output.writeInt(Integer.reverseBytes(GlobalHelper.samplePerSec  *       // offset 28: ByteRate (частота дискретизации,
-                GlobalHelper.bitsPerSample >>> shift));                         // приведенная к байтам)
-        output.writeShort(Short.reverseBytes((short) (GlobalHelper.bitsPerSample >>> shift)));  // offset 32: FrameSize = 16 / 8
-        output.writeShort(Short.reverseBytes((short) GlobalHelper.bitsPerSample));              // offset 34: BlockAlign
-        output.writeInt(Integer.reverseBytes(0x61746164));                      // offset 36: Subchunk2Id   = "DATA" (заголовок)
-        output.writeInt(Integer.reverseBytes(audioLength*2*numChannels));       // offset 40: Subchunk2Size = размер массива данных в байтах
+    static boolean hasFactChunk(SampleFormat format) {
+        return !isPcm(format);
     }
 
     /**
-     * Преобразование массива short[] в byte[]
-     * @param data исходный массив
-     * @return байтовый массив (длина которого в 2 раза больше)
+     * Запись заголовка Wav-файла (порядок байт буфера должен быть LITTLE_ENDIAN)
+     * @param output буфер для вывода заголовка
+     * @param sampleRate частота дискретизации
+     * @param format формат отсчетов
+     * @param numChannels количество каналов
+     * @param audioLength длина массива аудиоданных (в кадрах)
      */
-    private static byte[] convertShortToByteArray(short[] data) {
-        ByteBuffer byteBuf = ByteBuffer.allocate(2*data.length);
-        for (short s : data)
-            byteBuf.putShort(Short.reverseBytes(s));
-        return byteBuf.array();
+    static void saveWavFileHeader(ByteBuffer output, int sampleRate, SampleFormat format, int numChannels,
+                                  int audioLength) {
+        int blockAlign = numChannels * format.getBytesPerSample();
+        boolean extensible = isExtensible(format, numChannels);
+        int fmtSize = fmtSize(format, numChannels);
+        output.putInt(0x46464952);                                      // offset 00: ChinkId ="RIFF"
+        output.putInt(headerSize(format, numChannels) - 8 + audioLength*blockAlign); // offset 04: ChunkSize длину файла (с учетом заголовка)
+        output.putInt(0x45564157);                                      // offset 08: Format = "WAVE"
+        output.putInt(0x20746D66);                                      // offset 12: Subchunk1Id = "frm"
+        output.putInt(fmtSize);                                         // offset 16: Subchunk1Size = 16 (18 - float, 40 - extensible)
+        output.putShort((short) (extensible ? SampleFormat.EXTENSIBLE_TAG : format.getFormatTag())); // offset 20: AudioFormat (1 - PCM, 3 - IEEE float, 0xFFFE - extensible)
+        output.putShort((short) numChannels);                           // offset 22: NumChannels - кол-во дорожек
+        output.putInt(sampleRate);                                      // offset 24: SampleRate (частота дискретизации)
+        output.putInt(sampleRate * blockAlign);                         // offset 28: ByteRate (байт в секунду)
+        output.putShort((short) blockAlign);                            // offset 32: BlockAlign (байт в кадре)
+        output.putShort((short) format.getBitsPerSample());             // offset 34: BitsPerSample
+        if (fmtSize > 16)
+            output.putShort((short) (fmtSize - 18));                    // offset 36: cbSize - размер расширения (0 или 22)
+        if (extensible) {
+            output.putShort((short) format.getBitsPerSample());         // offset 38: ValidBitsPerSample
+            output.putInt(numChannels <= 18 ? (1 << numChannels) - 1 : 0); // offset 40: ChannelMask (L, R, C, LFE, ... по порядку)
+            format.putSubFormat(output);                                // offset 44: SubFormat GUID
+        }
+        if (hasFactChunk(format)) {
+            output.putInt(0x74636166);                                  // offset 20 + fmtSize: "fact" (обязателен не для PCM)
+            output.putInt(4);                                           //   размер блока fact
+            output.putInt(audioLength);                                 //   dwSampleLength - количество кадров
+        }
+        output.putInt(0x61746164);                                      // offset 36 (заголовок - 8): Subchunk2Id = "DATA"
+        output.putInt(audioLength*blockAlign);                          // offset 40 (заголовок - 4): Subchunk2Size = размер массива данных в байтах
     }
 
     public static void testSave(int freq) {
@@ -0,0 +1,266 @@
+package ru.joysi.audio.file;
+
+import ru.joysi.audio.buffer.SampleStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Чтение Wav-файла (PCM 8/16/24/32 бит, IEEE float, в том числе WAVE_FORMAT_EXTENSIBLE) через отображение блока данных в память.
+ * Открытие файла не зависит от его размера: разбирается только заголовок, а отсчеты
+ * декодируются по требованию через {@link WavChannelView}.
+ */
+public class WavReader implements Closeable {
+    // Максимальный размер одного отображаемого сегмента (ограничение FileChannel.map)
+    private static final long MAX_SEGMENT_SIZE = 1 << 30;
+    // Размер блока при чтении в хранилища (в кадрах)
+    private static final int STORE_BLOCK_FRAMES = 4096;
+
+    private static final int RIFF_ID = 0x46464952; // "RIFF"
+    private static final int WAVE_ID = 0x45564157; // "WAVE"
+    private static final int FMT_ID  = 0x20746D66; // "fmt "
+    private static final int DATA_ID = 0x61746164; // "data"
+    // Размер блока fmt WAVE_FORMAT_EXTENSIBLE
+    private static final int FMT_EXTENSIBLE_SIZE = 40;
+
+    private final FileChannel channel;
+    private final int numChannels;
+    private final int sampleRate;
+    private final PcmDecoder decoder;
+    private final int blockAlign;
+    private final long frameCount;
+    private final int segmentFrames;
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * Открыть Wav-файл для чтения
+     * @param path Путь к файлу
+     * @throws IOException если файл не читается или формат не поддерживается
+     */
+    public WavReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            ByteBuffer chunk = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(chunk, 0);
+            if (chunk.getInt(0) != RIFF_ID || chunk.getInt(8) != WAVE_ID)
+                throw new IOException("Not a RIFF/WAVE file: " + path);
+
+            // Просмотр подблоков до блока данных
+            int channels = 0, rate = 0, align = 0;
+            SampleFormat sampleFormat = null;
+            long pos = 12;
+            long dataOffset = -1, dataSize = 0;
+            while (pos + 8 <= fileSize) {
+                chunk.clear().limit(8);
+                readFully(chunk, pos);
+                int id = chunk.getInt(0);
+                long size = chunk.getInt(4) & 0xFFFFFFFFL;
+                pos += 8;
+                if (id == FMT_ID) {
+                    // Блок fmt: 16 байт PCM, 18 - с cbSize, 40 - WAVE_FORMAT_EXTENSIBLE (формат в GUID SubFormat)
+                    if (size < 16)
+                        throw new IOException("Incorrect wav fmt chunk size " + size + ": " + path);
+                    ByteBuffer fmt = ByteBuffer.allocate((int) Math.min(size, FMT_EXTENSIBLE_SIZE))
+                            .order(ByteOrder.LITTLE_ENDIAN);
+                    readFully(fmt, pos);
+                    int tag = fmt.getShort(0) & 0xFFFF;
+                    int bits = fmt.getShort(14) & 0xFFFF;
+                    channels = fmt.getShort(2) & 0xFFFF;
+                    rate = fmt.getInt(4);
+                    align = fmt.getShort(12) & 0xFFFF;
+                    sampleFormat = tag != SampleFormat.EXTENSIBLE_TAG ? SampleFormat.of(tag, bits)
+                            : size >= FMT_EXTENSIBLE_SIZE ? SampleFormat.ofSubFormat(fmt, 24, bits) : null;
+                    if (sampleFormat == null || channels < 1 || align != channels * sampleFormat.getBytesPerSample())
+                        throw new IOException("Unsupported wav format (PCM 8/16/24/32bit, float 32bit): " + path);
+                } else if (id == DATA_ID) {
+                    dataOffset = pos;
+                    // Незакрытый при записи файл может содержать нулевой/неверный размер
+                    dataSize = size == 0 || pos + size > fileSize ? fileSize - pos : size;
+                    break;
+                }
+                pos += size + (size & 1);
+            }
+            if (channels == 0 || dataOffset < 0)
+                throw new IOException("Wav file has no fmt/data chunk: " + path);
+
+            numChannels = channels;
+            sampleRate = rate;
+            decoder = new PcmDecoder(sampleFormat, channels);
+            blockAlign = align;
+            frameCount = dataSize / blockAlign;
+            segmentFrames = (int) (MAX_SEGMENT_SIZE / blockAlign);
+
+            long segmentBytes = (long) segmentFrames * blockAlign;
+            int segmentCount = (int) ((frameCount + segmentFrames - 1) / segmentFrames);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long offset = i * segmentBytes;
+                long size = Math.min(segmentBytes, frameCount * blockAlign - offset);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + offset, size);
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return количество каналов
+     */
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    /**
+     * @return частота дискретизации
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return разрядность отсчета в битах
+     */
+    public int getBitsPerSample() {
+        return decoder.getFormat().getBitsPerSample();
+    }
+
+    /**
+     * @return формат отсчетов
+     */
+    public SampleFormat getFormat() {
+        return decoder.getFormat();
+    }
+
+    /**
+     * @return количество кадров (отсчетов на канал)
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Ленивое представление одного канала
+     * @param channel номер канала (0 - левый/моно, 1 - правый)
+     * @return представление отсчетов канала
+     */
+    public WavChannelView getChannel(int channel) {
+        if (channel < 0 || channel >= numChannels)
+            throw new IndexOutOfBoundsException("channel=" + channel);
+        return new WavChannelView(this, channel);
+    }
+
+    /**
+     * Декодирование одного отсчета
+     * @param frame номер кадра
+     * @param channel номер канала
+     * @return значение отсчета в [-1;1]
+     */
+    double getSample(long frame, int channel) {
+        if (frame < 0 || frame >= frameCount)
+            throw new IndexOutOfBoundsException("frame=" + frame);
+        ByteBuffer segment = segments[(int) (frame / segmentFrames)];
+        int index = (int) (frame % segmentFrames) * blockAlign + channel * decoder.getFormat().getBytesPerSample();
+        return decoder.decode(segment, index);
+    }
+
+    /**
+     * Декодирование последовательности отсчетов канала
+     * @return количество прочитанных отсчетов
+     */
+    int read(long frame, int channel, double[] dst, int offset, int length) {
+        return readSegments(frame, length, (segment, index, done, n) ->
+                decoder.decode(segment, index, channel, dst, offset + done, n));
+    }
+
+    /**
+     * Декодирование последовательности отсчетов канала в массив одинарной точности
+     * @return количество прочитанных отсчетов
+     */
+    int read(long frame, int channel, float[] dst, int offset, int length) {
+        return readSegments(frame, length, (segment, index, done, n) ->
+                decoder.decode(segment, index, channel, dst, offset + done, n));
+    }
+
+    /**
+     * Чтение всех каналов в планарные массивы за один проход по данным
+     * @param frame номер начального кадра
+     * @param dst массивы каналов (не меньше количества каналов)
+     * @param offset смещение в массивах каналов
+     * @param length максимальное количество кадров
+     * @return количество прочитанных кадров (0 - конец файла)
+     */
+    public int read(long frame, double[][] dst, int offset, int length) {
+        return readSegments(frame, length, (segment, index, done, n) ->
+                decoder.deinterleave(segment, index, dst, offset + done, n));
+    }
+
+    /**
+     * Чтение всех каналов в хранилища вне кучи блоками (без массива длины файла)
+     * @param frame номер начального кадра
+     * @param dst хранилища каналов (не меньше количества каналов)
+     * @param position позиция записи в хранилищах
+     * @param length максимальное количество кадров
+     * @return количество прочитанных кадров (0 - конец файла)
+     */
+    public long read(long frame, SampleStore[] dst, long position, long length) {
+        if (frame < 0 || frame > frameCount)
+            throw new IndexOutOfBoundsException("frame=" + frame);
+        long count = Math.min(length, frameCount - frame);
+        int block = (int) Math.min(count, STORE_BLOCK_FRAMES);
+        double[][] buffer = new double[numChannels][block];
+        for (long done = 0; done < count; ) {
+            int n = (int) Math.min(block, count - done);
+            read(frame + done, buffer, 0, n);
+            for (int c = 0; c < numChannels; c++)
+                dst[c].write(position + done, buffer[c], 0, n);
+            done += n;
+        }
+        return count;
+    }
+
+    // Обход кадров [frame; frame + length) по отображенным сегментам: reader декодирует участок одного сегмента
+    private int readSegments(long frame, int length, SegmentReader reader) {
+        int count = checkedCount(frame, length);
+        int done = 0;
+        while (done < count) {
+            long current = frame + done;
+            int first = (int) (current % segmentFrames);
+            int n = Math.min(count - done, segmentFrames - first);
+            reader.read(segments[(int) (current / segmentFrames)], first * blockAlign, done, n);
+            done += n;
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface SegmentReader {
+        void read(ByteBuffer segment, int index, int done, int frames);
+    }
+
+    // Количество кадров, доступных для чтения с позиции frame
+    private int checkedCount(long frame, int length) {
+        if (frame < 0 || frame > frameCount)
+            throw new IndexOutOfBoundsException("frame=" + frame);
+        return (int) Math.min(length, frameCount - frame);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Unexpected end of wav file");
+    }
+}
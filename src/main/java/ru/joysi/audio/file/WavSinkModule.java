@@ -0,0 +1,36 @@
+package ru.joysi.audio.file;
+
+import ru.joysi.audio.processing.AudioModule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Модуль-приемник блочного графа: дописывает каждый блок в моно Wav-файл
+ * через {@link WavWriter} и пропускает сигнал дальше без изменений.
+ * Закрытие writer остается за вызывающим.
+ */
+public class WavSinkModule extends AudioModule {
+    private final WavWriter writer;
+
+    /**
+     * @param writer открытый writer моно Wav-файла
+     */
+    public WavSinkModule(WavWriter writer) {
+        super("WavSink", 0);
+        if (writer.getNumChannels() != 1)
+            throw new IllegalArgumentException("WavSinkModule needs a mono writer");
+        this.writer = writer;
+    }
+
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        try {
+            writer.write(in, 0, frames);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (out != in)
+            System.arraycopy(in, 0, out, 0, frames);
+    }
+}
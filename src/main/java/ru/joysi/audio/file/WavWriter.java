@@ -0,0 +1,410 @@
+package ru.joysi.audio.file;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.buffer.SampleStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Потоковая запись Wav-файла блоками.
+ * Файл открывается один раз, аудиоданные кодируются ({@link PcmEncoder}) порциями в повторно
+ * используемый direct-буфер, размеры RIFF/data (и fact) в заголовке исправляются при закрытии.
+ * Расход памяти ограничен размером блока, а не длиной файла. Данные больше 4 Гб (предел 32-битных
+ * размеров заголовка) не дописываются - запись завершается IOException, файл остается корректным.
+ */
+public class WavWriter implements Closeable {
+    // Размер блока по умолчанию (в кадрах)
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    // Смещение поля заголовка RIFF, которое исправляется при закрытии (поля fact и data - в конце заголовка)
+    private static final int RIFF_SIZE_OFFSET = 4;
+
+    private final FileChannel channel;
+    private final int sampleRate;
+    private final int numChannels;
+    private final int blockSize;
+    private final int headerSize;
+    private final long maxDataSize;    // помещается в 32-битные поля заголовка
+    private final PcmEncoder encoder;
+    private final ByteBuffer buffer;
+    private double[][] storeBlock;      // блок чтения из хранилищ (создается при первой записи из них)
+    private long framesWritten;
+    private boolean closed;
+
+    /**
+     * Открыть файл для записи (16бит) с размером блока по умолчанию
+     * @param path Путь к файлу
+     * @param numChannels количество каналов
+     * @throws IOException
+     */
+    public WavWriter(Path path, int numChannels) throws IOException {
+        this(path, numChannels, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Открыть файл для записи (16бит)
+     * @param path Путь к файлу
+     * @param numChannels количество каналов
+     * @param blockSize размер блока буфера преобразования (в кадрах)
+     * @throws IOException
+     */
+    public WavWriter(Path path, int numChannels, int blockSize) throws IOException {
+        this(path, numChannels, SampleFormat.PCM_16, blockSize, false);
+    }
+
+    /**
+     * Открыть файл для записи в заданном формате с размером блока по умолчанию
+     * @param path Путь к файлу
+     * @param numChannels количество каналов
+     * @param format формат отсчетов
+     * @throws IOException
+     */
+    public WavWriter(Path path, int numChannels, SampleFormat format) throws IOException {
+        this(path, numChannels, format, DEFAULT_BLOCK_SIZE, false);
+    }
+
+    /**
+     * Открыть файл для записи
+     * @param path Путь к файлу
+     * @param numChannels количество каналов
+     * @param format формат отсчетов
+     * @param blockSize размер блока буфера преобразования (в кадрах)
+     * @param dither true - TPDF дизеринг при квантовании (PCM 8/16/24 бит)
+     * @throws IOException
+     */
+    public WavWriter(Path path, int numChannels, SampleFormat format, int blockSize, boolean dither)
+            throws IOException {
+        this(AudioContext.getDefault(), path, numChannels, format, blockSize, dither);
+    }
+
+    /**
+     * Открыть файл для записи с частотой дискретизации контекста
+     * @param context контекст (частота дискретизации)
+     * @param path Путь к файлу
+     * @param numChannels количество каналов
+     * @param format формат отсчетов
+     * @param blockSize размер блока буфера преобразования (в кадрах)
+     * @param dither true - TPDF дизеринг при квантовании (PCM 8/16/24 бит)
+     * @throws IOException
+     */
+    public WavWriter(AudioContext context, Path path, int numChannels, SampleFormat format, int blockSize,
+                     boolean dither) throws IOException {
+        this(context, path, numChannels, createEncoder(format, numChannels, blockSize, dither),
+                ByteBuffer.allocateDirect(Math.max(blockSize * numChannels * format.getBytesPerSample(),
+                        WavFile.headerSize(format, numChannels))));
+    }
+
+    /**
+     * Открыть файл для записи с кодировщиком и буфером вызывающего (повторно используются между файлами,
+     * например рабочим потоком пакетного рендера). Размер блока - емкость кодировщика в кадрах
+     * @param context контекст (частота дискретизации)
+     * @param path Путь к файлу
+     * @param numChannels количество каналов
+     * @param encoder кодировщик (емкость - кратна numChannels)
+     * @param buffer буфер преобразования (емкость не меньше блока в байтах и заголовка)
+     * @throws IOException
+     */
+    public WavWriter(AudioContext context, Path path, int numChannels, PcmEncoder encoder, ByteBuffer buffer)
+            throws IOException {
+        if (numChannels < 1 || encoder.getCapacity() < numChannels)
+            throw new IllegalArgumentException("numChannels=" + numChannels + ", capacity=" + encoder.getCapacity());
+        this.sampleRate = context.getSampleRate();
+        this.numChannels = numChannels;
+        this.blockSize = encoder.getCapacity() / numChannels;
+        this.headerSize = WavFile.headerSize(encoder.getFormat(), numChannels);
+        this.maxDataSize = 0xFFFFFFFFL - headerSize + 8;
+        if (buffer.capacity() < Math.max(blockSize * numChannels * encoder.getFormat().getBytesPerSample(),
+                headerSize))
+            throw new IllegalArgumentException("Buffer is too small: " + buffer.capacity());
+        this.encoder = encoder;
+        this.buffer = buffer;
+        buffer.clear();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            // Заголовок с нулевой длиной данных - исправляется в close()
+            WavFile.saveWavFileHeader(buffer, sampleRate, encoder.getFormat(), numChannels, 0);
+            flush();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Дописать моно-блок аудиоданных
+     * @param audio Массив аудиоданных
+     * @throws IOException
+     */
+    public void write(double[] audio) throws IOException {
+        write(audio, 0, audio.length);
+    }
+
+    /**
+     * Дописать часть моно-блока аудиоданных
+     * @param audio Массив аудиоданных
+     * @param offset смещение начала в массиве
+     * @param length количество отсчетов
+     * @throws IOException
+     */
+    public void write(double[] audio, int offset, int length) throws IOException {
+        writeBlocks(1, length, (done, n) -> encoder.quantize(audio, offset + (int) done, n, 0, 1));
+    }
+
+    /**
+     * Дописать стерео-блок аудиоданных
+     * @param audioRightChannel Массив аудиоданных (правый канал)
+     * @param audioLeftChannel Массив аудиоданных (левый канал)
+     * @throws IOException
+     */
+    public void write(double[] audioRightChannel, double[] audioLeftChannel) throws IOException {
+        if (audioRightChannel.length != audioLeftChannel.length)
+            throw new IllegalArgumentException("Difference length of right/left audio channels");
+        write(audioRightChannel, audioLeftChannel, 0, audioRightChannel.length);
+    }
+
+    /**
+     * Дописать часть стерео-блока аудиоданных
+     * @param audioRightChannel Массив аудиоданных (правый канал)
+     * @param audioLeftChannel Массив аудиоданных (левый канал)
+     * @param offset смещение начала в массивах
+     * @param length количество кадров
+     * @throws IOException
+     */
+    public void write(double[] audioRightChannel, double[] audioLeftChannel, int offset, int length) throws IOException {
+        write(new double[][]{audioLeftChannel, audioRightChannel}, offset, length);
+    }
+
+    /**
+     * Дописать моно-блок аудиоданных одинарной точности
+     * @param audio Массив аудиоданных
+     * @throws IOException
+     */
+    public void write(float[] audio) throws IOException {
+        write(audio, 0, audio.length);
+    }
+
+    /**
+     * Дописать часть моно-блока аудиоданных одинарной точности
+     * @param audio Массив аудиоданных
+     * @param offset смещение начала в массиве
+     * @param length количество отсчетов
+     * @throws IOException
+     */
+    public void write(float[] audio, int offset, int length) throws IOException {
+        writeBlocks(1, length, (done, n) -> encoder.quantize(audio, offset + (int) done, n, 0, 1));
+    }
+
+    /**
+     * Дописать стерео-блок аудиоданных одинарной точности
+     * @param audioRightChannel Массив аудиоданных (правый канал)
+     * @param audioLeftChannel Массив аудиоданных (левый канал)
+     * @throws IOException
+     */
+    public void write(float[] audioRightChannel, float[] audioLeftChannel) throws IOException {
+        if (audioRightChannel.length != audioLeftChannel.length)
+            throw new IllegalArgumentException("Difference length of right/left audio channels");
+        write(audioRightChannel, audioLeftChannel, 0, audioRightChannel.length);
+    }
+
+    /**
+     * Дописать часть стерео-блока аудиоданных одинарной точности
+     * @param audioRightChannel Массив аудиоданных (правый канал)
+     * @param audioLeftChannel Массив аудиоданных (левый канал)
+     * @param offset смещение начала в массивах
+     * @param length количество кадров
+     * @throws IOException
+     */
+    public void write(float[] audioRightChannel, float[] audioLeftChannel, int offset, int length) throws IOException {
+        write(new float[][]{audioLeftChannel, audioRightChannel}, offset, length);
+    }
+
+    /**
+     * Дописать многоканальный блок аудиоданных
+     * @param channels Массивы аудиоданных по каналам (порядок каналов Wav: L, R, C, LFE, ...)
+     * @throws IOException
+     */
+    public void write(double[][] channels) throws IOException {
+        int length = channels.length == 0 ? 0 : channels[0].length;
+        for (double[] audio : channels)
+            if (audio.length != length)
+                throw new IllegalArgumentException("Difference length of audio channels");
+        write(channels, 0, length);
+    }
+
+    /**
+     * Дописать часть многоканального блока аудиоданных
+     * @param channels Массивы аудиоданных по каналам (порядок каналов Wav: L, R, C, LFE, ...)
+     * @param offset смещение начала в массивах
+     * @param length количество кадров
+     * @throws IOException
+     */
+    public void write(double[][] channels, int offset, int length) throws IOException {
+        writeBlocks(channels.length, length, (done, n) -> encoder.quantize(channels, offset + (int) done, n));
+    }
+
+    /**
+     * Дописать многоканальный блок аудиоданных одинарной точности
+     * @param channels Массивы аудиоданных по каналам (порядок каналов Wav: L, R, C, LFE, ...)
+     * @throws IOException
+     */
+    public void write(float[][] channels) throws IOException {
+        int length = channels.length == 0 ? 0 : channels[0].length;
+        for (float[] audio : channels)
+            if (audio.length != length)
+                throw new IllegalArgumentException("Difference length of audio channels");
+        write(channels, 0, length);
+    }
+
+    /**
+     * Дописать часть многоканального блока аудиоданных одинарной точности
+     * @param channels Массивы аудиоданных по каналам (порядок каналов Wav: L, R, C, LFE, ...)
+     * @param offset смещение начала в массивах
+     * @param length количество кадров
+     * @throws IOException
+     */
+    public void write(float[][] channels, int offset, int length) throws IOException {
+        writeBlocks(channels.length, length, (done, n) -> encoder.quantize(channels, offset + (int) done, n));
+    }
+
+    /**
+     * Дописать дорожки из хранилищ вне кучи целиком
+     * @param channels хранилища по каналам одинаковой длины (порядок каналов Wav: L, R, C, LFE, ...)
+     * @throws IOException
+     */
+    public void write(SampleStore... channels) throws IOException {
+        long length = channels.length == 0 ? 0 : channels[0].length();
+        for (SampleStore audio : channels)
+            if (audio.length() != length)
+                throw new IllegalArgumentException("Difference length of audio channels");
+        write(channels, 0, length);
+    }
+
+    /**
+     * Дописать участок дорожек из хранилищ вне кучи (чтение блоками, без промежуточного массива длины сессии)
+     * @param channels хранилища по каналам (порядок каналов Wav: L, R, C, LFE, ...)
+     * @param position номер первого кадра в хранилищах
+     * @param length количество кадров
+     * @throws IOException в том числе если данные файла превысят 4 Гб (предел заголовка Wav) - тогда
+     * участок не записывается
+     */
+    public void write(SampleStore[] channels, long position, long length) throws IOException {
+        if (storeBlock == null)
+            storeBlock = new double[numChannels][blockSize];
+        writeBlocks(channels.length, length, (done, n) -> {
+            for (int c = 0; c < numChannels; c++)
+                channels[c].read(position + done, storeBlock[c], 0, n);
+            encoder.quantize(storeBlock, 0, n);
+        });
+    }
+
+    /**
+     * @return количество записанных кадров
+     */
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    /**
+     * @return частота дискретизации
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return количество каналов
+     */
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    /**
+     * @return формат отсчетов
+     */
+    public SampleFormat getFormat() {
+        return encoder.getFormat();
+    }
+
+    /**
+     * Исправление размеров RIFF/data в заголовке и закрытие файла
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            long dataSize = framesWritten * numChannels * encoder.getFormat().getBytesPerSample();
+            buffer.clear();
+            buffer.putInt(0, (int) (dataSize + headerSize - 8)).limit(4);
+            channel.write(buffer, RIFF_SIZE_OFFSET);
+            buffer.clear();
+            buffer.putInt(0, (int) dataSize).limit(4);
+            channel.write(buffer, headerSize - 4);
+            if (WavFile.hasFactChunk(encoder.getFormat())) {
+                buffer.clear();
+                buffer.putInt(0, (int) framesWritten).limit(4);
+                channel.write(buffer, headerSize - 12);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void checkState(int expectedChannels) throws IOException {
+        if (closed)
+            throw new IOException("WavWriter is closed");
+        if (numChannels != expectedChannels)
+            throw new IllegalArgumentException("Writer opened for " + numChannels + " channel(s)");
+    }
+
+    // Запись length кадров блоками: source квантует кадры [done; done + n) источника в кодировщик
+    private void writeBlocks(int expectedChannels, long length, BlockSource source) throws IOException {
+        checkState(expectedChannels);
+        // Данные, не помещающиеся в 32-битные размеры заголовка, не пишутся: файл остается корректным
+        long frameBytes = (long) numChannels * encoder.getFormat().getBytesPerSample();
+        if (length > (maxDataSize / frameBytes) - framesWritten)
+            throw new IOException("Wav data size exceeds 4 GiB: " + framesWritten + " + " + length + " frame(s)");
+        for (long done = 0; done < length; ) {
+            int n = (int) Math.min(blockSize, length - done);
+            source.quantize(done, n);
+            writeBlock(n);
+            done += n;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockSource {
+        void quantize(long done, int frames);
+    }
+
+    // Перенос квантованного блока из frames кадров в буфер и запись в канал
+    private void writeBlock(int frames) throws IOException {
+        encoder.pack(frames * numChannels, buffer);
+        flush();
+        framesWritten += frames;
+    }
+
+    private static PcmEncoder createEncoder(SampleFormat format, int numChannels, int blockSize, boolean dither) {
+        if (numChannels < 1 || blockSize <= 0)
+            throw new IllegalArgumentException("numChannels=" + numChannels + ", blockSize=" + blockSize);
+        return new PcmEncoder(format, blockSize * numChannels, dither);
+    }
+
+    // Сброс накопленного буфера в канал
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.joysi.audio.playback;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+ * Устройство вывода для {@link PlaybackEngine} (обертка над SourceDataLine, в тестах - подмена)
+ */
+public interface LineSink {
+    /**
+     * Открыть и запустить линию
+     * @param format формат данных
+     * @param bufferSize размер буфера линии в байтах
+     */
+    void open(AudioFormat format, int bufferSize) throws LineUnavailableException;
+
+    /**
+     * Запись данных (может блокироваться до освобождения буфера линии)
+     * @return количество записанных байт
+     */
+    int write(byte[] data, int offset, int length);
+
+    /**
+     * @return количество байт, которые можно записать без блокировки
+     */
+    int available();
+
+    /**
+     * @return размер буфера линии в байтах
+     */
+    int getBufferSize();
+
+    /**
+     * Ожидание проигрывания всех записанных данных
+     */
+    void drain();
+
+    void close();
+}
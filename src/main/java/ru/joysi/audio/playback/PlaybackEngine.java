@@ -0,0 +1,317 @@
+package ru.joysi.audio.playback;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.ExceptionHandler;
+import ru.joysi.audio.buffer.MpscDoubleRingBuffer;
+import ru.joysi.audio.file.PcmEncoder;
+import ru.joysi.audio.file.SampleFormat;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Движок воспроизведения с низкой задержкой.
+ * Линия вывода открывается один раз, отдельный поток рендера с высоким приоритетом забирает
+ * блоки фиксированного размера из кольцевого буфера (MPSC), который наполняют вызывающие,
+ * и пишет их в линию. Движок считает опустошения буфера (underrun) и оценивает задержку.
+ * Асинхронные play() не проходят через очередь: фрагменты регистрируются в движке, и поток рендера
+ * подмешивает их в каждый блок, поэтому одновременные вызовы звучат одновременно, а не по очереди.
+ * Счетчик отсчетов "в пути" (приняты к проигрыванию, но еще не переданы в линию) позволяет
+ * {@link #drain()} дождаться и блока, который пишется в линию, и недоигранных фрагментов play().
+ * Для работы без звукового устройства (тесты) передается собственная реализация {@link LineSink}.
+ */
+public class PlaybackEngine implements Closeable {
+    // Размер блока рендера по умолчанию (в кадрах) и емкость очереди (в блоках)
+    public static final int DEFAULT_BLOCK_FRAMES = 512;
+    public static final int DEFAULT_QUEUE_BLOCKS = 8;
+
+    // Общие движки по форматам (частота, каналы)
+    private static final Map<Long, PlaybackEngine> engines = new ConcurrentHashMap<>();
+
+    private final AudioFormat format;
+    private final int channels;
+    private final int blockSamples;
+    private final LineSink sink;
+    private final MpscDoubleRingBuffer ring;  // писателей несколько: движок общий для процесса
+    private final ConcurrentLinkedQueue<Clip> clips = new ConcurrentLinkedQueue<>();  // фрагменты play()
+    private final double[] block;
+    private final PcmEncoder encoder;
+    private final byte[] bytes;
+    private final ByteBuffer byteBuffer;
+    private final Thread renderThread;
+
+    private volatile boolean running;
+    private volatile boolean streaming;  // писатель передает поток (недобор блока - это underrun)
+    private volatile long underruns;
+    private volatile long framesPlayed;
+    private final AtomicLong pending = new AtomicLong();  // отсчеты "в пути" до линии
+    private int clipSamples;  // отсчеты фрагментов play() в текущем блоке (только поток рендера)
+
+    /**
+     * Движок на звуковом устройстве
+     * @param sampleRate частота дискретизации
+     * @param channels количество каналов
+     */
+    public PlaybackEngine(int sampleRate, int channels) throws LineUnavailableException {
+        this(sampleRate, channels, DEFAULT_BLOCK_FRAMES, DEFAULT_QUEUE_BLOCKS, new SourceDataLineSink());
+    }
+
+    /**
+     * @param sampleRate частота дискретизации
+     * @param channels количество каналов
+     * @param blockFrames размер блока рендера в кадрах
+     * @param queueBlocks емкость очереди в блоках
+     * @param sink устройство вывода
+     */
+    public PlaybackEngine(int sampleRate, int channels, int blockFrames, int queueBlocks, LineSink sink)
+            throws LineUnavailableException {
+        if (channels < 1 || blockFrames <= 0 || queueBlocks <= 0)
+            throw new IllegalArgumentException("Incorrect playback parameters");
+        this.format = new AudioFormat(sampleRate, 16, channels, true, false);
+        this.channels = channels;
+        this.blockSamples = blockFrames * channels;
+        this.sink = sink;
+        this.ring = new MpscDoubleRingBuffer(blockSamples * queueBlocks);
+        this.block = new double[blockSamples];
+        this.encoder = new PcmEncoder(SampleFormat.PCM_16, blockSamples, false);
+        this.bytes = new byte[blockSamples * 2];
+        this.byteBuffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        sink.open(format, bytes.length * 2);
+        running = true;
+        renderThread = new Thread(this::renderLoop, "audio-render-" + sampleRate + "-" + channels);
+        renderThread.setDaemon(true);
+        renderThread.setPriority(Thread.MAX_PRIORITY);
+        renderThread.start();
+    }
+
+    /**
+     * Общий движок для формата на звуковом устройстве (линия остается открытой между вызовами)
+     * @param sampleRate частота дискретизации
+     * @param channels количество каналов
+     */
+    public static PlaybackEngine forFormat(int sampleRate, int channels) throws LineUnavailableException {
+        long key = ((long) sampleRate << 16) | channels;
+        PlaybackEngine engine = engines.get(key);
+        if (engine == null) {
+            synchronized (engines) {
+                engine = engines.get(key);
+                if (engine == null) {
+                    engine = new PlaybackEngine(sampleRate, channels);
+                    engines.put(key, engine);
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Неблокирующая запись чередующихся отсчетов (только целыми кадрами)
+     * @return количество записанных отсчетов
+     */
+    public int write(double[] samples, int offset, int length) {
+        int free = ring.remainingCapacity();
+        int n = Math.min(length, free - free % channels);
+        n -= n % channels;
+        // Учет до записи в очередь: поток рендера может забрать данные сразу
+        pending.addAndGet(n);
+        int written = offer(samples, offset, n);
+        if (written != n)
+            pending.addAndGet(written - n);
+        // Признак потока - после записи, чтобы опрос до прихода первых данных не считался underrun
+        if (written > 0)
+            streaming = true;
+        return written;
+    }
+
+    /**
+     * Запись чередующихся отсчетов с ожиданием места в очереди
+     */
+    public void writeBlocking(double[] samples, int offset, int length) {
+        int done = 0;
+        while (done < length && running) {
+            int n = write(samples, offset + done, length - done);
+            if (n == 0)
+                LockSupport.parkNanos(blockNanos() / 4);
+            done += n;
+        }
+    }
+
+    /**
+     * Ожидание проигрывания всех принятых данных (включая фрагменты асинхронного play() и блок,
+     * который пишется в линию); после него недобор блока не считается underrun
+     */
+    public void drain() {
+        streaming = false;
+        while (pending.get() > 0 && running)
+            LockSupport.parkNanos(blockNanos() / 4);
+        sink.drain();
+    }
+
+    /**
+     * Асинхронное проигрывание чередующихся отсчетов: фрагмент подмешивается потоком рендера
+     * к очереди и к другим фрагментам (массив не должен изменяться до конца проигрывания)
+     */
+    public void play(double[] samples) {
+        int length = samples.length - samples.length % channels;
+        if (length == 0)
+            return;
+        pending.addAndGet(length);
+        clips.add(new Clip(samples, length));
+        LockSupport.unpark(renderThread);
+    }
+
+    /**
+     * Асинхронное проигрывание планарных каналов (длина - по самому короткому каналу)
+     * @param channels массивы каналов (количество - как у движка)
+     */
+    public void play(double[][] channels) {
+        if (channels.length != this.channels)
+            throw new IllegalArgumentException("Expected " + this.channels + " channel(s)");
+        int frames = Integer.MAX_VALUE;
+        for (double[] channel : channels)
+            frames = Math.min(frames, channel.length);
+        // Интерливинг за один проход по кадрам
+        double[] interleaved = new double[frames * this.channels];
+        for (int i = 0, j = 0; i < frames; i++)
+            for (double[] channel : channels)
+                interleaved[j++] = channel[i];
+        play(interleaved);
+    }
+
+    /**
+     * @return количество опустошений очереди во время потока (эпизод недобора до следующего
+     * полного блока считается один раз)
+     */
+    public long getUnderruns() {
+        return underruns;
+    }
+
+    /**
+     * @return количество кадров, переданных в линию
+     */
+    public long getFramesPlayed() {
+        return framesPlayed;
+    }
+
+    /**
+     * @return оценка задержки (очередь + буфер линии) в миллисекундах
+     */
+    public double getLatencyMillis() {
+        int queuedFrames = ring.size() / channels;
+        int lineFrames = (sink.getBufferSize() - sink.available()) / format.getFrameSize();
+        return (queuedFrames + lineFrames) * 1000.0 / format.getSampleRate();
+    }
+
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(renderThread);
+        try {
+            renderThread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sink.close();
+        clips.clear();
+        engines.values().remove(this);
+    }
+
+    // Запись в очередь целых кадров одним блоком (без учета в pending); 0 - места нет
+    // или его занял другой писатель
+    private int offer(double[] samples, int offset, int length) {
+        int free = ring.remainingCapacity();
+        int n = Math.min(length, free - free % channels);
+        n -= n % channels;
+        return n > 0 && ring.offer(samples, offset, n) ? n : 0;
+    }
+
+    private void renderLoop() {
+        long idleNanos = blockNanos() / 4;
+        boolean starved = false;  // идет опустошение: underrun уже учтен до следующего полного блока
+        while (running) {
+            int got = ring.read(block, 0, blockSamples);
+            if (got == blockSamples) {
+                starved = false;
+            } else if (streaming && !starved) {
+                starved = true;
+                underruns++;
+            }
+            clipSamples = 0;
+            int count = clips.isEmpty() ? got : Math.max(got, mixClips(got));
+            if (count == 0) {
+                LockSupport.parkNanos(idleNanos);
+                continue;
+            }
+            try {
+                encoder.quantize(block, 0, count, 0, 1);
+                byteBuffer.clear();
+                encoder.pack(count, byteBuffer);
+                int len = count * 2;
+                // Взятый из очереди блок дописывается целиком и при закрытии
+                // (прерывается, только если закрытая линия перестала принимать данные)
+                for (int off = 0; off < len; ) {
+                    int n = sink.write(bytes, off, len - off);
+                    if (n <= 0 && !running)
+                        break;
+                    off += n;
+                }
+                framesPlayed += count / channels;
+            } catch (RuntimeException e) {
+                ExceptionHandler.log(e, AudioContext.getProperties().getProperty("error.wav.playAudio"));
+            } finally {
+                pending.addAndGet(-(got + clipSamples));
+            }
+        }
+    }
+
+    // Подмешивание следующего блока каждого фрагмента play() к got отсчетам из очереди
+    // (только поток рендера); возвращает длину самого длинного подмешанного участка
+    private int mixClips(int got) {
+        Arrays.fill(block, got, blockSamples, 0);
+        int longest = 0;
+        for (Iterator<Clip> it = clips.iterator(); it.hasNext(); ) {
+            Clip clip = it.next();
+            int n = Math.min(blockSamples, clip.length - clip.position);
+            for (int i = 0, j = clip.position; i < n; i++, j++)
+                block[i] += clip.samples[j];
+            clip.position += n;
+            clipSamples += n;
+            longest = Math.max(longest, n);
+            if (clip.position == clip.length)
+                it.remove();
+        }
+        return longest;
+    }
+
+    // Фрагмент асинхронного play(): позицию двигает только поток рендера
+    private static final class Clip {
+        final double[] samples;
+        final int length;
+        int position;
+
+        Clip(double[] samples, int length) {
+            this.samples = samples;
+            this.length = length;
+        }
+    }
+
+    private long blockNanos() {
+        return (long) (TimeUnit.SECONDS.toNanos(1) * (double) (blockSamples / channels) / format.getSampleRate());
+    }
+}
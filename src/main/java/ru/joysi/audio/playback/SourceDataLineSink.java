@@ -0,0 +1,47 @@
+package ru.joysi.audio.playback;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Вывод на звуковое устройство через javax.sound SourceDataLine
+ */
+public class SourceDataLineSink implements LineSink {
+    private SourceDataLine line;
+
+    @Override
+    public void open(AudioFormat format, int bufferSize) throws LineUnavailableException {
+        DataLine.Info dataLineInfo = new DataLine.Info(SourceDataLine.class, format);
+        line = (SourceDataLine) AudioSystem.getLine(dataLineInfo);
+        line.open(format, bufferSize);
+        line.start();
+    }
+
+    @Override
+    public int write(byte[] data, int offset, int length) {
+        return line.write(data, offset, length);
+    }
+
+    @Override
+    public int available() {
+        return line.available();
+    }
+
+    @Override
+    public int getBufferSize() {
+        return line.getBufferSize();
+    }
+
+    @Override
+    public void drain() {
+        line.drain();
+    }
+
+    @Override
+    public void close() {
+        line.close();
+    }
+}
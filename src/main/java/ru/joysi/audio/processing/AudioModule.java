@@ -1,9 +1,15 @@
 package ru.joysi.audio.processing;
 
 /**
+ * Базовый модуль блочного графа обработки.
+ * Модуль обрабатывает блок фиксированного размера в массив, предоставленный вызывающим,
+ * поэтому сколь угодно длинный рендер обходится небольшим постоянным набором буферов.
  * Created by 886 on 24.05.2016.
  */
-public class AudioModule {
+public abstract class AudioModule {
+    // Размер блока обработки по умолчанию (в отсчетах)
+    public static final int DEFAULT_BLOCK_SIZE = 512;
+
     protected String name;
     protected int id;
 
@@ -11,4 +17,27 @@ public class AudioModule {
         this.name = name;
         this.id = id;
     }
+
+    /**
+     * Обработка одного блока. Модули-источники (генераторы, микшеры) входной блок игнорируют,
+     * остальные должны допускать обработку на месте (in == out)
+     * @param in входной блок (может быть null для источников)
+     * @param out выходной блок
+     * @param frames количество отсчетов для обработки (не больше длины блоков)
+     */
+    public abstract void process(double[] in, double[] out, int frames);
+
+    /**
+     * Сброс внутреннего состояния модуля (позиция, фаза и т.п.)
+     */
+    public void reset() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
 }
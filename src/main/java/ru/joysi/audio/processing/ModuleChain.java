@@ -0,0 +1,55 @@
+package ru.joysi.audio.processing;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Последовательная цепочка модулей: первый модуль получает входной блок, остальные
+ * обрабатывают результат на месте. Рендер вытягивает данные из цепочки поблочно.
+ */
+public class ModuleChain extends AudioModule {
+    private final List<AudioModule> modules;
+
+    public ModuleChain(String name, int id, AudioModule... modules) {
+        super(name, id);
+        if (modules.length == 0)
+            throw new IllegalArgumentException("Empty module chain");
+        this.modules = Arrays.asList(modules.clone());
+    }
+
+    public ModuleChain(AudioModule... modules) {
+        this("Chain", 0, modules);
+    }
+
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        modules.get(0).process(in, out, frames);
+        for (int i = 1; i < modules.size(); i++)
+            modules.get(i).process(out, out, frames);
+    }
+
+    @Override
+    public void reset() {
+        for (AudioModule module : modules)
+            module.reset();
+    }
+
+    /**
+     * Вытянуть заданное количество отсчетов из цепочки (результат уходит в модули-приемники цепочки)
+     * @param totalFrames общее количество отсчетов
+     * @param blockSize размер блока
+     */
+    public void render(long totalFrames, int blockSize) {
+        double[] block = new double[blockSize];
+        for (long done = 0; done < totalFrames; done += blockSize)
+            process(null, block, (int) Math.min(blockSize, totalFrames - done));
+    }
+
+    /**
+     * Вытянуть заданное количество отсчетов блоками размера по умолчанию
+     * @param totalFrames общее количество отсчетов
+     */
+    public void render(long totalFrames) {
+        render(totalFrames, DEFAULT_BLOCK_SIZE);
+    }
+}
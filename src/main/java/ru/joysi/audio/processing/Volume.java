@@ -33,11 +33,43 @@ public final class Volume {
 
     // Уровень громкости участка
     public static double calcAvgAmpl(double[] audio) {
+        return calcAvgAmpl(audio, 0, audio.length);
+    }
+
+    // Уровень громкости части массива (средняя абсолютная амплитуда)
+    public static double calcAvgAmpl(double[] audio, int offset, int length) {
+        double res = 0;
+        for (int i = offset, end = offset + length; i < end; i++)
+            res += Math.abs(audio[i]);
+        return res / length;
+    }
+
+    // Сумма квадратов части массива (для накопления RMS по блокам)
+    public static double calcSumSquares(double[] audio, int offset, int length) {
+        double res = 0;
+        for (int i = offset, end = offset + length; i < end; i++)
+            res += audio[i] * audio[i];
+        return res;
+    }
+
+    // Среднеквадратичное значение части массива
+    public static double calcRms(double[] audio, int offset, int length) {
+        return Math.sqrt(calcSumSquares(audio, offset, length) / length);
+    }
+
+    // Максимальная абсолютная амплитуда части массива (пик по отсчетам)
+    public static double calcPeak(double[] audio, int offset, int length) {
+        double res = 0;
+        for (int i = offset, end = offset + length; i < end; i++)
+            res = Math.max(res, Math.abs(audio[i]));
+        return res;
+    }
+
+    // Уровень громкости участка (одинарная точность)
+    public static double calcAvgAmpl(float[] audio) {
         double res=0;
-        for(double elem: audio)
+        for(float elem: audio)
             res += Math.abs(elem);
         return res / audio.length;
-
-
     }
 }
@@ -1,6 +1,11 @@
 package ru.joysi.audio.processing.combines;
 
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.buffer.BufferPool;
+import ru.joysi.audio.buffer.SampleStore;
+
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Сумматоры сигнала , реализованные в виде static функций
@@ -11,41 +16,201 @@ public class Combines {
     /**
      * Складывает аудиосигналы + проводит постнормализацию в [-1;1]
      * @param audio входные аудиосигналы
-     * @return сложенный аудиосигнал
+     * @return сложенный аудиосигнал (новый массив и для одного входа - вход не изменяется)
      */
     public static double[] combineWithNormalize( double[]... audio) {
         if (audio.length == 0) return null;
-        if (audio.length == 1) return audio[1];
 
-        int maxIdx = 0;
-        // Найдем самый длинный семпл
-        for(double[] arr: audio)
-            if (arr.length > maxIdx)
-                maxIdx = arr.length;
+        // Сложим все аудиосемплы (+ выделим пиковый аудиосигнал)
+        double[] result = new double[maxLength(audio)];
+        double normalizer = Math.max(1.0, TiledMixer.sum(audio, result));
 
-        // Приведем все входные семплы к максимальной длине
-        for(int i=0; i < audio.length; i++)
-            if (audio[i].length < maxIdx)
-                audio[i] = Arrays.copyOf(audio[i], maxIdx);
+        if (normalizer !=1.0)
+            TiledMixer.scale(result, 1.0/ normalizer);
+        return result;
+    }
 
-        // Сложим все аудиосемплы (+ выделим пиковый аудиосигнал)
-        double[] result = new double[maxIdx];
-        double normalizer  = 1.0;
-        for (int i = 0; i < maxIdx; i++) {
-            for (int j = 0; j < audio.length; j++)
-                result[i] += audio[j][i];
-            double res = Math.abs(result[i]);
-            if (res > normalizer)
-                normalizer = res;
+    /**
+     * Складывает аудиосигналы + проводит постнормализацию в [-1;1] в массив вызывающего
+     * @param dst массив результата (не должен совпадать с входами)
+     * @param offset смещение в массиве результата
+     * @param length количество отсчетов результата (короткие входы дополняются нулями, длинные - обрезаются)
+     * @param audio входные аудиосигналы
+     */
+    public static void combineWithNormalizeInto(double[] dst, int offset, int length, double[]... audio) {
+        Arrays.fill(dst, offset, offset + length, 0);
+        double normalizer = Math.max(1.0, TiledMixer.sum(audio, dst, offset, length));
+
+        if (normalizer != 1.0)
+            TiledMixer.scale(dst, offset, length, 1.0 / normalizer);
+    }
+
+    /**
+     * Складывает дорожки из хранилищ вне кучи + проводит постнормализацию в [-1;1] в хранилище результата.
+     * Дорожки читаются участками {@link TiledMixer#TILE_SIZE} в рабочие массивы пула, поэтому длина сессии
+     * не ограничена кучей. Результат побитово совпадает с {@link #combineWithNormalize(double[]...)}
+     * @param dst хранилище результата (не должно совпадать с входами; короткие входы дополняются нулями,
+     *            длинные - обрезаются)
+     * @param audio входные дорожки
+     */
+    public static void combineWithNormalize(SampleStore dst, SampleStore... audio) {
+        int tileSize = TiledMixer.TILE_SIZE;
+        double[] tile = BufferPool.acquireDoubles(tileSize);
+        double[] input = BufferPool.acquireDoubles(tileSize);
+        try {
+            long length = dst.length();
+            double peak = 0;
+            for (long pos = 0; pos < length; pos += tileSize) {
+                int n = (int) Math.min(tileSize, length - pos);
+                Arrays.fill(tile, 0, n, 0);
+                for (SampleStore track : audio) {
+                    int m = (int) Math.min(n, track.length() - pos);
+                    if (m <= 0)
+                        continue;
+                    track.read(pos, input, 0, m);
+                    for (int i = 0; i < m; i++)
+                        tile[i] += input[i];
+                }
+                for (int i = 0; i < n; i++) {
+                    double res = Math.abs(tile[i]);
+                    if (res > peak)
+                        peak = res;
+                }
+                dst.write(pos, tile, 0, n);
+            }
+            double normalizer = Math.max(1.0, peak);
+            if (normalizer != 1.0)
+                dst.scale(0, length, 1.0 / normalizer);
+        } finally {
+            BufferPool.release(input);
+            BufferPool.release(tile);
         }
+    }
+
+    /**
+     * Складывает аудиосигналы + проводит постнормализацию в [-1;1] параллельно на общем пуле ForkJoinPool
+     * @param audio входные аудиосигналы
+     * @return сложенный аудиосигнал (побитово совпадает с {@link #combineWithNormalize(double[]...)})
+     */
+    public static double[] combineWithNormalizeParallel(double[]... audio) {
+        return combineWithNormalizeParallel(ForkJoinPool.commonPool(), audio);
+    }
+
+    /**
+     * Складывает аудиосигналы + проводит постнормализацию в [-1;1] параллельно на пуле контекста
+     * @param context контекст (пул потоков)
+     * @param audio входные аудиосигналы
+     * @return сложенный аудиосигнал (побитово совпадает с {@link #combineWithNormalize(double[]...)})
+     */
+    public static double[] combineWithNormalizeParallel(AudioContext context, double[]... audio) {
+        return combineWithNormalizeParallel(context.getPool(), audio);
+    }
+
+    /**
+     * Складывает аудиосигналы + проводит постнормализацию в [-1;1] параллельно:
+     * выход делится на участки размером с кэш, пик ищется параллельной редукцией
+     * @param pool пул потоков
+     * @param audio входные аудиосигналы
+     * @return сложенный аудиосигнал (побитово совпадает с {@link #combineWithNormalize(double[]...)})
+     */
+    public static double[] combineWithNormalizeParallel(ForkJoinPool pool, double[]... audio) {
+        if (audio.length == 0) return null;
+
+        double[] result = new double[maxLength(audio)];
+        double normalizer = Math.max(1.0, TiledMixer.sum(pool, audio, result));
+
+        if (normalizer !=1.0)
+            TiledMixer.scale(pool, result, 1.0/ normalizer);
+        return result;
+    }
+
+    /**
+     * Складывает аудиосигналы одинарной точности + проводит постнормализацию в [-1;1].
+     * Сумма копится в double и округляется один раз: результат равен результату
+     * {@link #combineWithNormalize(double[]...)} на тех же (расширенных) отсчетах, округленному до float
+     * @param audio входные аудиосигналы
+     * @return сложенный аудиосигнал (новый массив и для одного входа)
+     */
+    public static float[] combineWithNormalize(float[]... audio) {
+        if (audio.length == 0) return null;
+
+        float[] result = new float[maxLength(audio)];
+        double normalizer = Math.max(1.0, TiledMixer.sum(audio, result));
 
-        double coeff = 1.0/ normalizer;
         if (normalizer !=1.0)
-            for (int i = 0; i < maxIdx; i++)
-                result[i] *= coeff;
+            TiledMixer.sumScaled(audio, result, 0, result.length, 1.0/ normalizer);
         return result;
     }
 
+    /**
+     * Складывает аудиосигналы одинарной точности + проводит постнормализацию в [-1;1] в массив вызывающего
+     * @param dst массив результата (не должен совпадать с входами)
+     * @param offset смещение в массиве результата
+     * @param length количество отсчетов результата (короткие входы дополняются нулями, длинные - обрезаются)
+     * @param audio входные аудиосигналы
+     */
+    public static void combineWithNormalizeInto(float[] dst, int offset, int length, float[]... audio) {
+        double normalizer = Math.max(1.0, TiledMixer.sum(audio, dst, offset, length));
+
+        if (normalizer != 1.0)
+            TiledMixer.sumScaled(audio, dst, offset, length, 1.0 / normalizer);
+    }
+
+    /**
+     * Складывает аудиосигналы одинарной точности + проводит постнормализацию в [-1;1]
+     * параллельно на общем пуле ForkJoinPool
+     * @param audio входные аудиосигналы
+     * @return сложенный аудиосигнал (побитово совпадает с {@link #combineWithNormalize(float[]...)})
+     */
+    public static float[] combineWithNormalizeParallel(float[]... audio) {
+        return combineWithNormalizeParallel(ForkJoinPool.commonPool(), audio);
+    }
+
+    /**
+     * Складывает аудиосигналы одинарной точности + проводит постнормализацию в [-1;1]
+     * параллельно на пуле контекста
+     * @param context контекст (пул потоков)
+     * @param audio входные аудиосигналы
+     * @return сложенный аудиосигнал (побитово совпадает с {@link #combineWithNormalize(float[]...)})
+     */
+    public static float[] combineWithNormalizeParallel(AudioContext context, float[]... audio) {
+        return combineWithNormalizeParallel(context.getPool(), audio);
+    }
+
+    /**
+     * Складывает аудиосигналы одинарной точности + проводит постнормализацию в [-1;1] параллельно
+     * @param pool пул потоков
+     * @param audio входные аудиосигналы
+     * @return сложенный аудиосигнал (побитово совпадает с {@link #combineWithNormalize(float[]...)})
+     */
+    public static float[] combineWithNormalizeParallel(ForkJoinPool pool, float[]... audio) {
+        if (audio.length == 0) return null;
+
+        float[] result = new float[maxLength(audio)];
+        double normalizer = Math.max(1.0, TiledMixer.sum(pool, audio, result));
+
+        if (normalizer !=1.0)
+            TiledMixer.sumScaled(pool, audio, result, 1.0/ normalizer);
+        return result;
+    }
+
+    // Длина самого длинного семпла
+    private static int maxLength(double[]... audio) {
+        int maxIdx = 0;
+        for(double[] arr: audio)
+            if (arr.length > maxIdx)
+                maxIdx = arr.length;
+        return maxIdx;
+    }
+
+    private static int maxLength(float[][] audio) {
+        int maxIdx = 0;
+        for(float[] arr: audio)
+            if (arr.length > maxIdx)
+                maxIdx = arr.length;
+        return maxIdx;
+    }
+
     /**
      * Объединение нескольких массив последовательно в один
      * @param audio исходные массивы
@@ -57,15 +222,97 @@ public class Combines {
             length += s.length;
 
         double[] result = new double[length];
+        getSequenceByAddInto(result, 0, audio);
+        return result;
+    }
+
+    /**
+     * Объединение нескольких массивов последовательно в массив вызывающего
+     * @param dst массив результата
+     * @param offset смещение в массиве результата
+     * @param audio исходные массивы
+     * @return количество записанных отсчетов
+     */
+    public static int getSequenceByAddInto(double[] dst, int offset, double[]... audio) {
+        int destPos = offset;
+        for (double[] arr : audio) {
+            System.arraycopy(arr, 0, dst, destPos, arr.length);
+            destPos += arr.length;
+        }
+        return destPos - offset;
+    }
+
+    /**
+     * Объединение нескольких массивов последовательно в хранилище вне кучи
+     * @param dst хранилище результата
+     * @param position позиция первого отсчета в хранилище
+     * @param audio исходные массивы
+     * @return позиция после последнего записанного отсчета
+     */
+    public static long getSequenceByAdd(SampleStore dst, long position, double[]... audio) {
+        for (double[] arr : audio) {
+            dst.write(position, arr, 0, arr.length);
+            position += arr.length;
+        }
+        return position;
+    }
 
-        int destPos = 0;
-        for (int i = 0; i <audio.length ; i++) {
-            System.arraycopy(audio[i], 0, result, destPos, audio[i].length);
-            destPos += audio[i].length;
+    /**
+     * Объединение нескольких дорожек из хранилищ последовательно в хранилище вне кучи
+     * (копирование участками через рабочий массив пула)
+     * @param dst хранилище результата
+     * @param position позиция первого отсчета в хранилище
+     * @param audio исходные дорожки
+     * @return позиция после последнего записанного отсчета
+     */
+    public static long getSequenceByAdd(SampleStore dst, long position, SampleStore... audio) {
+        double[] tile = BufferPool.acquireDoubles(TiledMixer.TILE_SIZE);
+        try {
+            for (SampleStore track : audio) {
+                for (long pos = 0; pos < track.length(); pos += tile.length) {
+                    int n = (int) Math.min(tile.length, track.length() - pos);
+                    track.read(pos, tile, 0, n);
+                    dst.write(position + pos, tile, 0, n);
+                }
+                position += track.length();
+            }
+        } finally {
+            BufferPool.release(tile);
         }
+        return position;
+    }
+
+    /**
+     * Объединение нескольких массивов одинарной точности последовательно в один
+     * @param audio исходные массивы
+     * @return итоговый массив
+     */
+    public static float[] getSequenceByAdd(float[]... audio) {
+        int length=0;
+        for(float[] s: audio)
+            length += s.length;
+
+        float[] result = new float[length];
+        getSequenceByAddInto(result, 0, audio);
         return result;
     }
 
+    /**
+     * Объединение нескольких массивов одинарной точности последовательно в массив вызывающего
+     * @param dst массив результата
+     * @param offset смещение в массиве результата
+     * @param audio исходные массивы
+     * @return количество записанных отсчетов
+     */
+    public static int getSequenceByAddInto(float[] dst, int offset, float[]... audio) {
+        int destPos = offset;
+        for (float[] arr : audio) {
+            System.arraycopy(arr, 0, dst, destPos, arr.length);
+            destPos += arr.length;
+        }
+        return destPos - offset;
+    }
+
     /**
      *  Складывает аудиосигналы c использование линейной компрессии диапазона
      * @param threshold пороговый уровень компрессии
@@ -74,35 +321,88 @@ public class Combines {
      */
     public static double[] combineWithLinearDynaRangeCompression(double threshold, double[]... audio) {
         if (audio.length == 0 || threshold >= 1 || threshold < 0) return null;
-        if (audio.length == 1) return audio[1];
-        int maxIdx = 0;
+        if (audio.length == 1) return audio[0];
 
-        // Найдем самый длинный семпл
-        for(double[] arr: audio)
-            if (arr.length > maxIdx)
-                maxIdx = arr.length;
-
-        // Приведем все входные семплы к максимальной длине
-        for(int i=0; i < audio.length; i++)
-            if (audio[i].length < maxIdx)
-                audio[i] = Arrays.copyOf(audio[i], maxIdx);
+        double[] result = new double[maxLength(audio)];
+        combineWithLinearDynaRangeCompressionInto(threshold, result, 0, result.length, audio);
+        return result;
+    }
 
-        double[] result = Arrays.copyOf(audio[0], maxIdx); // Нормализованный результируюший массив.
+    /**
+     * Складывает аудиосигналы c использованием линейной компрессии диапазона в массив вызывающего.
+     * Короткие входы не дополняются копиями - недостающие отсчеты считаются нулевыми
+     * @param threshold пороговый уровень компрессии
+     * @param dst массив результата (не должен совпадать с входами)
+     * @param offset смещение в массиве результата
+     * @param length количество отсчетов результата (короткие входы дополняются нулями, длинные - обрезаются)
+     * @param audio входные аудиосигналы (должны быть нормализованы в [-1;1] !)
+     * @return true - если результат записан, false - при некорректных параметрах
+     */
+    public static boolean combineWithLinearDynaRangeCompressionInto(double threshold, double[] dst, int offset,
+                                                                int length, double[]... audio) {
+        if (audio.length == 0 || threshold >= 1 || threshold < 0) return false;
+        int first = Math.min(audio[0].length, length);
+        System.arraycopy(audio[0], 0, dst, offset, first);
+        Arrays.fill(dst, offset + first, offset + length, 0);
         double linearCoeff  = (1-threshold)/(2-threshold);
 
-        // Сложим все аудиосемплы по принципу
-        for (int i = 1; i < audio.length; i++)
-            for (int j = 0; j < maxIdx; j++) {
-                double res = result[j] + audio[i][j];
-                double absRes = Math.abs(result[j] + audio[i][j]);
-                if (absRes <= threshold)
-                    result[j] = result[j] + audio[i][j];
-                else
-                    result[j] = Math.signum(res) * (threshold + linearCoeff * (absRes - threshold));
-            }
+        // Сложим все аудиосемплы по принципу (за концом короткого входа - с нулем)
+        for (int i = 1; i < audio.length; i++) {
+            double[] input = audio[i];
+            int end = Math.min(input.length, length);
+            for (int j = 0; j < end; j++)
+                dst[offset + j] = linearCompress(dst[offset + j], input[j], threshold, linearCoeff);
+            for (int j = end; j < length; j++)
+                dst[offset + j] = linearCompress(dst[offset + j], 0, threshold, linearCoeff);
+        }
+        return true;
+    }
+
+    /**
+     *  Складывает аудиосигналы одинарной точности c использование линейной компрессии диапазона
+     * @param threshold пороговый уровень компрессии
+     * @param audio входные аудиосигналы (должны быть нормализованы в [-1;1] !)
+     * @return сложенный аудиосигнал
+     */
+    public static float[] combineWithLinearDynaRangeCompression(double threshold, float[]... audio) {
+        if (audio.length == 0 || threshold >= 1 || threshold < 0) return null;
+        if (audio.length == 1) return audio[0];
+
+        float[] result = new float[maxLength(audio)];
+        combineWithLinearDynaRangeCompressionInto(threshold, result, 0, result.length, audio);
         return result;
     }
 
+    /**
+     * Складывает аудиосигналы одинарной точности c использованием линейной компрессии диапазона в массив вызывающего.
+     * Короткие входы не дополняются копиями - недостающие отсчеты считаются нулевыми
+     * @param threshold пороговый уровень компрессии
+     * @param dst массив результата (не должен совпадать с входами)
+     * @param offset смещение в массиве результата
+     * @param length количество отсчетов результата (короткие входы дополняются нулями, длинные - обрезаются)
+     * @param audio входные аудиосигналы (должны быть нормализованы в [-1;1] !)
+     * @return true - если результат записан, false - при некорректных параметрах
+     */
+    public static boolean combineWithLinearDynaRangeCompressionInto(double threshold, float[] dst, int offset,
+                                                                int length, float[]... audio) {
+        if (audio.length == 0 || threshold >= 1 || threshold < 0) return false;
+        int first = Math.min(audio[0].length, length);
+        System.arraycopy(audio[0], 0, dst, offset, first);
+        Arrays.fill(dst, offset + first, offset + length, 0);
+        double linearCoeff  = (1-threshold)/(2-threshold);
+
+        // Сложим все аудиосемплы по принципу (за концом короткого входа - с нулем)
+        for (int i = 1; i < audio.length; i++) {
+            float[] input = audio[i];
+            int end = Math.min(input.length, length);
+            for (int j = 0; j < end; j++)
+                dst[offset + j] = (float) linearCompress(dst[offset + j], input[j], threshold, linearCoeff);
+            for (int j = end; j < length; j++)
+                dst[offset + j] = (float) linearCompress(dst[offset + j], 0, threshold, linearCoeff);
+        }
+        return true;
+    }
+
     /**
      *  Складывает аудиосигналы c использование логарифмической компрессии диапазона
      * @param threshold пороговый уровень компрессии
@@ -111,50 +411,98 @@ public class Combines {
      */
     public static double[] combineWithLnDynaRangeCompression(double threshold, double[]... audio) {
         if (audio.length == 0 || threshold >= 1 || threshold < 0) return null;
-        if (audio.length == 1) return audio[1];
-        int maxIdx = 0;
+        if (audio.length == 1) return audio[0];
 
-        // Найдем самый длинный семпл
-        for(double[] arr: audio)
-            if (arr.length > maxIdx)
-                maxIdx = arr.length;
+        double[] result = new double[maxLength(audio)];
+        combineWithLnDynaRangeCompressionInto(threshold, result, 0, result.length, audio);
+        return result;
+    }
 
-        // Приведем все входные семплы к максимальной длине
-        for(int i=0; i < audio.length; i++)
-            if (audio[i].length < maxIdx)
-                audio[i] = Arrays.copyOf(audio[i], maxIdx);
-
-        double[] result = Arrays.copyOf(audio[0], maxIdx); // Нормализованный результируюший массив.
-        double expCoeff = alphaT[(int) threshold*100];
-
-        // Сложим все аудиосемплы по принципу
-        for (int i = 1; i < audio.length; i++)
-            for (int j = 0; j < maxIdx; j++) {
-                double res = result[j] + audio[i][j];
-                double absRes = Math.abs(result[j] + audio[i][j]);
-                if (absRes <= threshold)
-                    result[j] = result[j] + audio[i][j];
-                else
-                    result[j] = Math.signum(res) * (threshold + ( 1 - threshold) *
-                            Math.log(1.0 + expCoeff * (absRes-threshold) /(2-threshold)) /
-                            Math.log(1.0 + expCoeff ));
-            }
+    /**
+     * Складывает аудиосигналы c использованием логарифмической компрессии диапазона в массив вызывающего.
+     * Короткие входы не дополняются копиями - недостающие отсчеты считаются нулевыми
+     * @param threshold пороговый уровень компрессии
+     * @param dst массив результата (не должен совпадать с входами)
+     * @param offset смещение в массиве результата
+     * @param length количество отсчетов результата (короткие входы дополняются нулями, длинные - обрезаются)
+     * @param audio входные аудиосигналы (должны быть нормализованы в [-1;1] !)
+     * @return true - если результат записан, false - при некорректных параметрах
+     */
+    public static boolean combineWithLnDynaRangeCompressionInto(double threshold, double[] dst, int offset,
+                                                            int length, double[]... audio) {
+        if (audio.length == 0 || threshold >= 1 || threshold < 0) return false;
+        int first = Math.min(audio[0].length, length);
+        System.arraycopy(audio[0], 0, dst, offset, first);
+        Arrays.fill(dst, offset + first, offset + length, 0);
+        LnCompressionCurve curve = LnCompressionCurve.forThreshold(threshold);
+
+        // Сложим все аудиосемплы по принципу (за концом короткого входа - с нулем)
+        for (int i = 1; i < audio.length; i++) {
+            double[] input = audio[i];
+            int end = Math.min(input.length, length);
+            for (int j = 0; j < end; j++)
+                dst[offset + j] = curve.combine(dst[offset + j], input[j]);
+            for (int j = end; j < length; j++)
+                dst[offset + j] = curve.combine(dst[offset + j], 0);
+        }
+        return true;
+    }
+
+    /**
+     *  Складывает аудиосигналы одинарной точности c использование логарифмической компрессии диапазона
+     * @param threshold пороговый уровень компрессии
+     * @param audio входные аудиосигналы (должны быть нормализованы в [-1;1] !)
+     * @return сложенный аудиосигнал
+     */
+    public static float[] combineWithLnDynaRangeCompression(double threshold, float[]... audio) {
+        if (audio.length == 0 || threshold >= 1 || threshold < 0) return null;
+        if (audio.length == 1) return audio[0];
+
+        float[] result = new float[maxLength(audio)];
+        combineWithLnDynaRangeCompressionInto(threshold, result, 0, result.length, audio);
         return result;
     }
 
-    // Решение уравнений pow(1+x,1/x)=exp((1-t)/(2-t)) при t=0, 0.01, 0.02 ... 0.99
-    final private static double[] alphaT =
-            {
-                    2.51286, 2.54236, 2.57254, 2.60340, 2.63499, 2.66731, 2.70040, 2.73428, 2.76899, 2.80454,
-                    2.84098, 2.87833, 2.91663, 2.95592, 2.99622, 3.03758, 3.08005, 3.12366, 3.16845, 3.21449,
-                    3.26181, 3.31048, 3.36054, 3.41206, 3.46509, 3.51971, 3.57599, 3.63399, 3.69380, 3.75550,
-                    3.81918, 3.88493, 3.95285, 4.02305, 4.09563, 4.17073, 4.24846, 4.32896, 4.41238, 4.49888,
-                    4.58862, 4.68178, 4.77856, 4.87916, 4.98380, 5.09272, 5.20619, 5.32448, 5.44790, 5.57676,
-                    5.71144, 5.85231, 5.99980, 6.15437, 6.31651, 6.48678, 6.66578, 6.85417, 7.05269, 7.26213,
-                    7.48338, 7.71744, 7.96541, 8.22851, 8.50810, 8.80573, 9.12312, 9.46223, 9.82527, 10.21474,
-                    10.63353, 11.08492, 11.57270, 12.10126, 12.67570, 13.30200, 13.98717, 14.73956, 15.56907, 16.48767,
-                    17.50980, 18.65318, 19.93968, 21.39661, 23.05856, 24.96984, 27.18822, 29.79026, 32.87958, 36.59968,
-                    41.15485, 46.84550, 54.13115, 63.74946, 76.95930, 96.08797, 125.93570, 178.12403, 289.19889, 655.12084
-            };
+    /**
+     * Складывает аудиосигналы одинарной точности c использованием логарифмической компрессии диапазона в массив вызывающего.
+     * Короткие входы не дополняются копиями - недостающие отсчеты считаются нулевыми
+     * @param threshold пороговый уровень компрессии
+     * @param dst массив результата (не должен совпадать с входами)
+     * @param offset смещение в массиве результата
+     * @param length количество отсчетов результата (короткие входы дополняются нулями, длинные - обрезаются)
+     * @param audio входные аудиосигналы (должны быть нормализованы в [-1;1] !)
+     * @return true - если результат записан, false - при некорректных параметрах
+     */
+    public static boolean combineWithLnDynaRangeCompressionInto(double threshold, float[] dst, int offset,
+                                                            int length, float[]... audio) {
+        if (audio.length == 0 || threshold >= 1 || threshold < 0) return false;
+        int first = Math.min(audio[0].length, length);
+        System.arraycopy(audio[0], 0, dst, offset, first);
+        Arrays.fill(dst, offset + first, offset + length, 0);
+        LnCompressionCurve curve = LnCompressionCurve.forThreshold(threshold);
+
+        // Сложим все аудиосемплы по принципу (за концом короткого входа - с нулем)
+        for (int i = 1; i < audio.length; i++) {
+            float[] input = audio[i];
+            int end = Math.min(input.length, length);
+            for (int j = 0; j < end; j++)
+                dst[offset + j] = (float) curve.combine(dst[offset + j], input[j]);
+            for (int j = end; j < length; j++)
+                dst[offset + j] = (float) curve.combine(dst[offset + j], 0);
+        }
+        return true;
+    }
+
+    /**
+     * Сложение двух отсчетов с линейной компрессией диапазона
+     * @param linearCoeff коэффициент компрессии (1-threshold)/(2-threshold)
+     */
+    static double linearCompress(double a, double b, double threshold, double linearCoeff) {
+        double res = a + b;
+        double absRes = Math.abs(res);
+        if (absRes <= threshold)
+            return res;
+        return Math.signum(res) * (threshold + linearCoeff * (absRes - threshold));
+    }
 
 }
@@ -0,0 +1,130 @@
+package ru.joysi.audio.processing.combines;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Логарифмическая кривая компрессии диапазона для {@link Combines#combineWithLnDynaRangeCompression}.
+ * Строится один раз на пороговый уровень: коэффициент alpha интерполируется по таблице решений,
+ * передаточная функция и ее производная на участке [threshold;2] табулируются, между узлами -
+ * кубическая интерполяция Эрмита, поэтому сложение двух отсчетов стоит обращения к таблице вместо
+ * двух логарифмов. Линейная интерполяция у порога 0.99 (кривизна максимальна) ошибалась на 5e-6,
+ * кубическая - меньше 1e-7 при любом пороге (ниже младшего разряда 24 бит).
+ * Экземпляры кэшируются и разделяются между всеми сложениями с тем же порогом.
+ */
+public final class LnCompressionCurve {
+    // Количество интервалов таблицы передаточной функции
+    private static final int TABLE_SIZE = 4096;
+    // Ограничение размера кэша кривых
+    private static final int MAX_CACHED = 256;
+
+    private static final ConcurrentMap<Double, LnCompressionCurve> cache = new ConcurrentHashMap<>();
+
+    private final double threshold;
+    private final double alpha;
+    private final double scale;
+    private final double[] table = new double[TABLE_SIZE + 1];
+    // Производная в узлах, умноженная на шаг таблицы
+    private final double[] slope = new double[TABLE_SIZE + 1];
+
+    private LnCompressionCurve(double threshold) {
+        this.threshold = threshold;
+        this.alpha = alphaFor(threshold);
+        this.scale = TABLE_SIZE / (2 - threshold);
+        double k = alpha / (2 - threshold);
+        double gain = (1 - threshold) / Math.log(1.0 + alpha);
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            table[i] = compress(threshold + i / scale);
+            slope[i] = gain * k / (1.0 + k * i / scale) / scale;
+        }
+    }
+
+    /**
+     * Кривая для порогового уровня (из кэша)
+     * @param threshold пороговый уровень компрессии [0;1)
+     * @return кривая компрессии
+     */
+    public static LnCompressionCurve forThreshold(double threshold) {
+        if (threshold >= 1 || threshold < 0)
+            throw new IllegalArgumentException("threshold=" + threshold);
+        LnCompressionCurve curve = cache.get(threshold);
+        if (curve == null) {
+            if (cache.size() >= MAX_CACHED)
+                cache.clear();
+            curve = cache.computeIfAbsent(threshold, LnCompressionCurve::new);
+        }
+        return curve;
+    }
+
+    /**
+     * Сложение двух отсчетов с логарифмической компрессией диапазона
+     * @param a первый отсчет
+     * @param b второй отсчет
+     * @return сжатая сумма
+     */
+    public double combine(double a, double b) {
+        double res = a + b;
+        double absRes = Math.abs(res);
+        if (absRes <= threshold)
+            return res;
+        double pos = (absRes - threshold) * scale;
+        double value;
+        if (pos >= TABLE_SIZE)
+            value = compress(absRes);
+        else {
+            int idx = (int) pos;
+            double s = pos - idx;
+            double f0 = table[idx];
+            double d0 = slope[idx];
+            double d1 = slope[idx + 1];
+            double delta = table[idx + 1] - f0;
+            value = f0 + s * (d0 + s * ((3 * delta - 2 * d0 - d1) + s * (d0 + d1 - 2 * delta)));
+        }
+        return res < 0 ? -value : value;
+    }
+
+    /**
+     * @return пороговый уровень
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return коэффициент alpha, интерполированный для порога
+     */
+    public double getAlpha() {
+        return alpha;
+    }
+
+    // Точное значение передаточной функции для модуля суммы над порогом
+    private double compress(double absRes) {
+        return threshold + ( 1 - threshold) *
+                Math.log(1.0 + alpha * (absRes-threshold) /(2-threshold)) /
+                Math.log(1.0 + alpha );
+    }
+
+    // Линейная интерполяция alpha по таблице решений с шагом 0.01
+    static double alphaFor(double threshold) {
+        double pos = threshold * 100;
+        int idx = (int) pos;
+        if (idx >= alphaT.length - 1)
+            return alphaT[alphaT.length - 1];
+        return alphaT[idx] + (alphaT[idx + 1] - alphaT[idx]) * (pos - idx);
+    }
+
+    // Решение уравнений pow(1+x,1/x)=exp((1-t)/(2-t)) при t=0, 0.01, 0.02 ... 0.99
+    final private static double[] alphaT =
+            {
+                    2.51286, 2.54236, 2.57254, 2.60340, 2.63499, 2.66731, 2.70040, 2.73428, 2.76899, 2.80454,
+                    2.84098, 2.87833, 2.91663, 2.95592, 2.99622, 3.03758, 3.08005, 3.12366, 3.16845, 3.21449,
+                    3.26181, 3.31048, 3.36054, 3.41206, 3.46509, 3.51971, 3.57599, 3.63399, 3.69380, 3.75550,
+                    3.81918, 3.88493, 3.95285, 4.02305, 4.09563, 4.17073, 4.24846, 4.32896, 4.41238, 4.49888,
+                    4.58862, 4.68178, 4.77856, 4.87916, 4.98380, 5.09272, 5.20619, 5.32448, 5.44790, 5.57676,
+                    5.71144, 5.85231, 5.99980, 6.15437, 6.31651, 6.48678, 6.66578, 6.85417, 7.05269, 7.26213,
+                    7.48338, 7.71744, 7.96541, 8.22851, 8.50810, 8.80573, 9.12312, 9.46223, 9.82527, 10.21474,
+                    10.63353, 11.08492, 11.57270, 12.10126, 12.67570, 13.30200, 13.98717, 14.73956, 15.56907, 16.48767,
+                    17.50980, 18.65318, 19.93968, 21.39661, 23.05856, 24.96984, 27.18822, 29.79026, 32.87958, 36.59968,
+                    41.15485, 46.84550, 54.13115, 63.74946, 76.95930, 96.08797, 125.93570, 178.12403, 289.19889, 655.12084
+            };
+}
@@ -0,0 +1,191 @@
+package ru.joysi.audio.processing.combines;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.AudioModule;
+
+import java.util.Arrays;
+
+/**
+ * Потоковый компрессор/лимитер с упреждением (look-ahead).
+ * В отличие от {@link Combines#combineWithNormalize} не требует всего сигнала для поиска пика:
+ * сигнал задерживается на окно упреждения, пик в окне отслеживается скользящим максимумом,
+ * коэффициент усиления берется из заранее вычисленной таблицы передаточной кривой и сглаживается
+ * постоянными атаки/восстановления. Выход гарантированно не превышает потолка (ceiling).
+ * Задержка сигнала постоянна и равна {@link #getLatency()} отсчетов - чтобы получить хвост,
+ * в конце потока нужно подать столько же нулевых отсчетов.
+ */
+public class LookAheadLimiter extends AudioModule {
+    // Размер таблицы передаточной кривой и верхняя граница уровня, покрытая таблицей
+    private static final int TABLE_SIZE = 4096;
+    private static final double TABLE_MAX_LEVEL = 8.0;
+
+    private final double threshold;
+    private final double ratio;
+    private final double ceiling;
+    private final double attackCoeff;
+    private final double releaseCoeff;
+
+    // Таблица усиления для уровней [threshold; TABLE_MAX_LEVEL]
+    private final double[] gainTable = new double[TABLE_SIZE + 1];
+    private final double tableScale;
+
+    // Линия задержки на окно упреждения
+    private final double[] delay;
+    private int delayPos;
+
+    // Монотонная очередь для скользящего максимума модуля в окне (delay.length + 1 отсчетов)
+    private final double[] peakValues;
+    private final long[] peakPositions;
+    private int peakHead;
+    private int peakCount;
+    private long position;
+
+    private double gain = 1.0;
+
+    /**
+     * Лимитер (бесконечная степень сжатия) с порогом, равным потолку
+     * @param ceiling потолок выходного сигнала (0...1.0]
+     * @param attackMs время атаки в мсек
+     * @param releaseMs время восстановления в мсек
+     * @param lookAheadMs окно упреждения в мсек
+     */
+    public LookAheadLimiter(double ceiling, double attackMs, double releaseMs, double lookAheadMs) {
+        this(ceiling, Double.POSITIVE_INFINITY, ceiling, attackMs, releaseMs, lookAheadMs);
+    }
+
+    /**
+     * Компрессор с упреждением
+     * @param threshold порог срабатывания (0...1.0]
+     * @param ratio степень сжатия над порогом (>=1, POSITIVE_INFINITY - лимитер)
+     * @param ceiling потолок выходного сигнала (threshold...1.0]
+     * @param attackMs время атаки в мсек
+     * @param releaseMs время восстановления в мсек
+     * @param lookAheadMs окно упреждения в мсек
+     */
+    public LookAheadLimiter(double threshold, double ratio, double ceiling,
+                            double attackMs, double releaseMs, double lookAheadMs) {
+        this(AudioContext.getDefault(), threshold, ratio, ceiling, attackMs, releaseMs, lookAheadMs);
+    }
+
+    /**
+     * Компрессор с упреждением для частоты дискретизации контекста
+     * @param context контекст
+     * @param threshold порог срабатывания (0...1.0]
+     * @param ratio степень сжатия над порогом (>=1, POSITIVE_INFINITY - лимитер)
+     * @param ceiling потолок выходного сигнала (threshold...1.0]
+     * @param attackMs время атаки в мсек
+     * @param releaseMs время восстановления в мсек
+     * @param lookAheadMs окно упреждения в мсек
+     */
+    public LookAheadLimiter(AudioContext context, double threshold, double ratio, double ceiling,
+                            double attackMs, double releaseMs, double lookAheadMs) {
+        super("LookAheadLimiter", 0);
+        int sampleRate = context.getSampleRate();
+        if (threshold <= 0 || threshold > 1 || ratio < 1 || ceiling < threshold || ceiling > 1
+                || attackMs < 0 || releaseMs < 0 || lookAheadMs < 0)
+            throw new IllegalArgumentException("Incorrect limiter parameters");
+        this.threshold = threshold;
+        this.ratio = ratio;
+        this.ceiling = ceiling;
+        this.attackCoeff = timeCoeff(attackMs, sampleRate);
+        this.releaseCoeff = timeCoeff(releaseMs, sampleRate);
+
+        tableScale = TABLE_SIZE / (TABLE_MAX_LEVEL - threshold);
+        for (int i = 0; i <= TABLE_SIZE; i++)
+            gainTable[i] = curveGain(threshold + i / tableScale);
+
+        int lookAhead = (int) Math.round(lookAheadMs * sampleRate / 1000);
+        delay = new double[Math.max(lookAhead, 1)];
+        peakValues = new double[delay.length + 1];
+        peakPositions = new long[delay.length + 1];
+    }
+
+    /**
+     * @return задержка выходного сигнала в отсчетах
+     */
+    public int getLatency() {
+        return delay.length;
+    }
+
+    /**
+     * @return текущий коэффициент усиления
+     */
+    public double getGain() {
+        return gain;
+    }
+
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        final int window = peakValues.length;
+        double g = gain;
+        for (int i = 0; i < frames; i++, position++) {
+            double x = in[i];
+            double level = Math.abs(x);
+
+            // Скользящий максимум: убираем меньшие значения с хвоста и устаревшие с головы
+            while (peakCount > 0 && peakValues[(peakHead + peakCount - 1) % window] <= level)
+                peakCount--;
+            int tail = (peakHead + peakCount) % window;
+            peakValues[tail] = level;
+            peakPositions[tail] = position;
+            peakCount++;
+            while (peakPositions[peakHead] <= position - window) {
+                peakHead = (peakHead + 1) % window;
+                peakCount--;
+            }
+
+            double target = gainFor(peakValues[peakHead]);
+            g = target < g ? target + attackCoeff * (g - target) : target + releaseCoeff * (g - target);
+
+            double delayed = delay[delayPos];
+            delay[delayPos] = x;
+            if (++delayPos == delay.length)
+                delayPos = 0;
+
+            double y = delayed * g;
+            // Страховка потолка на случай, если атака не успела
+            if (y > ceiling)
+                y = ceiling;
+            else if (y < -ceiling)
+                y = -ceiling;
+            out[i] = y;
+        }
+        gain = g;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(delay, 0);
+        delayPos = 0;
+        peakHead = 0;
+        peakCount = 0;
+        position = 0;
+        gain = 1.0;
+    }
+
+    // Усиление по таблице передаточной кривой
+    private double gainFor(double level) {
+        if (level <= threshold)
+            return 1.0;
+        double pos = (level - threshold) * tableScale;
+        if (pos >= TABLE_SIZE)
+            return curveGain(level);
+        int idx = (int) pos;
+        return gainTable[idx] + (gainTable[idx + 1] - gainTable[idx]) * (pos - idx);
+    }
+
+    // Усиление передаточной кривой для уровня (с учетом потолка)
+    private double curveGain(double level) {
+        if (level <= threshold)
+            return 1.0;
+        double outLevel = Double.isInfinite(ratio) ? threshold : threshold * Math.pow(level / threshold, 1 / ratio);
+        return Math.min(outLevel, ceiling) / level;
+    }
+
+    // Коэффициент экспоненциального сглаживания для постоянной времени
+    private static double timeCoeff(double ms, int sampleRate) {
+        if (ms <= 0)
+            return 0;
+        return Math.exp(-1000.0 / (ms * sampleRate));
+    }
+}
@@ -0,0 +1,92 @@
+package ru.joysi.audio.processing.combines;
+
+import ru.joysi.audio.processing.AudioModule;
+
+/**
+ * Сумматор нескольких модулей-источников блочного графа.
+ * Каждый источник рендерится в общий рабочий блок и сразу добавляется к результату,
+ * поэтому память не зависит ни от длины сигнала, ни от количества источников.
+ * Нормализация по пику требует всего сигнала, поэтому здесь доступны только
+ * поотсчетные режимы сложения из {@link Combines}.
+ */
+public class MixerModule extends AudioModule {
+    /**
+     * Режимы сложения
+     */
+    public enum Mode {
+        SUM,                // простое сложение с коэффициентом усиления
+        LINEAR_COMPRESSION, // как Combines.combineWithLinearDynaRangeCompression
+        LN_COMPRESSION      // как Combines.combineWithLnDynaRangeCompression
+    }
+
+    private final AudioModule[] sources;
+    private final Mode mode;
+    private final double threshold;
+    private final double gain;
+    private final double linearCoeff;
+    private final LnCompressionCurve lnCurve;
+    private double[] scratch = new double[DEFAULT_BLOCK_SIZE];
+
+    /**
+     * Сумматор простого сложения
+     * @param gain коэффициент усиления суммы
+     * @param sources модули-источники
+     */
+    public MixerModule(double gain, AudioModule... sources) {
+        this(Mode.SUM, 0, gain, sources);
+    }
+
+    /**
+     * Сумматор с компрессией диапазона
+     * @param mode режим сложения
+     * @param threshold пороговый уровень компрессии
+     * @param sources модули-источники (должны быть нормализованы в [-1;1] !)
+     */
+    public MixerModule(Mode mode, double threshold, AudioModule... sources) {
+        this(mode, threshold, 1.0, sources);
+    }
+
+    private MixerModule(Mode mode, double threshold, double gain, AudioModule... sources) {
+        super("Mixer", 0);
+        if (sources.length == 0 || (mode != Mode.SUM && (threshold >= 1 || threshold < 0)))
+            throw new IllegalArgumentException("Incorrect mixer parameters");
+        this.sources = sources.clone();
+        this.mode = mode;
+        this.threshold = threshold;
+        this.gain = gain;
+        this.linearCoeff = (1-threshold)/(2-threshold);
+        this.lnCurve = mode == Mode.LN_COMPRESSION ? LnCompressionCurve.forThreshold(threshold) : null;
+    }
+
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        if (scratch.length < frames)
+            scratch = new double[frames];
+        sources[0].process(in, out, frames);
+        for (int s = 1; s < sources.length; s++) {
+            sources[s].process(in, scratch, frames);
+            switch (mode) {
+                case SUM:
+                    for (int i = 0; i < frames; i++)
+                        out[i] += scratch[i];
+                    break;
+                case LINEAR_COMPRESSION:
+                    for (int i = 0; i < frames; i++)
+                        out[i] = Combines.linearCompress(out[i], scratch[i], threshold, linearCoeff);
+                    break;
+                default:
+                    for (int i = 0; i < frames; i++)
+                        out[i] = lnCurve.combine(out[i], scratch[i]);
+            }
+        }
+        if (mode == Mode.SUM && gain != 1.0)
+            for (int i = 0; i < frames; i++)
+                out[i] *= gain;
+    }
+
+    @Override
+    public void reset() {
+        for (AudioModule source : sources)
+            source.reset();
+    }
+}
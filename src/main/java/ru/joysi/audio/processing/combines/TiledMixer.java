@@ -0,0 +1,258 @@
+package ru.joysi.audio.processing.combines;
+
+import ru.joysi.audio.buffer.BufferPool;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Поплиточное сложение сигналов для {@link Combines}.
+ * Выход разбивается на участки размером с кэш, на каждом участке входы суммируются по очереди
+ * (без дополнения коротких входов копиями), сразу же ищется пик участка.
+ * Порядок сложения каждого отсчета (по номеру входа) одинаков в последовательном
+ * и параллельном режимах, поэтому результаты совпадают побитово.
+ * Для float[] входы и результат хранятся в одинарной точности (вдвое меньше трафика памяти), а сумма
+ * участка копится в double во временном массиве пула и округляется один раз. Нормализация float[]
+ * повторяет сложение участка с множителем (второй проход по входам вместо масштабирования
+ * округленных сумм), поэтому результат равен результату double на расширенных входах, округленному до float.
+ */
+final class TiledMixer {
+    // Размер участка в отсчетах (32Кб результата double)
+    static final int TILE_SIZE = 4096;
+
+    private TiledMixer() {
+    }
+
+    /**
+     * Последовательное сложение
+     * @return пиковое значение модуля суммы
+     */
+    static double sum(double[][] audio, double[] result) {
+        return sum(audio, result, 0, result.length);
+    }
+
+    /**
+     * Последовательное сложение в участок result[offset; offset + length) (входы читаются с начала)
+     * @return пиковое значение модуля суммы
+     */
+    static double sum(double[][] audio, double[] result, int offset, int length) {
+        double peak = 0;
+        for (int from = 0; from < length; from += TILE_SIZE)
+            peak = Math.max(peak, sumTile(audio, result, offset, from, Math.min(from + TILE_SIZE, length)));
+        return peak;
+    }
+
+    /**
+     * Параллельное сложение с параллельной редукцией пика
+     * @return пиковое значение модуля суммы
+     */
+    static double sum(ForkJoinPool pool, double[][] audio, double[] result) {
+        return pool.invoke(new SumTask(audio, result, 0, result.length));
+    }
+
+    /**
+     * Последовательное масштабирование
+     */
+    static void scale(double[] result, double coeff) {
+        scaleRange(result, 0, result.length, coeff);
+    }
+
+    /**
+     * Последовательное масштабирование участка
+     */
+    static void scale(double[] result, int offset, int length, double coeff) {
+        scaleRange(result, offset, offset + length, coeff);
+    }
+
+    /**
+     * Параллельное масштабирование
+     */
+    static void scale(ForkJoinPool pool, double[] result, double coeff) {
+        pool.invoke(new ScaleTask(result, 0, result.length, coeff));
+    }
+
+    /**
+     * Последовательное сложение (накопление в double)
+     * @return пиковое значение модуля суммы
+     */
+    static double sum(float[][] audio, float[] result) {
+        return sum(audio, result, 0, result.length);
+    }
+
+    /**
+     * Последовательное сложение в участок result[offset; offset + length) (входы читаются с начала)
+     * @return пиковое значение модуля суммы
+     */
+    static double sum(float[][] audio, float[] result, int offset, int length) {
+        return sumScaled(audio, result, offset, length, 1.0);
+    }
+
+    /**
+     * Параллельное сложение (накопление в double)
+     * @return пиковое значение модуля суммы
+     */
+    static double sum(ForkJoinPool pool, float[][] audio, float[] result) {
+        return sumScaled(pool, audio, result, 1.0);
+    }
+
+    /**
+     * Последовательное сложение с множителем: result[i] = (float) (сумма входов * coeff)
+     * @return пиковое значение модуля суммы (до умножения)
+     */
+    static double sumScaled(float[][] audio, float[] result, int offset, int length, double coeff) {
+        double[] tile = BufferPool.acquireDoubles(TILE_SIZE);
+        try {
+            double peak = 0;
+            for (int from = 0; from < length; from += TILE_SIZE)
+                peak = Math.max(peak, sumTile(audio, result, tile, offset, from, Math.min(from + TILE_SIZE, length), coeff));
+            return peak;
+        } finally {
+            BufferPool.release(tile);
+        }
+    }
+
+    /**
+     * Параллельное сложение с множителем
+     * @return пиковое значение модуля суммы (до умножения)
+     */
+    static double sumScaled(ForkJoinPool pool, float[][] audio, float[] result, double coeff) {
+        return pool.invoke(new FloatSumTask(audio, result, 0, result.length, coeff));
+    }
+
+    // Сложение входов на участке [from;to) в результат со смещением offset и поиск пика
+    private static double sumTile(double[][] audio, double[] result, int offset, int from, int to) {
+        for (double[] input : audio) {
+            int end = Math.min(to, input.length);
+            for (int i = from; i < end; i++)
+                result[offset + i] += input[i];
+        }
+        double peak = 0;
+        for (int i = offset + from; i < offset + to; i++) {
+            double res = Math.abs(result[i]);
+            if (res > peak)
+                peak = res;
+        }
+        return peak;
+    }
+
+    private static void scaleRange(double[] result, int from, int to, double coeff) {
+        for (int i = from; i < to; i++)
+            result[i] *= coeff;
+    }
+
+    // Сумма участка [from;to) в double во временном массиве tile, запись (float) (сумма * coeff)
+    private static double sumTile(float[][] audio, float[] result, double[] tile, int offset, int from, int to,
+                                  double coeff) {
+        int n = to - from;
+        Arrays.fill(tile, 0, n, 0);
+        for (float[] input : audio) {
+            int end = Math.min(to, input.length);
+            for (int i = from; i < end; i++)
+                tile[i - from] += input[i];
+        }
+        double peak = 0;
+        for (int i = 0; i < n; i++) {
+            double res = Math.abs(tile[i]);
+            if (res > peak)
+                peak = res;
+            result[offset + from + i] = (float) (tile[i] * coeff);
+        }
+        return peak;
+    }
+
+    // Разбиение по границам участков, чтобы задачи не делили строки кэша
+    private static int split(int from, int to) {
+        int tiles = (to - from + TILE_SIZE - 1) / TILE_SIZE;
+        return from + (tiles / 2) * TILE_SIZE;
+    }
+
+    private static final class SumTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[][] audio;
+        private final double[] result;
+        private final int from;
+        private final int to;
+
+        SumTask(double[][] audio, double[] result, int from, int to) {
+            this.audio = audio;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= TILE_SIZE)
+                return sumTile(audio, result, 0, from, to);
+            int mid = split(from, to);
+            SumTask left = new SumTask(audio, result, from, mid);
+            left.fork();
+            double right = new SumTask(audio, result, mid, to).compute();
+            return Math.max(left.join(), right);
+        }
+    }
+
+    private static final class ScaleTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] result;
+        private final int from;
+        private final int to;
+        private final double coeff;
+
+        ScaleTask(double[] result, int from, int to, double coeff) {
+            this.result = result;
+            this.from = from;
+            this.to = to;
+            this.coeff = coeff;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TILE_SIZE) {
+                scaleRange(result, from, to, coeff);
+                return;
+            }
+            int mid = split(from, to);
+            invokeAll(new ScaleTask(result, from, mid, coeff), new ScaleTask(result, mid, to, coeff));
+        }
+    }
+
+    private static final class FloatSumTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final float[][] audio;
+        private final float[] result;
+        private final int from;
+        private final int to;
+        private final double coeff;
+
+        FloatSumTask(float[][] audio, float[] result, int from, int to, double coeff) {
+            this.audio = audio;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+            this.coeff = coeff;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= TILE_SIZE) {
+                double[] tile = BufferPool.acquireDoubles(TILE_SIZE);
+                try {
+                    return sumTile(audio, result, tile, 0, from, to, coeff);
+                } finally {
+                    BufferPool.release(tile);
+                }
+            }
+            int mid = split(from, to);
+            FloatSumTask left = new FloatSumTask(audio, result, from, mid, coeff);
+            left.fork();
+            double right = new FloatSumTask(audio, result, mid, to, coeff).compute();
+            return Math.max(left.join(), right);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.joysi.audio.processing.fft;
+
+import ru.joysi.audio.AudioContext;
+
+import java.util.Arrays;
+
+/**
+ * Импульсная характеристика, разбитая на равные части по blockSize отсчетов, со спектрами частей
+ * (БПФ длины 2*blockSize). Спектры хранятся раздельно (Re и Im в своих массивах), чтобы умножение
+ * с накоплением в {@link PartitionedConvolver} было простым циклом с единичным шагом.
+ * Ядро неизменяемо и может разделяться между каналами.
+ */
+public final class ConvolutionKernel {
+    private final int blockSize;
+    private final int partitions;
+    private final int bins;       // blockSize + 1 (от 0 до частоты Найквиста)
+    private final int length;
+    private final double[] re;    // partitions * bins
+    private final double[] im;
+
+    /**
+     * Ядро с размером блока из контекста (округляется вверх до степени двойки)
+     * @param context контекст (размер блока)
+     * @param impulseResponse импульсная характеристика
+     */
+    public ConvolutionKernel(AudioContext context, double[] impulseResponse) {
+        this(impulseResponse, Integer.highestOneBit(Math.max(context.getBlockSize() * 2 - 1, 1)));
+    }
+
+    /**
+     * @param impulseResponse импульсная характеристика
+     * @param blockSize размер части и блока обработки (степень двойки); задержка свертки равна ему
+     */
+    public ConvolutionKernel(double[] impulseResponse, int blockSize) {
+        if (impulseResponse.length == 0)
+            throw new IllegalArgumentException("Empty impulse response");
+        Fft fft = Fft.forSize(2 * blockSize);
+        this.blockSize = blockSize;
+        this.length = impulseResponse.length;
+        this.partitions = (length + blockSize - 1) / blockSize;
+        this.bins = blockSize + 1;
+        this.re = new double[partitions * bins];
+        this.im = new double[partitions * bins];
+        double[] work = new double[2 * blockSize];
+        for (int p = 0; p < partitions; p++) {
+            Arrays.fill(work, 0);
+            int from = p * blockSize;
+            System.arraycopy(impulseResponse, from, work, 0, Math.min(blockSize, length - from));
+            fft.realForward(work);
+            unpack(work, re, im, p * bins, blockSize);
+        }
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * @return длина импульсной характеристики
+     */
+    public int getLength() {
+        return length;
+    }
+
+    int getBins() {
+        return bins;
+    }
+
+    double[] getRe() {
+        return re;
+    }
+
+    double[] getIm() {
+        return im;
+    }
+
+    // Упакованный спектр (см. Fft) -> раздельные Re/Im с offset, blockSize+1 бинов
+    static void unpack(double[] packed, double[] re, double[] im, int offset, int blockSize) {
+        re[offset] = packed[0];
+        im[offset] = 0;
+        re[offset + blockSize] = packed[1];
+        im[offset + blockSize] = 0;
+        for (int k = 1; k < blockSize; k++) {
+            re[offset + k] = packed[2 * k];
+            im[offset + k] = packed[2 * k + 1];
+        }
+    }
+
+    // Раздельные Re/Im -> упакованный спектр
+    static void pack(double[] re, double[] im, double[] packed, int blockSize) {
+        packed[0] = re[0];
+        packed[1] = re[blockSize];
+        for (int k = 1; k < blockSize; k++) {
+            packed[2 * k] = re[k];
+            packed[2 * k + 1] = im[k];
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package ru.joysi.audio.processing.fft;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * План БПФ вещественного сигнала длины n (степень двойки).
+ * Вещественное БПФ длины n сводится к комплексному БПФ длины n/2 (четные отсчеты - действительная
+ * часть, нечетные - мнимая) с последующим разделением спектров. Комплексное БПФ - итеративное
+ * radix-2 на месте; поворачивающие множители каждой стадии лежат подряд, перестановка
+ * бит-реверса - готовый список обменов. План неизменяем, кэшируется по длине и разделяется
+ * между потоками.
+ * <p>
+ * Упаковка спектра (n отсчетов): data[0] = Re X[0], data[1] = Re X[n/2],
+ * data[2k], data[2k+1] = Re, Im X[k] для 0 &lt; k &lt; n/2.
+ */
+public final class Fft {
+    private static final Map<Integer, Fft> cache = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int half;           // длина комплексного БПФ
+    private final int[] swaps;        // пары индексов (комплексных) для перестановки бит-реверса
+    private final double[] twiddles;  // стадии подряд: для стадии с полушириной h - h пар (cos, -sin)
+    private final double[] realTwiddles; // W^k = e^{-2*pi*i*k/n}, 0 <= k <= n/4, пары (cos, sin)
+
+    private Fft(int size) {
+        this.size = size;
+        this.half = size / 2;
+
+        int count = 0;
+        int[] pairs = new int[half];
+        for (int i = 0, j = 0; i < half; i++) {
+            if (i < j) {
+                pairs[count++] = i;
+                pairs[count++] = j;
+            }
+            int bit = half >> 1;
+            while (bit > 0 && (j & bit) != 0) {
+                j ^= bit;
+                bit >>= 1;
+            }
+            j |= bit;
+        }
+        swaps = Arrays.copyOf(pairs, count);
+
+        twiddles = new double[Math.max(2 * (half - 1), 0)];
+        for (int h = 1, pos = 0; h < half; h <<= 1)
+            for (int j = 0; j < h; j++, pos += 2) {
+                double angle = -Math.PI * j / h;
+                twiddles[pos] = Math.cos(angle);
+                twiddles[pos + 1] = Math.sin(angle);
+            }
+
+        realTwiddles = new double[2 * (half / 2 + 1)];
+        for (int k = 0; k <= half / 2; k++) {
+            double angle = -2 * Math.PI * k / size;
+            realTwiddles[2 * k] = Math.cos(angle);
+            realTwiddles[2 * k + 1] = Math.sin(angle);
+        }
+    }
+
+    /**
+     * План для длины (из кэша или построенный при первом обращении)
+     * @param size длина сигнала (степень двойки, не меньше 2)
+     * @return план
+     */
+    public static Fft forSize(int size) {
+        if (size < 2 || Integer.bitCount(size) != 1)
+            throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+        return cache.computeIfAbsent(size, Fft::new);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Прямое БПФ вещественного сигнала на месте (результат - упакованный спектр)
+     * @param data сигнал длины {@link #getSize()}
+     */
+    public void realForward(double[] data) {
+        complex(data, false);
+        // Разделение спектров четных (E) и нечетных (O) отсчетов: X[k] = E[k] + W^k * O[k]
+        double z0r = data[0], z0i = data[1];
+        data[0] = z0r + z0i;
+        data[1] = z0r - z0i;
+        for (int k = 1, m = half - 1; k <= m; k++, m--) {
+            int a = 2 * k, b = 2 * m;
+            double ar = data[a], ai = data[a + 1], br = data[b], bi = data[b + 1];
+            double er = (ar + br) * 0.5, ei = (ai - bi) * 0.5;   // E[k]
+            double or = (ai + bi) * 0.5, oi = (br - ar) * 0.5;   // O[k]
+            double wr = realTwiddles[a], wi = realTwiddles[a + 1];
+            double tr = wr * or - wi * oi, ti = wr * oi + wi * or;
+            data[a] = er + tr;
+            data[a + 1] = ei + ti;
+            data[b] = er - tr;       // X[n/2-k] = conj(E[k] - W^k * O[k])
+            data[b + 1] = ti - ei;
+        }
+    }
+
+    /**
+     * Обратное БПФ упакованного спектра на месте (с нормировкой: realInverse(realForward(x)) == x)
+     * @param data упакованный спектр длины {@link #getSize()}
+     */
+    public void realInverse(double[] data) {
+        double x0 = data[0], xn = data[1];
+        data[0] = (x0 + xn) * 0.5;
+        data[1] = (x0 - xn) * 0.5;
+        for (int k = 1, m = half - 1; k <= m; k++, m--) {
+            int a = 2 * k, b = 2 * m;
+            double ar = data[a], ai = data[a + 1], br = data[b], bi = data[b + 1];
+            double er = (ar + br) * 0.5, ei = (ai - bi) * 0.5;   // E[k] = (X[k] + conj(X[n/2-k])) / 2
+            double tr = (ar - br) * 0.5, ti = (ai + bi) * 0.5;   // W^k * O[k]
+            double wr = realTwiddles[a], wi = -realTwiddles[a + 1];
+            double or = wr * tr - wi * ti, oi = wr * ti + wi * tr; // O[k]
+            // Z[k] = E[k] + i*O[k], Z[n/2-k] = conj(E[k]) + i*conj(O[k])
+            data[a] = er - oi;
+            data[a + 1] = ei + or;
+            data[b] = er + oi;
+            data[b + 1] = or - ei;
+        }
+        complex(data, true);
+        double scale = 1.0 / half;
+        for (int i = 0; i < size; i++)
+            data[i] *= scale;
+    }
+
+    // Комплексное БПФ длины half на месте (data - чередующиеся Re/Im), inverse - без нормировки
+    private void complex(double[] data, boolean inverse) {
+        for (int s = 0; s < swaps.length; s += 2) {
+            int i = 2 * swaps[s], j = 2 * swaps[s + 1];
+            double tr = data[i], ti = data[i + 1];
+            data[i] = data[j];
+            data[i + 1] = data[j + 1];
+            data[j] = tr;
+            data[j + 1] = ti;
+        }
+        final double sign = inverse ? -1 : 1;
+        final int n = 2 * half;
+        for (int h = 1, pos = 0; h < half; pos += 2 * h, h <<= 1) {
+            int step = 4 * h;
+            for (int j = 0; j < h; j++) {
+                double wr = twiddles[pos + 2 * j], wi = sign * twiddles[pos + 2 * j + 1];
+                for (int i = 2 * j; i < n; i += step) {
+                    int k = i + 2 * h;
+                    double xr = data[k], xi = data[k + 1];
+                    double tr = wr * xr - wi * xi, ti = wr * xi + wi * xr;
+                    data[k] = data[i] - tr;
+                    data[k + 1] = data[i + 1] - ti;
+                    data[i] += tr;
+                    data[i + 1] += ti;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ru.joysi.audio.processing.fft;
+
+import ru.joysi.audio.processing.AudioModule;
+
+import java.util.Arrays;
+
+/**
+ * Свертка с длинной импульсной характеристикой равномерно разбитым overlap-save
+ * (uniformly partitioned overlap-save). На каждый блок из B отсчетов: одно прямое БПФ окна 2B,
+ * умножение с накоплением спектров всех P частей ядра с линией задержки спектров входа
+ * и одно обратное БПФ. Стоимость на отсчет - O(log B + P) вместо O(длины ядра) у прямой свертки,
+ * поэтому ядро длиной в несколько секунд обрабатывается в реальном времени на одном ядре.
+ * Выход задержан на B отсчетов ({@link #getLatency()}); вызовы process могут иметь любую длину.
+ */
+public class PartitionedConvolver extends AudioModule {
+    private final ConvolutionKernel kernel;
+    private final Fft fft;
+    private final int blockSize;
+    private final int bins;
+    private final int partitions;
+    private final double[] kernelRe, kernelIm;
+    private final double[] delayRe, delayIm;  // линия задержки спектров входа (partitions * bins)
+    private final double[] accRe, accIm;
+    private final double[] window;            // предыдущий и текущий входные блоки
+    private final double[] work;
+    private final double[] output;            // выход предыдущего блока
+    private int delayPos;
+    private int position;                      // заполнение текущего блока
+
+    /**
+     * @param kernel ядро (может разделяться между экземплярами)
+     */
+    public PartitionedConvolver(ConvolutionKernel kernel) {
+        super("Convolver", 0);
+        this.kernel = kernel;
+        this.blockSize = kernel.getBlockSize();
+        this.bins = kernel.getBins();
+        this.partitions = kernel.getPartitions();
+        this.fft = Fft.forSize(2 * blockSize);
+        this.kernelRe = kernel.getRe();
+        this.kernelIm = kernel.getIm();
+        this.delayRe = new double[partitions * bins];
+        this.delayIm = new double[partitions * bins];
+        this.accRe = new double[bins];
+        this.accIm = new double[bins];
+        this.window = new double[2 * blockSize];
+        this.work = new double[2 * blockSize];
+        this.output = new double[blockSize];
+    }
+
+    /**
+     * @return задержка выхода в отсчетах
+     */
+    public int getLatency() {
+        return blockSize;
+    }
+
+    public ConvolutionKernel getKernel() {
+        return kernel;
+    }
+
+    /**
+     * Свертка блока (допускается in == out)
+     */
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        for (int done = 0; done < frames; ) {
+            int n = Math.min(blockSize - position, frames - done);
+            System.arraycopy(in, done, window, blockSize + position, n);
+            System.arraycopy(output, position, out, done, n);
+            position += n;
+            done += n;
+            if (position == blockSize) {
+                convolveBlock();
+                position = 0;
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(delayRe, 0);
+        Arrays.fill(delayIm, 0);
+        Arrays.fill(window, 0);
+        Arrays.fill(output, 0);
+        delayPos = 0;
+        position = 0;
+    }
+
+    private void convolveBlock() {
+        System.arraycopy(window, 0, work, 0, work.length);
+        fft.realForward(work);
+        ConvolutionKernel.unpack(work, delayRe, delayIm, delayPos * bins, blockSize);
+
+        Arrays.fill(accRe, 0);
+        Arrays.fill(accIm, 0);
+        final double[] ar = accRe, ai = accIm, xr = delayRe, xi = delayIm, hr = kernelRe, hi = kernelIm;
+        for (int p = 0, slot = delayPos; p < partitions; p++, slot = slot == 0 ? partitions - 1 : slot - 1) {
+            int xo = slot * bins, ho = p * bins;
+            // Раздельные Re/Im - цикл с единичным шагом, векторизуется JIT
+            for (int k = 0; k < bins; k++) {
+                double a = xr[xo + k], b = xi[xo + k], c = hr[ho + k], d = hi[ho + k];
+                ar[k] += a * c - b * d;
+                ai[k] += a * d + b * c;
+            }
+        }
+
+        ConvolutionKernel.pack(accRe, accIm, work, blockSize);
+        fft.realInverse(work);
+        // Overlap-save: верная линейная свертка - вторая половина окна
+        System.arraycopy(work, blockSize, output, 0, blockSize);
+        System.arraycopy(window, blockSize, window, 0, blockSize);
+        delayPos = delayPos + 1 == partitions ? 0 : delayPos + 1;
+    }
+}
@@ -0,0 +1,162 @@
+package ru.joysi.audio.processing.filters;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.exceptions.AudioFilterException;
+import ru.joysi.audio.processing.AudioModule;
+
+/**
+ * Огибающая ADSR с запуском по нажатию/отпусканию ноты (noteOn/noteOff).
+ * Каждая стадия - экспоненциальный участок, вычисляемый рекурсивно (одно умножение и сложение
+ * на отсчет, без exp/pow). Огибающая применяется к блоку на месте, отдельный массив не нужен.
+ */
+public class AdsrEnvelope extends AudioModule {
+    /**
+     * Стадии огибающей
+     */
+    public enum Stage { IDLE, ATTACK, DECAY, SUSTAIN, RELEASE }
+
+    // Доля "перелета" цели экспоненты: атака - выпуклая, спад/затухание - до ~-80 дБ
+    private static final double ATTACK_TARGET_RATIO = 0.3;
+    private static final double DECAY_RELEASE_TARGET_RATIO = 0.0001;
+
+    private double attackCoef, attackBase;
+    private double decayCoef, decayBase;
+    private double releaseCoef, releaseBase;
+    private double sustainLevel;
+
+    private Stage stage = Stage.IDLE;
+    private double level;
+
+    /**
+     * @param attackTime время нарастания до 1 в миллисек
+     * @param decayTime время спада до уровня поддержки в миллисек
+     * @param sustainLevel уровень поддержки [0;1]
+     * @param releaseTime время затухания после отпускания в миллисек
+     * @throws AudioFilterException при некорректных параметрах
+     */
+    public AdsrEnvelope(double attackTime, double decayTime, double sustainLevel, double releaseTime)
+            throws AudioFilterException {
+        this(AudioContext.getDefault(), attackTime, decayTime, sustainLevel, releaseTime);
+    }
+
+    /**
+     * @param context контекст (частота дискретизации)
+     * @param attackTime время нарастания до 1 в миллисек
+     * @param decayTime время спада до уровня поддержки в миллисек
+     * @param sustainLevel уровень поддержки [0;1]
+     * @param releaseTime время затухания после отпускания в миллисек
+     * @throws AudioFilterException при некорректных параметрах
+     */
+    public AdsrEnvelope(AudioContext context, double attackTime, double decayTime, double sustainLevel,
+                        double releaseTime) throws AudioFilterException {
+        super("ADSR", 0);
+        int sampleRate = context.getSampleRate();
+        if (attackTime < 0 || decayTime < 0 || releaseTime < 0 || sustainLevel < 0 || sustainLevel > 1)
+            throw new AudioFilterException();
+        this.sustainLevel = sustainLevel;
+        attackCoef = coef(attackTime * sampleRate, ATTACK_TARGET_RATIO);
+        attackBase = (1 + ATTACK_TARGET_RATIO) * (1 - attackCoef);
+        decayCoef = coef(decayTime * sampleRate, DECAY_RELEASE_TARGET_RATIO);
+        decayBase = (sustainLevel - DECAY_RELEASE_TARGET_RATIO) * (1 - decayCoef);
+        releaseCoef = coef(releaseTime * sampleRate, DECAY_RELEASE_TARGET_RATIO);
+        releaseBase = -DECAY_RELEASE_TARGET_RATIO * (1 - releaseCoef);
+    }
+
+    /**
+     * Нажатие ноты: атака начинается с текущего уровня (повторный запуск без щелчка)
+     */
+    public void noteOn() {
+        stage = Stage.ATTACK;
+    }
+
+    /**
+     * Отпускание ноты: переход к затуханию
+     */
+    public void noteOff() {
+        if (stage != Stage.IDLE)
+            stage = Stage.RELEASE;
+    }
+
+    /**
+     * @return true - пока огибающая не затухла полностью
+     */
+    public boolean isActive() {
+        return stage != Stage.IDLE;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public double getLevel() {
+        return level;
+    }
+
+    /**
+     * Применение огибающей к блоку (допускается in == out)
+     */
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        double l = level;
+        for (int i = 0; i < frames; i++) {
+            l = step(l);
+            out[i] = in[i] * l;
+        }
+        level = l;
+    }
+
+    /**
+     * Применение огибающей к блоку одинарной точности (уровень ведется в double, допускается in == out)
+     */
+    public void process(float[] in, float[] out, int frames) {
+        double l = level;
+        for (int i = 0; i < frames; i++) {
+            l = step(l);
+            out[i] = (float) (in[i] * l);
+        }
+        level = l;
+    }
+
+    @Override
+    public void reset() {
+        stage = Stage.IDLE;
+        level = 0;
+    }
+
+    // Шаг огибающей на один отсчет: новый уровень, переход стадии при достижении цели
+    private double step(double l) {
+        switch (stage) {
+            case ATTACK:
+                l = attackBase + l * attackCoef;
+                if (l >= 1.0) {
+                    l = 1.0;
+                    stage = Stage.DECAY;
+                }
+                break;
+            case DECAY:
+                l = decayBase + l * decayCoef;
+                if (l <= sustainLevel) {
+                    l = sustainLevel;
+                    stage = Stage.SUSTAIN;
+                }
+                break;
+            case RELEASE:
+                l = releaseBase + l * releaseCoef;
+                if (l <= 0.0) {
+                    l = 0.0;
+                    stage = Stage.IDLE;
+                }
+                break;
+            default: // SUSTAIN, IDLE - уровень постоянен
+        }
+        return l;
+    }
+
+    // Коэффициент рекурсии экспоненциального участка (timeRate - мсек * частота дискретизации)
+    private static double coef(double timeRate, double targetRatio) {
+        double rate = timeRate / 1000;
+        if (rate <= 0)
+            return 0;
+        return Math.exp(-Math.log((1 + targetRatio) / targetRatio) / rate);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.joysi.audio.processing.filters;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.exceptions.AudioFilterException;
+import ru.joysi.audio.processing.AudioModule;
+
+/**
+ * Огибающая Attack/Decay ({@link Filters#getASDRarray}) как модуль блочного графа.
+ * Коэффициенты вычисляются по позиции внутри огибающей и сразу применяются к блоку,
+ * отдельный массив огибающей не создается. После окончания Decay-стадии сигнал глушится.
+ */
+public class AsdrModule extends AudioModule {
+    private final int idxMaxAttack;  // Индекс соответствующий максимуму атаки
+    private final int length;        // Длина огибающей в отсчетах
+    private final double atk;
+    private final double normCoeff;
+    private final double alpha;
+    private final double beta;
+    private final double dx;
+    private final int sampleRate;
+    private long position;
+
+    /**
+     * @param attackMaxTime время наступления пикового уровня амлитуды (=1) в миллисек
+     * @param decayEndTime время окончания Delay-стадии в миллисек
+     * @param decayEndLevel уровень громкости Delay-стадии в конце (<1)
+     * @throws AudioFilterException при некорректных параметрах
+     */
+    public AsdrModule(double attackMaxTime, double decayEndTime, double decayEndLevel) throws AudioFilterException {
+        this(AudioContext.getDefault(), attackMaxTime, decayEndTime, decayEndLevel);
+    }
+
+    /**
+     * @param context контекст (частота дискретизации)
+     * @param attackMaxTime время наступления пикового уровня амлитуды (=1) в миллисек
+     * @param decayEndTime время окончания Delay-стадии в миллисек
+     * @param decayEndLevel уровень громкости Delay-стадии в конце (<1)
+     * @throws AudioFilterException при некорректных параметрах
+     */
+    public AsdrModule(AudioContext context, double attackMaxTime, double decayEndTime, double decayEndLevel)
+            throws AudioFilterException {
+        super("ASDR", 0);
+        if (attackMaxTime > decayEndTime || decayEndLevel >= 1 || attackMaxTime <0 || decayEndTime < 0 || decayEndLevel <0)
+            throw new AudioFilterException();
+
+        int freqSampling = sampleRate = context.getSampleRate();
+        atk = attackMaxTime / 1000.0;
+        double decay = decayEndTime / 1000.0;
+        length = (int) (decay * freqSampling);
+        normCoeff = Math.exp(atk) / Math.pow(atk, atk);
+        idxMaxAttack = (int) (atk * freqSampling);
+
+        // Коэффициенты линейного растяжения функции для участка (atk, 2*atk) на участок (atk, decay)
+        double cDeltaDecay = decayEndLevel / (Math.exp(-2*atk) * Math.pow(2*atk, atk) *normCoeff);
+        alpha = (cDeltaDecay - 1) / atk;
+        beta = 2 - cDeltaDecay;
+        dx = atk / ((decay - atk) * freqSampling);
+    }
+
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        for (int i = 0; i < frames; i++, position++) {
+            double gain;
+            if (position < idxMaxAttack) {
+                double t = position * 1. / sampleRate;
+                gain = normCoeff * Math.exp(-t) * Math.pow(t, atk);
+            } else if (position < length) {
+                double x = atk + (position - idxMaxAttack) * dx;
+                gain = normCoeff * Math.exp(-x) * Math.pow(x, atk) * (alpha*x+beta);
+            } else
+                gain = 0;
+            out[i] = in[i] * gain;
+        }
+    }
+
+    @Override
+    public void reset() {
+        position = 0;
+    }
+}
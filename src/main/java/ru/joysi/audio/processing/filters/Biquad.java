@@ -0,0 +1,141 @@
+package ru.joysi.audio.processing.filters;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.exceptions.AudioFilterException;
+import ru.joysi.audio.processing.AudioModule;
+
+/**
+ * Биквадратный фильтр (транспонированная прямая форма II) с обработкой блока на месте.
+ * Смена параметров пересчитывает только пять коэффициентов и не трогает состояние,
+ * поэтому частоту/усиление можно модулировать каждый блок без щелчков и выделения памяти.
+ */
+public class Biquad extends AudioModule {
+    // Порог обнуления состояния - не дает затухающему хвосту уйти в денормализованные числа
+    static final double DENORMAL_THRESHOLD = 1e-25;
+
+    private final int sampleRate;
+    private final double[] coefficients = new double[BiquadType.COEFFICIENTS];
+    private BiquadType type;
+    private double freq;
+    private double q;
+    private double gainDb;
+    private double z1, z2;
+
+    /**
+     * @param type тип фильтра
+     * @param freq частота среза/центральная частота
+     * @param q добротность (0.7071 - Баттерворт)
+     * @throws AudioFilterException при некорректных параметрах
+     */
+    public Biquad(BiquadType type, double freq, double q) throws AudioFilterException {
+        this(AudioContext.getDefault(), type, freq, q, 0);
+    }
+
+    /**
+     * @param context контекст (частота дискретизации)
+     * @param type тип фильтра
+     * @param freq частота среза/центральная частота
+     * @param q добротность (0.7071 - Баттерворт)
+     * @param gainDb усиление в дБ (для PEAKING и полок)
+     * @throws AudioFilterException при некорректных параметрах
+     */
+    public Biquad(AudioContext context, BiquadType type, double freq, double q, double gainDb)
+            throws AudioFilterException {
+        super("Biquad", 0);
+        sampleRate = context.getSampleRate();
+        if (!BiquadType.isValid(sampleRate, freq, q))
+            throw new AudioFilterException();
+        setParameters(type, freq, q, gainDb);
+    }
+
+    /**
+     * Смена параметров без сброса состояния
+     * @param type тип фильтра
+     * @param freq частота среза/центральная частота (меньше половины частоты дискретизации)
+     * @param q добротность
+     * @param gainDb усиление в дБ (для PEAKING и полок)
+     */
+    public void setParameters(BiquadType type, double freq, double q, double gainDb) {
+        if (!BiquadType.isValid(sampleRate, freq, q))
+            throw new IllegalArgumentException("freq=" + freq + ", q=" + q);
+        type.design(sampleRate, freq, q, gainDb, coefficients, 0);
+        this.type = type;
+        this.freq = freq;
+        this.q = q;
+        this.gainDb = gainDb;
+    }
+
+    /**
+     * Смена частоты (тип, добротность и усиление сохраняются)
+     * @param freq частота среза/центральная частота
+     */
+    public void setFrequency(double freq) {
+        setParameters(type, freq, q, gainDb);
+    }
+
+    /**
+     * Смена усиления (тип, частота и добротность сохраняются)
+     * @param gainDb усиление в дБ
+     */
+    public void setGain(double gainDb) {
+        setParameters(type, freq, q, gainDb);
+    }
+
+    public BiquadType getType() {
+        return type;
+    }
+
+    public double getFrequency() {
+        return freq;
+    }
+
+    public double getQ() {
+        return q;
+    }
+
+    public double getGain() {
+        return gainDb;
+    }
+
+    /**
+     * Фильтрация блока (допускается in == out)
+     */
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        final double b0 = coefficients[0], b1 = coefficients[1], b2 = coefficients[2];
+        final double a1 = coefficients[3], a2 = coefficients[4];
+        double s1 = z1, s2 = z2;
+        for (int i = 0; i < frames; i++) {
+            double x = in[i];
+            double y = b0 * x + s1;
+            s1 = b1 * x - a1 * y + s2;
+            s2 = b2 * x - a2 * y;
+            out[i] = y;
+        }
+        z1 = Math.abs(s1) < DENORMAL_THRESHOLD ? 0 : s1;
+        z2 = Math.abs(s2) < DENORMAL_THRESHOLD ? 0 : s2;
+    }
+
+    /**
+     * Фильтрация блока одинарной точности (состояние в double, допускается in == out)
+     */
+    public void process(float[] in, float[] out, int frames) {
+        final double b0 = coefficients[0], b1 = coefficients[1], b2 = coefficients[2];
+        final double a1 = coefficients[3], a2 = coefficients[4];
+        double s1 = z1, s2 = z2;
+        for (int i = 0; i < frames; i++) {
+            double x = in[i];
+            double y = b0 * x + s1;
+            s1 = b1 * x - a1 * y + s2;
+            s2 = b2 * x - a2 * y;
+            out[i] = (float) y;
+        }
+        z1 = Math.abs(s1) < DENORMAL_THRESHOLD ? 0 : s1;
+        z2 = Math.abs(s2) < DENORMAL_THRESHOLD ? 0 : s2;
+    }
+
+    @Override
+    public void reset() {
+        z1 = z2 = 0;
+    }
+}
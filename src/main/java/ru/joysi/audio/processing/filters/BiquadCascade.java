@@ -0,0 +1,119 @@
+package ru.joysi.audio.processing.filters;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.exceptions.AudioFilterException;
+import ru.joysi.audio.processing.AudioModule;
+
+import java.util.Arrays;
+
+/**
+ * Каскад биквадратных секций (эквалайзер, фильтры высокого порядка).
+ * Коэффициенты и состояние всех секций лежат в двух плоских массивах; блок проходит секции
+ * по очереди на месте, так что каскад из N секций не требует промежуточных буферов.
+ */
+public class BiquadCascade extends AudioModule {
+    private final int sampleRate;
+    private final double[] coefficients;  // по 5 на секцию: b0, b1, b2, a1, a2
+    private final double[] state;         // по 2 на секцию: z1, z2
+    private final BiquadType[] types;
+    private final double[] qs;
+    private final double[] gains;
+
+    /**
+     * Каскад из sections секций, изначально пропускающих сигнал без изменений
+     * @param context контекст (частота дискретизации)
+     * @param sections количество секций
+     */
+    public BiquadCascade(AudioContext context, int sections) {
+        super("BiquadCascade", 0);
+        if (sections < 1)
+            throw new IllegalArgumentException("sections=" + sections);
+        sampleRate = context.getSampleRate();
+        coefficients = new double[sections * BiquadType.COEFFICIENTS];
+        state = new double[sections * 2];
+        types = new BiquadType[sections];
+        qs = new double[sections];
+        gains = new double[sections];
+        for (int s = 0; s < sections; s++)
+            coefficients[s * BiquadType.COEFFICIENTS] = 1;
+    }
+
+    /**
+     * Фильтр Баттерворта четного порядка (order/2 секций с добротностями полюсов Баттерворта)
+     * @param context контекст (частота дискретизации)
+     * @param type LOW_PASS или HIGH_PASS
+     * @param order порядок фильтра (четный)
+     * @param freq частота среза (-3 дБ)
+     * @return каскад
+     * @throws AudioFilterException при некорректных параметрах
+     */
+    public static BiquadCascade butterworth(AudioContext context, BiquadType type, int order, double freq)
+            throws AudioFilterException {
+        if (order < 2 || order % 2 != 0 || (type != BiquadType.LOW_PASS && type != BiquadType.HIGH_PASS)
+                || !BiquadType.isValid(context.getSampleRate(), freq, 1))
+            throw new AudioFilterException();
+        BiquadCascade cascade = new BiquadCascade(context, order / 2);
+        for (int k = 0; k < order / 2; k++)
+            cascade.setSection(k, type, freq, 1 / (2 * Math.cos(Math.PI * (2 * k + 1) / (2 * order))), 0);
+        return cascade;
+    }
+
+    /**
+     * Смена параметров секции без сброса состояния
+     * @param section номер секции
+     * @param type тип фильтра
+     * @param freq частота среза/центральная частота (меньше половины частоты дискретизации)
+     * @param q добротность
+     * @param gainDb усиление в дБ (для PEAKING и полок)
+     */
+    public void setSection(int section, BiquadType type, double freq, double q, double gainDb) {
+        if (!BiquadType.isValid(sampleRate, freq, q))
+            throw new IllegalArgumentException("freq=" + freq + ", q=" + q);
+        type.design(sampleRate, freq, q, gainDb, coefficients, section * BiquadType.COEFFICIENTS);
+        types[section] = type;
+        qs[section] = q;
+        gains[section] = gainDb;
+    }
+
+    /**
+     * Смена частоты всех заданных секций (для модуляции среза фильтров Баттерворта)
+     * @param freq частота среза
+     */
+    public void setFrequency(double freq) {
+        for (int s = 0; s < types.length; s++)
+            if (types[s] != null)
+                setSection(s, types[s], freq, qs[s], gains[s]);
+    }
+
+    public int getSections() {
+        return types.length;
+    }
+
+    /**
+     * Фильтрация блока (допускается in == out)
+     */
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        double[] src = in;
+        for (int s = 0, c = 0; s < types.length; s++, c += BiquadType.COEFFICIENTS) {
+            final double b0 = coefficients[c], b1 = coefficients[c + 1], b2 = coefficients[c + 2];
+            final double a1 = coefficients[c + 3], a2 = coefficients[c + 4];
+            double s1 = state[2 * s], s2 = state[2 * s + 1];
+            for (int i = 0; i < frames; i++) {
+                double x = src[i];
+                double y = b0 * x + s1;
+                s1 = b1 * x - a1 * y + s2;
+                s2 = b2 * x - a2 * y;
+                out[i] = y;
+            }
+            state[2 * s] = Math.abs(s1) < Biquad.DENORMAL_THRESHOLD ? 0 : s1;
+            state[2 * s + 1] = Math.abs(s2) < Biquad.DENORMAL_THRESHOLD ? 0 : s2;
+            src = out;
+        }
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(state, 0);
+    }
+}
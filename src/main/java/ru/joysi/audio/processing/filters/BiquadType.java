@@ -0,0 +1,94 @@
+package ru.joysi.audio.processing.filters;
+
+/**
+ * Типы биквадратных фильтров (формулы RBJ Audio EQ Cookbook).
+ * Коэффициенты нормированы на a0 и записываются пятеркой {b0, b1, b2, a1, a2}.
+ */
+public enum BiquadType {
+    LOW_PASS,
+    HIGH_PASS,
+    BAND_PASS,   // постоянный пик 0 дБ на центральной частоте
+    NOTCH,
+    PEAKING,     // использует gainDb
+    LOW_SHELF,   // использует gainDb
+    HIGH_SHELF;  // использует gainDb
+
+    // Количество коэффициентов одной секции
+    static final int COEFFICIENTS = 5;
+
+    /**
+     * @return true - если параметры допустимы для частоты дискретизации
+     */
+    static boolean isValid(int sampleRate, double freq, double q) {
+        return freq > 0 && freq < sampleRate * 0.5 && q > 0;
+    }
+
+    /**
+     * Расчет нормированных коэффициентов (одна пара sin/cos и, для типов с усилением, одна pow)
+     * @param sampleRate частота дискретизации
+     * @param freq частота среза/центральная частота
+     * @param q добротность
+     * @param gainDb усиление в дБ (для PEAKING и полок)
+     * @param dst массив-приемник
+     * @param offset смещение пятерки {b0, b1, b2, a1, a2} в массиве
+     */
+    void design(int sampleRate, double freq, double q, double gainDb, double[] dst, int offset) {
+        double w0 = 2 * Math.PI * freq / sampleRate;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2 * q);
+        double b0, b1, b2, a0, a1, a2;
+        switch (this) {
+            case LOW_PASS:
+                b1 = 1 - cos;
+                b0 = b2 = b1 / 2;
+                a0 = 1 + alpha; a1 = -2 * cos; a2 = 1 - alpha;
+                break;
+            case HIGH_PASS:
+                b1 = -(1 + cos);
+                b0 = b2 = -b1 / 2;
+                a0 = 1 + alpha; a1 = -2 * cos; a2 = 1 - alpha;
+                break;
+            case BAND_PASS:
+                b0 = alpha; b1 = 0; b2 = -alpha;
+                a0 = 1 + alpha; a1 = -2 * cos; a2 = 1 - alpha;
+                break;
+            case NOTCH:
+                b0 = 1; b1 = -2 * cos; b2 = 1;
+                a0 = 1 + alpha; a1 = -2 * cos; a2 = 1 - alpha;
+                break;
+            case PEAKING: {
+                double a = Math.pow(10, gainDb / 40);
+                b0 = 1 + alpha * a; b1 = -2 * cos; b2 = 1 - alpha * a;
+                a0 = 1 + alpha / a; a1 = -2 * cos; a2 = 1 - alpha / a;
+                break;
+            }
+            case LOW_SHELF: {
+                double a = Math.pow(10, gainDb / 40);
+                double s = 2 * Math.sqrt(a) * alpha;
+                b0 = a * ((a + 1) - (a - 1) * cos + s);
+                b1 = 2 * a * ((a - 1) - (a + 1) * cos);
+                b2 = a * ((a + 1) - (a - 1) * cos - s);
+                a0 = (a + 1) + (a - 1) * cos + s;
+                a1 = -2 * ((a - 1) + (a + 1) * cos);
+                a2 = (a + 1) + (a - 1) * cos - s;
+                break;
+            }
+            default: { // HIGH_SHELF
+                double a = Math.pow(10, gainDb / 40);
+                double s = 2 * Math.sqrt(a) * alpha;
+                b0 = a * ((a + 1) + (a - 1) * cos + s);
+                b1 = -2 * a * ((a - 1) + (a + 1) * cos);
+                b2 = a * ((a + 1) + (a - 1) * cos - s);
+                a0 = (a + 1) - (a - 1) * cos + s;
+                a1 = 2 * ((a - 1) - (a + 1) * cos);
+                a2 = (a + 1) - (a - 1) * cos - s;
+            }
+        }
+        double inv = 1 / a0;
+        dst[offset]     = b0 * inv;
+        dst[offset + 1] = b1 * inv;
+        dst[offset + 2] = b2 * inv;
+        dst[offset + 3] = a1 * inv;
+        dst[offset + 4] = a2 * inv;
+    }
+}
@@ -1,7 +1,7 @@
 package ru.joysi.audio.processing.filters;
 
+import ru.joysi.audio.AudioContext;
 import ru.joysi.audio.ExceptionHandler;
-import ru.joysi.audio.GlobalHelper;
 import ru.joysi.audio.exceptions.AudioFilterException;
 
 /**
@@ -22,14 +22,54 @@ public class Filters {
      * @return
      */
     public static double[] getASDRarray(double attackMaxTime, double deсayEndTime, double deсayEndLevel) {
+        return getASDRarray(AudioContext.getDefault(), attackMaxTime, deсayEndTime, deсayEndLevel);
+    }
+
+    /**
+     * Построение значений нормализованной функции ADSL на для Attack и Delay участков
+     * @param context контекст (частота дискретизации)
+     * @param attackMaxTime время наступления пикового уровня амлитуды (=1) в миллисек
+     * @param deсayEndTime время окончания Delay-стадии в миллисек
+     * @param deсayEndLevel уровень громкости Delay-стадии в конце (<1)
+     * @return
+     */
+    public static double[] getASDRarray(AudioContext context, double attackMaxTime, double deсayEndTime,
+                                        double deсayEndLevel) {
+        // Итоговый нормализованный массив коэффициентов фильтра
+        double[] res = new double[Math.max(getASDRlength(context, deсayEndTime), 0)];
+        return getASDRarrayInto(context, attackMaxTime, deсayEndTime, deсayEndLevel, res, 0) ? res : null;
+    }
+
+    /**
+     * Длина массива функции ADSL для Attack и Delay участков
+     * @param context контекст (частота дискретизации)
+     * @param deсayEndTime время окончания Delay-стадии в миллисек
+     * @return количество отсчетов
+     */
+    public static int getASDRlength(AudioContext context, double deсayEndTime) {
+        return (int) (context.getSampleRate() * deсayEndTime / 1000);
+    }
+
+    /**
+     * Построение значений функции ADSL для Attack и Delay участков в массив вызывающего
+     * ({@link #getASDRlength(AudioContext, double)} отсчетов)
+     * @param context контекст (частота дискретизации)
+     * @param attackMaxTime время наступления пикового уровня амлитуды (=1) в миллисек
+     * @param deсayEndTime время окончания Delay-стадии в миллисек
+     * @param deсayEndLevel уровень громкости Delay-стадии в конце (<1)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @return true - если значения записаны, false - при некорректных параметрах
+     */
+    public static boolean getASDRarrayInto(AudioContext context, double attackMaxTime, double deсayEndTime,
+                                           double deсayEndLevel, double[] dst, int offset) {
+        int sampleRate = context.getSampleRate();
 
         if (attackMaxTime > deсayEndTime || deсayEndLevel >= 1 || attackMaxTime <0 || deсayEndTime < 0 || deсayEndLevel <0) {
-            ExceptionHandler.log(new AudioFilterException(), GlobalHelper.props.getProperty("error.filter.incorrectParameters"));
-            return null;
+            ExceptionHandler.log(new AudioFilterException(), AudioContext.getProperties().getProperty("error.filter.incorrectParameters"));
+            return false;
         }
-
-        // Итоговый нормализованный массив коэффициентов фильтра
-        double[] res = new double[(GlobalHelper.bitsPerSample * GlobalHelper.samplePerSec * ((int)deсayEndTime / 1000)) >>> 4];
+        int length = getASDRlength(context, deсayEndTime);
 
         double atk   = attackMaxTime / 1000.0; // время атаки в секундах
         double decay = deсayEndTime / 1000.0; // время от начала семпла до окончания decay фазы
@@ -38,9 +78,9 @@ public class Filters {
 
 
         // Вычислим участок Attack
-        int idxMaxAttack = (int) (atk * GlobalHelper.samplePerSec); // Индекс соответствующий максимуму атаке
+        int idxMaxAttack = (int) (atk * sampleRate); // Индекс соответствующий максимуму атаке
         for (int i = 0; i < idxMaxAttack ; i++)
-            res[i] = normCoeff * Math.exp(-i *1. / GlobalHelper.samplePerSec) * Math.pow(i *1./ GlobalHelper.samplePerSec, atk);
+            dst[offset + i] = normCoeff * Math.exp(-i *1. / sampleRate) * Math.pow(i *1./ sampleRate, atk);
 
         // Коэффиент конечного значения decay в точке 2*atk
         double cDeltaDecay =  deсayEndLevel / (Math.exp(-2*atk) * Math.pow(2*atk, atk) *normCoeff);
@@ -51,12 +91,12 @@ public class Filters {
 
         // Вычислим участок Decay
         double x = atk;
-        double dx = atk / ((decay - atk)*GlobalHelper.samplePerSec);
-        for (int i = idxMaxAttack; i < res.length ; i++) {
-            res[i] = normCoeff * Math.exp(-x) * Math.pow(x, atk) * (alpha*x+beta);
+        double dx = atk / ((decay - atk)*sampleRate);
+        for (int i = idxMaxAttack; i < length ; i++) {
+            dst[offset + i] = normCoeff * Math.exp(-x) * Math.pow(x, atk) * (alpha*x+beta);
             x += dx;
         }
-        return res;
+        return true;
     }
 //
 //    public static void main(String[] args) {
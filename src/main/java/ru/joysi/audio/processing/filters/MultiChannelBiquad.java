@@ -0,0 +1,165 @@
+package ru.joysi.audio.processing.filters;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.exceptions.AudioFilterException;
+
+import java.util.Arrays;
+
+/**
+ * Биквадратный фильтр для нескольких каналов в раскладке "структура массивов":
+ * коэффициенты и состояние каждого вида лежат в отдельном массиве по каналам.
+ * Каналы обрабатываются группами по 4 (2, 1) с состоянием группы в регистрах: рекурсии каналов
+ * независимы, поэтому процессор выполняет их параллельно, а не ждет завершения цепочки
+ * умножений-сложений одного канала, как при обработке каналов по очереди.
+ */
+public class MultiChannelBiquad {
+    private final int sampleRate;
+    private final int numChannels;
+    private final double[] b0, b1, b2, a1, a2;
+    private final double[] z1, z2;
+    private final double[] design = new double[BiquadType.COEFFICIENTS];
+
+    /**
+     * @param context контекст (частота дискретизации)
+     * @param numChannels количество каналов
+     * @param type тип фильтра
+     * @param freq частота среза/центральная частота
+     * @param q добротность
+     * @param gainDb усиление в дБ (для PEAKING и полок)
+     * @throws AudioFilterException при некорректных параметрах
+     */
+    public MultiChannelBiquad(AudioContext context, int numChannels, BiquadType type, double freq, double q,
+                              double gainDb) throws AudioFilterException {
+        sampleRate = context.getSampleRate();
+        if (numChannels < 1 || !BiquadType.isValid(sampleRate, freq, q))
+            throw new AudioFilterException();
+        this.numChannels = numChannels;
+        b0 = new double[numChannels];
+        b1 = new double[numChannels];
+        b2 = new double[numChannels];
+        a1 = new double[numChannels];
+        a2 = new double[numChannels];
+        z1 = new double[numChannels];
+        z2 = new double[numChannels];
+        setParameters(type, freq, q, gainDb);
+    }
+
+    /**
+     * Одинаковые параметры для всех каналов (коэффициенты рассчитываются один раз)
+     * @param type тип фильтра
+     * @param freq частота среза/центральная частота
+     * @param q добротность
+     * @param gainDb усиление в дБ
+     */
+    public void setParameters(BiquadType type, double freq, double q, double gainDb) {
+        compute(type, freq, q, gainDb);
+        Arrays.fill(b0, design[0]);
+        Arrays.fill(b1, design[1]);
+        Arrays.fill(b2, design[2]);
+        Arrays.fill(a1, design[3]);
+        Arrays.fill(a2, design[4]);
+    }
+
+    /**
+     * Параметры одного канала
+     * @param channel номер канала
+     * @param type тип фильтра
+     * @param freq частота среза/центральная частота
+     * @param q добротность
+     * @param gainDb усиление в дБ
+     */
+    public void setParameters(int channel, BiquadType type, double freq, double q, double gainDb) {
+        compute(type, freq, q, gainDb);
+        b0[channel] = design[0];
+        b1[channel] = design[1];
+        b2[channel] = design[2];
+        a1[channel] = design[3];
+        a2[channel] = design[4];
+    }
+
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    /**
+     * Фильтрация блока всех каналов на месте
+     * @param channels массивы каналов
+     * @param offset смещение блока в массивах
+     * @param frames количество кадров
+     */
+    public void process(double[][] channels, int offset, int frames) {
+        if (channels.length != numChannels)
+            throw new IllegalArgumentException("Expected " + numChannels + " channel(s)");
+        int c = 0;
+        for (; c + 4 <= numChannels; c += 4)
+            process4(channels, c, offset, frames);
+        if (c + 2 <= numChannels) {
+            process2(channels, c, offset, frames);
+            c += 2;
+        }
+        if (c < numChannels)
+            process1(channels, c, offset, frames);
+        for (c = 0; c < numChannels; c++) {
+            if (Math.abs(z1[c]) < Biquad.DENORMAL_THRESHOLD) z1[c] = 0;
+            if (Math.abs(z2[c]) < Biquad.DENORMAL_THRESHOLD) z2[c] = 0;
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(z1, 0);
+        Arrays.fill(z2, 0);
+    }
+
+    private void compute(BiquadType type, double freq, double q, double gainDb) {
+        if (!BiquadType.isValid(sampleRate, freq, q))
+            throw new IllegalArgumentException("freq=" + freq + ", q=" + q);
+        type.design(sampleRate, freq, q, gainDb, design, 0);
+    }
+
+    // Четыре канала за проход: коэффициенты и состояние в регистрах, четыре независимые рекурсии
+    private void process4(double[][] channels, int c, int offset, int frames) {
+        final double[] x0 = channels[c], x1 = channels[c + 1], x2 = channels[c + 2], x3 = channels[c + 3];
+        final double b00 = b0[c], b10 = b1[c], b20 = b2[c], a10 = a1[c], a20 = a2[c];
+        final double b01 = b0[c + 1], b11 = b1[c + 1], b21 = b2[c + 1], a11 = a1[c + 1], a21 = a2[c + 1];
+        final double b02 = b0[c + 2], b12 = b1[c + 2], b22 = b2[c + 2], a12 = a1[c + 2], a22 = a2[c + 2];
+        final double b03 = b0[c + 3], b13 = b1[c + 3], b23 = b2[c + 3], a13 = a1[c + 3], a23 = a2[c + 3];
+        double s10 = z1[c], s20 = z2[c], s11 = z1[c + 1], s21 = z2[c + 1];
+        double s12 = z1[c + 2], s22 = z2[c + 2], s13 = z1[c + 3], s23 = z2[c + 3];
+        for (int i = offset, end = offset + frames; i < end; i++) {
+            double x, y;
+            x = x0[i]; y = b00 * x + s10; s10 = b10 * x - a10 * y + s20; s20 = b20 * x - a20 * y; x0[i] = y;
+            x = x1[i]; y = b01 * x + s11; s11 = b11 * x - a11 * y + s21; s21 = b21 * x - a21 * y; x1[i] = y;
+            x = x2[i]; y = b02 * x + s12; s12 = b12 * x - a12 * y + s22; s22 = b22 * x - a22 * y; x2[i] = y;
+            x = x3[i]; y = b03 * x + s13; s13 = b13 * x - a13 * y + s23; s23 = b23 * x - a23 * y; x3[i] = y;
+        }
+        z1[c] = s10; z2[c] = s20; z1[c + 1] = s11; z2[c + 1] = s21;
+        z1[c + 2] = s12; z2[c + 2] = s22; z1[c + 3] = s13; z2[c + 3] = s23;
+    }
+
+    private void process2(double[][] channels, int c, int offset, int frames) {
+        final double[] x0 = channels[c], x1 = channels[c + 1];
+        final double b00 = b0[c], b10 = b1[c], b20 = b2[c], a10 = a1[c], a20 = a2[c];
+        final double b01 = b0[c + 1], b11 = b1[c + 1], b21 = b2[c + 1], a11 = a1[c + 1], a21 = a2[c + 1];
+        double s10 = z1[c], s20 = z2[c], s11 = z1[c + 1], s21 = z2[c + 1];
+        for (int i = offset, end = offset + frames; i < end; i++) {
+            double x, y;
+            x = x0[i]; y = b00 * x + s10; s10 = b10 * x - a10 * y + s20; s20 = b20 * x - a20 * y; x0[i] = y;
+            x = x1[i]; y = b01 * x + s11; s11 = b11 * x - a11 * y + s21; s21 = b21 * x - a21 * y; x1[i] = y;
+        }
+        z1[c] = s10; z2[c] = s20; z1[c + 1] = s11; z2[c + 1] = s21;
+    }
+
+    private void process1(double[][] channels, int c, int offset, int frames) {
+        final double[] x0 = channels[c];
+        final double b00 = b0[c], b10 = b1[c], b20 = b2[c], a10 = a1[c], a20 = a2[c];
+        double s10 = z1[c], s20 = z2[c];
+        for (int i = offset, end = offset + frames; i < end; i++) {
+            double x = x0[i];
+            double y = b00 * x + s10;
+            s10 = b10 * x - a10 * y + s20;
+            s20 = b20 * x - a20 * y;
+            x0[i] = y;
+        }
+        z1[c] = s10; z2[c] = s20;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.joysi.audio.processing.filters;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.AudioModule;
+
+/**
+ * Однополюсный сглаживающий фильтр y += k * (x - y).
+ * Используется как ФНЧ 6 дБ/окт и для сглаживания параметров (громкость, частота среза):
+ * {@link #next(double)} дает одно значение на отсчет без массива.
+ */
+public class OnePole extends AudioModule {
+    private final int sampleRate;
+    private double coeff;
+    private double value;
+
+    /**
+     * Сглаживатель с постоянной времени (достижение ~63% скачка)
+     * @param context контекст (частота дискретизации)
+     * @param timeMs постоянная времени в мсек (0 - без сглаживания)
+     */
+    public OnePole(AudioContext context, double timeMs) {
+        super("OnePole", 0);
+        sampleRate = context.getSampleRate();
+        setTime(timeMs);
+    }
+
+    /**
+     * Фильтр нижних частот с частотой среза
+     * @param context контекст (частота дискретизации)
+     * @param freq частота среза
+     * @return фильтр
+     */
+    public static OnePole lowPass(AudioContext context, double freq) {
+        OnePole filter = new OnePole(context, 0);
+        filter.setCutoff(freq);
+        return filter;
+    }
+
+    /**
+     * @param timeMs постоянная времени в мсек (0 - без сглаживания)
+     */
+    public void setTime(double timeMs) {
+        if (timeMs < 0)
+            throw new IllegalArgumentException("timeMs=" + timeMs);
+        coeff = timeMs == 0 ? 1 : 1 - Math.exp(-1000.0 / (timeMs * sampleRate));
+    }
+
+    /**
+     * @param freq частота среза (меньше половины частоты дискретизации)
+     */
+    public void setCutoff(double freq) {
+        if (freq <= 0 || freq >= sampleRate * 0.5)
+            throw new IllegalArgumentException("freq=" + freq);
+        coeff = 1 - Math.exp(-2 * Math.PI * freq / sampleRate);
+    }
+
+    /**
+     * Один шаг сглаживания
+     * @param target целевое значение
+     * @return сглаженное значение
+     */
+    public double next(double target) {
+        return value += coeff * (target - value);
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Установка значения без сглаживания (скачком)
+     */
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    /**
+     * Фильтрация блока (допускается in == out)
+     */
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        final double k = coeff;
+        double y = value;
+        for (int i = 0; i < frames; i++)
+            out[i] = y += k * (in[i] - y);
+        value = Math.abs(y) < Biquad.DENORMAL_THRESHOLD ? 0 : y;
+    }
+
+    @Override
+    public void reset() {
+        value = 0;
+    }
+}
@@ -1,6 +1,7 @@
 package ru.joysi.audio.processing.generators;
 
-import ru.joysi.audio.GlobalHelper;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.buffer.BufferPool;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -13,6 +14,12 @@ import java.util.Map;
 public final class Generators {
     public static final double[] musNotesFrequency; // значение частот нот ( от `до` субконтр до `си` 5-й)
     public static final Map<String,Double> notes;
+    // Наибольшая длина участка из целого числа периодов для periodicGenerator
+    static final int MAX_PERIOD_SAMPLES = 1 << 16;
+    // Допустимое отличие periodicGenerator от прямого расчета (в долях амплитуды)
+    private static final double PERIODIC_ERROR = 1e-9;
+    // Размер блока расчета ядра для генераторов одинарной точности
+    private static final int KERNEL_BLOCK = 1024;
 
     static { // Вычисляем частоту музыкальных нот
         musNotesFrequency = new double[9*12];
@@ -51,20 +58,69 @@ public final class Generators {
      * @return семпл
      */
     public static double[] sineGenerator(double freq, int time, double amplitude) {
+        return sineGenerator(AudioContext.getDefault(), freq, time, amplitude);
+    }
 
-        if (amplitude<=0 || amplitude >1)
-            return null;
+    /**
+     * Генератор синусоидальной волны
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static double[] sineGenerator(AudioContext context, double freq, int time, double amplitude) {
+        double[] data = new double[getSampleCount(context, time)];
+        return sineGeneratorInto(context, freq, amplitude, data, 0, data.length) ? data : null;
+    }
 
-        int freqSampling = GlobalHelper.samplePerSec;
-        double[] data = new double[(GlobalHelper.bitsPerSample * freqSampling * (time / 1000)) >>> 4];
+    /**
+     * Генератор синусоидальной волны с заданной начальной фазой
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @return семпл
+     */
+    public static double[] sineGenerator(AudioContext context, double freq, int time, double amplitude, double phase) {
+        double[] data = new double[getSampleCount(context, time)];
+        return sineGeneratorInto(context, freq, amplitude, phase, data, 0, data.length) ? data : null;
+    }
 
-        // Переменные для избежания повторного вычисления в цикле
-        double piAngle = 2.0 * freq * Math.PI / freqSampling;
-        int rndOffset = (int) (freqSampling * 0.5 * Math.random() / freq); // Начальное смещение фазы
+    /**
+     * Генератор синусоидальной волны в массив вызывающего (без выделения памяти)
+     * со случайной начальной фазой от 0 до половины периода
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде
+     */
+    public static boolean sineGeneratorInto(AudioContext context, double freq, double amplitude, double[] dst,
+                                            int offset, int length) {
+        return sineGeneratorInto(context, freq, amplitude, randomPhase(), dst, offset, length);
+    }
 
-        for (int i = 0; i < data.length; i++)
-            data[i] =  (amplitude * Math.sin(piAngle * (i+rndOffset)));
-        return data;
+    /**
+     * Генератор синусоидальной волны в массив вызывающего с заданной начальной фазой
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1) (одинаковые параметры - одинаковый результат)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде или фазе
+     */
+    public static boolean sineGeneratorInto(AudioContext context, double freq, double amplitude, double phase,
+                                            double[] dst, int offset, int length) {
+        if (!isValid(Waveform.SINE, amplitude, phase))
+            return false;
+        kernel(Waveform.SINE, context.getSampleRate(), freq, amplitude, phaseOffset(context, freq, phase), dst, offset, length);
+        return true;
     }
 
     /**
@@ -83,7 +139,80 @@ public final class Generators {
      * @return семпл
      */
     public static double[] sineGenerator(double freq) {
-        return sineGenerator(freq, GlobalHelper.sampleMsTime, 1);
+        return sineGenerator(freq, AudioContext.getDefault().getSampleMsTime(), 1);
+    }
+
+    /**
+     * Генератор синусоидальной волны одинарной точности (вдвое меньше памяти)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static float[] sineGeneratorFloat(double freq, int time, double amplitude) {
+        return sineGeneratorFloat(AudioContext.getDefault(), freq, time, amplitude);
+    }
+
+    /**
+     * Генератор синусоидальной волны одинарной точности (вдвое меньше памяти)
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static float[] sineGeneratorFloat(AudioContext context, double freq, int time, double amplitude) {
+        float[] data = new float[getSampleCount(context, time)];
+        return sineGeneratorFloatInto(context, freq, amplitude, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор синусоидальной волны одинарной точности с заданной начальной фазой (вдвое меньше памяти)
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @return семпл
+     */
+    public static float[] sineGeneratorFloat(AudioContext context, double freq, int time, double amplitude, double phase) {
+        float[] data = new float[getSampleCount(context, time)];
+        return sineGeneratorFloatInto(context, freq, amplitude, phase, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор синусоидальной волны одинарной точности в массив вызывающего (без выделения памяти)
+     * со случайной начальной фазой от 0 до половины периода
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде
+     */
+    public static boolean sineGeneratorFloatInto(AudioContext context, double freq, double amplitude, float[] dst,
+                                                 int offset, int length) {
+        return sineGeneratorFloatInto(context, freq, amplitude, randomPhase(), dst, offset, length);
+    }
+
+    /**
+     * Генератор синусоидальной волны одинарной точности в массив вызывающего с заданной начальной фазой
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1) (одинаковые параметры - одинаковый результат)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде или фазе
+     */
+    public static boolean sineGeneratorFloatInto(AudioContext context, double freq, double amplitude, double phase,
+                                                 float[] dst, int offset, int length) {
+        if (!isValid(Waveform.SINE, amplitude, phase))
+            return false;
+        kernel(Waveform.SINE, context.getSampleRate(), freq, amplitude, phaseOffset(context, freq, phase), dst, offset, length);
+        return true;
     }
 
     /**
@@ -94,19 +223,69 @@ public final class Generators {
      * @return семпл
      */
     public static double[] sawGenerator(double freq, int time, double amplitude) {
-        if (amplitude<0 || amplitude >1)
-            return null;
+        return sawGenerator(AudioContext.getDefault(), freq, time, amplitude);
+    }
+
+    /**
+     * Генератор пилообразной волны
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static double[] sawGenerator(AudioContext context, double freq, int time, double amplitude) {
+        double[] data = new double[getSampleCount(context, time)];
+        return sawGeneratorInto(context, freq, amplitude, data, 0, data.length) ? data : null;
+    }
 
-        int freqSampling = GlobalHelper.samplePerSec;
-        double[] data = new double[(GlobalHelper.bitsPerSample * freqSampling * (time /1000)) >>> 4];
-        // Переменные для избежания повторного вычисления в цикле
-        double doubleDia = (freqSampling*1.0/freq);
-        int intDia = (int) (freqSampling/freq);
-        int rndOffset = (int) (freqSampling * 0.5 * Math.random() / freq); // Начальное смещение фазы
+    /**
+     * Генератор пилообразной волны с заданной начальной фазой
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @return семпл
+     */
+    public static double[] sawGenerator(AudioContext context, double freq, int time, double amplitude, double phase) {
+        double[] data = new double[getSampleCount(context, time)];
+        return sawGeneratorInto(context, freq, amplitude, phase, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор пилообразной волны в массив вызывающего (без выделения памяти)
+     * со случайной начальной фазой от 0 до половины периода
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде
+     */
+    public static boolean sawGeneratorInto(AudioContext context, double freq, double amplitude, double[] dst,
+                                           int offset, int length) {
+        return sawGeneratorInto(context, freq, amplitude, randomPhase(), dst, offset, length);
+    }
 
-        for (int i = 0; i < data.length; i++)
-            data[i] =  (amplitude * (2 * ((i+rndOffset) % intDia)/doubleDia - 1));
-        return data;
+    /**
+     * Генератор пилообразной волны в массив вызывающего с заданной начальной фазой
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1) (одинаковые параметры - одинаковый результат)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде или фазе
+     */
+    public static boolean sawGeneratorInto(AudioContext context, double freq, double amplitude, double phase,
+                                           double[] dst, int offset, int length) {
+        if (!isValid(Waveform.SAW, amplitude, phase))
+            return false;
+        kernel(Waveform.SAW, context.getSampleRate(), freq, amplitude, phaseOffset(context, freq, phase), dst, offset, length);
+        return true;
     }
 
     /**
@@ -125,7 +304,80 @@ public final class Generators {
      * @return семпл
      */
     public static double[] sawGenerator(double freq) {
-        return sawGenerator(freq, GlobalHelper.sampleMsTime, 1);
+        return sawGenerator(freq, AudioContext.getDefault().getSampleMsTime(), 1);
+    }
+
+    /**
+     * Генератор пилообразной волны одинарной точности
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static float[] sawGeneratorFloat(double freq, int time, double amplitude) {
+        return sawGeneratorFloat(AudioContext.getDefault(), freq, time, amplitude);
+    }
+
+    /**
+     * Генератор пилообразной волны одинарной точности
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static float[] sawGeneratorFloat(AudioContext context, double freq, int time, double amplitude) {
+        float[] data = new float[getSampleCount(context, time)];
+        return sawGeneratorFloatInto(context, freq, amplitude, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор пилообразной волны одинарной точности с заданной начальной фазой
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @return семпл
+     */
+    public static float[] sawGeneratorFloat(AudioContext context, double freq, int time, double amplitude, double phase) {
+        float[] data = new float[getSampleCount(context, time)];
+        return sawGeneratorFloatInto(context, freq, amplitude, phase, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор пилообразной волны одинарной точности в массив вызывающего (без выделения памяти)
+     * со случайной начальной фазой от 0 до половины периода
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде
+     */
+    public static boolean sawGeneratorFloatInto(AudioContext context, double freq, double amplitude, float[] dst,
+                                                int offset, int length) {
+        return sawGeneratorFloatInto(context, freq, amplitude, randomPhase(), dst, offset, length);
+    }
+
+    /**
+     * Генератор пилообразной волны одинарной точности в массив вызывающего с заданной начальной фазой
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1) (одинаковые параметры - одинаковый результат)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде или фазе
+     */
+    public static boolean sawGeneratorFloatInto(AudioContext context, double freq, double amplitude, double phase,
+                                                float[] dst, int offset, int length) {
+        if (!isValid(Waveform.SAW, amplitude, phase))
+            return false;
+        kernel(Waveform.SAW, context.getSampleRate(), freq, amplitude, phaseOffset(context, freq, phase), dst, offset, length);
+        return true;
     }
 
     /**
@@ -136,19 +388,69 @@ public final class Generators {
      * @return семпл
      */
     public static double[] triangleGenerator(double freq, int time, double amplitude) {
-        if (amplitude<0 || amplitude >1)
-            return null;
+        return triangleGenerator(AudioContext.getDefault(), freq, time, amplitude);
+    }
 
-        int freqSampling = GlobalHelper.samplePerSec;
-        double[] data = new double[(GlobalHelper.bitsPerSample * freqSampling * (time /1000)) >>> 4];
+    /**
+     * Генератор треугольной волны
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static double[] triangleGenerator(AudioContext context, double freq, int time, double amplitude) {
+        double[] data = new double[getSampleCount(context, time)];
+        return triangleGeneratorInto(context, freq, amplitude, data, 0, data.length) ? data : null;
+    }
 
-        // Переменные для избежания повторного вычисления в цикле
-        double twiceFreq = freqSampling/freq/2;
-        int rndOffset = (int) (freqSampling * 0.5 * Math.random() / freq); // Начальное смещение фазы
+    /**
+     * Генератор треугольной волны с заданной начальной фазой
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @return семпл
+     */
+    public static double[] triangleGenerator(AudioContext context, double freq, int time, double amplitude, double phase) {
+        double[] data = new double[getSampleCount(context, time)];
+        return triangleGeneratorInto(context, freq, amplitude, phase, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор треугольной волны в массив вызывающего (без выделения памяти)
+     * со случайной начальной фазой от 0 до половины периода
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде
+     */
+    public static boolean triangleGeneratorInto(AudioContext context, double freq, double amplitude, double[] dst,
+                                                int offset, int length) {
+        return triangleGeneratorInto(context, freq, amplitude, randomPhase(), dst, offset, length);
+    }
 
-        for (int i = 0; i < data.length; i++)
-            data[i] = (amplitude * (0.5 + Math.abs((i+rndOffset)%(2*twiceFreq)-twiceFreq)/twiceFreq));
-        return data;
+    /**
+     * Генератор треугольной волны в массив вызывающего с заданной начальной фазой
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1) (одинаковые параметры - одинаковый результат)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде или фазе
+     */
+    public static boolean triangleGeneratorInto(AudioContext context, double freq, double amplitude, double phase,
+                                                double[] dst, int offset, int length) {
+        if (!isValid(Waveform.TRIANGLE, amplitude, phase))
+            return false;
+        kernel(Waveform.TRIANGLE, context.getSampleRate(), freq, amplitude, phaseOffset(context, freq, phase), dst, offset, length);
+        return true;
     }
 
     /**
@@ -167,29 +469,153 @@ public final class Generators {
      * @return семпл
      */
     public static double[] triangleGenerator(double freq) {
-        return triangleGenerator(freq, GlobalHelper.sampleMsTime, 1);
+        return triangleGenerator(freq, AudioContext.getDefault().getSampleMsTime(), 1);
+    }
+
+    /**
+     * Генератор треугольной волны одинарной точности
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static float[] triangleGeneratorFloat(double freq, int time, double amplitude) {
+        return triangleGeneratorFloat(AudioContext.getDefault(), freq, time, amplitude);
+    }
+
+    /**
+     * Генератор треугольной волны одинарной точности
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static float[] triangleGeneratorFloat(AudioContext context, double freq, int time, double amplitude) {
+        float[] data = new float[getSampleCount(context, time)];
+        return triangleGeneratorFloatInto(context, freq, amplitude, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор треугольной волны одинарной точности с заданной начальной фазой
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @return семпл
+     */
+    public static float[] triangleGeneratorFloat(AudioContext context, double freq, int time, double amplitude, double phase) {
+        float[] data = new float[getSampleCount(context, time)];
+        return triangleGeneratorFloatInto(context, freq, amplitude, phase, data, 0, data.length) ? data : null;
     }
 
     /**
-         * Генератор прямоугольной волны
-         * @param freq частота
-         * @param time продолжительность в мсек
-         * @param amplitude амплитуда ( 0...1.0)
-         * @return семпл
-         */
-        public static double[] rectangleGenerator(double freq, int time, double amplitude) {
-            if (amplitude<0 || amplitude >1)
-                return null;
+     * Генератор треугольной волны одинарной точности в массив вызывающего (без выделения памяти)
+     * со случайной начальной фазой от 0 до половины периода
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде
+     */
+    public static boolean triangleGeneratorFloatInto(AudioContext context, double freq, double amplitude, float[] dst,
+                                                     int offset, int length) {
+        return triangleGeneratorFloatInto(context, freq, amplitude, randomPhase(), dst, offset, length);
+    }
 
-            int freqSampling = GlobalHelper.samplePerSec;
-            double[] data = new double[(GlobalHelper.bitsPerSample * freqSampling * (time / 1000)) >>> 4];
+    /**
+     * Генератор треугольной волны одинарной точности в массив вызывающего с заданной начальной фазой
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1) (одинаковые параметры - одинаковый результат)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде или фазе
+     */
+    public static boolean triangleGeneratorFloatInto(AudioContext context, double freq, double amplitude, double phase,
+                                                     float[] dst, int offset, int length) {
+        if (!isValid(Waveform.TRIANGLE, amplitude, phase))
+            return false;
+        kernel(Waveform.TRIANGLE, context.getSampleRate(), freq, amplitude, phaseOffset(context, freq, phase), dst, offset, length);
+        return true;
+    }
 
-            // Переменные для избежания повторного вычисления в цикле
-            double piAngle = 2.0 * freq * Math.PI / freqSampling;
+    /**
+     * Генератор прямоугольной волны
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static double[] rectangleGenerator(double freq, int time, double amplitude) {
+        return rectangleGenerator(AudioContext.getDefault(), freq, time, amplitude);
+    }
 
-            for (int i = 0; i < data.length; i++)
-                data[i] =  amplitude * Math.signum(Math.sin(piAngle * i));
-            return data;
+    /**
+     * Генератор прямоугольной волны
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static double[] rectangleGenerator(AudioContext context, double freq, int time, double amplitude) {
+        double[] data = new double[getSampleCount(context, time)];
+        return rectangleGeneratorInto(context, freq, amplitude, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор прямоугольной волны с заданной начальной фазой
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @return семпл
+     */
+    public static double[] rectangleGenerator(AudioContext context, double freq, int time, double amplitude, double phase) {
+        double[] data = new double[getSampleCount(context, time)];
+        return rectangleGeneratorInto(context, freq, amplitude, phase, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор прямоугольной волны в массив вызывающего (без выделения памяти)
+     * с нулевой начальной фазой
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде
+     */
+    public static boolean rectangleGeneratorInto(AudioContext context, double freq, double amplitude, double[] dst,
+                                                 int offset, int length) {
+        return rectangleGeneratorInto(context, freq, amplitude, 0, dst, offset, length);
+    }
+
+    /**
+     * Генератор прямоугольной волны в массив вызывающего с заданной начальной фазой
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1) (одинаковые параметры - одинаковый результат)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде или фазе
+     */
+    public static boolean rectangleGeneratorInto(AudioContext context, double freq, double amplitude, double phase,
+                                                 double[] dst, int offset, int length) {
+        if (!isValid(Waveform.RECTANGLE, amplitude, phase))
+            return false;
+        kernel(Waveform.RECTANGLE, context.getSampleRate(), freq, amplitude, phaseOffset(context, freq, phase), dst, offset, length);
+        return true;
     }
 
     /**
@@ -208,7 +634,80 @@ public final class Generators {
      * @return семпл
      */
     public static double[] rectangleGenerator(double freq) {
-        return rectangleGenerator(freq, GlobalHelper.sampleMsTime, 1);
+        return rectangleGenerator(freq, AudioContext.getDefault().getSampleMsTime(), 1);
+    }
+
+    /**
+     * Генератор прямоугольной волны одинарной точности
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static float[] rectangleGeneratorFloat(double freq, int time, double amplitude) {
+        return rectangleGeneratorFloat(AudioContext.getDefault(), freq, time, amplitude);
+    }
+
+    /**
+     * Генератор прямоугольной волны одинарной точности
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static float[] rectangleGeneratorFloat(AudioContext context, double freq, int time, double amplitude) {
+        float[] data = new float[getSampleCount(context, time)];
+        return rectangleGeneratorFloatInto(context, freq, amplitude, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор прямоугольной волны одинарной точности с заданной начальной фазой
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @return семпл
+     */
+    public static float[] rectangleGeneratorFloat(AudioContext context, double freq, int time, double amplitude, double phase) {
+        float[] data = new float[getSampleCount(context, time)];
+        return rectangleGeneratorFloatInto(context, freq, amplitude, phase, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор прямоугольной волны одинарной точности в массив вызывающего (без выделения памяти)
+     * с нулевой начальной фазой
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде
+     */
+    public static boolean rectangleGeneratorFloatInto(AudioContext context, double freq, double amplitude, float[] dst,
+                                                      int offset, int length) {
+        return rectangleGeneratorFloatInto(context, freq, amplitude, 0, dst, offset, length);
+    }
+
+    /**
+     * Генератор прямоугольной волны одинарной точности в массив вызывающего с заданной начальной фазой
+     * @param context контекст (частота дискретизации)
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1) (одинаковые параметры - одинаковый результат)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде или фазе
+     */
+    public static boolean rectangleGeneratorFloatInto(AudioContext context, double freq, double amplitude, double phase,
+                                                      float[] dst, int offset, int length) {
+        if (!isValid(Waveform.RECTANGLE, amplitude, phase))
+            return false;
+        kernel(Waveform.RECTANGLE, context.getSampleRate(), freq, amplitude, phaseOffset(context, freq, phase), dst, offset, length);
+        return true;
     }
 
 
@@ -219,15 +718,61 @@ public final class Generators {
      * @return семпл
      */
     public static double[] randomGenerator( int time, double amplitude) {
-        if (amplitude<0 || amplitude >1)
-            return null;
+        return randomGenerator(AudioContext.getDefault(), time, amplitude);
+    }
 
-        int freqSampling = GlobalHelper.samplePerSec;
-        double[] data = new double[(GlobalHelper.bitsPerSample * freqSampling * (time / 1000)) >>> 4];
+    /**
+     * Генератор шумовой волны
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static double[] randomGenerator(AudioContext context, int time, double amplitude) {
+        double[] data = new double[getSampleCount(context, time)];
+        return randomGeneratorInto(amplitude, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор шумовой волны в массив вызывающего (без выделения памяти)
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде
+     */
+    public static boolean randomGeneratorInto(double amplitude, double[] dst, int offset, int length) {
+        if (!isValid(Waveform.NOISE, amplitude, 0))
+            return false;
+        kernel(Waveform.NOISE, 0, 0, amplitude, 0, dst, offset, length);
+        return true;
+    }
 
-        for (int i = 0; i < data.length; i++)
-            data[i] =  (short) (amplitude * Math.random());
-        return data;
+    /**
+     * Генератор шумовой волны одинарной точности
+     * @param context контекст (частота дискретизации)
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return семпл
+     */
+    public static float[] randomGeneratorFloat(AudioContext context, int time, double amplitude) {
+        float[] data = new float[getSampleCount(context, time)];
+        return randomGeneratorFloatInto(amplitude, data, 0, data.length) ? data : null;
+    }
+
+    /**
+     * Генератор шумовой волны одинарной точности в массив вызывающего (без выделения памяти)
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде
+     */
+    public static boolean randomGeneratorFloatInto(double amplitude, float[] dst, int offset, int length) {
+        if (!isValid(Waveform.NOISE, amplitude, 0))
+            return false;
+        kernel(Waveform.NOISE, 0, 0, amplitude, 0, dst, offset, length);
+        return true;
     }
 
     /**
@@ -236,7 +781,7 @@ public final class Generators {
      * @return семпл
      */
     public static double[] randomGenerator(double amplitude) {
-        return randomGenerator(GlobalHelper.sampleMsTime, amplitude);
+        return randomGenerator(AudioContext.getDefault().getSampleMsTime(), amplitude);
     }
 
     /**
@@ -244,9 +789,260 @@ public final class Generators {
      * @return семпл
      */
     public static double[] randomGenerator() {
-        return randomGenerator(GlobalHelper.sampleMsTime, 1);
+        return randomGenerator(AudioContext.getDefault().getSampleMsTime(), 1);
     }
 
 
-    public static double getNoteFrequency(String name ) {return 0;}
+    /**
+     * Генератор тона заданной формы с размножением периода: прямым расчетом вычисляются только
+     * отсчеты целого числа периодов (n отсчетов на m периодов, n - целое), остальное заполняется
+     * удвоением скопированного участка через System.arraycopy со скоростью копирования памяти.
+     * Отличие от прямого расчета (sineGeneratorInto и т.п.) не больше 1e-9 * amplitude сверх
+     * погрешности округления аргумента самого прямого расчета: участок принимается, только если
+     * накопленный за всю длину уход фазы 2*pi*|n*freq/sampleRate - m| * (length/n) не больше 1e-9.
+     * Пила повторяется точно через (int)(sampleRate/freq) отсчетов и совпадает с прямым расчетом.
+     * Если подходящего участка нет (целое число периодов не укладывается в целое число отсчетов
+     * до 65536), расчет идет по каждому отсчету, как у обычных генераторов. Так же всегда считаются
+     * прямоугольная волна (знак синуса в нулях зависит от округления) и шум.
+     * @param context контекст (частота дискретизации)
+     * @param waveform форма волны
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде или фазе
+     */
+    public static boolean periodicGeneratorInto(AudioContext context, Waveform waveform, double freq,
+                                                double amplitude, double phase, double[] dst, int offset, int length) {
+        int period = getPeriodLength(context.getSampleRate(), waveform, freq, length);
+        if (!generatorInto(context, waveform, freq, amplitude, phase, dst, offset, period > 0 ? period : length))
+            return false;
+        if (period > 0)
+            tile(dst, offset, period, length);
+        return true;
+    }
+
+    /**
+     * Генератор тона одинарной точности с размножением периода
+     * (см. {@link #periodicGeneratorInto(AudioContext, Waveform, double, double, double, double[], int, int)})
+     * @param context контекст (частота дискретизации)
+     * @param waveform форма волны
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @param dst массив результата
+     * @param offset смещение в массиве
+     * @param length количество отсчетов
+     * @return true - если отсчеты записаны, false - при некорректной амплитуде или фазе
+     */
+    public static boolean periodicGeneratorFloatInto(AudioContext context, Waveform waveform, double freq,
+                                                     double amplitude, double phase, float[] dst, int offset,
+                                                     int length) {
+        int period = getPeriodLength(context.getSampleRate(), waveform, freq, length);
+        if (!generatorFloatInto(context, waveform, freq, amplitude, phase, dst, offset,
+                period > 0 ? period : length))
+            return false;
+        if (period > 0)
+            tile(dst, offset, period, length);
+        return true;
+    }
+
+    /**
+     * Генератор тона заданной формы с размножением периода
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param waveform форма волны
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @return семпл
+     */
+    public static double[] periodicGenerator(AudioContext context, Waveform waveform, double freq, int time,
+                                             double amplitude, double phase) {
+        double[] data = new double[getSampleCount(context, time)];
+        return periodicGeneratorInto(context, waveform, freq, amplitude, phase, data, 0, data.length) ? data : null;
+    }
+
+    // Длина участка из целого числа периодов (0 - размножение невозможно или не выгодно)
+    static int getPeriodLength(int sampleRate, Waveform waveform, double freq, int length) {
+        if (freq <= 0 || freq > sampleRate)
+            return 0;
+        if (waveform == Waveform.SAW) {
+            int intDia = (int) (sampleRate / freq);
+            return intDia < length ? intDia : 0;
+        }
+        if (waveform != Waveform.SINE && waveform != Waveform.TRIANGLE)
+            return 0;
+        double periods = freq / sampleRate;    // периодов на отсчет
+        int maxSamples = Math.min(MAX_PERIOD_SAMPLES, length - 1);
+        for (int m = 1; m <= maxSamples * periods; m++) {
+            int n = (int) Math.round(m / periods);
+            if (n > maxSamples)
+                break;
+            double drift = Math.abs(n * periods - m);
+            if (2 * Math.PI * drift * Math.ceil((double) length / n) <= PERIODIC_ERROR)
+                return n;
+        }
+        return 0;
+    }
+
+    // Заполнение length отсчетов повторением первых period удвоением скопированного участка
+    private static void tile(Object dst, int offset, int period, int length) {
+        for (int filled = period; filled < length; ) {
+            int n = Math.min(filled, length - filled);
+            System.arraycopy(dst, offset, dst, offset + filled, n);
+            filled += n;
+        }
+    }
+
+    private static boolean generatorInto(AudioContext context, Waveform waveform, double freq, double amplitude,
+                                         double phase, double[] dst, int offset, int length) {
+        switch (waveform) {
+            case SINE:
+                return sineGeneratorInto(context, freq, amplitude, phase, dst, offset, length);
+            case SAW:
+                return sawGeneratorInto(context, freq, amplitude, phase, dst, offset, length);
+            case TRIANGLE:
+                return triangleGeneratorInto(context, freq, amplitude, phase, dst, offset, length);
+            case RECTANGLE:
+                return rectangleGeneratorInto(context, freq, amplitude, phase, dst, offset, length);
+            default:
+                return randomGeneratorInto(amplitude, dst, offset, length);
+        }
+    }
+
+    private static boolean generatorFloatInto(AudioContext context, Waveform waveform, double freq, double amplitude,
+                                              double phase, float[] dst, int offset, int length) {
+        switch (waveform) {
+            case SINE:
+                return sineGeneratorFloatInto(context, freq, amplitude, phase, dst, offset, length);
+            case SAW:
+                return sawGeneratorFloatInto(context, freq, amplitude, phase, dst, offset, length);
+            case TRIANGLE:
+                return triangleGeneratorFloatInto(context, freq, amplitude, phase, dst, offset, length);
+            case RECTANGLE:
+                return rectangleGeneratorFloatInto(context, freq, amplitude, phase, dst, offset, length);
+            default:
+                return randomGeneratorFloatInto(amplitude, dst, offset, length);
+        }
+    }
+
+    // Проверка параметров генераторов (синусоида нулевой амплитуды исторически считается ошибкой)
+    private static boolean isValid(Waveform waveform, double amplitude, double phase) {
+        if (amplitude < 0 || amplitude > 1 || (waveform == Waveform.SINE && amplitude == 0))
+            return false;
+        return phase >= 0 && phase < 1;
+    }
+
+    // Начальная фаза в долях периода -> смещение в отсчетах
+    private static int phaseOffset(AudioContext context, double freq, double phase) {
+        return (int) (context.getSampleRate() * phase / freq);
+    }
+
+    // Общее ядро генераторов: отсчеты формы волны с номерами phaseOffset, phaseOffset+1, ...
+    private static void kernel(Waveform waveform, int sampleRate, double freq, double amplitude, int phaseOffset,
+                               double[] dst, int offset, int length) {
+        switch (waveform) {
+            case SINE: {
+                double piAngle = 2.0 * freq * Math.PI / sampleRate;
+                for (int i = 0; i < length; i++)
+                    dst[offset + i] = amplitude * Math.sin(piAngle * (i+phaseOffset));
+                break;
+            }
+            case SAW: {
+                double doubleDia = (sampleRate*1.0/freq);
+                int intDia = (int) (sampleRate/freq);
+                for (int i = 0; i < length; i++)
+                    dst[offset + i] = amplitude * (2 * ((i+phaseOffset) % intDia)/doubleDia - 1);
+                break;
+            }
+            case TRIANGLE: {
+                double twiceFreq = sampleRate/freq/2;
+                for (int i = 0; i < length; i++)
+                    dst[offset + i] = amplitude * (0.5 + Math.abs((i+phaseOffset)%(2*twiceFreq)-twiceFreq)/twiceFreq);
+                break;
+            }
+            case RECTANGLE: {
+                double piAngle = 2.0 * freq * Math.PI / sampleRate;
+                for (int i = 0; i < length; i++)
+                    dst[offset + i] = amplitude * Math.signum(Math.sin(piAngle * (i+phaseOffset)));
+                break;
+            }
+            default:
+                for (int i = 0; i < length; i++)
+                    dst[offset + i] = amplitude * (2 * Math.random() - 1);
+        }
+    }
+
+    // Ядро для одинарной точности: расчет блоками в double (рабочий массив пула) и округление до float,
+    // поэтому результат равен округленному результату double-генератора с той же фазой
+    private static void kernel(Waveform waveform, int sampleRate, double freq, double amplitude, int phaseOffset,
+                               float[] dst, int offset, int length) {
+        double[] block = BufferPool.acquireDoubles(Math.min(length, KERNEL_BLOCK));
+        try {
+            for (int done = 0; done < length; ) {
+                int n = Math.min(block.length, length - done);
+                kernel(waveform, sampleRate, freq, amplitude, phaseOffset + done, block, 0, n);
+                for (int i = 0; i < n; i++)
+                    dst[offset + done + i] = (float) block[i];
+                done += n;
+            }
+        } finally {
+            BufferPool.release(block);
+        }
+    }
+
+    /**
+     * Случайная начальная фаза генераторов без явной фазы
+     * @return фаза в долях периода [0;0.5)
+     */
+    public static double randomPhase() {
+        return 0.5 * Math.random();
+    }
+
+    /**
+     * Количество отсчетов семпла заданной продолжительности (длина массивов генераторов)
+     * @param context контекст (частота дискретизации)
+     * @param time продолжительность в мсек
+     * @return количество отсчетов
+     */
+    public static int getSampleCount(AudioContext context, int time) {
+        return (int) Math.round(context.getSampleRate() * (double) time / 1000);
+    }
+
+    /**
+     * Частота ноты по названию
+     * @param name название ноты (например "C4", "F#3", "Bb2")
+     * @return частота или 0, если нота не известна
+     */
+    public static double getNoteFrequency(String name ) {
+        Double freq = notes.get(name);
+        return freq == null ? 0 : freq;
+    }
+
+    /**
+     * Частота ноты по номеру MIDI (69 - `ля` первой октавы, 440Гц)
+     * @param midiNote номер ноты MIDI
+     * @return частота
+     */
+    public static double getNoteFrequency(int midiNote) {
+        int idx = midiNote - 12; // musNotesFrequency[0] - `до` субконтроктавы (MIDI 12)
+        if (idx >= 0 && idx < musNotesFrequency.length)
+            return musNotesFrequency[idx];
+        return 440.0 * Math.pow(2, (midiNote - 69) / 12.0);
+    }
+
+    /**
+     * Номер MIDI ноты по названию
+     * @param name название ноты (например "C4", "F#3", "Bb2")
+     * @return номер ноты MIDI или -1, если нота не известна
+     */
+    public static int getMidiNote(String name) {
+        Double freq = notes.get(name);
+        if (freq == null)
+            return -1;
+        return (int) Math.round(69 + 12 * Math.log(freq / 440.0) / Math.log(2));
+    }
 }
@@ -0,0 +1,52 @@
+package ru.joysi.audio.processing.generators;
+
+/**
+ * Генератор белого шума на xorshift64 (без синхронизации и выделения памяти, воспроизводим по seed)
+ */
+public class NoiseOscillator extends Oscillator {
+    private static final double LONG_TO_UNIT = 1.0 / (1L << 53);
+
+    private final long seed;
+    private long state;
+
+    public NoiseOscillator(double amplitude) {
+        this(amplitude, System.nanoTime());
+    }
+
+    public NoiseOscillator(double amplitude, long seed) {
+        super("Noise", 0, amplitude);
+        this.seed = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+        this.state = this.seed;
+    }
+
+    @Override
+    public void render(double[] out, int offset, int length) {
+        final double amp = amplitude;
+        long s = state;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            s ^= s << 13;
+            s ^= s >>> 7;
+            s ^= s << 17;
+            out[i] = amp * (2 * ((s >>> 11) * LONG_TO_UNIT) - 1);
+        }
+        state = s;
+    }
+
+    @Override
+    public void render(float[] out, int offset, int length) {
+        final double amp = amplitude;
+        long s = state;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            s ^= s << 13;
+            s ^= s >>> 7;
+            s ^= s << 17;
+            out[i] = (float) (amp * (2 * ((s >>> 11) * LONG_TO_UNIT) - 1));
+        }
+        state = s;
+    }
+
+    @Override
+    public void reset() {
+        state = seed;
+    }
+}
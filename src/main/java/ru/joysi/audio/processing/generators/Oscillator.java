@@ -0,0 +1,135 @@
+package ru.joysi.audio.processing.generators;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.AudioModule;
+
+/**
+ * Базовый осциллятор с сохраняемым аккумулятором фазы.
+ * В отличие от функций {@link Generators} осциллятор рендерит в переданный буфер без выделения памяти
+ * и продолжает фазу с места остановки, поэтому последовательные ноты стыкуются без щелчков.
+ */
+public abstract class Oscillator extends AudioModule {
+    protected double amplitude;
+    protected double phase;          // фаза в долях периода [0;1)
+    protected double phaseIncrement; // приращение фазы за отсчет
+    protected final int sampleRate;
+
+    protected Oscillator(String name, double freq, double amplitude) {
+        this(AudioContext.getDefault(), name, freq, amplitude);
+    }
+
+    protected Oscillator(AudioContext context, String name, double freq, double amplitude) {
+        super(name, 0);
+        sampleRate = context.getSampleRate();
+        setFrequency(freq);
+        setAmplitude(amplitude);
+    }
+
+    /**
+     * Создание осциллятора для формы волны (пила и меандр - с ограничением полосы PolyBLEP)
+     * @param waveform форма волны
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return осциллятор
+     */
+    public static Oscillator create(Waveform waveform, double freq, double amplitude) {
+        return create(AudioContext.getDefault(), waveform, freq, amplitude);
+    }
+
+    /**
+     * Создание осциллятора для формы волны с частотой дискретизации контекста
+     * @param context контекст
+     * @param waveform форма волны
+     * @param freq частота
+     * @param amplitude амплитуда ( 0...1.0)
+     * @return осциллятор
+     */
+    public static Oscillator create(AudioContext context, Waveform waveform, double freq, double amplitude) {
+        switch (waveform) {
+            case SINE:      return new WavetableOscillator(context, Wavetable.SINE, freq, amplitude);
+            case SAW:       return new SawOscillator(context, freq, amplitude, true);
+            case TRIANGLE:  return new TriangleOscillator(context, freq, amplitude);
+            case RECTANGLE: return new SquareOscillator(context, freq, amplitude, true);
+            default:        return new NoiseOscillator(amplitude);
+        }
+    }
+
+    /**
+     * Смена частоты без разрыва фазы
+     * @param freq частота (меньше частоты дискретизации)
+     */
+    public void setFrequency(double freq) {
+        if (freq < 0 || freq >= sampleRate)
+            throw new IllegalArgumentException("freq=" + freq);
+        phaseIncrement = freq / sampleRate;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @param amplitude амплитуда ( 0...1.0)
+     */
+    public void setAmplitude(double amplitude) {
+        if (amplitude < 0 || amplitude > 1)
+            throw new IllegalArgumentException("amplitude=" + amplitude);
+        this.amplitude = amplitude;
+    }
+
+    /**
+     * @param phase фаза в долях периода [0;1)
+     */
+    public void setPhase(double phase) {
+        double p = phase - Math.floor(phase);
+        this.phase = p < 1.0 ? p : 0;
+    }
+
+    public double getPhase() {
+        return phase;
+    }
+
+    /**
+     * Рендер отсчетов в буфер
+     * @param out буфер-приемник
+     * @param offset смещение в буфере
+     * @param length количество отсчетов
+     */
+    public abstract void render(double[] out, int offset, int length);
+
+    /**
+     * Рендер отсчетов в буфер одинарной точности (фаза ведется в double, результат тот же,
+     * что у {@link #render(double[], int, int)}, округленный до float)
+     * @param out буфер-приемник
+     * @param offset смещение в буфере
+     * @param length количество отсчетов
+     */
+    public abstract void render(float[] out, int offset, int length);
+
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        render(out, 0, frames);
+    }
+
+    @Override
+    public void reset() {
+        phase = 0;
+    }
+
+    /**
+     * Поправка PolyBLEP для разрыва в нуле фазы
+     * @param t фаза [0;1)
+     * @param dt приращение фазы за отсчет
+     */
+    static double polyBlep(double t, double dt) {
+        if (t < dt) {
+            t /= dt;
+            return t + t - t * t - 1;
+        }
+        if (t > 1 - dt) {
+            t = (t - 1) / dt;
+            return t * t + t + t + 1;
+        }
+        return 0;
+    }
+}
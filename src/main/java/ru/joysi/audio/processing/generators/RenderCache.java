@@ -0,0 +1,207 @@
+package ru.joysi.audio.processing.generators;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.filters.Filters;
+
+import java.nio.DoubleBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Ограниченный кэш сгенерированных тонов и огибающих ADSR по параметрам генерации.
+ * Повторный запрос с теми же параметрами стоит поиска в таблице вместо расчета Math.sin/exp/pow
+ * по всем отсчетам. Вытеснение - давно не использованные записи (LRU) по суммарному объему в байтах.
+ * Выдаются представления только для чтения над общим массивом, поэтому записи не копируются и
+ * не могут быть испорчены вызывающим. Кэш включается явно (создается экземпляр) и потокобезопасен.
+ * <p>
+ * Кэшируются только детерминированные результаты: фаза тона задается явно
+ * (см. {@link Generators#randomPhase()} для случайной), шум не кэшируется.
+ */
+public final class RenderCache {
+    private static final int ENVELOPE = -1;    // вид ключа огибающей (для тонов - номер формы волны)
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, double[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxBytes наибольший суммарный объем отсчетов в байтах
+     */
+    public RenderCache(long maxBytes) {
+        if (maxBytes <= 0)
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Тон заданной формы (из кэша или сгенерированный при первом обращении)
+     * @param context контекст (частота дискретизации, разрядность)
+     * @param waveform форма волны (кроме NOISE)
+     * @param freq частота
+     * @param time продолжительность в мсек
+     * @param amplitude амплитуда ( 0...1.0)
+     * @param phase начальная фаза в долях периода [0;1)
+     * @return представление только для чтения или null при некорректных параметрах
+     */
+    public DoubleBuffer tone(AudioContext context, Waveform waveform, double freq, int time, double amplitude,
+                             double phase) {
+        if (waveform == Waveform.NOISE)
+            throw new IllegalArgumentException("Noise is not deterministic and cannot be cached");
+        int length = Generators.getSampleCount(context, time);
+        Key key = new Key(waveform.ordinal(), context.getSampleRate(), length, freq, amplitude, phase);
+        double[] data = lookup(key);
+        if (data == null) {
+            data = new double[length];
+            if (!render(context, waveform, freq, amplitude, phase, data))
+                return null;
+            data = store(key, data);
+        }
+        return view(data);
+    }
+
+    /**
+     * Огибающая Attack-Decay (см. {@link Filters#getASDRarray(AudioContext, double, double, double)})
+     * @param context контекст (частота дискретизации)
+     * @param attackMaxTime время наступления пикового уровня в миллисек
+     * @param decayEndTime время окончания Decay-стадии в миллисек
+     * @param decayEndLevel уровень громкости в конце Decay-стадии (<1)
+     * @return представление только для чтения или null при некорректных параметрах
+     */
+    public DoubleBuffer envelope(AudioContext context, double attackMaxTime, double decayEndTime,
+                                 double decayEndLevel) {
+        int length = Math.max(Filters.getASDRlength(context, decayEndTime), 0);
+        Key key = new Key(ENVELOPE, context.getSampleRate(), length, attackMaxTime, decayEndTime,
+                decayEndLevel);
+        double[] data = lookup(key);
+        if (data == null) {
+            data = new double[length];
+            if (!Filters.getASDRarrayInto(context, attackMaxTime, decayEndTime, decayEndLevel, data, 0))
+                return null;
+            data = store(key, data);
+        }
+        return view(data);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return текущий объем отсчетов в байтах
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Удаление всех записей (счетчики сохраняются)
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    private synchronized double[] lookup(Key key) {
+        double[] data = entries.get(key);
+        if (data != null)
+            hits++;
+        else
+            misses++;
+        return data;
+    }
+
+    // Генерация идет вне блокировки; при одновременном промахе остается первая запись
+    private synchronized double[] store(Key key, double[] data) {
+        long size = 8L * data.length;
+        if (size > maxBytes)
+            return data;
+        double[] existing = entries.get(key);
+        if (existing != null)
+            return existing;
+        entries.put(key, data);
+        bytes += size;
+        Iterator<double[]> it = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= 8L * it.next().length;
+            it.remove();
+            evictions++;
+        }
+        return data;
+    }
+
+    private static DoubleBuffer view(double[] data) {
+        return DoubleBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    private static boolean render(AudioContext context, Waveform waveform, double freq, double amplitude,
+                                  double phase, double[] dst) {
+        switch (waveform) {
+            case SINE:
+                return Generators.sineGeneratorInto(context, freq, amplitude, phase, dst, 0, dst.length);
+            case SAW:
+                return Generators.sawGeneratorInto(context, freq, amplitude, phase, dst, 0, dst.length);
+            case TRIANGLE:
+                return Generators.triangleGeneratorInto(context, freq, amplitude, phase, dst, 0, dst.length);
+            case RECTANGLE:
+                return Generators.rectangleGeneratorInto(context, freq, amplitude, phase, dst, 0, dst.length);
+            default:
+                throw new IllegalArgumentException("Unsupported waveform: " + waveform);
+        }
+    }
+
+    private static final class Key {
+        private final int kind;
+        private final int sampleRate;
+        private final int length;
+        private final double p0, p1, p2;
+
+        Key(int kind, int sampleRate, int length, double p0, double p1, double p2) {
+            this.kind = kind;
+            this.sampleRate = sampleRate;
+            this.length = length;
+            this.p0 = p0;
+            this.p1 = p1;
+            this.p2 = p2;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key k = (Key) o;
+            return kind == k.kind && sampleRate == k.sampleRate && length == k.length
+                    && Double.compare(p0, k.p0) == 0 && Double.compare(p1, k.p1) == 0
+                    && Double.compare(p2, k.p2) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = kind;
+            h = 31 * h + sampleRate;
+            h = 31 * h + length;
+            h = 31 * h + Double.hashCode(p0);
+            h = 31 * h + Double.hashCode(p1);
+            h = 31 * h + Double.hashCode(p2);
+            return h;
+        }
+    }
+}
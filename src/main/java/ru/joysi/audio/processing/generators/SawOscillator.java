@@ -0,0 +1,53 @@
+package ru.joysi.audio.processing.generators;
+
+import ru.joysi.audio.AudioContext;
+
+/**
+ * Осциллятор пилообразной волны (опционально с ограничением полосы PolyBLEP)
+ */
+public class SawOscillator extends Oscillator {
+    private final boolean bandLimited;
+
+    public SawOscillator(double freq, double amplitude, boolean bandLimited) {
+        this(AudioContext.getDefault(), freq, amplitude, bandLimited);
+    }
+
+    public SawOscillator(AudioContext context, double freq, double amplitude, boolean bandLimited) {
+        super(context, "Saw", freq, amplitude);
+        this.bandLimited = bandLimited;
+    }
+
+    @Override
+    public void render(double[] out, int offset, int length) {
+        final double inc = phaseIncrement;
+        final double amp = amplitude;
+        double p = phase;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            double v = 2 * p - 1;
+            if (bandLimited)
+                v -= polyBlep(p, inc);
+            out[i] = amp * v;
+            p += inc;
+            if (p >= 1.0)
+                p -= 1.0;
+        }
+        phase = p;
+    }
+
+    @Override
+    public void render(float[] out, int offset, int length) {
+        final double inc = phaseIncrement;
+        final double amp = amplitude;
+        double p = phase;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            double v = 2 * p - 1;
+            if (bandLimited)
+                v -= polyBlep(p, inc);
+            out[i] = (float) (amp * v);
+            p += inc;
+            if (p >= 1.0)
+                p -= 1.0;
+        }
+        phase = p;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.joysi.audio.processing.generators;
+
+import ru.joysi.audio.AudioContext;
+
+/**
+ * Осциллятор прямоугольной волны (опционально с ограничением полосы PolyBLEP)
+ */
+public class SquareOscillator extends Oscillator {
+    private final boolean bandLimited;
+
+    public SquareOscillator(double freq, double amplitude, boolean bandLimited) {
+        this(AudioContext.getDefault(), freq, amplitude, bandLimited);
+    }
+
+    public SquareOscillator(AudioContext context, double freq, double amplitude, boolean bandLimited) {
+        super(context, "Square", freq, amplitude);
+        this.bandLimited = bandLimited;
+    }
+
+    @Override
+    public void render(double[] out, int offset, int length) {
+        final double inc = phaseIncrement;
+        final double amp = amplitude;
+        double p = phase;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            double v = p < 0.5 ? 1 : -1;
+            if (bandLimited) {
+                double half = p < 0.5 ? p + 0.5 : p - 0.5;
+                v += polyBlep(p, inc) - polyBlep(half, inc);
+            }
+            out[i] = amp * v;
+            p += inc;
+            if (p >= 1.0)
+                p -= 1.0;
+        }
+        phase = p;
+    }
+
+    @Override
+    public void render(float[] out, int offset, int length) {
+        final double inc = phaseIncrement;
+        final double amp = amplitude;
+        double p = phase;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            double v = p < 0.5 ? 1 : -1;
+            if (bandLimited) {
+                double half = p < 0.5 ? p + 0.5 : p - 0.5;
+                v += polyBlep(p, inc) - polyBlep(half, inc);
+            }
+            out[i] = (float) (amp * v);
+            p += inc;
+            if (p >= 1.0)
+                p -= 1.0;
+        }
+        phase = p;
+    }
+}
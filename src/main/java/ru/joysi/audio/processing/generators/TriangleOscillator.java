@@ -0,0 +1,45 @@
+package ru.joysi.audio.processing.generators;
+
+import ru.joysi.audio.AudioContext;
+
+/**
+ * Осциллятор треугольной волны
+ */
+public class TriangleOscillator extends Oscillator {
+
+    public TriangleOscillator(double freq, double amplitude) {
+        super("Triangle", freq, amplitude);
+    }
+
+    public TriangleOscillator(AudioContext context, double freq, double amplitude) {
+        super(context, "Triangle", freq, amplitude);
+    }
+
+    @Override
+    public void render(double[] out, int offset, int length) {
+        final double inc = phaseIncrement;
+        final double amp = amplitude;
+        double p = phase;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            out[i] = amp * (4 * Math.abs(p - 0.5) - 1);
+            p += inc;
+            if (p >= 1.0)
+                p -= 1.0;
+        }
+        phase = p;
+    }
+
+    @Override
+    public void render(float[] out, int offset, int length) {
+        final double inc = phaseIncrement;
+        final double amp = amplitude;
+        double p = phase;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            out[i] = (float) (amp * (4 * Math.abs(p - 0.5) - 1));
+            p += inc;
+            if (p >= 1.0)
+                p -= 1.0;
+        }
+        phase = p;
+    }
+}
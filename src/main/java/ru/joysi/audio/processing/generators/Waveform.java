@@ -0,0 +1,12 @@
+package ru.joysi.audio.processing.generators;
+
+/**
+ * Формы волны генераторов
+ */
+public enum Waveform {
+    SINE,       // синусоида
+    SAW,        // пила
+    TRIANGLE,   // треугольник
+    RECTANGLE,  // меандр
+    NOISE       // белый шум
+}
@@ -0,0 +1,54 @@
+package ru.joysi.audio.processing.generators;
+
+/**
+ * Таблица одного периода волны для чтения с линейной интерполяцией.
+ * Размер - степень двойки, в конце хранится копия первого отсчета, чтобы интерполяции
+ * не требовалась проверка перехода через конец таблицы.
+ */
+public final class Wavetable {
+    // Размер таблицы по умолчанию: ошибка интерполяции синуса ~1e-6, меньше младшего разряда 16 бит
+    public static final int DEFAULT_SIZE = 2048;
+
+    public static final Wavetable SINE = sine(DEFAULT_SIZE);
+
+    final double[] table;
+    final int size;
+
+    /**
+     * @param period отсчеты одного периода (длина - степень двойки)
+     */
+    public Wavetable(double[] period) {
+        size = period.length;
+        if (size == 0 || (size & (size - 1)) != 0)
+            throw new IllegalArgumentException("Wavetable size must be a power of two: " + size);
+        table = new double[size + 1];
+        System.arraycopy(period, 0, table, 0, size);
+        table[size] = period[0];
+    }
+
+    /**
+     * Таблица синуса
+     * @param size размер (степень двойки)
+     */
+    public static Wavetable sine(int size) {
+        double[] period = new double[size];
+        for (int i = 0; i < size; i++)
+            period[i] = Math.sin(2 * Math.PI * i / size);
+        return new Wavetable(period);
+    }
+
+    /**
+     * Значение волны с линейной интерполяцией
+     * @param phase фаза в долях периода [0;1)
+     */
+    public double get(double phase) {
+        double pos = phase * size;
+        int idx = (int) pos;
+        double frac = pos - idx;
+        return table[idx] + (table[idx + 1] - table[idx]) * frac;
+    }
+
+    public int size() {
+        return size;
+    }
+}
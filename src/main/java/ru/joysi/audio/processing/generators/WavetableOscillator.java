@@ -0,0 +1,57 @@
+package ru.joysi.audio.processing.generators;
+
+import ru.joysi.audio.AudioContext;
+
+/**
+ * Табличный осциллятор (линейная интерполяция между отсчетами таблицы)
+ */
+public class WavetableOscillator extends Oscillator {
+    private final Wavetable wavetable;
+
+    public WavetableOscillator(Wavetable wavetable, double freq, double amplitude) {
+        this(AudioContext.getDefault(), wavetable, freq, amplitude);
+    }
+
+    public WavetableOscillator(AudioContext context, Wavetable wavetable, double freq, double amplitude) {
+        super(context, "Wavetable", freq, amplitude);
+        this.wavetable = wavetable;
+    }
+
+    @Override
+    public void render(double[] out, int offset, int length) {
+        final double[] table = wavetable.table;
+        final double size = wavetable.size;
+        final double inc = phaseIncrement;
+        final double amp = amplitude;
+        double p = phase;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            double pos = p * size;
+            int idx = (int) pos;
+            double a = table[idx];
+            out[i] = amp * (a + (table[idx + 1] - a) * (pos - idx));
+            p += inc;
+            if (p >= 1.0)
+                p -= 1.0;
+        }
+        phase = p;
+    }
+
+    @Override
+    public void render(float[] out, int offset, int length) {
+        final double[] table = wavetable.table;
+        final double size = wavetable.size;
+        final double inc = phaseIncrement;
+        final double amp = amplitude;
+        double p = phase;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            double pos = p * size;
+            int idx = (int) pos;
+            double a = table[idx];
+            out[i] = (float) (amp * (a + (table[idx + 1] - a) * (pos - idx)));
+            p += inc;
+            if (p >= 1.0)
+                p -= 1.0;
+        }
+        phase = p;
+    }
+}
@@ -0,0 +1,254 @@
+package ru.joysi.audio.processing.meters;
+
+import ru.joysi.audio.AudioContext;
+
+import java.util.Arrays;
+
+/**
+ * Громкость по EBU R128 / ITU-R BS.1770: K-взвешивание (полка + ФВЧ), взвешенная сумма мощностей каналов,
+ * кратковременная (momentary, 400 мсек), краткосрочная (short-term, 3 с) и интегральная громкость в LUFS.
+ * Мощность копится шагами по 100 мсек (перекрытие блоков 400 мсек - 75%). Для интегральной громкости
+ * блоки не хранятся: их мощности складываются в гистограмму с шагом 0.01 LU, по которой выполняются
+ * абсолютный (-70 LUFS) и относительный (-10 LU) пороги. Память постоянна, гистограммы частей складываются.
+ */
+public class LoudnessMeter extends Meter {
+    private static final double ABSOLUTE_GATE = -70;
+    private static final double RELATIVE_GATE = -10;
+    private static final double BIN_WIDTH = 0.01;
+    private static final int BINS = (int) Math.round((10 - ABSOLUTE_GATE) / BIN_WIDTH);
+    private static final int MOMENTARY_HOPS = 4;
+    private static final int SHORT_TERM_HOPS = 30;
+    private static final double DENORMAL_THRESHOLD = 1e-25;
+
+    private final int numChannels;
+    private final double[] weights;
+    private final double sb0, sb1, sb2, sa1, sa2;   // полка (предфильтр)
+    private final double ha1, ha2;                   // ФВЧ (числитель 1, -2, 1)
+    private final double[] state;                    // по 4 на канал
+    private final int hop;
+    private final double[] hops = new double[SHORT_TERM_HOPS];  // средние мощности последних шагов
+    private int hopIndex;
+    private long hopCount;
+    private int hopPosition;
+    private double hopSum;
+    private double momentary, shortTerm;
+    private double maxMomentary, maxShortTerm;
+    private final long[] counts = new long[BINS];
+    private final double[] energies = new double[BINS];
+
+    /**
+     * @param context контекст (частота дискретизации)
+     * @param numChannels количество каналов (веса каналов - 1, см. {@link #setChannelWeight(int, double)})
+     */
+    public LoudnessMeter(AudioContext context, int numChannels) {
+        super("Loudness");
+        if (numChannels < 1)
+            throw new IllegalArgumentException("numChannels=" + numChannels);
+        int sampleRate = context.getSampleRate();
+        this.numChannels = numChannels;
+        weights = new double[numChannels];
+        Arrays.fill(weights, 1);
+        state = new double[4 * numChannels];
+        hop = Math.max(1, Math.round(sampleRate / 10f));
+
+        // Коэффициенты BS.1770 для 48 кГц, пересчитанные через аналоговые прототипы для любой частоты
+        double k = Math.tan(Math.PI * 1681.974450955533 / sampleRate);
+        double q = 0.7071752369554196;
+        double vh = Math.pow(10, 3.999843853973347 / 20);
+        double vb = Math.pow(vh, 0.4996667741545416);
+        double a0 = 1 + k / q + k * k;
+        sb0 = (vh + vb * k / q + k * k) / a0;
+        sb1 = 2 * (k * k - vh) / a0;
+        sb2 = (vh - vb * k / q + k * k) / a0;
+        sa1 = 2 * (k * k - 1) / a0;
+        sa2 = (1 - k / q + k * k) / a0;
+        k = Math.tan(Math.PI * 38.13547087602444 / sampleRate);
+        q = 0.5003270373238773;
+        a0 = 1 + k / q + k * k;
+        ha1 = 2 * (k * k - 1) / a0;
+        ha2 = (1 - k / q + k * k) / a0;
+    }
+
+    /**
+     * Вес канала в сумме мощностей (BS.1770: 1 для L, R, C; 1.41 для боковых тыловых; LFE не учитывается - 0)
+     * @param channel номер канала
+     * @param weight вес
+     */
+    public void setChannelWeight(int channel, double weight) {
+        if (weight < 0)
+            throw new IllegalArgumentException("weight=" + weight);
+        weights[channel] = weight;
+    }
+
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    /**
+     * Анализ моно сигнала (измеритель на один канал)
+     */
+    @Override
+    public void analyze(double[] audio, int offset, int frames) {
+        if (numChannels != 1)
+            throw new IllegalStateException("Meter expects " + numChannels + " channel(s)");
+        for (int done = 0; done < frames; ) {
+            int n = Math.min(hop - hopPosition, frames - done);
+            hopSum += filter(0, audio, offset + done, n);
+            done += advance(n);
+        }
+    }
+
+    /**
+     * Анализ блока многоканального сигнала (массивы не изменяются)
+     * @param channels массивы каналов
+     * @param offset смещение блока в массивах
+     * @param frames количество кадров
+     */
+    public void analyze(double[][] channels, int offset, int frames) {
+        if (channels.length != numChannels)
+            throw new IllegalArgumentException("Expected " + numChannels + " channel(s)");
+        for (int done = 0; done < frames; ) {
+            int n = Math.min(hop - hopPosition, frames - done);
+            for (int c = 0; c < numChannels; c++)
+                hopSum += filter(c, channels[c], offset + done, n);
+            done += advance(n);
+        }
+    }
+
+    /**
+     * @return громкость последних 400 мсек, LUFS
+     */
+    public double getMomentary() {
+        return loudness(momentary);
+    }
+
+    /**
+     * @return громкость последних 3 с, LUFS
+     */
+    public double getShortTerm() {
+        return loudness(shortTerm);
+    }
+
+    public double getMaxMomentary() {
+        return loudness(maxMomentary);
+    }
+
+    public double getMaxShortTerm() {
+        return loudness(maxShortTerm);
+    }
+
+    /**
+     * Интегральная громкость с порогами. Блоки, попавшие в один интервал гистограммы с относительным порогом,
+     * учитываются целиком (погрешность порога - 0.01 LU)
+     * @return громкость, LUFS (минус бесконечность, если нет блоков выше абсолютного порога)
+     */
+    public double getIntegrated() {
+        long count = 0;
+        double energy = 0;
+        for (int i = 0; i < BINS; i++) {
+            count += counts[i];
+            energy += energies[i];
+        }
+        if (count == 0)
+            return Double.NEGATIVE_INFINITY;
+        double gate = loudness(energy / count) + RELATIVE_GATE;
+        count = 0;
+        energy = 0;
+        for (int i = Math.max(0, (int) Math.floor((gate - ABSOLUTE_GATE) / BIN_WIDTH)); i < BINS; i++) {
+            count += counts[i];
+            energy += energies[i];
+        }
+        return count == 0 ? Double.NEGATIVE_INFINITY : loudness(energy / count);
+    }
+
+    /**
+     * Добавление результатов другой части сигнала: гистограммы складываются, максимумы объединяются.
+     * Блоки 400 мсек на стыке частей (не более трех на стык) не учитываются
+     * @param other измеритель с той же частотой дискретизации
+     */
+    public void merge(LoudnessMeter other) {
+        if (other.hop != hop)
+            throw new IllegalArgumentException("Different sample rates");
+        for (int i = 0; i < BINS; i++) {
+            counts[i] += other.counts[i];
+            energies[i] += other.energies[i];
+        }
+        maxMomentary = Math.max(maxMomentary, other.maxMomentary);
+        maxShortTerm = Math.max(maxShortTerm, other.maxShortTerm);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(state, 0);
+        Arrays.fill(hops, 0);
+        Arrays.fill(counts, 0);
+        Arrays.fill(energies, 0);
+        hopIndex = 0;
+        hopCount = 0;
+        hopPosition = 0;
+        hopSum = 0;
+        momentary = shortTerm = 0;
+        maxMomentary = maxShortTerm = 0;
+    }
+
+    // K-взвешивание части канала, возвращает взвешенную сумму квадратов
+    private double filter(int channel, double[] x, int offset, int frames) {
+        int s = 4 * channel;
+        double z1 = state[s], z2 = state[s + 1], z3 = state[s + 2], z4 = state[s + 3];
+        double sum = 0;
+        for (int i = offset, end = offset + frames; i < end; i++) {
+            double in = x[i];
+            double y = sb0 * in + z1;
+            z1 = sb1 * in - sa1 * y + z2;
+            z2 = sb2 * in - sa2 * y;
+            double w = y + z3;
+            z3 = -2 * y - ha1 * w + z4;
+            z4 = y - ha2 * w;
+            sum += w * w;
+        }
+        state[s] = Math.abs(z1) < DENORMAL_THRESHOLD ? 0 : z1;
+        state[s + 1] = Math.abs(z2) < DENORMAL_THRESHOLD ? 0 : z2;
+        state[s + 2] = Math.abs(z3) < DENORMAL_THRESHOLD ? 0 : z3;
+        state[s + 3] = Math.abs(z4) < DENORMAL_THRESHOLD ? 0 : z4;
+        return sum * weights[channel];
+    }
+
+    // Продвижение позиции шага; по завершении шага обновляются окна и гистограмма
+    private int advance(int frames) {
+        hopPosition += frames;
+        if (hopPosition == hop) {
+            hops[hopIndex] = hopSum / hop;
+            hopIndex = hopIndex + 1 == SHORT_TERM_HOPS ? 0 : hopIndex + 1;
+            hopCount++;
+            hopSum = 0;
+            hopPosition = 0;
+            if (hopCount >= MOMENTARY_HOPS) {
+                momentary = mean(MOMENTARY_HOPS);
+                maxMomentary = Math.max(maxMomentary, momentary);
+                double block = loudness(momentary);
+                if (block > ABSOLUTE_GATE) {
+                    int bin = Math.min((int) ((block - ABSOLUTE_GATE) / BIN_WIDTH), BINS - 1);
+                    counts[bin]++;
+                    energies[bin] += momentary;
+                }
+            }
+            if (hopCount >= SHORT_TERM_HOPS) {
+                shortTerm = mean(SHORT_TERM_HOPS);
+                maxShortTerm = Math.max(maxShortTerm, shortTerm);
+            }
+        }
+        return frames;
+    }
+
+    // Средняя мощность последних count шагов
+    private double mean(int count) {
+        double sum = 0;
+        for (int i = 1; i <= count; i++)
+            sum += hops[(hopIndex - i + SHORT_TERM_HOPS) % SHORT_TERM_HOPS];
+        return sum / count;
+    }
+
+    private static double loudness(double power) {
+        return -0.691 + 10 * Math.log10(power);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.joysi.audio.processing.meters;
+
+import ru.joysi.audio.processing.AudioModule;
+
+/**
+ * Измеритель-отвод блочного графа: анализирует проходящий блок и передает его дальше без изменений.
+ * При обработке на месте (in == out) блок не копируется. Вне графа блоки можно передавать
+ * напрямую в {@link #analyze(double[], int, int)}.
+ * Результаты измерителей одного типа, снятые с параллельно отрендеренных частей, объединяются методом merge.
+ */
+public abstract class Meter extends AudioModule {
+
+    public Meter(String name) {
+        super(name, 0);
+    }
+
+    /**
+     * Анализ части массива (массив не изменяется)
+     * @param audio отсчеты
+     * @param offset смещение
+     * @param frames количество отсчетов
+     */
+    public abstract void analyze(double[] audio, int offset, int frames);
+
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        analyze(in, 0, frames);
+        if (out != in)
+            System.arraycopy(in, 0, out, 0, frames);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.joysi.audio.processing.meters;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.Volume;
+
+import java.util.Arrays;
+
+/**
+ * Оконное среднеквадратичное значение. Окно состоит из нескольких шагов; на шаге копится только
+ * сумма квадратов (один проход по блоку), окно - скользящая сумма по кольцу сумм шагов.
+ * Кроме текущего значения окна хранится максимум по окнам и RMS всего сигнала.
+ */
+public class RmsMeter extends Meter {
+    private final int hop;
+    private final double[] hops;     // суммы квадратов последних шагов окна
+    private int hopIndex;
+    private int hopsFilled;
+    private double hopSum;
+    private int hopPosition;
+    private double window;           // сумма квадратов текущего окна
+    private double maxWindow;
+    private double totalSum;
+    private long totalCount;
+
+    /**
+     * @param context контекст (частота дискретизации)
+     * @param windowMs длина окна в мсек
+     * @param hopMs шаг обновления окна в мсек (окно округляется до целого числа шагов)
+     */
+    public RmsMeter(AudioContext context, double windowMs, double hopMs) {
+        super("RMS");
+        if (hopMs <= 0 || windowMs < hopMs)
+            throw new IllegalArgumentException("windowMs=" + windowMs + ", hopMs=" + hopMs);
+        hop = Math.max(1, (int) Math.round(hopMs * context.getSampleRate() / 1000));
+        hops = new double[(int) Math.round(windowMs / hopMs)];
+    }
+
+    /**
+     * Окно 300 мсек с шагом 10 мсек
+     * @param context контекст (частота дискретизации)
+     */
+    public RmsMeter(AudioContext context) {
+        this(context, 300, 10);
+    }
+
+    @Override
+    public void analyze(double[] audio, int offset, int frames) {
+        totalSum += Volume.calcSumSquares(audio, offset, frames);
+        totalCount += frames;
+        for (int done = 0; done < frames; ) {
+            int n = Math.min(hop - hopPosition, frames - done);
+            hopSum += Volume.calcSumSquares(audio, offset + done, n);
+            hopPosition += n;
+            done += n;
+            if (hopPosition == hop) {
+                window += hopSum - hops[hopIndex];
+                hops[hopIndex] = hopSum;
+                hopIndex = hopIndex + 1 == hops.length ? 0 : hopIndex + 1;
+                // Полная пересумма раз в оборот кольца - ошибки вычитания не накапливаются
+                if (hopIndex == 0) {
+                    window = 0;
+                    for (double sum : hops)
+                        window += sum;
+                }
+                if (hopsFilled < hops.length)
+                    hopsFilled++;
+                if (hopsFilled == hops.length)
+                    maxWindow = Math.max(maxWindow, window);
+                hopSum = 0;
+                hopPosition = 0;
+            }
+        }
+    }
+
+    /**
+     * @return RMS последнего полного окна (0, пока окно не заполнено)
+     */
+    public double getRms() {
+        return hopsFilled < hops.length ? 0 : Math.sqrt(Math.max(window, 0) / ((double) hop * hops.length));
+    }
+
+    /**
+     * @return максимальный RMS по окнам
+     */
+    public double getMaxRms() {
+        return Math.sqrt(maxWindow / ((double) hop * hops.length));
+    }
+
+    /**
+     * @return RMS всего проанализированного сигнала
+     */
+    public double getTotalRms() {
+        return totalCount == 0 ? 0 : Math.sqrt(totalSum / totalCount);
+    }
+
+    /**
+     * @return RMS всего сигнала в dBFS
+     */
+    public double getTotalRmsDBFS() {
+        return Volume.volumeToDBFS(getTotalRms());
+    }
+
+    /**
+     * Добавление результатов другой части сигнала (окна на стыке частей не учитываются)
+     * @param other измеритель с теми же окном и шагом
+     */
+    public void merge(RmsMeter other) {
+        if (other.hop != hop || other.hops.length != hops.length)
+            throw new IllegalArgumentException("Different meter windows");
+        totalSum += other.totalSum;
+        totalCount += other.totalCount;
+        maxWindow = Math.max(maxWindow, other.maxWindow);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(hops, 0);
+        hopIndex = 0;
+        hopsFilled = 0;
+        hopSum = 0;
+        hopPosition = 0;
+        window = 0;
+        maxWindow = 0;
+        totalSum = 0;
+        totalCount = 0;
+    }
+}
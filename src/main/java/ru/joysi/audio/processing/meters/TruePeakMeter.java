@@ -0,0 +1,112 @@
+package ru.joysi.audio.processing.meters;
+
+import ru.joysi.audio.processing.Volume;
+
+import java.util.Arrays;
+
+/**
+ * Истинный пик (межотсчетный) по ITU-R BS.1770: сигнал интерполируется с 4-кратной передискретизацией
+ * полифазным ФНЧ (окно Блэкмана, 16 отводов на фазу), максимум берется по интерполированным и исходным отсчетам.
+ * Блок обрабатывается частями через небольшой буфер с хвостом предыдущих отсчетов.
+ */
+public class TruePeakMeter extends Meter {
+    private static final int FACTOR = 4;
+    private static final int TAPS = 16;
+    private static final int CHUNK = 256;
+    // Частота среза относительно исходной частоты Найквиста
+    private static final double CUTOFF = 0.9;
+    private static final double[][] PHASES = design();
+
+    private final double[] buffer = new double[TAPS - 1 + CHUNK];
+    private double samplePeak;
+    private double truePeak;
+
+    public TruePeakMeter() {
+        super("TruePeak");
+    }
+
+    @Override
+    public void analyze(double[] audio, int offset, int frames) {
+        final double[] x = buffer;
+        final double[] h0 = PHASES[0], h1 = PHASES[1], h2 = PHASES[2], h3 = PHASES[3];
+        for (int done = 0; done < frames; ) {
+            int n = Math.min(CHUNK, frames - done);
+            System.arraycopy(audio, offset + done, x, TAPS - 1, n);
+            double peak = truePeak;
+            for (int i = 0; i < n; i++) {
+                double y0 = 0, y1 = 0, y2 = 0, y3 = 0;
+                for (int k = 0; k < TAPS; k++) {
+                    double v = x[i + k];
+                    y0 += h0[k] * v;
+                    y1 += h1[k] * v;
+                    y2 += h2[k] * v;
+                    y3 += h3[k] * v;
+                }
+                double a = Math.max(Math.max(Math.abs(y0), Math.abs(y1)), Math.max(Math.abs(y2), Math.abs(y3)));
+                if (a > peak)
+                    peak = a;
+            }
+            truePeak = peak;
+            samplePeak = Math.max(samplePeak, Volume.calcPeak(audio, offset + done, n));
+            System.arraycopy(x, n, x, 0, TAPS - 1);
+            done += n;
+        }
+    }
+
+    /**
+     * @return максимальная абсолютная амплитуда отсчетов
+     */
+    public double getSamplePeak() {
+        return samplePeak;
+    }
+
+    /**
+     * @return истинный пик (не меньше пика по отсчетам)
+     */
+    public double getTruePeak() {
+        return Math.max(truePeak, samplePeak);
+    }
+
+    /**
+     * @return истинный пик в dBTP
+     */
+    public double getTruePeakDBTP() {
+        return Volume.volumeToDBFS(getTruePeak());
+    }
+
+    /**
+     * Добавление результатов другой части сигнала
+     * @param other измеритель части
+     */
+    public void merge(TruePeakMeter other) {
+        samplePeak = Math.max(samplePeak, other.samplePeak);
+        truePeak = Math.max(truePeak, other.truePeak);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(buffer, 0);
+        samplePeak = 0;
+        truePeak = 0;
+    }
+
+    // Фаза p интерполирует точку на p/FACTOR отсчета позже середины окна; сумма каждой фазы равна 1
+    private static double[][] design() {
+        double[][] phases = new double[FACTOR][TAPS];
+        double half = TAPS / 2;
+        for (int p = 0; p < FACTOR; p++) {
+            double sum = 0;
+            for (int k = 0; k < TAPS; k++) {
+                double t = k - (half - 1) - (double) p / FACTOR;
+                double x = Math.PI * CUTOFF * t;
+                double sinc = x == 0 ? 1 : Math.sin(x) / x;
+                double window = 0.42 + 0.5 * Math.cos(Math.PI * t / half) + 0.08 * Math.cos(2 * Math.PI * t / half);
+                phases[p][k] = sinc * window;
+                sum += phases[p][k];
+            }
+            for (int k = 0; k < TAPS; k++)
+                phases[p][k] /= sum;
+        }
+        return phases;
+    }
+}
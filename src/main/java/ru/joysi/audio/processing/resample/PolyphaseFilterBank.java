@@ -0,0 +1,132 @@
+package ru.joysi.audio.processing.resample;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Полифазный банк фильтров для рационального отношения частот up/down.
+ * Прототип - sinc, взвешенный окном Кайзера, на частоте inputRate*up; фаза p содержит отводы
+ * h[p], h[p+up], h[p+2*up], ... в обратном порядке, поэтому свертка - это скалярное произведение
+ * двух непрерывных участков памяти. Банки неизменяемы и кэшируются по (up, down, качество),
+ * поэтому все каналы и все экземпляры {@link Resampler} с одним отношением частот делят один банк.
+ */
+public final class PolyphaseFilterBank {
+    // Ограничение на размер банка (в коэффициентах), чтобы "неудобные" отношения не съели память
+    public static final int MAX_COEFFICIENTS = 1 << 22;
+
+    private static final Map<String, PolyphaseFilterBank> cache = new ConcurrentHashMap<>();
+
+    private final int up;
+    private final int down;
+    private final int taps;
+    private final int center;        // задержка прототипа в отсчетах частоты inputRate*up
+    private final double[] coefficients;
+
+    private PolyphaseFilterBank(int up, int down, ResampleQuality quality) {
+        this.up = up;
+        this.down = down;
+        // При понижении частоты фильтр удлиняется, чтобы переходная полоса относительно
+        // выходной частоты Найквиста осталась прежней; кратность 4 - для развернутого цикла свертки
+        int t = quality.getTaps();
+        if (down > up)
+            t = (int) Math.ceil((double) t * down / up);
+        this.taps = (t + 3) & ~3;
+        if ((long) taps * up > MAX_COEFFICIENTS)
+            throw new IllegalArgumentException("Resampling ratio " + up + "/" + down + " is too complex");
+
+        // Прототип нечетной длины taps*up-1 (последний отвод нулевой) - центр в целом отсчете
+        int length = taps * up - 1;
+        center = (length - 1) / 2;
+        double fc = quality.getCutoff() * 0.5 / Math.max(up, down); // циклов на отсчет частоты inputRate*up
+        double beta = quality.getKaiserBeta();
+        double i0Beta = besselI0(beta);
+        double[] prototype = new double[taps * up];
+        for (int i = 0; i < length; i++) {
+            double x = i - center;
+            double sinc = x == 0 ? 2 * fc : Math.sin(2 * Math.PI * fc * x) / (Math.PI * x);
+            double r = x / center;
+            prototype[i] = sinc * besselI0(beta * Math.sqrt(Math.max(0, 1 - r * r))) / i0Beta;
+        }
+
+        // Раскладка по фазам (в обратном порядке) с нормировкой каждой фазы на единичное усиление
+        coefficients = new double[taps * up];
+        for (int p = 0; p < up; p++) {
+            double sum = 0;
+            for (int j = 0; j < taps; j++)
+                sum += prototype[p + j * up];
+            for (int j = 0; j < taps; j++)
+                coefficients[p * taps + taps - 1 - j] = prototype[p + j * up] / sum;
+        }
+    }
+
+    /**
+     * Банк для пары частот (из кэша или построенный при первом обращении)
+     * @param inputRate входная частота дискретизации
+     * @param outputRate выходная частота дискретизации
+     * @param quality качество
+     * @return банк фильтров
+     */
+    public static PolyphaseFilterBank forRates(int inputRate, int outputRate, ResampleQuality quality) {
+        if (inputRate <= 0 || outputRate <= 0)
+            throw new IllegalArgumentException("inputRate=" + inputRate + ", outputRate=" + outputRate);
+        int gcd = gcd(inputRate, outputRate);
+        int up = outputRate / gcd;
+        int down = inputRate / gcd;
+        return cache.computeIfAbsent(up + "/" + down + "/" + quality,
+                key -> new PolyphaseFilterBank(up, down, quality));
+    }
+
+    /**
+     * @return коэффициент интерполяции (количество фаз)
+     */
+    public int getUp() {
+        return up;
+    }
+
+    /**
+     * @return коэффициент децимации
+     */
+    public int getDown() {
+        return down;
+    }
+
+    /**
+     * @return количество отводов на фазу
+     */
+    public int getTaps() {
+        return taps;
+    }
+
+    /**
+     * @return задержка прототипа в отсчетах частоты inputRate*up
+     */
+    int getCenter() {
+        return center;
+    }
+
+    /**
+     * Коэффициенты фазы p: coefficients[p*taps ... p*taps+taps-1], в порядке от старого отсчета к новому
+     */
+    double[] getCoefficients() {
+        return coefficients;
+    }
+
+    // Модифицированная функция Бесселя первого рода нулевого порядка (ряд)
+    private static double besselI0(double x) {
+        double sum = 1, term = 1, q = x * x / 4;
+        for (int k = 1; term > sum * 1e-17; k++) {
+            term *= q / ((double) k * k);
+            sum += term;
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.joysi.audio.processing.resample;
+
+/**
+ * Пресеты качества передискретизации: длина фильтра на фазу против подавления в полосе задерживания.
+ * Полоса пропускания вычисляется так, чтобы задерживание начиналось ровно на частоте Найквиста
+ * меньшей из частот, поэтому наложения спектров нет, а более длинный фильтр дает и большее подавление,
+ * и более широкую полосу пропускания.
+ */
+public enum ResampleQuality {
+    LOW(16, 60),      // ~0.77 Найквиста, для черновых рендеров
+    MEDIUM(32, 90),   // ~0.82 Найквиста
+    HIGH(64, 120);    // ~0.88 Найквиста, ниже шума 20-битного PCM
+
+    private final int taps;           // отводов фильтра на фазу (при повышении частоты)
+    private final double attenuation; // подавление в полосе задерживания, дБ
+
+    ResampleQuality(int taps, double attenuation) {
+        this.taps = taps;
+        this.attenuation = attenuation;
+    }
+
+    public int getTaps() {
+        return taps;
+    }
+
+    public double getAttenuation() {
+        return attenuation;
+    }
+
+    /**
+     * @return параметр beta окна Кайзера для заданного подавления
+     */
+    double getKaiserBeta() {
+        return 0.1102 * (attenuation - 8.7);
+    }
+
+    /**
+     * @return частота среза в долях частоты Найквиста (середина переходной полосы)
+     */
+    double getCutoff() {
+        // Ширина переходной полосы фильтра Кайзера длиной taps: (A - 8) / (2.285 * taps) рад/отсчет
+        double transition = (attenuation - 8) / (2.285 * taps) / Math.PI;
+        return 1 - transition / 2;
+    }
+}
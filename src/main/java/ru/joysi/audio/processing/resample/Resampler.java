@@ -0,0 +1,178 @@
+package ru.joysi.audio.processing.resample;
+
+import java.util.Arrays;
+
+/**
+ * Потоковый полифазный преобразователь частоты дискретизации (windowed-sinc) для одного канала.
+ * Сигнал подается блоками произвольной длины, хвост предыдущего блока (taps-1 отсчетов) хранится
+ * между вызовами, поэтому результат не зависит от разбиения на блоки. Задержка фильтра
+ * скомпенсирована: выходной отсчет k соответствует моменту k/outputRate входного сигнала,
+ * а {@link #flush} дописывает остаток так, что поток из n отсчетов дает ровно
+ * ceil(n*outputRate/inputRate) отсчетов. Для нескольких каналов создается по экземпляру на канал
+ * (банк фильтров при этом общий).
+ */
+public final class Resampler {
+    private final PolyphaseFilterBank bank;
+    private final double[] coefficients;
+    private final int up;
+    private final int down;
+    private final int taps;
+    private final int stepInt;   // целая часть шага входного индекса на выходной отсчет
+    private final int stepFrac;  // дробная часть шага (в фазах)
+
+    private double[] buffer;     // taps-1 отсчетов истории + текущий блок
+    private int index;           // индекс самого нового входного отсчета для следующего выхода
+    private int phase;           // фаза для следующего выхода [0; up)
+    private long totalIn;
+    private long totalOut;
+    private double[] flushBuffer;
+
+    /**
+     * @param inputRate входная частота дискретизации
+     * @param outputRate выходная частота дискретизации
+     * @param quality качество
+     */
+    public Resampler(int inputRate, int outputRate, ResampleQuality quality) {
+        this(PolyphaseFilterBank.forRates(inputRate, outputRate, quality));
+    }
+
+    /**
+     * @param bank банк фильтров (может разделяться между экземплярами)
+     */
+    public Resampler(PolyphaseFilterBank bank) {
+        this.bank = bank;
+        this.coefficients = bank.getCoefficients();
+        this.up = bank.getUp();
+        this.down = bank.getDown();
+        this.taps = bank.getTaps();
+        this.stepInt = down / up;
+        this.stepFrac = down % up;
+        this.buffer = new double[taps - 1 + 1024];
+        reset();
+    }
+
+    /**
+     * Передискретизация всего массива
+     * @param audio входной сигнал
+     * @param inputRate входная частота дискретизации
+     * @param outputRate выходная частота дискретизации
+     * @param quality качество
+     * @return сигнал длиной ceil(audio.length*outputRate/inputRate)
+     */
+    public static double[] resample(double[] audio, int inputRate, int outputRate, ResampleQuality quality) {
+        Resampler resampler = new Resampler(inputRate, outputRate, quality);
+        double[] out = new double[resampler.getMaxOutput(audio.length)];
+        int produced = resampler.process(audio, 0, audio.length, out, 0);
+        resampler.flush(out, produced);
+        return out;
+    }
+
+    /**
+     * Обработка блока
+     * @param in входной блок
+     * @param inOffset смещение во входном блоке
+     * @param inLength количество входных отсчетов
+     * @param out выходной массив (свободного места не меньше {@link #getMaxOutput}(inLength))
+     * @param outOffset смещение в выходном массиве
+     * @return количество выданных отсчетов
+     */
+    public int process(double[] in, int inOffset, int inLength, double[] out, int outOffset) {
+        int produced = run(in, inOffset, inLength, out, outOffset);
+        totalIn += inLength;
+        totalOut += produced;
+        return produced;
+    }
+
+    /**
+     * Завершение потока: выдача отсчетов, задержанных фильтром, и сброс состояния
+     * @param out выходной массив (свободного места не меньше {@link #getFlushLength()})
+     * @param outOffset смещение в выходном массиве
+     * @return количество выданных отсчетов
+     */
+    public int flush(double[] out, int outOffset) {
+        int remaining = getFlushLength();
+        if (flushBuffer == null)
+            flushBuffer = new double[getMaxOutput(taps)];
+        int produced = 0;
+        double[] zeros = new double[taps];
+        while (produced < remaining) {
+            int n = Math.min(run(zeros, 0, taps, flushBuffer, 0), remaining - produced);
+            System.arraycopy(flushBuffer, 0, out, outOffset + produced, n);
+            produced += n;
+        }
+        reset();
+        return produced;
+    }
+
+    /**
+     * @param inLength количество входных отсчетов
+     * @return максимальное количество выходных отсчетов для блока такой длины
+     */
+    public int getMaxOutput(int inLength) {
+        return (int) (((long) inLength * up + down - 1) / down);
+    }
+
+    /**
+     * @return количество отсчетов, которое выдаст {@link #flush}
+     */
+    public int getFlushLength() {
+        long expected = (totalIn * up + down - 1) / down;
+        return (int) Math.max(0, expected - totalOut);
+    }
+
+    /**
+     * Сброс состояния (начало нового потока)
+     */
+    public void reset() {
+        Arrays.fill(buffer, 0, taps - 1, 0);
+        int center = bank.getCenter();
+        index = taps - 1 + center / up;
+        phase = center % up;
+        totalIn = 0;
+        totalOut = 0;
+    }
+
+    public PolyphaseFilterBank getBank() {
+        return bank;
+    }
+
+    private int run(double[] in, int inOffset, int inLength, double[] out, int outOffset) {
+        final int history = taps - 1;
+        int end = history + inLength;
+        if (buffer.length < end) {
+            double[] grown = new double[end];
+            System.arraycopy(buffer, 0, grown, 0, history);
+            buffer = grown;
+        }
+        System.arraycopy(in, inOffset, buffer, history, inLength);
+
+        final double[] x = buffer;
+        final double[] c = coefficients;
+        final int taps = this.taps;
+        int n = index, p = phase, k = outOffset;
+        while (n < end) {
+            int xi = n - history;
+            int ci = p * taps;
+            // 4 независимых аккумулятора - без цепочки зависимостей по сложению
+            double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            for (int j = 0; j < taps; j += 4) {
+                s0 += x[xi + j] * c[ci + j];
+                s1 += x[xi + j + 1] * c[ci + j + 1];
+                s2 += x[xi + j + 2] * c[ci + j + 2];
+                s3 += x[xi + j + 3] * c[ci + j + 3];
+            }
+            out[k++] = (s0 + s1) + (s2 + s3);
+            n += stepInt;
+            p += stepFrac;
+            if (p >= up) {
+                p -= up;
+                n++;
+            }
+        }
+        // Хвост блока становится историей следующего
+        System.arraycopy(x, inLength, x, 0, history);
+        index = n - inLength;
+        phase = p;
+        return k - outOffset;
+    }
+}
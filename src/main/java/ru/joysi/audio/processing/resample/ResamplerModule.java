@@ -0,0 +1,73 @@
+package ru.joysi.audio.processing.resample;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.AudioModule;
+
+/**
+ * Источник блочного графа, переводящий модуль-источник на другую частоту дискретизации.
+ * Источник рендерится блоками на своей частоте по мере надобности, результат передискретизации
+ * копится в небольшом буфере, поэтому в одном {@link ru.joysi.audio.processing.combines.MixerModule}
+ * можно смешивать, например, рендер 22050 Гц с источниками 48000 Гц.
+ */
+public class ResamplerModule extends AudioModule {
+    private final AudioModule source;
+    private final Resampler resampler;
+    private final double[] input;
+    private final double[] pending;
+    private int pendingStart;
+    private int pendingEnd;
+
+    /**
+     * @param source модуль-источник (входной блок не используется)
+     * @param sourceRate частота дискретизации источника
+     * @param outputRate выходная частота дискретизации
+     * @param quality качество
+     */
+    public ResamplerModule(AudioModule source, int sourceRate, int outputRate, ResampleQuality quality) {
+        this(source, sourceRate, outputRate, quality, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param source модуль-источник (входной блок не используется)
+     * @param sourceContext контекст источника (частота и размер блока рендера источника)
+     * @param context выходной контекст
+     * @param quality качество
+     */
+    public ResamplerModule(AudioModule source, AudioContext sourceContext, AudioContext context,
+                           ResampleQuality quality) {
+        this(source, sourceContext.getSampleRate(), context.getSampleRate(), quality, sourceContext.getBlockSize());
+    }
+
+    private ResamplerModule(AudioModule source, int sourceRate, int outputRate, ResampleQuality quality,
+                            int blockSize) {
+        super("Resampler", 0);
+        this.source = source;
+        this.resampler = new Resampler(sourceRate, outputRate, quality);
+        this.input = new double[blockSize];
+        this.pending = new double[resampler.getMaxOutput(blockSize)];
+    }
+
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        int done = 0;
+        while (true) {
+            int n = Math.min(frames - done, pendingEnd - pendingStart);
+            System.arraycopy(pending, pendingStart, out, done, n);
+            pendingStart += n;
+            done += n;
+            if (done == frames)
+                return;
+            // Буфер исчерпан - следующий блок источника
+            source.process(null, input, input.length);
+            pendingStart = 0;
+            pendingEnd = resampler.process(input, 0, input.length, pending, 0);
+        }
+    }
+
+    @Override
+    public void reset() {
+        source.reset();
+        resampler.reset();
+        pendingStart = pendingEnd = 0;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.joysi.audio.processing.synth;
+
+/**
+ * Событие нажатия/отпускания ноты, привязанное к номеру отсчета
+ */
+public final class NoteEvent implements Comparable<NoteEvent> {
+    private final long frame;
+    private final long sequence;
+    private final boolean noteOn;
+    private final int midiNote;
+    private final double velocity;
+
+    NoteEvent(long frame, long sequence, boolean noteOn, int midiNote, double velocity) {
+        this.frame = frame;
+        this.sequence = sequence;
+        this.noteOn = noteOn;
+        this.midiNote = midiNote;
+        this.velocity = velocity;
+    }
+
+    /**
+     * @return номер отсчета, на котором срабатывает событие
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    public boolean isNoteOn() {
+        return noteOn;
+    }
+
+    public int getMidiNote() {
+        return midiNote;
+    }
+
+    public double getVelocity() {
+        return velocity;
+    }
+
+    // Упорядочивание по времени, события одного отсчета - в порядке добавления
+    @Override
+    public int compareTo(NoteEvent other) {
+        int res = Long.compare(frame, other.frame);
+        return res != 0 ? res : Long.compare(sequence, other.sequence);
+    }
+}
@@ -0,0 +1,226 @@
+package ru.joysi.audio.processing.synth;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.exceptions.AudioFilterException;
+import ru.joysi.audio.processing.AudioModule;
+import ru.joysi.audio.processing.generators.Generators;
+import ru.joysi.audio.processing.generators.Waveform;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Полифонический синтезатор с фиксированным пулом голосов и очередью событий нот.
+ * Ноты задаются названиями ({@link Generators#notes}) или номерами MIDI и привязываются к номеру отсчета;
+ * все голоса рендерятся в один общий выходной блок, поэтому стоимость зависит от количества
+ * звучащих голосов, а не от общего количества нот. Повторное нажатие звучащей ноты (в том числе
+ * отпущенной) всегда перезапускает ее голос, даже если есть свободные. При нехватке голосов
+ * вытесняется самый старый (в первую очередь - из уже отпущенных).
+ */
+public class PolySynth extends AudioModule {
+    private final Voice[] voices;
+    private final PriorityQueue<NoteEvent> events = new PriorityQueue<>();
+    private double[] scratch = new double[DEFAULT_BLOCK_SIZE];
+    private double gain = 1.0;
+    private long position;   // номер первого отсчета следующего блока
+    private long sequence;   // счетчик добавленных событий
+    private long voiceOrder; // счетчик запусков голосов
+
+    /**
+     * @param voiceCount количество голосов
+     * @param waveform форма волны осцилляторов
+     * @param attack время нарастания в миллисек
+     * @param decay время спада в миллисек
+     * @param sustain уровень поддержки [0;1]
+     * @param release время затухания в миллисек
+     * @throws AudioFilterException при некорректных параметрах огибающей
+     */
+    public PolySynth(int voiceCount, Waveform waveform, double attack, double decay, double sustain, double release)
+            throws AudioFilterException {
+        this(AudioContext.getDefault(), voiceCount, waveform, attack, decay, sustain, release);
+    }
+
+    /**
+     * @param context контекст (частота дискретизации)
+     * @param voiceCount количество голосов
+     * @param waveform форма волны осцилляторов
+     * @param attack время нарастания в миллисек
+     * @param decay время спада в миллисек
+     * @param sustain уровень поддержки [0;1]
+     * @param release время затухания в миллисек
+     * @throws AudioFilterException при некорректных параметрах огибающей
+     */
+    public PolySynth(AudioContext context, int voiceCount, Waveform waveform, double attack, double decay,
+                     double sustain, double release) throws AudioFilterException {
+        super("PolySynth", 0);
+        if (voiceCount <= 0)
+            throw new IllegalArgumentException("voiceCount=" + voiceCount);
+        voices = new Voice[voiceCount];
+        for (int i = 0; i < voiceCount; i++)
+            voices[i] = new Voice(context, waveform, attack, decay, sustain, release);
+    }
+
+    /**
+     * @param gain общий коэффициент усиления суммы голосов
+     */
+    public void setGain(double gain) {
+        this.gain = gain;
+    }
+
+    /**
+     * Нажатие ноты по названию
+     * @param frame номер отсчета
+     * @param note название ноты (например "C4")
+     * @param velocity громкость ( 0...1.0)
+     */
+    public void noteOn(long frame, String note, double velocity) {
+        noteOn(frame, midiNote(note), velocity);
+    }
+
+    /**
+     * Нажатие ноты по номеру MIDI
+     * @param frame номер отсчета
+     * @param midiNote номер ноты MIDI
+     * @param velocity громкость ( 0...1.0)
+     */
+    public void noteOn(long frame, int midiNote, double velocity) {
+        if (velocity < 0 || velocity > 1)
+            throw new IllegalArgumentException("velocity=" + velocity);
+        schedule(frame, true, midiNote, velocity);
+    }
+
+    /**
+     * Отпускание ноты по названию
+     * @param frame номер отсчета
+     * @param note название ноты (например "C4")
+     */
+    public void noteOff(long frame, String note) {
+        noteOff(frame, midiNote(note));
+    }
+
+    /**
+     * Отпускание ноты по номеру MIDI
+     * @param frame номер отсчета
+     * @param midiNote номер ноты MIDI
+     */
+    public void noteOff(long frame, int midiNote) {
+        schedule(frame, false, midiNote, 0);
+    }
+
+    /**
+     * Нота заданной длительности
+     * @param frame номер отсчета начала
+     * @param note название ноты
+     * @param lengthFrames длительность до отпускания в отсчетах
+     * @param velocity громкость ( 0...1.0)
+     */
+    public void note(long frame, String note, long lengthFrames, double velocity) {
+        int midi = midiNote(note);
+        noteOn(frame, midi, velocity);
+        noteOff(frame + lengthFrames, midi);
+    }
+
+    /**
+     * @return количество звучащих голосов
+     */
+    public int getActiveVoices() {
+        int count = 0;
+        for (Voice voice : voices)
+            if (voice.isActive())
+                count++;
+        return count;
+    }
+
+    /**
+     * @return количество событий, еще не наступивших
+     */
+    public int getPendingEvents() {
+        return events.size();
+    }
+
+    /**
+     * @return номер первого отсчета следующего блока
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void process(double[] in, double[] out, int frames) {
+        if (scratch.length < frames)
+            scratch = new double[frames];
+        Arrays.fill(out, 0, frames, 0);
+
+        long end = position + frames;
+        int cursor = 0;
+        while (cursor < frames) {
+            // Рендер до ближайшего события внутри блока, затем его применение
+            NoteEvent next = events.peek();
+            int until = next == null || next.getFrame() >= end ? frames
+                    : (int) Math.max(next.getFrame() - position, cursor);
+            if (until > cursor) {
+                for (Voice voice : voices)
+                    if (voice.isActive())
+                        voice.renderAdd(out, cursor, until - cursor, scratch);
+                cursor = until;
+            }
+            if (cursor < frames)
+                apply(events.poll());
+        }
+        position = end;
+
+        if (gain != 1.0)
+            for (int i = 0; i < frames; i++)
+                out[i] *= gain;
+    }
+
+    @Override
+    public void reset() {
+        events.clear();
+        for (Voice voice : voices) {
+            voice.oscillator.reset();
+            voice.envelope.reset();
+            voice.midiNote = -1;
+        }
+        position = 0;
+    }
+
+    private void schedule(long frame, boolean noteOn, int midiNote, double velocity) {
+        if (frame < position)
+            throw new IllegalArgumentException("Event frame " + frame + " is already rendered");
+        events.add(new NoteEvent(frame, sequence++, noteOn, midiNote, velocity));
+    }
+
+    private void apply(NoteEvent event) {
+        if (event.isNoteOn())
+            allocate(event.getMidiNote()).noteOn(event.getMidiNote(), event.getVelocity(), voiceOrder++);
+        else
+            for (Voice voice : voices)
+                if (voice.midiNote == event.getMidiNote() && voice.isActive() && !voice.isReleased())
+                    voice.noteOff();
+    }
+
+    // Выбор голоса: та же нота (независимо от заполненности пула) -> свободный -> самый старый отпущенный -> самый старый
+    private Voice allocate(int midiNote) {
+        for (Voice voice : voices)
+            if (voice.isActive() && voice.midiNote == midiNote)
+                return voice;
+        Voice oldest = null, oldestReleased = null;
+        for (Voice voice : voices) {
+            if (!voice.isActive())
+                return voice;
+            if (voice.isReleased() && (oldestReleased == null || voice.startOrder < oldestReleased.startOrder))
+                oldestReleased = voice;
+            if (oldest == null || voice.startOrder < oldest.startOrder)
+                oldest = voice;
+        }
+        return oldestReleased != null ? oldestReleased : oldest;
+    }
+
+    private static int midiNote(String note) {
+        int midi = Generators.getMidiNote(note);
+        if (midi < 0)
+            throw new IllegalArgumentException("Unknown note: " + note);
+        return midi;
+    }
+}
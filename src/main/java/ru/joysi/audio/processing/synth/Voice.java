@@ -0,0 +1,60 @@
+package ru.joysi.audio.processing.synth;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.exceptions.AudioFilterException;
+import ru.joysi.audio.processing.filters.AdsrEnvelope;
+import ru.joysi.audio.processing.generators.Generators;
+import ru.joysi.audio.processing.generators.Oscillator;
+import ru.joysi.audio.processing.generators.Waveform;
+
+/**
+ * Голос синтезатора: осциллятор + огибающая ADSR
+ */
+final class Voice {
+    final Oscillator oscillator;
+    final AdsrEnvelope envelope;
+    int midiNote = -1;
+    long startOrder;  // порядковый номер запуска - для выбора голоса на вытеснение
+
+    Voice(AudioContext context, Waveform waveform, double attack, double decay, double sustain, double release)
+            throws AudioFilterException {
+        oscillator = Oscillator.create(context, waveform, 0, 1);
+        envelope = new AdsrEnvelope(context, attack, decay, sustain, release);
+    }
+
+    void noteOn(int midiNote, double velocity, long order) {
+        this.midiNote = midiNote;
+        this.startOrder = order;
+        oscillator.setFrequency(Generators.getNoteFrequency(midiNote));
+        oscillator.setAmplitude(velocity);
+        envelope.noteOn();
+    }
+
+    void noteOff() {
+        envelope.noteOff();
+    }
+
+    boolean isActive() {
+        return envelope.isActive();
+    }
+
+    boolean isReleased() {
+        return envelope.getStage() == AdsrEnvelope.Stage.RELEASE;
+    }
+
+    /**
+     * Рендер голоса и добавление к выходу
+     * @param out выходной блок
+     * @param offset смещение в выходном блоке
+     * @param length количество отсчетов
+     * @param scratch рабочий блок (не короче length)
+     */
+    void renderAdd(double[] out, int offset, int length, double[] scratch) {
+        oscillator.render(scratch, 0, length);
+        envelope.process(scratch, scratch, length);
+        for (int i = 0; i < length; i++)
+            out[offset + i] += scratch[i];
+        if (!envelope.isActive())
+            midiNote = -1;
+    }
+}
@@ -0,0 +1,265 @@
+package ru.joysi.audio.render;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.file.PcmEncoder;
+import ru.joysi.audio.file.SampleFormat;
+import ru.joysi.audio.file.WavFile;
+import ru.joysi.audio.file.WavWriter;
+import ru.joysi.audio.processing.AudioModule;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Параллельный пакетный рендер заданий {@link RenderJob} в Wav-файлы.
+ * Задания выполняются на виртуальных потоках (если JVM их поддерживает), иначе на пуле фиксированного
+ * размера. Одновременно рендерится не больше parallelism заданий: каждое берет из пула рабочий набор
+ * (буферы блоков, кодировщик, direct-буфер записи), который переиспользуется следующими заданиями.
+ * Отправка задания блокируется, пока оценка памяти заданий в работе превышает лимит (обратное давление),
+ * поэтому очередь из тысяч заданий не приводит к нехватке памяти.
+ */
+public class BatchRenderer implements Closeable {
+    private static final int KB = 1024;
+
+    private final AudioContext context;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final BlockingQueue<Scratch> scratches;
+    private final Semaphore memory;        // в килобайтах
+    private final int memoryLimit;
+
+    /**
+     * Рендер на все ядра с лимитом памяти в четверть кучи
+     * @param context контекст (частота дискретизации, размер блока)
+     */
+    public BatchRenderer(AudioContext context) {
+        this(context, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    /**
+     * @param context контекст (частота дискретизации, размер блока)
+     * @param parallelism количество одновременно рендерящихся заданий
+     * @param maxInFlightBytes лимит оценки памяти заданий в работе (задание больше лимита выполняется одно)
+     */
+    public BatchRenderer(AudioContext context, int parallelism, long maxInFlightBytes) {
+        if (parallelism < 1 || maxInFlightBytes < KB)
+            throw new IllegalArgumentException("parallelism=" + parallelism + ", maxInFlightBytes=" + maxInFlightBytes);
+        this.context = context;
+        this.memoryLimit = (int) Math.min(maxInFlightBytes / KB, Integer.MAX_VALUE);
+        this.memory = new Semaphore(memoryLimit);
+        this.scratches = new ArrayBlockingQueue<>(parallelism);
+        for (int i = 0; i < parallelism; i++)
+            scratches.add(new Scratch(context.getBlockSize()));
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newFixedExecutor(parallelism);
+    }
+
+    /**
+     * Отправка задания. Блокируется, пока не освободится память под задание
+     * @param job задание
+     * @return future результата (завершается нормально и при ошибке задания)
+     * @throws InterruptedException прерывание во время ожидания памяти
+     */
+    public CompletableFuture<RenderResult> submit(RenderJob job) throws InterruptedException {
+        long submitted = System.nanoTime();
+        int permits = (int) Math.max(1, Math.min(memoryLimit, (job.estimateBytes(context.getBlockSize()) + KB - 1) / KB));
+        memory.acquire(permits);
+        CompletableFuture<RenderResult> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                RenderResult result;
+                try {
+                    result = run(job, submitted);
+                } finally {
+                    memory.release(permits);
+                }
+                // Память освобождается до завершения future: ожидающий результат видит ее свободной
+                future.complete(result);
+            });
+        } catch (RejectedExecutionException e) {
+            memory.release(permits);
+            throw e;
+        }
+        return future;
+    }
+
+    /**
+     * Отправка списка заданий по порядку (с обратным давлением)
+     * @param jobs задания
+     * @return future результатов в порядке заданий
+     * @throws InterruptedException прерывание во время ожидания памяти
+     */
+    public List<CompletableFuture<RenderResult>> submitAll(List<RenderJob> jobs) throws InterruptedException {
+        List<CompletableFuture<RenderResult>> futures = new ArrayList<>(jobs.size());
+        for (RenderJob job : jobs)
+            futures.add(submit(job));
+        return futures;
+    }
+
+    /**
+     * Рендер списка заданий с ожиданием всех результатов
+     * @param jobs задания
+     * @return результаты в порядке заданий
+     * @throws InterruptedException прерывание во время ожидания
+     */
+    public List<RenderResult> renderAll(List<RenderJob> jobs) throws InterruptedException {
+        List<RenderResult> results = new ArrayList<>(jobs.size());
+        for (CompletableFuture<RenderResult> future : submitAll(jobs))
+            results.add(future.join());
+        return results;
+    }
+
+    /**
+     * @return true - задания выполняются на виртуальных потоках
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @return оценка памяти заданий в работе, байт
+     */
+    public long getInFlightBytes() {
+        return (long) (memoryLimit - memory.availablePermits()) * KB;
+    }
+
+    /**
+     * Завершение после выполнения отправленных заданий
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private RenderResult run(RenderJob job, long submitted) {
+        Scratch scratch;
+        try {
+            scratch = scratches.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new RenderResult(job, 0, System.nanoTime() - submitted, 0, e);
+        }
+        long start = System.nanoTime();
+        long frames = 0;
+        Throwable error = null;
+        try {
+            frames = render(job, scratch);
+        } catch (Throwable e) {
+            error = e;
+            try {
+                Files.deleteIfExists(job.getOutput());
+            } catch (IOException ignored) {
+                // Ошибка задания важнее - она и попадает в результат
+            }
+        } finally {
+            scratches.add(scratch);
+        }
+        return new RenderResult(job, frames, start - submitted, System.nanoTime() - start, error);
+    }
+
+    private long render(RenderJob job, Scratch scratch) throws Exception {
+        int numChannels = job.getNumChannels();
+        if (job.getArraySource() != null) {
+            double[][] audio = job.getArraySource().render(context);
+            if (audio.length != numChannels)
+                throw new IllegalStateException("Source returned " + audio.length + " channel(s), expected " + numChannels);
+            // Память задания учтена по job.getFrames(): массивы другой длины отклоняются
+            for (double[] channel : audio)
+                if (channel.length != job.getFrames())
+                    throw new IllegalStateException("Source returned " + channel.length + " frame(s), expected "
+                            + job.getFrames());
+            try (WavWriter writer = scratch.open(context, job)) {
+                writer.write(audio);
+                return writer.getFramesWritten();
+            }
+        }
+        AudioModule[] modules = new AudioModule[numChannels];
+        for (int c = 0; c < numChannels; c++)
+            modules[c] = job.getModuleSource().create(context, c);
+        double[][] blocks = scratch.blocks(numChannels);
+        int blockSize = scratch.blockSize;
+        try (WavWriter writer = scratch.open(context, job)) {
+            for (long done = 0; done < job.getFrames(); ) {
+                int n = (int) Math.min(blockSize, job.getFrames() - done);
+                for (int c = 0; c < numChannels; c++)
+                    modules[c].process(null, blocks[c], n);
+                writer.write(blocks, 0, n);
+                done += n;
+            }
+            return writer.getFramesWritten();
+        }
+    }
+
+    // Виртуальные потоки (Java 21+) через отражение - сборка остается совместимой с Java 8
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newFixedExecutor(int parallelism) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "batch-render-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Рабочий набор задания: блоки каналов, кодировщики по форматам, direct-буфер записи
+    private static final class Scratch {
+        final int blockSize;
+        private double[][] blocks = new double[0][];
+        private final PcmEncoder[] encoders = new PcmEncoder[2 * SampleFormat.values().length];
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(0);
+
+        Scratch(int blockSize) {
+            this.blockSize = blockSize;
+        }
+
+        double[][] blocks(int numChannels) {
+            if (blocks.length != numChannels) {
+                double[][] resized = new double[numChannels][];
+                for (int c = 0; c < numChannels; c++)
+                    resized[c] = c < blocks.length ? blocks[c] : new double[blockSize];
+                blocks = resized;
+            }
+            return blocks;
+        }
+
+        WavWriter open(AudioContext context, RenderJob job) throws IOException {
+            SampleFormat format = job.getFormat();
+            int capacity = blockSize * job.getNumChannels();
+            int index = 2 * format.ordinal() + (job.isDither() ? 1 : 0);
+            if (encoders[index] == null || encoders[index].getCapacity() != capacity)
+                encoders[index] = new PcmEncoder(format, capacity, job.isDither());
+            int bytes = Math.max(capacity * format.getBytesPerSample(),
+                    WavFile.headerSize(format, job.getNumChannels()));
+            if (buffer.capacity() < bytes)
+                buffer = ByteBuffer.allocateDirect(bytes);
+            return new WavWriter(context, job.getOutput(), job.getNumChannels(), encoders[index], buffer);
+        }
+    }
+}
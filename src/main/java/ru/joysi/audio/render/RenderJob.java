@@ -0,0 +1,144 @@
+package ru.joysi.audio.render;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.file.SampleFormat;
+import ru.joysi.audio.processing.AudioModule;
+
+import java.nio.file.Path;
+
+/**
+ * Описание задания пакетного рендера: куда, в каком формате и из какого источника записать Wav-файл.
+ * Источник создается в рабочем потоке при запуске задания, поэтому тысячи описаний в очереди
+ * не держат модулей и аудиоданных.
+ */
+public final class RenderJob {
+    /**
+     * Потоковый источник: модуль канала, из которого рендер вытягивает блоки (память - один блок)
+     */
+    @FunctionalInterface
+    public interface ModuleSource {
+        AudioModule create(AudioContext context, int channel) throws Exception;
+    }
+
+    /**
+     * Источник, рендерящий все каналы массивами целиком (Generators + Combines).
+     * Каждый массив - ровно {@link #getFrames()} отсчетов, иначе задание завершается ошибкой
+     */
+    @FunctionalInterface
+    public interface ArraySource {
+        double[][] render(AudioContext context) throws Exception;
+    }
+
+    private final String name;
+    private final Path output;
+    private final SampleFormat format;
+    private final int numChannels;
+    private final long frames;
+    private final boolean dither;
+    private final ModuleSource moduleSource;
+    private final ArraySource arraySource;
+
+    /**
+     * Моно 16 бит из потокового источника
+     * @param name имя задания (для результата)
+     * @param output путь к файлу
+     * @param frames длина в кадрах
+     * @param source источник
+     */
+    public RenderJob(String name, Path output, long frames, ModuleSource source) {
+        this(name, output, SampleFormat.PCM_16, 1, frames, false, source);
+    }
+
+    /**
+     * Задание с потоковым источником
+     * @param name имя задания (для результата)
+     * @param output путь к файлу
+     * @param format формат отсчетов
+     * @param numChannels количество каналов
+     * @param frames длина в кадрах
+     * @param dither true - TPDF дизеринг при квантовании
+     * @param source источник (модуль на каждый канал)
+     */
+    public RenderJob(String name, Path output, SampleFormat format, int numChannels, long frames, boolean dither,
+                     ModuleSource source) {
+        this(name, output, format, numChannels, frames, dither, source, null);
+    }
+
+    /**
+     * Задание с источником-массивами
+     * @param name имя задания (для результата)
+     * @param output путь к файлу
+     * @param format формат отсчетов
+     * @param numChannels количество каналов
+     * @param frames длина в кадрах: по ней учитывается память задания в работе, массивы источника
+     *               другой длины отклоняются
+     * @param source источник
+     */
+    public RenderJob(String name, Path output, SampleFormat format, int numChannels, long frames,
+                     ArraySource source) {
+        this(name, output, format, numChannels, frames, false, null, source);
+    }
+
+    private RenderJob(String name, Path output, SampleFormat format, int numChannels, long frames, boolean dither,
+                      ModuleSource moduleSource, ArraySource arraySource) {
+        if (numChannels < 1 || frames < 0)
+            throw new IllegalArgumentException("numChannels=" + numChannels + ", frames=" + frames);
+        if (moduleSource == null && arraySource == null)
+            throw new NullPointerException("source");
+        this.name = name;
+        this.output = output;
+        this.format = format;
+        this.numChannels = numChannels;
+        this.frames = frames;
+        this.dither = dither;
+        this.moduleSource = moduleSource;
+        this.arraySource = arraySource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    public SampleFormat getFormat() {
+        return format;
+    }
+
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public boolean isDither() {
+        return dither;
+    }
+
+    ModuleSource getModuleSource() {
+        return moduleSource;
+    }
+
+    ArraySource getArraySource() {
+        return arraySource;
+    }
+
+    /**
+     * Оценка памяти задания в работе: массивы целиком для источника-массивов, блок - для потокового
+     * @param blockSize размер блока рендера
+     * @return байт
+     */
+    long estimateBytes(int blockSize) {
+        long framesInMemory = arraySource != null ? frames : Math.min(frames, blockSize);
+        return framesInMemory * numChannels * Double.BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return "RenderJob{" + name + ", " + output + ", " + format + ", " + numChannels + "ch, " + frames + '}';
+    }
+}
@@ -0,0 +1,72 @@
+package ru.joysi.audio.render;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Результат задания пакетного рендера: записанные кадры, время ожидания и рендера, ошибка.
+ * Ошибка задания не завершает его future исключением - она хранится здесь.
+ */
+public final class RenderResult {
+    private final RenderJob job;
+    private final long framesWritten;
+    private final long waitNanos;
+    private final long renderNanos;
+    private final Throwable error;
+
+    RenderResult(RenderJob job, long framesWritten, long waitNanos, long renderNanos, Throwable error) {
+        this.job = job;
+        this.framesWritten = framesWritten;
+        this.waitNanos = waitNanos;
+        this.renderNanos = renderNanos;
+        this.error = error;
+    }
+
+    public RenderJob getJob() {
+        return job;
+    }
+
+    public String getName() {
+        return job.getName();
+    }
+
+    public Path getOutput() {
+        return job.getOutput();
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return ошибка задания (null - успешно)
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    /**
+     * @return время от отправки до начала рендера (ожидание памяти и рабочего потока), нсек
+     */
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    /**
+     * @return время рендера и записи, нсек
+     */
+    public long getRenderNanos() {
+        return renderNanos;
+    }
+
+    @Override
+    public String toString() {
+        return job.getName() + ": " + (error == null ? framesWritten + " frames" : error.toString())
+                + ", wait " + TimeUnit.NANOSECONDS.toMillis(waitNanos) + " ms"
+                + ", render " + TimeUnit.NANOSECONDS.toMillis(renderNanos) + " ms";
+    }
+}
@@ -0,0 +1,98 @@
+package ru.joysi.audio;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.joysi.audio.file.SampleFormat;
+import ru.joysi.audio.file.WavFile;
+import ru.joysi.audio.file.WavReader;
+import ru.joysi.audio.processing.generators.Generators;
+import ru.joysi.audio.processing.generators.Oscillator;
+import ru.joysi.audio.processing.generators.Waveform;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class AudioContextTest {
+    @Test
+    public void defaultLoadedFromClasspath() {
+        AudioContext context = AudioContext.getDefault();
+        Assert.assertEquals(44100, context.getSampleRate());
+        Assert.assertEquals(16, context.getBitsPerSample());
+        Assert.assertEquals(GlobalHelper.samplePerSec, context.getSampleRate());
+        Assert.assertNotNull(AudioContext.getProperties().getProperty("error.wav.playAudio"));
+    }
+
+    @Test
+    public void missingPropertiesUseDefaults() {
+        Properties properties = new Properties();
+        properties.setProperty("audio.samplePerSec", "48000");
+        properties.setProperty("audio.blockSize", "oops");
+        AudioContext context = AudioContext.fromProperties(properties);
+        Assert.assertEquals(48000, context.getSampleRate());
+        Assert.assertEquals(AudioContext.DEFAULT_BLOCK_SIZE, context.getBlockSize());
+        Assert.assertEquals(AudioContext.DEFAULT_BITS_PER_SAMPLE, context.getBitsPerSample());
+    }
+
+    @Test
+    public void outOfRangePropertiesUseDefaults() {
+        Properties properties = new Properties();
+        properties.setProperty("audio.samplePerSec", "0");
+        properties.setProperty("audio.bitsPerSample", "-16");
+        properties.setProperty("audio.blockSize", "256");
+        properties.setProperty("audio.sampleMsTime", "-1");
+        AudioContext context = AudioContext.fromProperties(properties);
+        Assert.assertEquals(AudioContext.DEFAULT_SAMPLE_RATE, context.getSampleRate());
+        Assert.assertEquals(AudioContext.DEFAULT_BITS_PER_SAMPLE, context.getBitsPerSample());
+        Assert.assertEquals(256, context.getBlockSize());
+        Assert.assertEquals(AudioContext.DEFAULT_SAMPLE_MS_TIME, context.getSampleMsTime());
+    }
+
+    @Test
+    public void concurrentRatesAreIndependent() throws Exception {
+        AudioContext[] contexts = {new AudioContext(22050), new AudioContext(48000)};
+        ExecutorService executor = Executors.newFixedThreadPool(contexts.length);
+        try {
+            @SuppressWarnings("unchecked")
+            Future<double[]>[] results = new Future[contexts.length];
+            for (int k = 0; k < contexts.length; k++) {
+                AudioContext context = contexts[k];
+                results[k] = executor.submit(() -> {
+                    Oscillator osc = Oscillator.create(context, Waveform.SINE, 1000, 1);
+                    double[] out = new double[context.getSampleRate()];
+                    osc.render(out, 0, out.length);
+                    return out;
+                });
+            }
+            for (int k = 0; k < contexts.length; k++) {
+                double[] out = results[k].get();
+                Assert.assertEquals(contexts[k].getSampleRate(), out.length);
+                // За секунду 1000 Гц - ровно 2000 смен знака
+                int crossings = 0;
+                for (int i = 1; i < out.length; i++)
+                    if ((out[i - 1] < 0) != (out[i] < 0))
+                        crossings++;
+                Assert.assertEquals(2000, crossings, 2);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(48000, Generators.sineGenerator(contexts[1], 440, 1000, 1).length);
+    }
+
+    @Test
+    public void wavHeaderUsesContextRate() throws Exception {
+        Path path = Files.createTempFile("tmp", ".wav");
+        AudioContext context = new AudioContext(48000);
+        Assert.assertTrue(WavFile.saveToFile(context, path, SampleFormat.PCM_16, new double[]{0.5, -0.5}));
+        try (WavReader reader = WavFile.openFile(path)) {
+            Assert.assertEquals(48000, reader.getSampleRate());
+            Assert.assertEquals(2, reader.getFrameCount());
+        }
+        Files.delete(path);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.joysi.audio.buffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class BufferPoolTest {
+    @Test
+    public void buffersAreReusedBySizeClass() {
+        double[] first = BufferPool.acquireDoubles(1000);
+        Assert.assertEquals(1024, first.length);
+        BufferPool.release(first);
+        Assert.assertSame(first, BufferPool.acquireDoubles(600));
+
+        float[] floats = BufferPool.acquireFloats(10);
+        Assert.assertEquals(64, floats.length);
+        BufferPool.release(floats);
+        Assert.assertSame(floats, BufferPool.acquireFloats(64));
+
+        ByteBuffer direct = BufferPool.acquireDirect(5000);
+        Assert.assertTrue(direct.isDirect());
+        Assert.assertEquals(8192, direct.capacity());
+        direct.position(100);
+        BufferPool.release(direct);
+        ByteBuffer again = BufferPool.acquireDirect(8192);
+        Assert.assertSame(direct, again);
+        Assert.assertEquals(0, again.position());
+    }
+
+    @Test
+    public void foreignSizesAreNotPooled() {
+        double[] odd = new double[1000];
+        BufferPool.release(odd);
+        Assert.assertNotSame(odd, BufferPool.acquireDoubles(1000));
+        Assert.assertEquals((1 << 24) + 1, BufferPool.acquireFloats((1 << 24) + 1).length);
+
+        // Другой поток не видит буферы этого потока
+        double[] mine = BufferPool.acquireDoubles(256);
+        BufferPool.release(mine);
+        double[][] other = new double[1][];
+        Thread thread = new Thread(() -> other[0] = BufferPool.acquireDoubles(256));
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        Assert.assertNotSame(mine, other[0]);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.joysi.audio.buffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class RingBufferTest {
+    @Test
+    public void spscKeepsOrderAcrossThreads() throws Exception {
+        SpscDoubleRingBuffer ring = new SpscDoubleRingBuffer(100);
+        Assert.assertEquals(128, ring.capacity());
+        int total = 1_000_000;
+        Thread producer = new Thread(() -> {
+            double[] block = new double[37];
+            for (int next = 0; next < total; ) {
+                int n = Math.min(block.length, total - next);
+                for (int i = 0; i < n; i++)
+                    block[i] = next + i;
+                for (int done = 0; done < n; Thread.yield())
+                    done += ring.write(block, done, n - done);
+                next += n;
+            }
+        });
+        producer.start();
+
+        double[] block = new double[50];
+        int expected = 0;
+        while (expected < total) {
+            int n = ring.read(block, 0, block.length);
+            if (n == 0)
+                Thread.yield();
+            for (int i = 0; i < n; i++)
+                Assert.assertEquals(expected++, block[i], 0);
+        }
+        producer.join();
+        Assert.assertEquals(0, ring.size());
+    }
+
+    @Test
+    public void mpscDeliversWholeBlocks() throws Exception {
+        MpscFloatRingBuffer ring = new MpscFloatRingBuffer(256);
+        int producers = 4, blocks = 20_000, blockSize = 16;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            float value = p + 1;
+            threads[p] = new Thread(() -> {
+                float[] block = new float[blockSize];
+                Arrays.fill(block, value);
+                for (int b = 0; b < blocks; b++)
+                    while (!ring.offer(block, 0, blockSize))
+                        Thread.yield();
+            });
+            threads[p].start();
+        }
+
+        float[] block = new float[blockSize];
+        long[] counts = new long[producers + 1];
+        long received = 0, expected = (long) producers * blocks * blockSize;
+        while (received < expected) {
+            int n = 0;
+            for (; n < blockSize; Thread.yield())
+                n += ring.read(block, n, blockSize - n);
+            for (int i = 1; i < blockSize; i++)
+                Assert.assertEquals(block[0], block[i], 0);
+            counts[(int) block[0]] += blockSize;
+            received += blockSize;
+        }
+        for (Thread thread : threads)
+            thread.join();
+        for (int p = 1; p <= producers; p++)
+            Assert.assertEquals((long) blocks * blockSize, counts[p]);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.joysi.audio.buffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.file.SampleFormat;
+import ru.joysi.audio.file.WavFile;
+import ru.joysi.audio.file.WavReader;
+import ru.joysi.audio.processing.ModuleChain;
+import ru.joysi.audio.processing.combines.Combines;
+import ru.joysi.audio.processing.generators.Generators;
+import ru.joysi.audio.processing.generators.Oscillator;
+import ru.joysi.audio.processing.generators.Waveform;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SampleStoreTest {
+    // Больше одного сегмента (2^20 отсчетов), чтобы участки пересекали границу
+    private static final int LENGTH = (1 << 20) + 5000;
+
+    @Test
+    public void blockOperationsAcrossSegments() throws Exception {
+        Path scratch = Files.createTempFile("store", ".tmp");
+        try (SampleStore direct = SampleStore.allocate(LENGTH); SampleStore mapped = SampleStore.map(scratch, LENGTH)) {
+            Assert.assertTrue(mapped.isMapped());
+            for (SampleStore store : new SampleStore[]{direct, mapped}) {
+                double[] data = new double[3000];
+                for (int i = 0; i < data.length; i++)
+                    data[i] = Math.sin(i * 0.01);
+                long at = (1 << 20) - 1000;
+                store.write(at, data, 0, data.length);
+                store.add(at, data, 0, data.length);
+                store.scale(at, data.length, 0.25);
+
+                double[] back = new double[data.length];
+                store.read(at, back, 0, back.length);
+                for (int i = 0; i < data.length; i++)
+                    Assert.assertEquals(data[i] * 0.5, back[i], 0);
+                Assert.assertEquals(0, store.get(at - 1), 0);
+                store.set(LENGTH - 1, -2);
+                Assert.assertEquals(2, store.peak(0, LENGTH), 0);
+                try {
+                    store.read(LENGTH - 10, back, 0, 11);
+                    Assert.fail("Read past the end");
+                } catch (IndexOutOfBoundsException expected) {
+                    // ok
+                }
+            }
+        }
+        Assert.assertFalse(Files.exists(scratch));
+    }
+
+    @Test
+    public void mixerSequencerAndWavMatchArrays() throws Exception {
+        AudioContext context = new AudioContext(22050);
+        double[] a = Generators.sineGenerator(context, 440, 1000, 0.8, 0);
+        double[] b = Generators.sawGenerator(context, 220, 2000, 0.7, 0.1);
+        double[] expected = Combines.combineWithNormalize(a, b);
+        Path arrays = Files.createTempFile("arrays", ".wav");
+        Path stores = Files.createTempFile("stores", ".wav");
+        try (SampleStore sa = SampleStore.allocate(a.length); SampleStore sb = SampleStore.allocate(b.length);
+             SampleStore mix = SampleStore.allocate(expected.length);
+             SampleStore sequence = SampleStore.allocate(a.length + b.length)) {
+            Assert.assertEquals(a.length, Combines.getSequenceByAdd(sa, 0, a));
+            sb.write(0, b, 0, b.length);
+            Combines.combineWithNormalize(mix, sa, sb);
+            double[] mixed = new double[expected.length];
+            mix.read(0, mixed, 0, mixed.length);
+            Assert.assertArrayEquals(expected, mixed, 0);
+
+            Assert.assertEquals(a.length + b.length, Combines.getSequenceByAdd(sequence, 0, sa, sb));
+            double[] joined = new double[a.length + b.length];
+            sequence.read(0, joined, 0, joined.length);
+            Assert.assertArrayEquals(Combines.getSequenceByAdd(a, b), joined, 0);
+
+            Assert.assertTrue(WavFile.saveToFile(context, arrays, SampleFormat.PCM_24, expected));
+            Assert.assertTrue(WavFile.saveToFile(context, stores, SampleFormat.PCM_24, mix));
+            Assert.assertArrayEquals(Files.readAllBytes(arrays), Files.readAllBytes(stores));
+
+            try (WavReader reader = WavFile.openFile(stores); SampleStore loaded = SampleStore.allocate(mixed.length)) {
+                Assert.assertEquals(mixed.length, reader.read(0, new SampleStore[]{loaded}, 0, Long.MAX_VALUE));
+                Assert.assertEquals(mixed[1000], loaded.get(1000), 1e-6);
+            }
+        } finally {
+            Files.delete(arrays);
+            Files.delete(stores);
+        }
+    }
+
+    @Test
+    public void chainRendersIntoStore() throws Exception {
+        try (SampleStore store = SampleStore.allocate(5000)) {
+            SampleStoreSinkModule sink = new SampleStoreSinkModule(store, 1000);
+            new ModuleChain(Oscillator.create(Waveform.SINE, 440, 0.5), sink).render(4000, 128);
+            Assert.assertEquals(5000, sink.getPosition());
+
+            double[] expected = new double[4000];
+            Oscillator.create(Waveform.SINE, 440, 0.5).render(expected, 0, expected.length);
+            double[] actual = new double[4000];
+            store.read(1000, actual, 0, actual.length);
+            Assert.assertArrayEquals(expected, actual, 0);
+            Assert.assertEquals(0, store.peak(0, 1000), 0);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ru.joysi.audio.file;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class PcmEncoderTest {
+    @Test
+    public void clipInsteadOfWrapAround() {
+        PcmEncoder encoder = new PcmEncoder(SampleFormat.PCM_16, 4, false);
+        ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        encoder.quantize(new double[]{1.5, -3, 1, -1}, 0, 4, 0, 1);
+        encoder.pack(4, buffer);
+        Assert.assertEquals(8, buffer.position());
+        Assert.assertEquals(Short.MAX_VALUE, buffer.getShort(0));
+        Assert.assertEquals(Short.MIN_VALUE, buffer.getShort(2));
+        Assert.assertEquals(Short.MAX_VALUE, buffer.getShort(4));
+        Assert.assertEquals(-Short.MAX_VALUE, buffer.getShort(6));
+    }
+
+    @Test
+    public void writeAndReadBackAllFormats() throws Exception {
+        double[] right = {0.5, -0.25, 0.999, -1.0, 0};
+        double[] left  = {-0.75, 0.125, 0.3, 1.0, -0.01};
+        for (SampleFormat format : SampleFormat.values()) {
+            Path path = Files.createTempFile("tmp", ".wav");
+            try (WavWriter writer = new WavWriter(path, 2, format, 2, false)) {
+                writer.write(right, left);
+            }
+            try (WavReader reader = WavFile.openFile(path)) {
+                Assert.assertEquals(format, reader.getFormat());
+                Assert.assertEquals(right.length, reader.getFrameCount());
+                double eps = format == SampleFormat.PCM_8 ? 1e-2 : 1e-4;
+                for (int i = 0; i < right.length; i++) {
+                    Assert.assertEquals(left[i], reader.getChannel(0).get(i), eps);
+                    Assert.assertEquals(right[i], reader.getChannel(1).get(i), eps);
+                }
+            }
+            ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+            int blockAlign = 2 * format.getBytesPerSample();
+            boolean extensible = format.getFormatTag() == 1 && format.getBitsPerSample() > 16;
+            Assert.assertEquals(extensible ? SampleFormat.EXTENSIBLE_TAG : format.getFormatTag(),
+                    header.getShort(20) & 0xFFFF);
+            Assert.assertEquals(blockAlign, header.getShort(32));
+            Assert.assertEquals(format.getBitsPerSample(), header.getShort(34));
+            if (extensible)
+                Assert.assertEquals(format.getFormatTag(), header.getInt(44));
+            int headerSize = WavFile.headerSize(format, 2);
+            Assert.assertEquals(headerSize + right.length * blockAlign, header.limit());
+            Assert.assertEquals(right.length * blockAlign, header.getInt(headerSize - 4));
+            if (format == SampleFormat.FLOAT_32) {
+                // IEEE float: fmt с cbSize = 0 и блок fact с количеством кадров
+                Assert.assertEquals(18, header.getInt(16));
+                Assert.assertEquals(0, header.getShort(36));
+                Assert.assertEquals(0x74636166, header.getInt(38));
+                Assert.assertEquals(right.length, header.getInt(46));
+            }
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void ditherKeepsMeanLevel() {
+        int n = 100000;
+        double level = 0.3 / Short.MAX_VALUE; // треть младшего разряда
+        double[] src = new double[n];
+        Arrays.fill(src, level);
+        PcmEncoder encoder = new PcmEncoder(SampleFormat.PCM_16, n, true);
+        ByteBuffer buffer = ByteBuffer.allocate(n * 2).order(ByteOrder.LITTLE_ENDIAN);
+        encoder.quantize(src, 0, n, 0, 1);
+        encoder.pack(n, buffer);
+        double sum = 0;
+        for (int i = 0; i < n; i++)
+            sum += buffer.getShort(i * 2);
+        Assert.assertEquals(0.3, sum / n, 0.02);
+    }
+}
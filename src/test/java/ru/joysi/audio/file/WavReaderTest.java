@@ -0,0 +1,106 @@
+package ru.joysi.audio.file;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.joysi.audio.GlobalHelper;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class WavReaderTest {
+    @Test
+    public void readBackStereoFile() throws Exception {
+        Path path = Files.createTempFile("tmp", ".wav");
+        double[] right = {0.5, -0.25, 0.125};
+        double[] left  = {-1.0, 0.75, 0};
+        Assert.assertTrue(WavFile.saveStereoToFile(path, right, left));
+
+        try (WavReader reader = WavFile.openFile(path)) {
+            Assert.assertEquals(2, reader.getNumChannels());
+            Assert.assertEquals(3, reader.getFrameCount());
+            WavChannelView l = reader.getChannel(0);
+            WavChannelView r = reader.getChannel(1);
+            for (int i = 0; i < right.length; i++) {
+                Assert.assertEquals(left[i], l.get(i), 1e-4);
+                Assert.assertEquals(right[i], r.get(i), 1e-4);
+            }
+            double[] block = new double[4];
+            Assert.assertEquals(2, r.read(1, block, 1, 4));
+            Assert.assertEquals(right[2], block[2], 1e-4);
+            Assert.assertEquals(0, r.read(3, block, 0, 4));
+            float[] floats = new float[4];
+            Assert.assertEquals(2, r.read(1, floats, 1, 4));
+            Assert.assertEquals((float) block[2], floats[2], 0);
+        }
+        Files.delete(path);
+    }
+
+    @Test
+    public void surroundRoundTrip() throws Exception {
+        Path path = Files.createTempFile("tmp", ".wav");
+        int frames = 5000;
+        double[][] channels = new double[6][frames];
+        for (int c = 0; c < channels.length; c++)
+            for (int i = 0; i < frames; i++)
+                channels[c][i] = Math.sin(0.01 * (c + 1) * i) * 0.9;
+        Assert.assertTrue(WavFile.saveToFile(path, SampleFormat.PCM_24, channels));
+
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(6, header.getShort(22));
+        Assert.assertEquals(GlobalHelper.samplePerSec * 18, header.getInt(28));
+        Assert.assertEquals(18, header.getShort(32));
+        // Больше 2 каналов - WAVE_FORMAT_EXTENSIBLE: раскладка 5.1 и PCM в GUID SubFormat
+        Assert.assertEquals(40, header.getInt(16));
+        Assert.assertEquals(SampleFormat.EXTENSIBLE_TAG, header.getShort(20) & 0xFFFF);
+        Assert.assertEquals(22, header.getShort(36));
+        Assert.assertEquals(24, header.getShort(38));
+        Assert.assertEquals(0x3F, header.getInt(40));
+        Assert.assertEquals(1, header.getInt(44));
+        Assert.assertEquals(frames * 18, header.getInt(64));
+
+        try (WavReader reader = WavFile.openFile(path)) {
+            Assert.assertEquals(6, reader.getNumChannels());
+            double[][] planar = new double[6][frames + 1];
+            Assert.assertEquals(frames, reader.read(0, planar, 1, frames + 10));
+            for (int c = 0; c < channels.length; c++)
+                for (int i = 0; i < frames; i++)
+                    Assert.assertEquals(channels[c][i], planar[c][i + 1], 1e-6);
+        }
+        Files.delete(path);
+    }
+
+    @Test
+    public void honourFmtChunkSize() throws Exception {
+        // fmt с cbSize (18 байт) и посторонний блок до данных
+        ByteBuffer file = ByteBuffer.allocate(58 + 4).order(ByteOrder.LITTLE_ENDIAN);
+        file.putInt(0x46464952).putInt(58 + 4 - 8).putInt(0x45564157);
+        file.putInt(0x20746D66).putInt(18).putShort((short) 1).putShort((short) 1)
+                .putInt(8000).putInt(16000).putShort((short) 2).putShort((short) 16).putShort((short) 0);
+        file.putInt(0x74636166).putInt(4).putInt(2);
+        file.putInt(0x61746164).putInt(4).putShort((short) 16384).putShort((short) -16384);
+        Path path = Files.createTempFile("tmp", ".wav");
+        Files.write(path, file.array());
+        try (WavReader reader = WavFile.openFile(path)) {
+            Assert.assertEquals(SampleFormat.PCM_16, reader.getFormat());
+            Assert.assertEquals(8000, reader.getSampleRate());
+            Assert.assertEquals(2, reader.getFrameCount());
+            Assert.assertEquals(-0.5, reader.getChannel(0).get(1), 1e-4);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void rejectNonWavFile() throws Exception {
+        Path path = Files.createTempFile("tmp", ".wav");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        try {
+            WavFile.openFile(path).close();
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.joysi.audio.file;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.buffer.SampleStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class WavWriterTest {
+    @Test
+    public void writeBlocksAndPatchHeader() throws Exception {
+        Path path = Files.createTempFile("tmp", ".wav");
+        try (WavWriter writer = new WavWriter(path, 1, 3)) {
+            writer.write(new double[]{0.5, -0.5, 1.0, 0, 0.25});
+            writer.write(new double[]{0.1, 0.2}, 1, 1);
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(44 + 6 * 2, data.limit());
+        Assert.assertEquals(36 + 6 * 2, data.getInt(4));
+        Assert.assertEquals(6 * 2, data.getInt(40));
+        Assert.assertEquals((short) Math.rint(0.5 * Short.MAX_VALUE), data.getShort(44));
+        Assert.assertEquals((short) Math.rint(0.2 * Short.MAX_VALUE), data.getShort(44 + 5 * 2));
+        Files.delete(path);
+    }
+
+    @Test
+    public void refuseDataBeyondHeaderLimit() throws Exception {
+        Path path = Files.createTempFile("tmp", ".wav");
+        // 2^31 кадров по 2 байта - больше 4 Гб (сегменты хранилища не выделяются: запись отклоняется до чтения)
+        try (SampleStore store = SampleStore.allocate(1L << 31); WavWriter writer = new WavWriter(path, 1)) {
+            writer.write(new double[]{0.5});
+            try {
+                writer.write(store);
+                Assert.fail("4 GiB limit");
+            } catch (IOException expected) {
+                Assert.assertEquals(1, writer.getFramesWritten());
+            }
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(44 + 2, data.limit());
+        Assert.assertEquals(2, data.getInt(40));
+        Files.delete(path);
+    }
+
+    @Test
+    public void floatSurroundHasFactChunk() throws Exception {
+        Path path = Files.createTempFile("tmp", ".wav");
+        try (WavWriter writer = new WavWriter(path, 3, SampleFormat.FLOAT_32)) {
+            writer.write(new double[][]{{0.5, 0.25}, {-0.5, 0}, {1.0, -1.0}});
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        // fmt WAVE_FORMAT_EXTENSIBLE (40 байт), fact (12 байт), data
+        Assert.assertEquals(80 + 2 * 12, data.limit());
+        Assert.assertEquals(SampleFormat.EXTENSIBLE_TAG, data.getShort(20) & 0xFFFF);
+        Assert.assertEquals(3, data.getInt(44));
+        Assert.assertEquals(0x74636166, data.getInt(60));
+        Assert.assertEquals(2, data.getInt(68));
+        Assert.assertEquals(2 * 12, data.getInt(76));
+        Assert.assertEquals(-1.0f, data.getFloat(80 + 12 + 8), 0);
+        try (WavReader reader = WavFile.openFile(path)) {
+            Assert.assertEquals(SampleFormat.FLOAT_32, reader.getFormat());
+            Assert.assertEquals(2, reader.getFrameCount());
+            Assert.assertEquals(-0.5, reader.getChannel(1).get(0), 0);
+        }
+        Files.delete(path);
+    }
+
+    @Test
+    public void writeStereoInterleavesLeftFirst() throws Exception {
+        Path path = Files.createTempFile("tmp", ".wav");
+        try (WavWriter writer = new WavWriter(path, 2)) {
+            writer.write(new double[]{0.5, 0.5}, new double[]{-0.5, -0.5});
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(2, data.getShort(22));
+        Assert.assertEquals(8, data.getInt(40));
+        Assert.assertEquals((short) Math.rint(-0.5 * Short.MAX_VALUE), data.getShort(44));
+        Assert.assertEquals((short) Math.rint(0.5 * Short.MAX_VALUE), data.getShort(46));
+        Files.delete(path);
+    }
+
+    @Test
+    public void reuseEncoderAndBufferBetweenFiles() throws Exception {
+        PcmEncoder encoder = new PcmEncoder(SampleFormat.PCM_16, 8, false);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        for (int i = 0; i < 2; i++) {
+            Path path = Files.createTempFile("tmp", ".wav");
+            try (WavWriter writer = new WavWriter(new AudioContext(8000), path, 2, encoder, buffer)) {
+                writer.write(new double[][]{{0.5, 0.5, 0.5, 0.5, 0.5}, {-0.5, -0.5, -0.5, -0.5, -0.5}});
+            }
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+            Assert.assertEquals(8000, data.getInt(24));
+            Assert.assertEquals(5 * 2 * 2, data.getInt(40));
+            Assert.assertEquals((short) Math.rint(-0.5 * Short.MAX_VALUE), data.getShort(44 + 9 * 2));
+            Files.delete(path);
+        }
+    }
+}
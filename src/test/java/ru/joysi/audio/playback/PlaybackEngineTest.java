@@ -0,0 +1,180 @@
+package ru.joysi.audio.playback;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class PlaybackEngineTest {
+    // Подмена линии вывода: накапливает записанные байты
+    private static class FakeLineSink implements LineSink {
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        AudioFormat format;
+        int bufferSize;
+        boolean closed;
+
+        @Override
+        public void open(AudioFormat format, int bufferSize) {
+            this.format = format;
+            this.bufferSize = bufferSize;
+        }
+
+        @Override
+        public synchronized int write(byte[] data, int offset, int length) {
+            written.write(data, offset, length);
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return bufferSize;
+        }
+
+        @Override
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        @Override
+        public void drain() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        synchronized byte[] bytes() {
+            return written.toByteArray();
+        }
+    }
+
+    @Test
+    public void playsQueuedStereoFrames() throws Exception {
+        FakeLineSink sink = new FakeLineSink();
+        PlaybackEngine engine = new PlaybackEngine(44100, 2, 64, 4, sink);
+        Assert.assertEquals(2, sink.format.getChannels());
+
+        double[] samples = new double[2 * 1000];
+        for (int i = 0; i < samples.length; i += 2) {
+            samples[i] = 0.5;
+            samples[i + 1] = -0.5;
+        }
+        engine.writeBlocking(samples, 0, samples.length);
+        engine.drain();
+        engine.close();
+
+        byte[] bytes = sink.bytes();
+        Assert.assertTrue(sink.closed);
+        Assert.assertEquals(samples.length * 2, bytes.length);
+        Assert.assertEquals(1000, engine.getFramesPlayed());
+        short left = (short) ((bytes[0] & 0xFF) | (bytes[1] << 8));
+        short right = (short) ((bytes[2] & 0xFF) | (bytes[3] << 8));
+        Assert.assertEquals((short) Math.rint(0.5 * Short.MAX_VALUE), left);
+        Assert.assertEquals((short) Math.rint(-0.5 * Short.MAX_VALUE), right);
+    }
+
+    @Test
+    public void drainWaitsForAsyncPlayAndBlockInFlight() throws Exception {
+        // Медленная линия: блок пишется дольше, чем опустошается очередь
+        FakeLineSink sink = new FakeLineSink() {
+            @Override
+            public synchronized int write(byte[] data, int offset, int length) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+                return super.write(data, offset, Math.min(length, 32));
+            }
+        };
+        PlaybackEngine engine = new PlaybackEngine(44100, 1, 64, 2, sink);
+        engine.play(new double[1000]);
+        engine.drain();
+        Assert.assertEquals(2000, sink.bytes().length);
+        Assert.assertEquals(1000, engine.getFramesPlayed());
+
+        // Закрытие не обрезает взятый блок
+        engine.write(new double[64], 0, 64);
+        while (sink.bytes().length == 2000)
+            Thread.yield();
+        engine.close();
+        Assert.assertEquals(2128, sink.bytes().length);
+    }
+
+    @Test
+    public void underrunCountedOncePerStarvation() throws Exception {
+        PlaybackEngine engine = new PlaybackEngine(44100, 1, 64, 4, new FakeLineSink());
+        for (int episode = 1; episode <= 2; episode++) {
+            Assert.assertEquals(128, engine.write(new double[128], 0, 128));
+            // Очередь пуста десятки периодов блока - опрос идет, а опустошение одно
+            Thread.sleep(50);
+            Assert.assertEquals(episode, engine.getUnderruns());
+        }
+        engine.close();
+    }
+
+    // Потерянные отсчеты не дают drain() завершиться - ограничение времени вместо зависания
+    @Test(timeout = 10000)
+    public void concurrentWritersDoNotLoseOrDuplicateFrames() throws Exception {
+        FakeLineSink sink = new FakeLineSink();
+        PlaybackEngine engine = new PlaybackEngine(44100, 1, 64, 4, sink);
+        double[][] sources = {new double[20000], new double[20000]};
+        Arrays.fill(sources[0], 0.25);
+        Arrays.fill(sources[1], -0.5);
+        Thread[] writers = new Thread[sources.length];
+        for (int k = 0; k < writers.length; k++) {
+            double[] source = sources[k];
+            writers[k] = new Thread(() -> {
+                for (int off = 0; off < source.length; off += 100)
+                    engine.writeBlocking(source, off, 100);
+            });
+            writers[k].start();
+        }
+        for (Thread writer : writers)
+            writer.join();
+        engine.drain();
+        engine.close();
+
+        byte[] bytes = sink.bytes();
+        Assert.assertEquals(40000 * 2, bytes.length);
+        int positive = 0;
+        for (int i = 0; i < bytes.length; i += 2)
+            if ((short) ((bytes[i] & 0xFF) | (bytes[i + 1] << 8)) > 0)
+                positive++;
+        Assert.assertEquals(20000, positive);
+    }
+
+    @Test
+    public void concurrentPlayCallsOverlap() throws Exception {
+        FakeLineSink sink = new FakeLineSink() {
+            @Override
+            public synchronized int write(byte[] data, int offset, int length) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                return super.write(data, offset, length);
+            }
+        };
+        PlaybackEngine engine = new PlaybackEngine(44100, 1, 64, 4, sink);
+        double[] clip = new double[6400];
+        Arrays.fill(clip, 0.25);
+        engine.play(clip);
+        engine.play(clip);
+        engine.drain();
+        engine.close();
+
+        // Фрагменты звучат одновременно: суммарно меньше двух длин, в середине - сумма
+        byte[] bytes = sink.bytes();
+        Assert.assertTrue(bytes.length / 2 < 2 * clip.length);
+        int middle = (bytes.length / 4) * 2;
+        short mixed = (short) ((bytes[middle] & 0xFF) | (bytes[middle + 1] << 8));
+        Assert.assertEquals((short) Math.rint(0.5 * Short.MAX_VALUE), mixed);
+    }
+
+    @Test
+    public void writeAcceptsWholeFramesOnly() throws Exception {
+        PlaybackEngine engine = new PlaybackEngine(44100, 3, 16, 1, new FakeLineSink());
+        engine.close();
+        Assert.assertEquals(0, engine.write(new double[2], 0, 2));
+        Assert.assertEquals(3, engine.write(new double[4], 0, 4));
+    }
+}
@@ -0,0 +1,55 @@
+package ru.joysi.audio.processing;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.joysi.audio.GlobalHelper;
+import ru.joysi.audio.file.WavFile;
+import ru.joysi.audio.file.WavReader;
+import ru.joysi.audio.file.WavSinkModule;
+import ru.joysi.audio.file.WavWriter;
+import ru.joysi.audio.processing.combines.MixerModule;
+import ru.joysi.audio.processing.filters.AsdrModule;
+import ru.joysi.audio.processing.generators.Oscillator;
+import ru.joysi.audio.processing.generators.Waveform;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ModuleChainTest {
+    @Test
+    public void blockSizeDoesNotChangeResult() throws Exception {
+        double[] whole = new double[1000];
+        newChain().process(null, whole, whole.length);
+
+        double[] block = new double[64];
+        AudioModule chain = newChain();
+        for (int done = 0; done < whole.length; done += block.length) {
+            int n = Math.min(block.length, whole.length - done);
+            chain.process(null, block, n);
+            for (int i = 0; i < n; i++)
+                Assert.assertEquals(whole[done + i], block[i], 1e-12);
+        }
+    }
+
+    @Test
+    public void renderToWavSink() throws Exception {
+        Path path = Files.createTempFile("tmp", ".wav");
+        int frames = GlobalHelper.samplePerSec / 2;
+        try (WavWriter writer = new WavWriter(path, 1)) {
+            new ModuleChain(Oscillator.create(Waveform.SINE, 440, 0.5), new WavSinkModule(writer))
+                    .render(frames, 100);
+        }
+        try (WavReader reader = WavFile.openFile(path)) {
+            Assert.assertEquals(frames, reader.getFrameCount());
+        }
+        Files.delete(path);
+    }
+
+    private static AudioModule newChain() throws Exception {
+        return new ModuleChain(
+                new MixerModule(MixerModule.Mode.LINEAR_COMPRESSION, 0.8,
+                        Oscillator.create(Waveform.SINE, 261.6, 0.5),
+                        Oscillator.create(Waveform.SAW, 329.6, 0.5)),
+                new AsdrModule(5, 20, 0.1));
+    }
+}
@@ -0,0 +1,113 @@
+package ru.joysi.audio.processing.combines;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class CombinesTest {
+    @Test
+    public void parallelNormalizeIsBitIdentical() {
+        Random rnd = new Random(42);
+        double[][] audio = new double[120][];
+        for (int i = 0; i < audio.length; i++) {
+            audio[i] = new double[10000 + rnd.nextInt(30000)];
+            for (int j = 0; j < audio[i].length; j++)
+                audio[i][j] = rnd.nextDouble() * 2 - 1;
+        }
+        double[] serial = Combines.combineWithNormalize(audio);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            double[] parallel = Combines.combineWithNormalizeParallel(pool, audio);
+            Assert.assertEquals(serial.length, parallel.length);
+            for (int i = 0; i < serial.length; i++)
+                Assert.assertEquals(Double.doubleToRawLongBits(serial[i]), Double.doubleToRawLongBits(parallel[i]));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void normalizeDoesNotPadInputs() {
+        double[] shortInput = {0.5};
+        double[][] audio = {shortInput, {0.25, 0.25, 2}};
+        double[] result = Combines.combineWithNormalize(audio);
+        Assert.assertSame(shortInput, audio[0]);
+        Assert.assertArrayEquals(new double[]{0.375, 0.125, 1}, result, 1e-12);
+    }
+
+    @Test
+    public void singleInputIsNormalizedCopy() {
+        double[] input = {0.5, -2, 1};
+        double[] serial = Combines.combineWithNormalize(input);
+        double[] parallel = Combines.combineWithNormalizeParallel(input);
+        Assert.assertNotSame(input, serial);
+        Assert.assertNotSame(input, parallel);
+        Assert.assertArrayEquals(new double[]{0.25, -1, 0.5}, serial, 0);
+        Assert.assertArrayEquals(serial, parallel, 0);
+        Assert.assertArrayEquals(new double[]{0.5, -2, 1}, input, 0);
+
+        float[] floatInput = {0.25f, -0.5f};
+        float[] floatResult = Combines.combineWithNormalize(floatInput);
+        Assert.assertNotSame(floatInput, floatResult);
+        Assert.assertArrayEquals(floatInput, floatResult, 0);
+    }
+
+    @Test
+    public void floatNormalizeMatchesDouble() {
+        Random rnd = new Random(7);
+        double[][] audio = new double[16][];
+        float[][] audioFloat = new float[audio.length][];
+        for (int i = 0; i < audio.length; i++) {
+            audio[i] = new double[5000 + rnd.nextInt(10000)];
+            audioFloat[i] = new float[audio[i].length];
+            for (int j = 0; j < audio[i].length; j++)
+                audio[i][j] = audioFloat[i][j] = (float) (rnd.nextDouble() * 2 - 1);
+        }
+        double[] expected = Combines.combineWithNormalize(audio);
+        float[] serial = Combines.combineWithNormalize(audioFloat);
+        float[] parallel;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            parallel = Combines.combineWithNormalizeParallel(pool, audioFloat);
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(expected.length, serial.length);
+        for (int i = 0; i < serial.length; i++) {
+            Assert.assertEquals((float) expected[i], serial[i], 0);
+            Assert.assertEquals(Float.floatToRawIntBits(serial[i]), Float.floatToRawIntBits(parallel[i]));
+        }
+        float[] dst = new float[expected.length + 3];
+        Combines.combineWithNormalizeInto(dst, 3, expected.length, audioFloat);
+        for (int i = 0; i < expected.length; i++)
+            Assert.assertEquals((float) expected[i], dst[3 + i], 0);
+    }
+
+    @Test
+    public void intoOverloadsMatchAllocatingVersions() {
+        double[] a = {0.9, -0.7, 0.6, 0.95}, b = {0.8, -0.9}, c = {0.1, 0.2, 0.3};
+        double[][] audio = {a, b, c};
+        double[] dst = new double[10];
+
+        Assert.assertTrue(Combines.combineWithLinearDynaRangeCompressionInto(0.5, dst, 3, 4, audio));
+        Assert.assertArrayEquals(Combines.combineWithLinearDynaRangeCompression(0.5, audio),
+                Arrays.copyOfRange(dst, 3, 7), 0);
+        Assert.assertTrue(Combines.combineWithLnDynaRangeCompressionInto(0.5, dst, 3, 4, audio));
+        Assert.assertArrayEquals(Combines.combineWithLnDynaRangeCompression(0.5, audio),
+                Arrays.copyOfRange(dst, 3, 7), 0);
+        // Короткие входы не заменяются дополненными копиями
+        Assert.assertSame(b, audio[1]);
+
+        Combines.combineWithNormalizeInto(dst, 1, 4, audio);
+        Assert.assertArrayEquals(Combines.combineWithNormalize(audio), Arrays.copyOfRange(dst, 1, 5), 0);
+        Assert.assertEquals(9, Combines.getSequenceByAddInto(dst, 1, audio));
+        Assert.assertArrayEquals(Combines.getSequenceByAdd(audio), Arrays.copyOfRange(dst, 1, 10), 0);
+        // Длина результата меньше входов - входы обрезаются
+        Assert.assertTrue(Combines.combineWithLinearDynaRangeCompressionInto(0.5, dst, 0, 2, audio));
+        Assert.assertArrayEquals(Arrays.copyOf(Combines.combineWithLinearDynaRangeCompression(0.5, audio), 2),
+                Arrays.copyOf(dst, 2), 0);
+    }
+}
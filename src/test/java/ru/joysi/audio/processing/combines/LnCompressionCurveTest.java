@@ -0,0 +1,48 @@
+package ru.joysi.audio.processing.combines;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LnCompressionCurveTest {
+    @Test
+    public void alphaIsTakenForThreshold() {
+        Assert.assertEquals(17.50980, LnCompressionCurve.forThreshold(0.8).getAlpha(), 1e-9);
+        Assert.assertEquals((2.51286 + 2.54236) / 2, LnCompressionCurve.alphaFor(0.005), 1e-9);
+    }
+
+    @Test
+    public void tableMatchesExactCurve() {
+        double threshold = 0.8;
+        LnCompressionCurve curve = LnCompressionCurve.forThreshold(threshold);
+        double alpha = curve.getAlpha();
+        for (double sum = -2; sum <= 2; sum += 0.001) {
+            double abs = Math.abs(sum);
+            double expected = abs <= threshold ? sum : Math.signum(sum) * (threshold + (1 - threshold) *
+                    Math.log(1.0 + alpha * (abs - threshold) / (2 - threshold)) / Math.log(1.0 + alpha));
+            Assert.assertEquals(expected, curve.combine(sum, 0), 1e-7);
+        }
+        Assert.assertEquals(1.0, curve.combine(1, 1), 1e-12);
+    }
+
+    @Test
+    public void interpolationErrorBound() {
+        // Наибольшая кривизна - у порога 0.99 (alpha = 655)
+        double maxError = 0;
+        for (double threshold : new double[]{0, 0.5, 0.8, 0.95, 0.98, 0.985, 0.99, 0.995, 0.999}) {
+            LnCompressionCurve curve = LnCompressionCurve.forThreshold(threshold);
+            double alpha = curve.getAlpha();
+            for (int i = 0; i <= 1000000; i++) {
+                double abs = threshold + (2 - threshold) * i / 1000000;
+                double expected = threshold + (1 - threshold) *
+                        Math.log(1.0 + alpha * (abs - threshold) / (2 - threshold)) / Math.log(1.0 + alpha);
+                maxError = Math.max(maxError, Math.abs(expected - curve.combine(abs, 0)));
+            }
+        }
+        Assert.assertTrue("max error " + maxError, maxError < 1e-7);
+    }
+
+    @Test
+    public void curvesAreShared() {
+        Assert.assertSame(LnCompressionCurve.forThreshold(0.5), LnCompressionCurve.forThreshold(0.5));
+    }
+}
@@ -0,0 +1,43 @@
+package ru.joysi.audio.processing.combines;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.joysi.audio.processing.AudioModule;
+import ru.joysi.audio.processing.generators.Oscillator;
+import ru.joysi.audio.processing.generators.Waveform;
+
+public class LookAheadLimiterTest {
+    @Test
+    public void mixStaysUnderCeiling() {
+        // Сумма трех синусов с пиком до 2.4 - поблочно через лимитер
+        AudioModule mixer = new MixerModule(1.0,
+                Oscillator.create(Waveform.SINE, 261.6, 0.8),
+                Oscillator.create(Waveform.SINE, 329.6, 0.8),
+                Oscillator.create(Waveform.SINE, 392.0, 0.8));
+        LookAheadLimiter limiter = new LookAheadLimiter(0.9, 1, 50, 5);
+
+        double[] block = new double[256];
+        double peak = 0;
+        for (int n = 0; n < 200; n++) {
+            mixer.process(null, block, block.length);
+            limiter.process(block, block, block.length);
+            for (double v : block)
+                peak = Math.max(peak, Math.abs(v));
+        }
+        Assert.assertTrue(peak <= 0.9);
+        Assert.assertTrue(peak > 0.8);
+    }
+
+    @Test
+    public void quietSignalPassesWithLatency() {
+        LookAheadLimiter limiter = new LookAheadLimiter(0.5, 4, 0.9, 1, 50, 2);
+        double[] in = new double[1000];
+        for (int i = 0; i < in.length; i++)
+            in[i] = 0.3 * Math.sin(i * 0.05);
+        double[] out = new double[in.length];
+        limiter.process(in, out, in.length);
+        int latency = limiter.getLatency();
+        for (int i = latency; i < in.length; i++)
+            Assert.assertEquals(in[i - latency], out[i], 1e-12);
+    }
+}
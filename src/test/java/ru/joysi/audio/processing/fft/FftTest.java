@@ -0,0 +1,85 @@
+package ru.joysi.audio.processing.fft;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class FftTest {
+    private static double[] noise(int length, long seed) {
+        Random random = new Random(seed);
+        double[] res = new double[length];
+        for (int i = 0; i < length; i++)
+            res[i] = random.nextDouble() * 2 - 1;
+        return res;
+    }
+
+    @Test
+    public void forwardMatchesDft() {
+        int n = 64;
+        double[] x = noise(n, 1);
+        double[] data = x.clone();
+        Fft.forSize(n).realForward(data);
+        for (int k = 0; k <= n / 2; k++) {
+            double re = 0, im = 0;
+            for (int t = 0; t < n; t++) {
+                re += x[t] * Math.cos(2 * Math.PI * k * t / n);
+                im -= x[t] * Math.sin(2 * Math.PI * k * t / n);
+            }
+            if (k == 0) {
+                Assert.assertEquals(re, data[0], 1e-9);
+            } else if (k == n / 2) {
+                Assert.assertEquals(re, data[1], 1e-9);
+            } else {
+                Assert.assertEquals(re, data[2 * k], 1e-9);
+                Assert.assertEquals(im, data[2 * k + 1], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void inverseRestoresSignal() {
+        for (int n : new int[]{2, 4, 8, 4096}) {
+            double[] x = noise(n, n);
+            double[] data = x.clone();
+            Fft fft = Fft.forSize(n);
+            fft.realForward(data);
+            fft.realInverse(data);
+            Assert.assertArrayEquals(x, data, 1e-12);
+        }
+        Assert.assertSame(Fft.forSize(1024), Fft.forSize(1024));
+    }
+
+    @Test
+    public void convolverMatchesDirectConvolution() {
+        double[] ir = noise(3001, 2);
+        double[] in = noise(12000, 3);
+        double[] expected = new double[in.length];
+        for (int i = 0; i < in.length; i++) {
+            double sum = 0;
+            for (int j = 0; j < ir.length && j <= i; j++)
+                sum += ir[j] * in[i - j];
+            expected[i] = sum;
+        }
+
+        PartitionedConvolver convolver = new PartitionedConvolver(new ConvolutionKernel(ir, 256));
+        Assert.assertEquals(12, convolver.getKernel().getPartitions());
+        int latency = convolver.getLatency();
+        double[] out = new double[in.length + latency];
+        double[] buffer = new double[1000];
+        Random random = new Random(4);
+        for (int pos = 0; pos < out.length; ) {
+            int n = Math.min(1 + random.nextInt(buffer.length), out.length - pos);
+            for (int i = 0; i < n; i++)
+                buffer[i] = pos + i < in.length ? in[pos + i] : 0;
+            // На месте: вход и выход - один массив
+            convolver.process(buffer, buffer, n);
+            System.arraycopy(buffer, 0, out, pos, n);
+            pos += n;
+        }
+        for (int i = 0; i < latency; i++)
+            Assert.assertEquals(0, out[i], 0);
+        for (int i = 0; i < in.length; i++)
+            Assert.assertEquals(expected[i], out[i + latency], 1e-9);
+    }
+}
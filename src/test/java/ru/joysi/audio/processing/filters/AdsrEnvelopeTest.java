@@ -0,0 +1,66 @@
+package ru.joysi.audio.processing.filters;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.joysi.audio.GlobalHelper;
+
+import java.util.Arrays;
+
+public class AdsrEnvelopeTest {
+    private static final int MS = GlobalHelper.samplePerSec / 1000;
+
+    @Test
+    public void stagesFollowNoteOnOff() throws Exception {
+        AdsrEnvelope env = new AdsrEnvelope(10, 20, 0.5, 30);
+        double[] block = new double[MS];
+        env.noteOn();
+
+        run(env, block, 9);
+        Assert.assertEquals(AdsrEnvelope.Stage.ATTACK, env.getStage());
+        run(env, block, 2);
+        Assert.assertEquals(AdsrEnvelope.Stage.DECAY, env.getStage());
+        run(env, block, 40);
+        Assert.assertEquals(AdsrEnvelope.Stage.SUSTAIN, env.getStage());
+        Assert.assertEquals(0.5, block[block.length - 1], 1e-12);
+
+        env.noteOff();
+        run(env, block, 35);
+        Assert.assertFalse(env.isActive());
+        Assert.assertEquals(0, block[block.length - 1], 0);
+    }
+
+    @Test
+    public void floatBlockFollowsDoubleBlock() throws Exception {
+        AdsrEnvelope env = new AdsrEnvelope(5, 10, 0.4, 5);
+        AdsrEnvelope envFloat = new AdsrEnvelope(5, 10, 0.4, 5);
+        double[] block = new double[MS];
+        float[] blockFloat = new float[MS];
+        env.noteOn();
+        envFloat.noteOn();
+        for (int ms = 0; ms < 40; ms++) {
+            if (ms == 25) {
+                env.noteOff();
+                envFloat.noteOff();
+            }
+            Arrays.fill(block, 0.75);
+            Arrays.fill(blockFloat, 0.75f);
+            env.process(block, block, block.length);
+            envFloat.process(blockFloat, blockFloat, blockFloat.length);
+            for (int i = 0; i < MS; i++)
+                Assert.assertEquals((float) block[i], blockFloat[i], 0);
+            Assert.assertEquals(env.getStage(), envFloat.getStage());
+        }
+    }
+
+    @Test
+    public void subSecondEnvelopeIsNotEmpty() {
+        Assert.assertEquals(GlobalHelper.samplePerSec / 2, Filters.getASDRarray(100, 500, 0.1).length);
+    }
+
+    private static void run(AdsrEnvelope env, double[] block, int ms) {
+        for (int i = 0; i < ms; i++) {
+            Arrays.fill(block, 1.0);
+            env.process(block, block, block.length);
+        }
+    }
+}
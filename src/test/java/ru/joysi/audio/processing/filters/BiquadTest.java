@@ -0,0 +1,75 @@
+package ru.joysi.audio.processing.filters;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.AudioModule;
+
+public class BiquadTest {
+    private static final AudioContext CONTEXT = new AudioContext(48000);
+
+    // Амплитуда установившегося отклика на синус частоты freq
+    private static double response(AudioModule filter, double freq) {
+        int n = 48000;
+        double[] block = new double[n];
+        for (int i = 0; i < n; i++)
+            block[i] = Math.sin(2 * Math.PI * freq * i / 48000);
+        filter.process(block, block, n);
+        double peak = 0;
+        for (int i = n / 2; i < n; i++)
+            peak = Math.max(peak, Math.abs(block[i]));
+        return peak;
+    }
+
+    @Test
+    public void cookbookResponses() throws Exception {
+        Biquad lp = new Biquad(CONTEXT, BiquadType.LOW_PASS, 1000, Math.sqrt(0.5), 0);
+        Assert.assertEquals(1.0, response(lp, 50), 1e-3);
+        Assert.assertEquals(Math.sqrt(0.5), response(lp, 1000), 1e-3);
+        Assert.assertTrue(response(lp, 10000) < 0.02);
+
+        Biquad notch = new Biquad(CONTEXT, BiquadType.NOTCH, 3000, 2, 0);
+        Assert.assertTrue(response(notch, 3000) < 1e-3);
+
+        Biquad peak = new Biquad(CONTEXT, BiquadType.PEAKING, 2000, 1, 6);
+        Assert.assertEquals(Math.pow(10, 6 / 20.0), response(peak, 2000), 1e-3);
+
+        Biquad shelf = new Biquad(CONTEXT, BiquadType.LOW_SHELF, 500, Math.sqrt(0.5), -12);
+        Assert.assertEquals(Math.pow(10, -12 / 20.0), response(shelf, 20), 1e-2);
+        Assert.assertEquals(1.0, response(shelf, 15000), 1e-2);
+    }
+
+    @Test
+    public void cascadeAndMultiChannelMatchSingleSections() throws Exception {
+        BiquadCascade butterworth = BiquadCascade.butterworth(CONTEXT, BiquadType.LOW_PASS, 4, 1000);
+        Assert.assertEquals(Math.sqrt(0.5), response(butterworth, 1000), 1e-3);
+        // 4-й порядок: -24 дБ/окт, на 4 кГц (2 октавы) ~ -48 дБ
+        Assert.assertTrue(response(butterworth, 4000) < 0.005);
+
+        double[][] channels = new double[3][1000];
+        double[][] reference = new double[3][1000];
+        for (int c = 0; c < 3; c++)
+            for (int i = 0; i < 1000; i++)
+                channels[c][i] = reference[c][i] = Math.sin(0.01 * (c + 1) * i * i);
+        MultiChannelBiquad multi = new MultiChannelBiquad(CONTEXT, 3, BiquadType.HIGH_PASS, 800, 0.9, 0);
+        multi.setParameters(2, BiquadType.PEAKING, 3000, 1.5, 4);
+        multi.process(channels, 0, 400);
+        multi.process(channels, 400, 600);
+        for (int c = 0; c < 3; c++) {
+            Biquad single = c < 2 ? new Biquad(CONTEXT, BiquadType.HIGH_PASS, 800, 0.9, 0)
+                    : new Biquad(CONTEXT, BiquadType.PEAKING, 3000, 1.5, 4);
+            single.process(reference[c], reference[c], 1000);
+            Assert.assertArrayEquals(reference[c], channels[c], 0);
+        }
+    }
+
+    @Test
+    public void onePoleSmoothsParameter() {
+        OnePole smoother = new OnePole(CONTEXT, 10);
+        smoother.setValue(0);
+        double v = 0;
+        for (int i = 0; i < 480; i++)    // 10 мсек - одна постоянная времени
+            v = smoother.next(1);
+        Assert.assertEquals(1 - Math.exp(-1), v, 1e-3);
+    }
+}
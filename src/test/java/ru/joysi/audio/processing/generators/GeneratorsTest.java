@@ -0,0 +1,83 @@
+package ru.joysi.audio.processing.generators;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.joysi.audio.AudioContext;
+
+public class GeneratorsTest {
+    private final AudioContext context = new AudioContext(44100);
+
+    @Test
+    public void periodicToneStaysWithinBoundOfDirect() {
+        int length = 44100 * 30 + 17;
+        for (Waveform waveform : new Waveform[]{Waveform.SINE, Waveform.TRIANGLE}) {
+            // 440 Гц: 22 периода на 2205 отсчетов
+            Assert.assertEquals(2205, Generators.getPeriodLength(44100, waveform, 440, length));
+            double[] direct = new double[length];
+            double[] periodic = new double[length];
+            Assert.assertTrue(direct(waveform, 440, 0.7, 0.3, direct));
+            Assert.assertTrue(Generators.periodicGeneratorInto(context, waveform, 440, 0.7, 0.3, periodic, 0, length));
+            for (int i = 0; i < length; i++)
+                Assert.assertEquals(direct[i], periodic[i], 1e-9);
+        }
+    }
+
+    @Test
+    public void sawIsExactAndIrrationalPeriodFallsBack() {
+        int length = 100000;
+        double[] direct = new double[length + 3];
+        double[] periodic = new double[length + 3];
+        Generators.sawGeneratorInto(context, 1000, 0.5, 0.25, direct, 3, length);
+        Generators.periodicGeneratorInto(context, Waveform.SAW, 1000, 0.5, 0.25, periodic, 3, length);
+        Assert.assertArrayEquals(direct, periodic, 0);
+
+        double c4 = Generators.notes.get("C4");
+        Assert.assertEquals(0, Generators.getPeriodLength(44100, Waveform.SINE, c4, length));
+        Generators.sineGeneratorInto(context, c4, 0.5, 0, direct, 0, length);
+        Generators.periodicGeneratorInto(context, Waveform.SINE, c4, 0.5, 0, periodic, 0, length);
+        Assert.assertArrayEquals(direct, periodic, 0);
+    }
+
+    @Test
+    public void floatPeriodicMatchesDoublePeriodic() {
+        double[] expected = new double[50000];
+        float[] out = new float[50000];
+        Generators.periodicGeneratorInto(context, Waveform.SINE, 882, 1, 0, expected, 0, expected.length);
+        Generators.periodicGeneratorFloatInto(context, Waveform.SINE, 882, 1, 0, out, 0, out.length);
+        for (int i = 0; i < out.length; i++)
+            Assert.assertEquals((float) expected[i], out[i], 1e-6f);
+        Assert.assertFalse(Generators.periodicGeneratorInto(context, Waveform.SINE, 882, 1, 1, expected, 0, 10));
+    }
+
+    @Test
+    public void floatGeneratorsShareKernelAndShortTonesAreNotEmpty() {
+        Assert.assertEquals(22050, Generators.getSampleCount(context, 500));
+        Assert.assertEquals(441, Generators.getSampleCount(context, 10));
+        double[] expected = Generators.sawGenerator(context, 330, 500, 0.6, 0.2);
+        float[] actual = Generators.sawGeneratorFloat(context, 330, 500, 0.6, 0.2);
+        Assert.assertEquals(22050, actual.length);
+        for (int i = 0; i < actual.length; i++)
+            Assert.assertEquals((float) expected[i], actual[i], 0);
+
+        double[] sine = Generators.sineGenerator(context, 440, 250, 0.5, 0.1);
+        float[] sineFloat = Generators.sineGeneratorFloat(context, 440, 250, 0.5, 0.1);
+        for (int i = 0; i < sine.length; i++)
+            Assert.assertEquals((float) sine[i], sineFloat[i], 0);
+
+        float[] noise = Generators.randomGeneratorFloat(context, 100, 0.3);
+        Assert.assertEquals(4410, noise.length);
+        double energy = 0;
+        for (float v : noise) {
+            Assert.assertTrue(Math.abs(v) <= 0.3f);
+            energy += v * v;
+        }
+        Assert.assertTrue(energy > 0);
+        Assert.assertNull(Generators.randomGeneratorFloat(context, 100, 2));
+    }
+
+    private boolean direct(Waveform waveform, double freq, double amplitude, double phase, double[] dst) {
+        return waveform == Waveform.SINE
+                ? Generators.sineGeneratorInto(context, freq, amplitude, phase, dst, 0, dst.length)
+                : Generators.triangleGeneratorInto(context, freq, amplitude, phase, dst, 0, dst.length);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.joysi.audio.processing.generators;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.joysi.audio.GlobalHelper;
+
+public class OscillatorTest {
+    @Test
+    public void wavetableSineMatchesMathSin() {
+        double freq = 440;
+        Oscillator osc = Oscillator.create(Waveform.SINE, freq, 1);
+        double[] out = new double[10000];
+        osc.render(out, 0, out.length);
+        double piAngle = 2.0 * freq * Math.PI / GlobalHelper.samplePerSec;
+        for (int i = 0; i < out.length; i++)
+            Assert.assertEquals(Math.sin(piAngle * i), out[i], 1e-5);
+    }
+
+    @Test
+    public void phaseContinuesAcrossCalls() {
+        double[] whole = new double[300];
+        Oscillator.create(Waveform.SAW, 1000, 0.5).render(whole, 0, whole.length);
+
+        Oscillator osc = Oscillator.create(Waveform.SAW, 1000, 0.5);
+        double[] parts = new double[300];
+        osc.render(parts, 0, 100);
+        osc.render(parts, 100, 200);
+        Assert.assertArrayEquals(whole, parts, 0);
+    }
+
+    @Test
+    public void floatRenderIsRoundedDoubleRender() {
+        for (Waveform waveform : new Waveform[]{Waveform.SINE, Waveform.SAW, Waveform.TRIANGLE, Waveform.RECTANGLE}) {
+            double[] expected = new double[3000];
+            Oscillator.create(waveform, 1234, 0.8).render(expected, 0, expected.length);
+            float[] out = new float[3000];
+            Oscillator.create(waveform, 1234, 0.8).render(out, 0, out.length);
+            for (int i = 0; i < out.length; i++)
+                Assert.assertEquals((float) expected[i], out[i], 0);
+        }
+    }
+
+    @Test
+    public void bandLimitedSquareStaysInRange() {
+        double[] out = new double[5000];
+        new SquareOscillator(3000, 1, true).render(out, 0, out.length);
+        for (double v : out)
+            Assert.assertTrue(Math.abs(v) <= 1.0 + 1e-12);
+    }
+}
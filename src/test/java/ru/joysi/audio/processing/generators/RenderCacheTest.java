@@ -0,0 +1,74 @@
+package ru.joysi.audio.processing.generators;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.filters.Filters;
+
+import java.nio.DoubleBuffer;
+import java.nio.ReadOnlyBufferException;
+
+public class RenderCacheTest {
+    private final AudioContext context = AudioContext.getDefault();
+
+    @Test
+    public void repeatedRequestsHitAndMatchGenerator() {
+        RenderCache cache = new RenderCache(1 << 24);
+        double freq = Generators.notes.get("C4");
+        DoubleBuffer first = cache.tone(context, Waveform.SINE, freq, 1000, 0.2, 0.25);
+        DoubleBuffer second = cache.tone(context, Waveform.SINE, freq, 1000, 0.2, 0.25);
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(1, cache.getHits());
+
+        double[] expected = Generators.sineGenerator(context, freq, 1000, 0.2, 0.25);
+        double[] actual = new double[second.remaining()];
+        second.get(actual);
+        Assert.assertArrayEquals(expected, actual, 0);
+        Assert.assertEquals(expected.length, first.remaining());
+
+        DoubleBuffer env = cache.envelope(context, 150, 1000, 0.1);
+        cache.envelope(context, 150, 1000, 0.1);
+        double[] envelope = new double[env.remaining()];
+        env.get(envelope);
+        Assert.assertArrayEquals(Filters.getASDRarray(context, 150, 1000, 0.1), envelope, 0);
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(2, cache.size());
+
+        try {
+            first.put(0, 1);
+            Assert.fail("View must be read-only");
+        } catch (ReadOnlyBufferException expectedException) {
+            // ok
+        }
+    }
+
+    @Test
+    public void differentParametersAreDifferentEntries() {
+        RenderCache cache = new RenderCache(1 << 24);
+        cache.tone(context, Waveform.SAW, 440, 1000, 0.5, 0);
+        cache.tone(context, Waveform.SAW, 440, 1000, 0.5, 0.5);
+        cache.tone(context, Waveform.TRIANGLE, 440, 1000, 0.5, 0);
+        Assert.assertEquals(3, cache.getMisses());
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertNull(cache.tone(context, Waveform.SINE, 440, 1000, 2, 0));
+        Assert.assertNull(cache.tone(context, Waveform.SINE, 440, 1000, 0.5, 1));
+        Assert.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        int bytes = 8 * Generators.getSampleCount(context, 1000);
+        RenderCache cache = new RenderCache(2L * bytes);
+        cache.tone(context, Waveform.SINE, 100, 1000, 1, 0);
+        cache.tone(context, Waveform.SINE, 200, 1000, 1, 0);
+        cache.tone(context, Waveform.SINE, 100, 1000, 1, 0);   // 100 Гц становится последней использованной
+        cache.tone(context, Waveform.SINE, 300, 1000, 1, 0);   // вытесняет 200 Гц
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertEquals(2L * bytes, cache.getBytes());
+
+        cache.tone(context, Waveform.SINE, 100, 1000, 1, 0);
+        Assert.assertEquals(2, cache.getHits());
+        cache.tone(context, Waveform.SINE, 200, 1000, 1, 0);
+        Assert.assertEquals(4, cache.getMisses());
+    }
+}
@@ -0,0 +1,83 @@
+package ru.joysi.audio.processing.meters;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.joysi.audio.AudioContext;
+
+public class MetersTest {
+    private static final AudioContext CONTEXT = new AudioContext(48000);
+
+    private static double[] sine(double freq, double amplitude, double phase, int length) {
+        double[] res = new double[length];
+        for (int i = 0; i < length; i++)
+            res[i] = amplitude * Math.sin(2 * Math.PI * freq * i / 48000 + phase);
+        return res;
+    }
+
+    @Test
+    public void rmsAndTruePeakOfSine() {
+        double[] audio = sine(1000, 0.5, 0, 48000);
+        double[] block = new double[512];
+        RmsMeter rms = new RmsMeter(CONTEXT);
+        for (int pos = 0; pos < audio.length; pos += block.length) {
+            int n = Math.min(block.length, audio.length - pos);
+            System.arraycopy(audio, pos, block, 0, n);
+            rms.process(block, block, n);
+            Assert.assertEquals(audio[pos + n - 1], block[n - 1], 0);
+        }
+        Assert.assertEquals(0.5 / Math.sqrt(2), rms.getTotalRms(), 1e-6);
+        Assert.assertEquals(0.5 / Math.sqrt(2), rms.getRms(), 1e-6);
+        Assert.assertEquals(0.5 / Math.sqrt(2), rms.getMaxRms(), 1e-6);
+
+        // fs/4 со сдвигом pi/4: отсчеты +-0.707, истинный пик 1
+        TruePeakMeter peak = new TruePeakMeter();
+        peak.analyze(sine(12000, 1, Math.PI / 4, 4800), 0, 4800);
+        Assert.assertEquals(Math.sqrt(0.5), peak.getSamplePeak(), 1e-9);
+        Assert.assertEquals(0, peak.getTruePeakDBTP(), 0.2);
+    }
+
+    @Test
+    public void loudnessOfReferenceSine() {
+        // Синус 1 кГц с пиком 0.1 в одном канале: -20 - 3.01 = -23.01 LUFS
+        double[] audio = sine(1000, 0.1, 0, 48000 * 10);
+        LoudnessMeter mono = new LoudnessMeter(CONTEXT, 1);
+        mono.analyze(audio, 0, audio.length);
+        Assert.assertEquals(-23.01, mono.getIntegrated(), 0.05);
+        Assert.assertEquals(-23.01, mono.getMomentary(), 0.05);
+        Assert.assertEquals(-23.01, mono.getShortTerm(), 0.05);
+
+        // Тот же сигнал в двух каналах - на 3 дБ громче; тишина отсекается порогом
+        LoudnessMeter stereo = new LoudnessMeter(CONTEXT, 2);
+        double[][] silence = new double[2][audio.length];
+        stereo.analyze(silence, 0, audio.length);
+        stereo.analyze(new double[][]{audio, audio}, 0, audio.length);
+        // Блоки 400 мсек на границе тишины и тона проходят относительный порог и немного снижают результат
+        Assert.assertEquals(-20.0, stereo.getIntegrated(), 0.1);
+        Assert.assertEquals(-20.0, stereo.getMaxShortTerm(), 0.05);
+    }
+
+    @Test
+    public void mergedChunksMatchWholeSignal() {
+        double[] audio = new double[48000 * 20];
+        for (int i = 0; i < audio.length; i++)
+            audio[i] = (i < audio.length / 2 ? 0.05 : 0.3) * Math.sin(2 * Math.PI * 440 * i / 48000);
+        LoudnessMeter whole = new LoudnessMeter(CONTEXT, 1);
+        whole.analyze(audio, 0, audio.length);
+
+        LoudnessMeter first = new LoudnessMeter(CONTEXT, 1);
+        LoudnessMeter second = new LoudnessMeter(CONTEXT, 1);
+        int half = audio.length / 3;
+        first.analyze(audio, 0, half);
+        second.analyze(audio, half, audio.length - half);
+        first.merge(second);
+        Assert.assertEquals(whole.getIntegrated(), first.getIntegrated(), 0.05);
+        Assert.assertEquals(whole.getMaxMomentary(), first.getMaxMomentary(), 0.01);
+
+        TruePeakMeter a = new TruePeakMeter(), b = new TruePeakMeter();
+        a.analyze(audio, 0, half);
+        b.analyze(audio, half, audio.length - half);
+        a.merge(b);
+        Assert.assertEquals(0.3, a.getSamplePeak(), 1e-3);
+    }
+}
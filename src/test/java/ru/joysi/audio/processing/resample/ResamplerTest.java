@@ -0,0 +1,90 @@
+package ru.joysi.audio.processing.resample;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.processing.generators.Oscillator;
+import ru.joysi.audio.processing.generators.Waveform;
+
+import java.util.Random;
+
+public class ResamplerTest {
+    private static double[] sine(double freq, int rate, int length) {
+        double[] res = new double[length];
+        for (int i = 0; i < length; i++)
+            res[i] = 0.8 * Math.sin(2 * Math.PI * freq * i / rate);
+        return res;
+    }
+
+    @Test
+    public void sineKeepsPhaseAndLength() {
+        double[] in = sine(1000, 44100, 44100);
+        for (ResampleQuality quality : new ResampleQuality[]{ResampleQuality.MEDIUM, ResampleQuality.HIGH}) {
+            double[] out = Resampler.resample(in, 44100, 48000, quality);
+            Assert.assertEquals(48000, out.length);
+            double[] expected = sine(1000, 48000, 48000);
+            // Края (переходный процесс фильтра) не проверяются
+            for (int i = 200; i < out.length - 200; i++)
+                Assert.assertEquals(expected[i], out[i], 1e-4);
+        }
+        Assert.assertEquals(2001, Resampler.resample(new double[1000], 22050, 44101, ResampleQuality.LOW).length);
+    }
+
+    @Test
+    public void blockSplitDoesNotChangeResult() {
+        double[] in = new double[10000];
+        Random random = new Random(1);
+        for (int i = 0; i < in.length; i++)
+            in[i] = random.nextDouble() * 2 - 1;
+        double[] whole = Resampler.resample(in, 48000, 44100, ResampleQuality.MEDIUM);
+
+        Resampler resampler = new Resampler(48000, 44100, ResampleQuality.MEDIUM);
+        double[] out = new double[whole.length];
+        int pos = 0, produced = 0;
+        while (pos < in.length) {
+            int n = Math.min(1 + random.nextInt(700), in.length - pos);
+            produced += resampler.process(in, pos, n, out, produced);
+            pos += n;
+        }
+        produced += resampler.flush(out, produced);
+        Assert.assertEquals(whole.length, produced);
+        Assert.assertArrayEquals(whole, out, 0);
+    }
+
+    @Test
+    public void downsamplingRejectsAliases() {
+        // 15 кГц выше новой частоты Найквиста (11025 Гц) - должно быть подавлено
+        double[] out = Resampler.resample(sine(15000, 44100, 44100), 44100, 22050, ResampleQuality.MEDIUM);
+        double sum = 0;
+        for (int i = 1000; i < out.length - 1000; i++)
+            sum += out[i] * out[i];
+        Assert.assertTrue(Math.sqrt(sum / (out.length - 2000)) < 1e-4);
+    }
+
+    @Test
+    public void banksAreSharedPerRatio() {
+        Assert.assertSame(PolyphaseFilterBank.forRates(44100, 48000, ResampleQuality.HIGH),
+                PolyphaseFilterBank.forRates(88200, 96000, ResampleQuality.HIGH));
+        Assert.assertNotSame(PolyphaseFilterBank.forRates(44100, 48000, ResampleQuality.HIGH),
+                PolyphaseFilterBank.forRates(44100, 48000, ResampleQuality.LOW));
+    }
+
+    @Test
+    public void moduleConvertsSourceRate() {
+        AudioContext source = new AudioContext(22050).withBlockSize(300);
+        AudioContext target = new AudioContext(44100);
+        ResamplerModule module = new ResamplerModule(Oscillator.create(source, Waveform.SINE, 441, 0.5),
+                source, target, ResampleQuality.HIGH);
+        Oscillator reference = Oscillator.create(target, Waveform.SINE, 441, 0.5);
+        double[] out = new double[512];
+        double[] ref = new double[512];
+        for (int block = 0; block < 20; block++) {
+            module.process(null, out, out.length);
+            reference.render(ref, 0, ref.length);
+            if (block > 0)
+                for (int i = 0; i < out.length; i++)
+                    Assert.assertEquals(ref[i], out[i], 1e-3);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package ru.joysi.audio.processing.synth;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.joysi.audio.GlobalHelper;
+import ru.joysi.audio.processing.generators.Generators;
+import ru.joysi.audio.processing.generators.Waveform;
+
+public class PolySynthTest {
+    private static final int MS = GlobalHelper.samplePerSec / 1000;
+
+    @Test
+    public void noteNamesMapToMidi() {
+        Assert.assertEquals(69, Generators.getMidiNote("A4"));
+        Assert.assertEquals(60, Generators.getMidiNote("C4"));
+        Assert.assertEquals(Generators.notes.get("C4"), Generators.getNoteFrequency(60), 1e-9);
+    }
+
+    @Test
+    public void chordUsesOneVoicePerNote() throws Exception {
+        PolySynth synth = new PolySynth(8, Waveform.SINE, 5, 50, 0.5, 20);
+        synth.note(0, "C4", 100 * MS, 0.3);
+        synth.note(10, "E4", 100 * MS, 0.3);
+        synth.note(20, "G4", 100 * MS, 0.3);
+
+        double[] block = new double[256];
+        synth.process(null, block, block.length);
+        Assert.assertEquals(3, synth.getActiveVoices());
+        Assert.assertEquals(0, block[0], 0);
+        Assert.assertNotEquals(0, block[block.length - 1], 0);
+
+        for (int done = block.length; done < 200 * MS; done += block.length)
+            synth.process(null, block, block.length);
+        Assert.assertEquals(0, synth.getActiveVoices());
+        Assert.assertEquals(0, synth.getPendingEvents());
+    }
+
+    @Test
+    public void repeatedNoteRetriggersItsVoice() throws Exception {
+        PolySynth synth = new PolySynth(4, Waveform.SINE, 1, 10, 0.8, 50);
+        synth.note(0, "A4", 10, 0.5);
+        synth.noteOn(20, "A4", 0.5);
+        synth.process(null, new double[64], 64);
+        Assert.assertEquals(1, synth.getActiveVoices());
+    }
+
+    @Test
+    public void voicesAreStolenWhenPoolIsFull() throws Exception {
+        PolySynth synth = new PolySynth(2, Waveform.SAW, 1, 10, 0.8, 10);
+        synth.noteOn(0, "C4", 0.5);
+        synth.noteOn(1, "E4", 0.5);
+        synth.noteOn(2, "G4", 0.5);
+        synth.process(null, new double[64], 64);
+        Assert.assertEquals(2, synth.getActiveVoices());
+    }
+}
@@ -0,0 +1,110 @@
+package ru.joysi.audio.render;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ru.joysi.audio.AudioContext;
+import ru.joysi.audio.file.SampleFormat;
+import ru.joysi.audio.file.WavReader;
+import ru.joysi.audio.processing.generators.Generators;
+import ru.joysi.audio.processing.generators.Oscillator;
+import ru.joysi.audio.processing.generators.Waveform;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchRendererTest {
+    private static final AudioContext CONTEXT = new AudioContext(22050);
+
+    @Test
+    public void rendersStreamingAndArrayJobs() throws Exception {
+        Path dir = Files.createTempDirectory("batch");
+        List<RenderJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            double freq = 200 + 10 * i;
+            jobs.add(new RenderJob("osc" + i, dir.resolve("osc" + i + ".wav"), SampleFormat.PCM_24, 2, 10000 + i,
+                    false, (context, channel) -> Oscillator.create(context, Waveform.SINE, freq, 0.5)));
+            // 500 мсек при 22050 Гц - 11025 отсчетов
+            jobs.add(new RenderJob("gen" + i, dir.resolve("gen" + i + ".wav"), SampleFormat.PCM_16, 1, 11025,
+                    context -> new double[][]{Generators.sineGenerator(context, freq, 500, 0.5, 0)}));
+        }
+        List<RenderResult> results;
+        try (BatchRenderer renderer = new BatchRenderer(CONTEXT, 3, 1 << 20)) {
+            results = renderer.renderAll(jobs);
+        }
+        Assert.assertEquals(jobs.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            RenderResult result = results.get(i);
+            Assert.assertTrue(result.toString(), result.isSuccess());
+            Assert.assertSame(jobs.get(i), result.getJob());
+            Assert.assertEquals(jobs.get(i).getFrames(), result.getFramesWritten());
+            try (WavReader reader = new WavReader(result.getOutput())) {
+                Assert.assertEquals(jobs.get(i).getFrames(), reader.getFrameCount());
+                Assert.assertEquals(22050, reader.getSampleRate());
+                Assert.assertEquals(jobs.get(i).getNumChannels(), reader.getNumChannels());
+                if (i % 2 == 1)
+                    Assert.assertEquals(0.5 * Math.sin(2 * Math.PI * (200 + 10 * (i / 2)) / 22050),
+                            reader.getChannel(0).get(1), 1e-4);
+            }
+            Files.delete(result.getOutput());
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void failureIsReportedPerJob() throws Exception {
+        Path ok = Files.createTempFile("ok", ".wav");
+        Path failed = Files.createTempFile("failed", ".wav");
+        try (BatchRenderer renderer = new BatchRenderer(CONTEXT, 2, 1 << 20)) {
+            RenderResult bad = renderer.submit(new RenderJob("bad", failed, 1000, (context, channel) -> {
+                throw new IOException("broken source");
+            })).join();
+            RenderResult good = renderer.submit(new RenderJob("good", ok, 1000,
+                    (context, channel) -> Oscillator.create(context, Waveform.RECTANGLE, 440, 0.3))).join();
+            Assert.assertFalse(bad.isSuccess());
+            Assert.assertEquals("broken source", bad.getError().getMessage());
+            Assert.assertFalse(Files.exists(failed));
+
+            // Длина массивов источника не совпадает с заявленной - задание отклоняется
+            Files.createFile(failed);
+            RenderResult wrongLength = renderer.submit(new RenderJob("short", failed, SampleFormat.PCM_16, 1, 1000,
+                    context -> new double[][]{new double[999]})).join();
+            Assert.assertFalse(wrongLength.isSuccess());
+            Assert.assertTrue(wrongLength.getError() instanceof IllegalStateException);
+            Assert.assertFalse(Files.exists(failed));
+            Assert.assertTrue(good.isSuccess());
+            Assert.assertEquals(1000, good.getFramesWritten());
+            Assert.assertTrue(good.getRenderNanos() > 0);
+        }
+        Files.delete(ok);
+    }
+
+    @Test
+    public void memoryLimitBoundsJobsInFlight() throws Exception {
+        // Каждое задание (8 * 10000 байт) занимает больше половины лимита - одновременно выполняется одно
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        Path dir = Files.createTempDirectory("batch");
+        List<RenderJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 8; i++)
+            jobs.add(new RenderJob("job" + i, dir.resolve(i + ".wav"), SampleFormat.FLOAT_32, 1, 10000, context -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                active.decrementAndGet();
+                return new double[][]{new double[10000]};
+            }));
+        try (BatchRenderer renderer = new BatchRenderer(CONTEXT, 4, 120 * 1024)) {
+            for (RenderResult result : renderer.renderAll(jobs)) {
+                Assert.assertTrue(result.isSuccess());
+                Files.delete(result.getOutput());
+            }
+            Assert.assertEquals(0, renderer.getInFlightBytes());
+        }
+        Assert.assertEquals(1, maxActive.get());
+        Files.delete(dir);
+    }
+}